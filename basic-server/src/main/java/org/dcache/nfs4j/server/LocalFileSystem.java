@@ -2,11 +2,14 @@ package org.dcache.nfs4j.server;
 
 import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileStore;
@@ -16,7 +19,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
-import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.DosFileAttributeView;
@@ -27,8 +29,9 @@ import java.nio.file.attribute.PosixFileAttributeView;
 import java.nio.file.attribute.UserPrincipal;
 import java.nio.file.attribute.UserPrincipalLookupService;
 import java.security.Principal;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
 import java.util.UUID;
 
 import javax.security.auth.Subject;
@@ -51,6 +54,8 @@ import org.dcache.nfs.v4.xdr.nfsace4;
 import org.dcache.nfs.vfs.AclCheckable;
 import org.dcache.nfs.vfs.DirectoryEntry;
 import org.dcache.nfs.vfs.DirectoryStream;
+import org.dcache.nfs.vfs.FileChannelCache;
+import org.dcache.nfs.vfs.FileRegion;
 import org.dcache.nfs.vfs.FsStat;
 import org.dcache.nfs.vfs.Inode;
 import org.dcache.nfs.vfs.Stat;
@@ -59,6 +64,7 @@ import org.dcache.nfs.vfs.VirtualFileSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.AbstractIterator;
 import com.google.common.primitives.Longs;
 import com.sun.security.auth.UnixNumericGroupPrincipal;
 import com.sun.security.auth.UnixNumericUserPrincipal;
@@ -76,6 +82,7 @@ public class LocalFileSystem implements VirtualFileSystem {
     private final NonBlockingHashMap<Path, Inode> pathToInode = new NonBlockingHashMap<>();
     private final Inode rootInode;
     private final NfsIdMapping _idMapper = new SimpleIdMap();
+    private final FileChannelCache _channelCache = new FileChannelCache(1024, Duration.ofSeconds(30));
     private final UserPrincipalLookupService _lookupService =
             FileSystems.getDefault().getUserPrincipalLookupService();
 
@@ -281,24 +288,7 @@ public class LocalFileSystem implements VirtualFileSystem {
     @Override
     public DirectoryStream list(Inode inode, byte[] bytes, long l) throws IOException {
         Path path = resolveInode(inode);
-        final List<DirectoryEntry> list = new ArrayList<>();
-        try (java.nio.file.DirectoryStream<Path> ds = Files.newDirectoryStream(path)) {
-            int cookie = 2; // first allowed cookie
-            for (Path p : ds) {
-                cookie++;
-                if (cookie > l) {
-                    Inode ino;
-                    try {
-                        ino = resolvePath(p);
-                    } catch (NoEntException e) {
-                        // File was briefly available, but deleted before we could allocate an inode
-                        continue;
-                    }
-                    list.add(new DirectoryEntry(p.getFileName().toString(), ino, statPath(p, ino), cookie));
-                }
-            }
-        }
-        return new DirectoryStream(list);
+        return new DirectoryStream(DirectoryStream.ZERO_VERIFIER, c -> new DirectoryIterator(path, c)).tail(l);
     }
 
     @Override
@@ -380,6 +370,12 @@ public class LocalFileSystem implements VirtualFileSystem {
         } catch (FileAlreadyExistsException e) {
             throw new ExistException("path " + newPath);
         }
+        _channelCache.invalidate(targetInodeNumber);
+        Inode replacedInode = pathToInode.get(newPath);
+        if (replacedInode != null) {
+            // the file which was replaced by the move is gone
+            _channelCache.invalidate(replacedInode);
+        }
         remap(targetInodeNumber, currentPath, newPath);
         return true;
     }
@@ -399,8 +395,24 @@ public class LocalFileSystem implements VirtualFileSystem {
     public int read(Inode inode, byte[] data, long offset, int count) throws IOException {
         Path path = resolveInode(inode);
         ByteBuffer destBuffer = ByteBuffer.wrap(data, 0, count);
-        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
-            return channel.read(destBuffer, offset);
+        try (FileChannelCache.Lease lease = _channelCache.acquire(inode, path, false)) {
+            return lease.channel().read(destBuffer, offset);
+        }
+    }
+
+    @Override
+    public Optional<FileRegion> readRegion(Inode inode, long offset, int count) throws IOException {
+        Path path = resolveInode(inode);
+        FileChannelCache.Lease lease = _channelCache.acquire(inode, path, false);
+        try {
+            FileChannel channel = lease.channel();
+            long size = channel.size();
+            int available = (int) Math.max(0, Math.min(count, size - offset));
+            // the channel is shared, thus region returns the lease, but keeps the channel open
+            return Optional.of(new FileRegion(channel, offset, available, offset + available >= size, lease));
+        } catch (IOException e) {
+            lease.close();
+            throw e;
         }
     }
 
@@ -420,6 +432,7 @@ public class LocalFileSystem implements VirtualFileSystem {
         } catch (DirectoryNotEmptyException e) {
             throw new NotEmptyException("dir " + targetPath + " is note empty", e);
         }
+        _channelCache.invalidate(targetInodeNumber);
         unmap(targetInodeNumber, targetPath);
     }
 
@@ -456,8 +469,8 @@ public class LocalFileSystem implements VirtualFileSystem {
             throws IOException {
         Path path = resolveInode(inode);
         ByteBuffer srcBuffer = ByteBuffer.wrap(data, 0, count);
-        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
-            int bytesWritten = channel.write(srcBuffer, offset);
+        try (FileChannelCache.Lease lease = _channelCache.acquire(inode, path, true)) {
+            int bytesWritten = lease.channel().write(srcBuffer, offset);
             return new WriteResult(StabilityLevel.FILE_SYNC, bytesWritten);
         }
     }
@@ -643,4 +656,58 @@ public class LocalFileSystem implements VirtualFileSystem {
         return true;
     }
 
+
+    /**
+     * Lazily reads a directory. Entries with cookies not greater than {@code fromCookie} are skipped without being
+     * resolved, thus only the requested page is stat'ed.
+     */
+    private class DirectoryIterator extends AbstractIterator<DirectoryEntry> implements Closeable {
+
+        private final java.nio.file.DirectoryStream<Path> ds;
+        private final Iterator<Path> paths;
+        private final long fromCookie;
+        private long cookie = 2; // first allowed cookie - 1
+
+        DirectoryIterator(Path dir, long fromCookie) {
+            try {
+                ds = Files.newDirectoryStream(dir);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            paths = ds.iterator();
+            this.fromCookie = fromCookie;
+        }
+
+        @Override
+        protected DirectoryEntry computeNext() {
+            try {
+                while (paths.hasNext()) {
+                    Path p = paths.next();
+                    cookie++;
+                    if (cookie <= fromCookie) {
+                        continue;
+                    }
+
+                    Inode ino;
+                    try {
+                        ino = resolvePath(p);
+                    } catch (NoEntException e) {
+                        // File was briefly available, but deleted before we could allocate an inode
+                        continue;
+                    }
+                    return new DirectoryEntry(p.getFileName().toString(), ino, statPath(p, ino), cookie);
+                }
+            } catch (DirectoryIteratorException e) {
+                throw new UncheckedIOException(e.getCause());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return endOfData();
+        }
+
+        @Override
+        public void close() throws IOException {
+            ds.close();
+        }
+    }
 }
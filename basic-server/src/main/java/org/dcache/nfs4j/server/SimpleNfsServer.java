@@ -9,12 +9,18 @@ import java.nio.file.Path;
 import java.util.stream.Collectors;
 
 import org.dcache.nfs.ExportFile;
+import org.dcache.nfs.metrics.JmxMetricsExporter;
+import org.dcache.nfs.metrics.NfsMetrics;
+import org.dcache.nfs.qos.FairRpcScheduler;
+import org.dcache.nfs.qos.OverloadReplies;
+import org.dcache.nfs.util.ByteBufferPool;
 import org.dcache.nfs.v3.MountServer;
 import org.dcache.nfs.v3.NfsServerV3;
 import org.dcache.nfs.v3.xdr.mount_prot;
 import org.dcache.nfs.v3.xdr.nfs3_prot;
 import org.dcache.nfs.v4.MDSOperationExecutor;
 import org.dcache.nfs.v4.NFSServerV41;
+import org.dcache.nfs.v4.NFSv4Defaults;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.dcache.nfs.vfs.VirtualFileSystem;
 import org.dcache.oncrpc4j.rpc.OncRpcProgram;
@@ -22,7 +28,26 @@ import org.dcache.oncrpc4j.rpc.OncRpcSvc;
 import org.dcache.oncrpc4j.rpc.OncRpcSvcBuilder;
 
 public class SimpleNfsServer implements Closeable {
+
+    /**
+     * Maximal amount of memory kept by idle READ buffers.
+     */
+    private static final long READ_BUFFER_POOL_SIZE = 256 * 1024 * 1024;
+
+    /**
+     * Number of threads processing NFS requests.
+     */
+    private static final int NFS_WORKERS = 64;
+
+    /**
+     * Maximal number of clients to keep per client statistics for.
+     */
+    private static final int MAX_TRACKED_CLIENTS = 1024;
+
     private final OncRpcSvc nfsSvc;
+    private final FairRpcScheduler scheduler;
+    private final NfsMetrics metrics;
+    private final NFSServerV41 nfs4;
     private final Path root;
     private final int port;
     private final String name;
@@ -32,9 +57,9 @@ public class SimpleNfsServer implements Closeable {
     }
 
     public SimpleNfsServer(int nfsVers, int port, Path root, ExportFile exportFile, String name) {
+        NFSServerV41 nfs4 = null;
         try {
             NfsServerV3 nfs3 = null;
-            NFSServerV41 nfs4 = null;
             boolean startNfsV3 = ((nfsVers == 0) || (nfsVers == 3));
             boolean startNfsV4 = ((nfsVers == 0) || (nfsVers == 4));
 
@@ -65,39 +90,54 @@ public class SimpleNfsServer implements Closeable {
                     .withServiceName(this.name)
                     .build();
 
+            metrics = new NfsMetrics(MAX_TRACKED_CLIENTS);
+            metrics.addExporter(new JmxMetricsExporter());
+
             if (startNfsV4) {
                 nfs4 = new NFSServerV41.Builder()
                         .withVfs(vfs)
                         .withOperationExecutor(new MDSOperationExecutor())
                         .withExportTable(exportFile)
+                        .withBufferPool(
+                                new ByteBufferPool((int) NFSv4Defaults.NFS4_MAXIOBUFFERSIZE, READ_BUFFER_POOL_SIZE))
+                        .withMetrics(metrics)
                         .build();
             }
 
             if (startNfsV3) {
-                nfs3 = new NfsServerV3(exportFile, vfs);
+                nfs3 = new NfsServerV3(exportFile, vfs, metrics);
             }
 
             MountServer mountd = new MountServer(exportFile, vfs);
+            scheduler = new FairRpcScheduler(NFS_WORKERS);
 
             if (startNfsV3) {
                 nfsSvc.register(new OncRpcProgram(mount_prot.MOUNT_PROGRAM, mount_prot.MOUNT_V3), mountd);
                 nfsSvc.register(new OncRpcProgram(mount_prot.MOUNT_PROGRAM, mount_prot.MOUNT_V1), mountd);
-                nfsSvc.register(new OncRpcProgram(nfs3_prot.NFS_PROGRAM, nfs3_prot.NFS_V3), nfs3);
+                nfsSvc.register(new OncRpcProgram(nfs3_prot.NFS_PROGRAM, nfs3_prot.NFS_V3),
+                        scheduler.schedule(nfs3, OverloadReplies.nfs3Jukebox()));
             }
 
             if (startNfsV4) {
-                nfsSvc.register(new OncRpcProgram(nfs4_prot.NFS4_PROGRAM, nfs4_prot.NFS_V4), nfs4);
+                nfsSvc.register(new OncRpcProgram(nfs4_prot.NFS4_PROGRAM, nfs4_prot.NFS_V4),
+                        scheduler.schedule(nfs4, OverloadReplies.nfs4Delay()));
             }
 
             nfsSvc.start();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
+        this.nfs4 = nfs4;
     }
 
     @Override
     public void close() throws IOException {
         nfsSvc.stop();
+        scheduler.shutdown();
+        metrics.shutdown();
+        if (nfs4 != null) {
+            nfs4.shutdown();
+        }
     }
 
     public Path getRoot() {
@@ -2,13 +2,17 @@ package org.dcache.nfs.benchmarks;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import org.dcache.nfs.util.Cache;
+import org.dcache.nfs.util.ExpiringCache;
 import org.dcache.nfs.util.NopCacheEventListener;
+import org.dcache.nfs.util.ShardedCache;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -26,17 +30,31 @@ public class CacheBenchmark {
     @State(Scope.Benchmark)
     public static class CacheHolder {
 
-        private Cache<String, String> cache;
+        @Param({"simple", "sharded"})
+        private String type;
+
+        private ExpiringCache<String, String> cache;
 
         @Setup
         public void setUp() {
-            cache = new Cache<>("test cache", 64, Duration.ofSeconds(Long.MAX_VALUE),
-                    Duration.ofSeconds(Long.MAX_VALUE),
-                    new NopCacheEventListener());
+            switch (type) {
+                case "simple":
+                    cache = new Cache<>("test cache", 1024, Duration.ofSeconds(Long.MAX_VALUE),
+                            Duration.ofSeconds(Long.MAX_VALUE),
+                            new NopCacheEventListener());
+                    break;
+                case "sharded":
+                    cache = new ShardedCache<>("test sharded cache", 1024, Duration.ofSeconds(Long.MAX_VALUE),
+                            Duration.ofSeconds(Long.MAX_VALUE),
+                            new NopCacheEventListener());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown cache type: " + type);
+            }
             cache.put("foo", "bar");
         }
 
-        public Cache<String, String> getCache() {
+        public ExpiringCache<String, String> getCache() {
             return cache;
         }
     }
@@ -65,12 +83,43 @@ public class CacheBenchmark {
         return cache.get("foo");
     }
 
+    /*
+     * Per thread key to avoid contention on a single entry.
+     */
+    @State(Scope.Thread)
+    public static class KeyHolder {
+
+        private String key;
+
+        @Setup
+        public void setUp() {
+            key = "key-" + ThreadLocalRandom.current().nextLong();
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public String cachePutGetRemoveDistinctKeysBenchmark(CacheHolder cacheHolder, KeyHolder keyHolder) {
+
+        final var cache = cacheHolder.getCache();
+        cache.put(keyHolder.key, "val");
+        String val = cache.get(keyHolder.key);
+        cache.remove(keyHolder.key);
+        return val;
+    }
+
     public static void main(String[] args) throws RunnerException {
-        Options opt = new OptionsBuilder()
-                .include(CacheBenchmark.class.getSimpleName())
-                .resultFormat(ResultFormatType.JSON)
-                .build();
+        // the thread count in annotations is a default, check how the implementations scale with more threads
+        for (int threads : new int[] {16, 32, 64}) {
+            Options opt = new OptionsBuilder()
+                    .include(CacheBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .result("cache-benchmark-" + threads + ".json")
+                    .resultFormat(ResultFormatType.JSON)
+                    .build();
 
-        new Runner(opt).run();
+            new Runner(opt).run();
+        }
     }
 }
@@ -0,0 +1,110 @@
+package org.dcache.nfs.benchmarks;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.dcache.nfs.util.NopCacheEventListener;
+import org.dcache.nfs.v4.DefaultClientCache;
+import org.dcache.nfs.v4.EphemeralClientRecoveryStore;
+import org.dcache.nfs.v4.NFS4Client;
+import org.dcache.nfs.v4.NFSv4Defaults;
+import org.dcache.nfs.v4.NFSv4StateHandler;
+import org.dcache.nfs.v4.xdr.seqid4;
+import org.dcache.nfs.v4.xdr.stateid4;
+import org.dcache.nfs.v4.xdr.verifier4;
+import org.dcache.oncrpc4j.util.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures client lookups by client id, stateid and owner id with different number of active clients.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Threads(16)
+public class ClientLookupBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class StateHandlerHolder {
+
+        @Param({"1000", "10000", "100000"})
+        private int clientCount;
+
+        private NFSv4StateHandler stateHandler;
+        private NFS4Client[] clients;
+        private stateid4[] stateids;
+
+        @Setup
+        public void setUp() throws Exception {
+
+            Duration leaseTime = Duration.ofSeconds(NFSv4Defaults.NFS4_LEASE_TIME);
+            stateHandler = new NFSv4StateHandler(leaseTime, 0, new EphemeralClientRecoveryStore(),
+                    new DefaultClientCache(leaseTime, clientCount, new NopCacheEventListener<>()));
+
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getByName(null), 123);
+            clients = new NFS4Client[clientCount];
+            stateids = new stateid4[clientCount];
+            for (int i = 0; i < clientCount; i++) {
+                byte[] owner = new byte[16];
+                byte[] bootTime = new byte[8];
+                ThreadLocalRandom.current().nextBytes(owner);
+                Bytes.putLong(bootTime, 0, System.currentTimeMillis());
+                clients[i] = stateHandler.createClient(address, address, 1, owner, new verifier4(bootTime), null,
+                        false);
+                stateids[i] = clients[i].createOpenState(clients[i].getOrCreateOwner(owner, new seqid4(0)))
+                        .stateid();
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            stateHandler.shutdown();
+        }
+
+        int randomIndex() {
+            return ThreadLocalRandom.current().nextInt(clientCount);
+        }
+    }
+
+    @Benchmark
+    public NFS4Client getClientById(StateHandlerHolder holder) throws Exception {
+        return holder.stateHandler.getClient(holder.clients[holder.randomIndex()].getId());
+    }
+
+    @Benchmark
+    public NFS4Client getClientByStateId(StateHandlerHolder holder) throws Exception {
+        return holder.stateHandler.getClientIdByStateId(holder.stateids[holder.randomIndex()]);
+    }
+
+    @Benchmark
+    public NFS4Client getClientByOwner(StateHandlerHolder holder) {
+        return holder.stateHandler.clientByOwner(holder.clients[holder.randomIndex()].getOwnerId());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ClientLookupBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
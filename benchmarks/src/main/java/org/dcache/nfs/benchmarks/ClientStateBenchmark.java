@@ -0,0 +1,121 @@
+package org.dcache.nfs.benchmarks;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.dcache.nfs.util.NopCacheEventListener;
+import org.dcache.nfs.v4.DefaultClientCache;
+import org.dcache.nfs.v4.EphemeralClientRecoveryStore;
+import org.dcache.nfs.v4.NFS4Client;
+import org.dcache.nfs.v4.NFS4State;
+import org.dcache.nfs.v4.NFSv41Session;
+import org.dcache.nfs.v4.NFSv4Defaults;
+import org.dcache.nfs.v4.NFSv4StateHandler;
+import org.dcache.nfs.v4.StateOwner;
+import org.dcache.nfs.v4.xdr.seqid4;
+import org.dcache.nfs.v4.xdr.sessionid4;
+import org.dcache.nfs.v4.xdr.verifier4;
+import org.dcache.oncrpc4j.util.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures concurrent SEQUENCE and OPEN processing of a single client with multiple sessions, like many hosts behind a
+ * NAT sharing one client id.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class ClientStateBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ClientHolder {
+
+        @Param({"1", "16"})
+        private int sessionCount;
+
+        private NFSv4StateHandler stateHandler;
+        private NFS4Client client;
+        private sessionid4[] sessions;
+
+        @Setup
+        public void setUp() throws Exception {
+
+            Duration leaseTime = Duration.ofSeconds(NFSv4Defaults.NFS4_LEASE_TIME);
+            stateHandler = new NFSv4StateHandler(leaseTime, 0, new EphemeralClientRecoveryStore(),
+                    new DefaultClientCache(leaseTime, new NopCacheEventListener<>()));
+
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getByName(null), 123);
+            byte[] owner = new byte[16];
+            byte[] bootTime = new byte[8];
+            ThreadLocalRandom.current().nextBytes(owner);
+            Bytes.putLong(bootTime, 0, System.currentTimeMillis());
+            client = stateHandler.createClient(address, address, 1, owner, new verifier4(bootTime), null, false);
+
+            sessions = new sessionid4[sessionCount];
+            for (int i = 0; i < sessionCount; i++) {
+                NFSv41Session session = client.createSession(i + 1, 16, 16, 16, 16);
+                sessions[i] = session.id();
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            stateHandler.shutdown();
+        }
+
+        sessionid4 randomSession() {
+            return sessions[ThreadLocalRandom.current().nextInt(sessionCount)];
+        }
+    }
+
+    @Benchmark
+    @Group("sequenceOpen")
+    @GroupThreads(8)
+    public NFSv41Session sequence(ClientHolder holder) throws Exception {
+        NFSv41Session session = holder.client.getSession(holder.randomSession());
+        holder.client.updateLeaseTime();
+        return session;
+    }
+
+    @Benchmark
+    @Group("sequenceOpen")
+    @GroupThreads(8)
+    public NFS4State open(ClientHolder holder) throws Exception {
+        byte[] owner = new byte[8];
+        Bytes.putLong(owner, 0, Thread.currentThread().getId());
+
+        holder.client.getSession(holder.randomSession());
+        StateOwner stateOwner = holder.client.getOrCreateOwner(owner, new seqid4(0));
+        NFS4State state = holder.client.createOpenState(stateOwner);
+        holder.client.releaseState(state.stateid());
+        return state;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ClientStateBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -71,6 +71,56 @@ public class ConcurrentLockManagerBenchmark {
         return lock;
     }
 
+    /*
+     * A file with many byte-range locks of different owners, like MPI-IO or databases create.
+     */
+    @State(Scope.Thread)
+    public static class LockedFileHolder {
+
+        @Param({"1", "1000", "10000"})
+        private int locksPerFile;
+
+        private LockManager lm;
+        private Opaque file;
+        private NlmLock lock;
+
+        @Setup
+        public void setUp() throws LockException {
+            lm = new SimpleLm();
+            file = Opaque.forBytes("file".getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < locksPerFile; i++) {
+                NlmLock l = new LockBuilder()
+                        .withOwner("owner" + i)
+                        .from(i * 100L)
+                        .length(50)
+                        .forWrite()
+                        .build();
+                lm.lock(file, l);
+            }
+
+            // a free gap in the middle of the file
+            lock = new LockBuilder()
+                    .withOwner("owner")
+                    .from(locksPerFile * 50L + 60)
+                    .length(10)
+                    .forWrite()
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public NlmLock benchmarkLockUnlockWithManyLocks(LockedFileHolder lfh) throws LockException {
+        lfh.lm.lock(lfh.file, lfh.lock);
+        lfh.lm.unlock(lfh.file, lfh.lock);
+        return lfh.lock;
+    }
+
+    @Benchmark
+    public NlmLock benchmarkTestWithManyLocks(LockedFileHolder lfh) throws LockException {
+        lfh.lm.test(lfh.file, lfh.lock);
+        return lfh.lock;
+    }
+
     public static class LockBuilder {
 
         private long offset;
@@ -0,0 +1,141 @@
+package org.dcache.nfs.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.dcache.nfs.benchmarks.ConcurrentLockManagerBenchmark.LockBuilder;
+import org.dcache.nfs.util.Opaque;
+import org.dcache.nfs.v4.nlm.AtomicDistributedLockManager;
+import org.dcache.nfs.v4.nlm.DistributedLockManager;
+import org.dcache.nfs.v4.nlm.LockException;
+import org.dcache.nfs.v4.nlm.LockManager;
+import org.dcache.nfs.v4.nlm.NlmLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+/**
+ * Compares {@link DistributedLockManager} and {@link AtomicDistributedLockManager} running against an embedded
+ * Hazelcast member.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Threads(4)
+public class DistributedLockManagerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class LockManagerHolder {
+
+        @Param({"multimap", "entry-processor"})
+        private String implementation;
+
+        @Param({"0", "100"})
+        private int locksPerFile;
+
+        private HazelcastInstance hz;
+        private LockManager lm;
+
+        @Setup
+        public void setUp() {
+            Config config = new Config();
+            config.setClusterName("nfs-dlm-benchmark");
+            config.setProperty("hazelcast.phone.home.enabled", "false");
+            config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+            config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(false);
+            config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+            hz = Hazelcast.newHazelcastInstance(config);
+
+            switch (implementation) {
+                case "multimap":
+                    lm = new DistributedLockManager(hz, "byte-range-lock");
+                    break;
+                case "entry-processor":
+                    lm = new AtomicDistributedLockManager(hz, "byte-range-lock");
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown implementation: " + implementation);
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            hz.shutdown();
+        }
+    }
+
+    /*
+     * File with pre-existing locks. One per thread.
+     */
+    @State(Scope.Thread)
+    public static class FileHolder {
+
+        private Opaque file;
+        private NlmLock lock;
+
+        @Setup(Level.Trial)
+        public void setUp(LockManagerHolder lmh) throws LockException {
+            byte[] bytes = new byte[16];
+            ThreadLocalRandom.current().nextBytes(bytes);
+            file = Opaque.forBytes(bytes);
+
+            for (int i = 0; i < lmh.locksPerFile; i++) {
+                NlmLock l = new LockBuilder()
+                        .withOwner("owner" + i)
+                        .from(i * 100L)
+                        .length(50)
+                        .forRead()
+                        .build();
+                lmh.lm.lock(file, l);
+            }
+
+            lock = new LockBuilder()
+                    .withOwner("owner")
+                    .from(lmh.locksPerFile * 100L)
+                    .length(10)
+                    .forWrite()
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public NlmLock benchmarkLockUnlock(LockManagerHolder lmh, FileHolder fh) throws LockException {
+        lmh.lm.lock(fh.file, fh.lock);
+        lmh.lm.unlock(fh.file, fh.lock);
+        return fh.lock;
+    }
+
+    @Benchmark
+    public NlmLock benchmarkTest(LockManagerHolder lmh, FileHolder fh) throws LockException {
+        lmh.lm.test(fh.file, fh.lock);
+        return fh.lock;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(DistributedLockManagerBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
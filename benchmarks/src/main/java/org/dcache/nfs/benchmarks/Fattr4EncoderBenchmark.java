@@ -0,0 +1,219 @@
+package org.dcache.nfs.benchmarks;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.dcache.nfs.v4.Fattr4Encoder;
+import org.dcache.nfs.v4.NfsIdMapping;
+import org.dcache.nfs.v4.SimpleIdMap;
+import org.dcache.nfs.v4.xdr.attrlist4;
+import org.dcache.nfs.v4.xdr.bitmap4;
+import org.dcache.nfs.v4.xdr.fattr4;
+import org.dcache.nfs.v4.xdr.fattr4_change;
+import org.dcache.nfs.v4.xdr.fattr4_fileid;
+import org.dcache.nfs.v4.xdr.fattr4_fsid;
+import org.dcache.nfs.v4.xdr.fattr4_mode;
+import org.dcache.nfs.v4.xdr.fattr4_mounted_on_fileid;
+import org.dcache.nfs.v4.xdr.fattr4_numlinks;
+import org.dcache.nfs.v4.xdr.fattr4_owner;
+import org.dcache.nfs.v4.xdr.fattr4_owner_group;
+import org.dcache.nfs.v4.xdr.fattr4_rawdev;
+import org.dcache.nfs.v4.xdr.fattr4_size;
+import org.dcache.nfs.v4.xdr.fattr4_space_used;
+import org.dcache.nfs.v4.xdr.fattr4_time_access;
+import org.dcache.nfs.v4.xdr.fattr4_time_metadata;
+import org.dcache.nfs.v4.xdr.fattr4_time_modify;
+import org.dcache.nfs.v4.xdr.fattr4_type;
+import org.dcache.nfs.v4.xdr.fsid4;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.v4.xdr.nfs_ftype4;
+import org.dcache.nfs.v4.xdr.specdata4;
+import org.dcache.nfs.v4.xdr.uint64_t;
+import org.dcache.nfs.v4.xdr.utf8str_mixed;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.oncrpc4j.xdr.Xdr;
+import org.dcache.oncrpc4j.xdr.XdrAble;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares encoding of file attributes with intermediate {@code fattr4_*} objects and direct encoding by
+ * {@link Fattr4Encoder}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Threads(4)
+public class Fattr4EncoderBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class AttributesHolder {
+
+        // bitmap requested by linux client on GETATTR after OPEN or WRITE
+        private final bitmap4 getattrBitmap = bitmap4.of(
+                nfs4_prot.FATTR4_TYPE,
+                nfs4_prot.FATTR4_CHANGE,
+                nfs4_prot.FATTR4_SIZE,
+                nfs4_prot.FATTR4_FSID,
+                nfs4_prot.FATTR4_FILEID,
+                nfs4_prot.FATTR4_MODE,
+                nfs4_prot.FATTR4_NUMLINKS,
+                nfs4_prot.FATTR4_OWNER,
+                nfs4_prot.FATTR4_OWNER_GROUP,
+                nfs4_prot.FATTR4_RAWDEV,
+                nfs4_prot.FATTR4_SPACE_USED,
+                nfs4_prot.FATTR4_TIME_ACCESS,
+                nfs4_prot.FATTR4_TIME_METADATA,
+                nfs4_prot.FATTR4_TIME_MODIFY,
+                nfs4_prot.FATTR4_MOUNTED_ON_FILEID);
+
+        // bitmap requested by linux client to revalidate cached attributes
+        private final bitmap4 revalidateBitmap = bitmap4.of(
+                nfs4_prot.FATTR4_CHANGE,
+                nfs4_prot.FATTR4_SIZE,
+                nfs4_prot.FATTR4_TIME_METADATA,
+                nfs4_prot.FATTR4_TIME_MODIFY);
+
+        private final NfsIdMapping idMapping = new SimpleIdMap();
+        private final Inode inode = Inode.forFile(new byte[] {0, 1, 2, 3, 4, 5, 6, 7});
+        private Stat stat;
+
+        @Setup
+        public void setUp() {
+            stat = new Stat();
+            stat.setMode(Stat.S_IFREG | 0644);
+            stat.setIno(17);
+            stat.setNlink(1);
+            stat.setUid(1000);
+            stat.setGid(1000);
+            stat.setRdev(0);
+            stat.setSize(1024 * 1024);
+            stat.setGeneration(1);
+            stat.setATime(System.currentTimeMillis());
+            stat.setMTime(System.currentTimeMillis());
+            stat.setCTime(System.currentTimeMillis());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EncoderHolder {
+        private final Fattr4Encoder encoder = new Fattr4Encoder();
+    }
+
+    @Benchmark
+    public fattr4 getattrWithXdrObjects(AttributesHolder holder) throws IOException {
+        return encodeWithXdrObjects(holder.getattrBitmap, holder);
+    }
+
+    @Benchmark
+    public fattr4 getattrWithEncoder(AttributesHolder holder, EncoderHolder encoder) throws IOException {
+        return encoder.encoder.encode(holder.getattrBitmap, holder.inode, holder.stat, holder.idMapping,
+                i -> Optional.empty());
+    }
+
+    @Benchmark
+    public fattr4 revalidateWithXdrObjects(AttributesHolder holder) throws IOException {
+        return encodeWithXdrObjects(holder.revalidateBitmap, holder);
+    }
+
+    @Benchmark
+    public fattr4 revalidateWithEncoder(AttributesHolder holder, EncoderHolder encoder) throws IOException {
+        return encoder.encoder.encode(holder.revalidateBitmap, holder.inode, holder.stat, holder.idMapping,
+                i -> Optional.empty());
+    }
+
+    /*
+     * Encoding as done by OperationGETATTR before introduction of Fattr4Encoder.
+     */
+    private static fattr4 encodeWithXdrObjects(bitmap4 bitmap, AttributesHolder holder) throws IOException {
+
+        bitmap4 processedAttributes = new bitmap4(new int[0]);
+        byte[] retBytes;
+        try (Xdr xdr = new Xdr(1024)) {
+            xdr.beginEncoding();
+            for (int i : bitmap) {
+                Optional<? extends XdrAble> optionalAttr = toXdr(i, holder);
+                if (optionalAttr.isPresent()) {
+                    optionalAttr.get().xdrEncode(xdr);
+                    processedAttributes.set(i);
+                }
+            }
+            xdr.endEncoding();
+            retBytes = xdr.getBytes();
+        }
+
+        fattr4 attributes = new fattr4();
+        attributes.attrmask = processedAttributes;
+        attributes.attr_vals = new attrlist4(retBytes);
+        return attributes;
+    }
+
+    private static Optional<? extends XdrAble> toXdr(int fattr, AttributesHolder holder) {
+        Stat stat = holder.stat;
+        switch (fattr) {
+            case nfs4_prot.FATTR4_TYPE:
+                return Optional.of(new fattr4_type(nfs_ftype4.NF4REG));
+            case nfs4_prot.FATTR4_CHANGE:
+                return Optional.of(new fattr4_change(stat.getGeneration()));
+            case nfs4_prot.FATTR4_SIZE:
+                return Optional.of(new fattr4_size(stat.getSize()));
+            case nfs4_prot.FATTR4_FSID:
+                fsid4 fsid = new fsid4();
+                fsid.major = new uint64_t(17);
+                fsid.minor = new uint64_t(17);
+                return Optional.of(new fattr4_fsid(fsid));
+            case nfs4_prot.FATTR4_FILEID:
+                return Optional.of(new fattr4_fileid(stat.getIno()));
+            case nfs4_prot.FATTR4_MODE:
+                return Optional.of(new fattr4_mode(stat.getMode() & 07777));
+            case nfs4_prot.FATTR4_NUMLINKS:
+                return Optional.of(new fattr4_numlinks(stat.getNlink()));
+            case nfs4_prot.FATTR4_OWNER:
+                return Optional.of(new fattr4_owner(
+                        new utf8str_mixed(holder.idMapping.uidToPrincipal(stat.getUid()))));
+            case nfs4_prot.FATTR4_OWNER_GROUP:
+                return Optional.of(new fattr4_owner_group(
+                        new utf8str_mixed(holder.idMapping.gidToPrincipal(stat.getGid()))));
+            case nfs4_prot.FATTR4_RAWDEV:
+                specdata4 dev = new specdata4();
+                dev.specdata1 = 0;
+                dev.specdata2 = 0;
+                return Optional.of(new fattr4_rawdev(dev));
+            case nfs4_prot.FATTR4_SPACE_USED:
+                return Optional.of(new fattr4_space_used(stat.getSize()));
+            case nfs4_prot.FATTR4_TIME_ACCESS:
+                return Optional.of(new fattr4_time_access(stat.getATime()));
+            case nfs4_prot.FATTR4_TIME_METADATA:
+                return Optional.of(new fattr4_time_metadata(stat.getCTime()));
+            case nfs4_prot.FATTR4_TIME_MODIFY:
+                return Optional.of(new fattr4_time_modify(stat.getMTime()));
+            case nfs4_prot.FATTR4_MOUNTED_ON_FILEID:
+                return Optional.of(new fattr4_mounted_on_fileid(stat.getIno()));
+            default:
+                return Optional.empty();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(Fattr4EncoderBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
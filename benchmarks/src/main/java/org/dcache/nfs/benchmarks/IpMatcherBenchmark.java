@@ -1,8 +1,14 @@
 package org.dcache.nfs.benchmarks;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.List;
+import java.util.stream.Collectors;
 
+import org.dcache.nfs.ExportFile;
+import org.dcache.nfs.FsExport;
 import org.dcache.nfs.InetAddressMatcher;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -41,4 +47,45 @@ public class IpMatcherBenchmark {
         return addressMatcher.match(address);
     }
 
+    /**
+     * An export table with many export lines for the same path, followed by the {@code template} entry.
+     */
+    @State(Scope.Thread)
+    public static class ExportTableState {
+
+        @Param({"10", "1000", "5000"})
+        private int exportLines;
+
+        private ExportFile exportFile;
+        private List<FsExport> exports;
+        private int exportIndex;
+
+        @Setup
+        public void setUp(IpMatcherBenchmark benchmark) throws IOException {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < exportLines; i++) {
+                sb.append("/data 10.").append(i / 256).append('.').append(i % 256).append(".0/24(rw)\n");
+            }
+            sb.append("/data ").append(benchmark.template).append("(rw)\n");
+
+            exportFile = new ExportFile(new StringReader(sb.toString()));
+            exports = exportFile.exports().collect(Collectors.toList());
+            exportIndex = FsExport.getExportIndex("/data");
+        }
+    }
+
+    @Benchmark
+    public FsExport linearExportLookup(ExportTableState state) {
+        for (FsExport export : state.exports) {
+            if (export.isAllowed(address)) {
+                return export;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public FsExport exportTableLookup(ExportTableState state) {
+        return state.exportFile.getExport(state.exportIndex, address);
+    }
 }
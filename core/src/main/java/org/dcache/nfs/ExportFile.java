@@ -57,7 +57,7 @@ public class ExportFile implements ExportTable {
 
     private static final Logger _log = LoggerFactory.getLogger(ExportFile.class);
 
-    private volatile ImmutableMultimap<Integer, FsExport> _exports;
+    private volatile ExportIndex _index;
     private final Callable<URI[]> _exportFileProvider;
 
     /**
@@ -109,12 +109,12 @@ public class ExportFile implements ExportTable {
         _exportFileProvider = () -> {
             throw new IllegalStateException("exports uri not set, rescan impossible");
         };
-        _exports = parse(reader);
+        _index = new ExportIndex(parse(reader), 0);
     }
 
     @Override
     public Stream<FsExport> exports() {
-        return _exports.values().stream();
+        return _index.exports().values().stream();
     }
 
     private static ImmutableMultimap<Integer, FsExport> parse(Reader reader) throws IOException {
@@ -318,24 +318,24 @@ public class ExportFile implements ExportTable {
 
     @Override
     public FsExport getExport(int index, InetAddress client) {
-        for (FsExport export : _exports.get(index)) {
-            if (export.isAllowed(client)) {
-                return export;
-            }
-        }
-        return null;
+        return _index.getExport(index, client);
     }
 
     @Override
     public Stream<FsExport> exports(InetAddress client) {
-        return _exports.values().stream()
-                .filter(e -> e.isAllowed(client))
-                .sorted(Comparator.comparing(FsExport::client, HostEntryComparator::compare));
+        return _index.exports(client).stream();
+    }
+
+    @Override
+    public long version() {
+        return _index.version();
     }
 
-    public final void rescan() throws IOException {
+    public final synchronized void rescan() throws IOException {
         try {
-            _exports = parse(_exportFileProvider.call());
+            long version = _index == null ? 1 : _index.version() + 1;
+            // replace compiled exports and cached decisions at once
+            _index = new ExportIndex(parse(_exportFileProvider.call()), version);
         } catch (Exception e) {
             throwIfInstanceOf(e, IOException.class);
             throwIfUnchecked(e);
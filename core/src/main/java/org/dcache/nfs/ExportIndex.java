@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.dcache.nfs.InetAddressMatcher.IpAddressMatcher;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultimap;
+
+/**
+ * An immutable, compiled view of export entries. Subnet based client specifications of each export are compiled into
+ * a {@link SubnetTrie}, host name and wildcard specifications are evaluated in order. Resolved per-client decisions
+ * are cached. As the cache is part of the index, replacing the index discards all cached decisions at once.
+ * <p>
+ * Decisions are cached for a limited time only, as host name based specifications depend on DNS.
+ */
+class ExportIndex {
+
+    private static final int MAX_CACHED_DECISIONS = 65536;
+    private static final long DECISION_LIFETIME_SEC = 30;
+
+    private record DecisionKey(int index, InetAddress client) {
+    }
+
+    private final ImmutableMultimap<Integer, FsExport> _exports;
+    private final Map<Integer, CompiledExports> _compiled;
+    private final long _version;
+
+    private final Cache<DecisionKey, Optional<FsExport>> _decisions = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_DECISIONS)
+            .expireAfterWrite(DECISION_LIFETIME_SEC, TimeUnit.SECONDS)
+            .build();
+
+    private final Cache<InetAddress, List<FsExport>> _clientExports = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_DECISIONS)
+            .expireAfterWrite(DECISION_LIFETIME_SEC, TimeUnit.SECONDS)
+            .build();
+
+    /**
+     * Compile export entries.
+     *
+     * @param exports export entries indexed by export index, most relevant entry first.
+     * @param version version of the export entries.
+     */
+    ExportIndex(ImmutableMultimap<Integer, FsExport> exports, long version) {
+        _exports = exports;
+        _version = version;
+
+        ImmutableMap.Builder<Integer, CompiledExports> compiled = ImmutableMap.builder();
+        exports.asMap().forEach((index, entries) -> compiled.put(index, new CompiledExports(entries)));
+        _compiled = compiled.build();
+    }
+
+    ImmutableMultimap<Integer, FsExport> exports() {
+        return _exports;
+    }
+
+    long version() {
+        return _version;
+    }
+
+    /**
+     * Get the most relevant export with the given index for the client.
+     *
+     * @param index export index.
+     * @param client address of the client.
+     * @return matching export or null if client is not allowed to access the export.
+     */
+    FsExport getExport(int index, InetAddress client) {
+        DecisionKey key = new DecisionKey(index, client);
+        Optional<FsExport> export = _decisions.getIfPresent(key);
+        if (export == null) {
+            CompiledExports compiled = _compiled.get(index);
+            export = Optional.ofNullable(compiled == null ? null : compiled.firstAllowed(client));
+            _decisions.put(key, export);
+        }
+        return export.orElse(null);
+    }
+
+    /**
+     * Get all exports allowed for the client, most relevant export first.
+     *
+     * @param client address of the client.
+     * @return exports allowed for the client.
+     */
+    List<FsExport> exports(InetAddress client) {
+        List<FsExport> exports = _clientExports.getIfPresent(client);
+        if (exports == null) {
+            exports = _exports.values().stream()
+                    .filter(e -> e.isAllowed(client))
+                    .sorted(Comparator.comparing(FsExport::client, HostEntryComparator::compare))
+                    .collect(ImmutableList.toImmutableList());
+            _clientExports.put(client, exports);
+        }
+        return exports;
+    }
+
+    /**
+     * Entries of a single export, with subnet specifications compiled into a trie.
+     */
+    private static class CompiledExports {
+
+        private final FsExport[] _entries;
+        private final SubnetTrie _subnets = new SubnetTrie();
+
+        /**
+         * Positions of entries which are not matched by the trie, in ascending order.
+         */
+        private final int[] _others;
+
+        CompiledExports(Collection<FsExport> entries) {
+            _entries = entries.toArray(FsExport[]::new);
+
+            int[] others = new int[_entries.length];
+            int otherCount = 0;
+            for (int i = 0; i < _entries.length; i++) {
+                InetAddressMatcher matcher = _entries[i].clientMatcher();
+                // zero-length masks are matched by the matcher to keep its semantic
+                if (matcher instanceof IpAddressMatcher ipMatcher && ipMatcher.mask() > 0) {
+                    _subnets.add(ipMatcher.subnet(), ipMatcher.mask(), i);
+                } else {
+                    others[otherCount++] = i;
+                }
+            }
+            _others = Arrays.copyOf(others, otherCount);
+        }
+
+        FsExport firstAllowed(InetAddress client) {
+            int best = _subnets.firstMatch(client.getAddress());
+            for (int i : _others) {
+                if (i > best) {
+                    break;
+                }
+                if (_entries[i].isAllowed(client)) {
+                    return _entries[i];
+                }
+            }
+            return best == SubnetTrie.NO_MATCH ? null : _entries[best];
+        }
+    }
+}
@@ -62,4 +62,16 @@ public interface ExportTable {
      * @return best matching export entry for a given client or null if no entries found.
      */
     FsExport getExport(int index, InetAddress client);
+
+    /**
+     * Get the version of this export table. The version changes every time the exports are modified, which allows
+     * callers to cache information derived from the exports. Export tables which never change may keep the default
+     * value.
+     *
+     * @return the version of the export table.
+     * @since 0.28
+     */
+    default long version() {
+        return 0L;
+    }
 }
@@ -193,6 +193,10 @@ public class FsExport {
         return _clientMatcher.getPattern();
     }
 
+    InetAddressMatcher clientMatcher() {
+        return _clientMatcher;
+    }
+
     public IO ioMode() {
         return _rw;
     }
@@ -138,6 +138,20 @@ public abstract class InetAddressMatcher implements Predicate<InetAddress> {
             }
         }
 
+        /**
+         * Returns the address of the subnet. The returned array must not be modified.
+         */
+        byte[] subnet() {
+            return netBytes;
+        }
+
+        /**
+         * Returns the number of significant bits of the subnet.
+         */
+        int mask() {
+            return mask;
+        }
+
         @Override
         public boolean test(InetAddress ip) {
 
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs;
+
+/**
+ * A binary trie of IPv4 and IPv6 subnets. Each subnet is associated with a position, e.g. an index in an ordered list
+ * of export entries. A lookup returns the smallest position of all subnets that contain a given address, which allows
+ * to find the first matching entry with a single walk over the address bits.
+ */
+class SubnetTrie {
+
+    /**
+     * Position returned if no subnet contains the address.
+     */
+    static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private static class Node {
+
+        private final Node[] children = new Node[2];
+        private int position = NO_MATCH;
+    }
+
+    private final Node ipv4Root = new Node();
+    private final Node ipv6Root = new Node();
+
+    /**
+     * Add a subnet to the trie.
+     *
+     * @param subnet the address of the subnet. Host bits are ignored.
+     * @param mask the number of significant bits of the subnet.
+     * @param position the position associated with the subnet.
+     */
+    void add(byte[] subnet, int mask, int position) {
+        Node node = rootOf(subnet);
+        for (int i = 0; i < mask; i++) {
+            int bit = bitAt(subnet, i);
+            Node child = node.children[bit];
+            if (child == null) {
+                child = new Node();
+                node.children[bit] = child;
+            }
+            node = child;
+        }
+        node.position = Math.min(node.position, position);
+    }
+
+    /**
+     * Get the smallest position of all subnets which contain the given address.
+     *
+     * @param address the address to match.
+     * @return the smallest position or {@link #NO_MATCH} if no subnet contains the address.
+     */
+    int firstMatch(byte[] address) {
+        Node node = rootOf(address);
+        int best = node.position;
+        int bits = address.length * 8;
+        for (int i = 0; i < bits; i++) {
+            node = node.children[bitAt(address, i)];
+            if (node == null) {
+                break;
+            }
+            best = Math.min(best, node.position);
+        }
+        return best;
+    }
+
+    private Node rootOf(byte[] address) {
+        return address.length == 4 ? ipv4Root : ipv6Root;
+    }
+
+    private static int bitAt(byte[] address, int i) {
+        return (address[i >>> 3] >>> (7 - (i & 7))) & 1;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated statistics of requests sent by a single client.
+ *
+ * @since 0.28
+ */
+public class ClientMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder totalLatency = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    void record(long latency) {
+        requests.increment();
+        totalLatency.add(latency);
+    }
+
+    void addBytes(long count) {
+        bytes.add(count);
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * @return average request latency in nanoseconds.
+     */
+    public long getMeanLatency() {
+        long count = requests.sum();
+        return count == 0 ? 0 : totalLatency.sum() / count;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes {@link NfsMetrics} as JMX beans: one bean per NFSv4 operation ({@code type=NFSv4}) and NFSv3 procedure
+ * ({@code type=NFSv3}), and a single bean with per client statistics ({@code type=Clients}).
+ *
+ * @since 0.28
+ */
+public class JmxMetricsExporter implements MetricsExporter {
+
+    private static final Logger _log = LoggerFactory.getLogger(JmxMetricsExporter.class);
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    @Override
+    public synchronized void start(NfsMetrics metrics) {
+        for (OperationMetrics operation : metrics.getNfsv4Operations()) {
+            register("NFSv4", operation.getName(), new OperationMetricsMXBeanImpl(operation));
+        }
+        for (OperationMetrics procedure : metrics.getNfsv3Procedures()) {
+            register("NFSv3", procedure.getName(), new OperationMetricsMXBeanImpl(procedure));
+        }
+        register("Clients", NfsMetrics.class.getSimpleName(), new ClientMetricsMXBeanImpl(metrics));
+    }
+
+    @Override
+    public synchronized void stop() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (InstanceNotFoundException | MBeanRegistrationException ex) {
+                _log.warn("Failed to unregister JMX bean: {}", ex.getMessage());
+            }
+        }
+        registered.clear();
+    }
+
+    private void register(String type, String name, Object bean) {
+        try {
+            ObjectName mxBeanName = new ObjectName(String.format("%s:type=%s,name=%s",
+                    getClass().getPackage().getName(), type, name));
+            if (!server.isRegistered(mxBeanName)) {
+                server.registerMBean(bean, mxBeanName);
+                registered.add(mxBeanName);
+            }
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+                | MBeanRegistrationException | NotCompliantMBeanException ex) {
+            _log.warn("Failed to register JMX bean: {}", ex.getMessage());
+        }
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static class OperationMetricsMXBeanImpl implements OperationMetricsMXBean {
+
+        private final OperationMetrics metrics;
+
+        OperationMetricsMXBeanImpl(OperationMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public long getCount() {
+            return metrics.getCount();
+        }
+
+        @Override
+        public long getErrors() {
+            return metrics.getErrors();
+        }
+
+        @Override
+        public long getBytes() {
+            return metrics.getBytes();
+        }
+
+        @Override
+        public long getMeanLatency() {
+            return toMicros(metrics.getLatency().getMean());
+        }
+
+        @Override
+        public long getMaxLatency() {
+            return toMicros(metrics.getLatency().getMax());
+        }
+
+        @Override
+        public long getLatency50th() {
+            return toMicros(metrics.getLatency().getValueAtPercentile(50.0));
+        }
+
+        @Override
+        public long getLatency90th() {
+            return toMicros(metrics.getLatency().getValueAtPercentile(90.0));
+        }
+
+        @Override
+        public long getLatency99th() {
+            return toMicros(metrics.getLatency().getValueAtPercentile(99.0));
+        }
+
+        @Override
+        public long getLatency999th() {
+            return toMicros(metrics.getLatency().getValueAtPercentile(99.9));
+        }
+
+        @Override
+        public Map<String, Long> getErrorsByStatus() {
+            return metrics.getErrorsByStatus();
+        }
+    }
+
+    private static class ClientMetricsMXBeanImpl implements ClientMetricsMXBean {
+
+        private final NfsMetrics metrics;
+
+        ClientMetricsMXBeanImpl(NfsMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Map<String, Long> getRequests() {
+            return collect(ClientMetrics::getRequests);
+        }
+
+        @Override
+        public Map<String, Long> getBytes() {
+            return collect(ClientMetrics::getBytes);
+        }
+
+        @Override
+        public Map<String, Long> getMeanLatencies() {
+            return collect(c -> toMicros(c.getMeanLatency()));
+        }
+
+        private Map<String, Long> collect(ToLongFunction<ClientMetrics> value) {
+            return metrics.getClients().entrySet().stream()
+                    .collect(Collectors.toMap(e -> e.getKey().getHostAddress(),
+                            e -> value.applyAsLong(e.getValue())));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.metrics;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+
+/**
+ * Per operation statistics of an NFS server. The statistics are kept per NFSv4 operation and NFSv3 procedure and,
+ * optionally, per client. Recording a request doesn't allocate objects, thus metrics can be kept enabled in
+ * production. The metrics are published by {@link MetricsExporter}s, like {@link JmxMetricsExporter}.
+ *
+ * @since 0.28
+ */
+public class NfsMetrics {
+
+    private static final String[] NFSV3_PROCEDURES = {
+            "NULL", "GETATTR", "SETATTR", "LOOKUP", "ACCESS", "READLINK", "READ", "WRITE", "CREATE", "MKDIR",
+            "SYMLINK", "MKNOD", "REMOVE", "RMDIR", "RENAME", "LINK", "READDIR", "READDIRPLUS", "FSSTAT", "FSINFO",
+            "PATHCONF", "COMMIT"
+    };
+
+    private final OperationMetrics[] nfsv4 = new OperationMetrics[nfs_opnum4.OP_REMOVEXATTR + 1];
+    private final OperationMetrics nfsv4Illegal = new OperationMetrics(nfs_opnum4.toString(nfs_opnum4.OP_ILLEGAL));
+    private final OperationMetrics[] nfsv3 = new OperationMetrics[NFSV3_PROCEDURES.length];
+    private final OperationMetrics nfsv3Unknown = new OperationMetrics("UNKNOWN");
+
+    private final int maxClients;
+    private final ConcurrentMap<InetAddress, ClientMetrics> clients = new ConcurrentHashMap<>();
+
+    private final List<MetricsExporter> exporters = new CopyOnWriteArrayList<>();
+
+    /**
+     * Create metrics without per client statistics.
+     */
+    public NfsMetrics() {
+        this(0);
+    }
+
+    /**
+     * Create metrics with per client statistics.
+     *
+     * @param maxClients maximal number of clients to keep statistics for. Requests of other clients are counted only
+     * in per operation statistics. Zero disables per client statistics.
+     */
+    public NfsMetrics(int maxClients) {
+        this.maxClients = maxClients;
+        for (int i = 0; i < nfsv4.length; i++) {
+            // operation numbers below OP_ACCESS are not defined
+            nfsv4[i] = i < nfs_opnum4.OP_ACCESS ? nfsv4Illegal : new OperationMetrics(nfs_opnum4.toString(i));
+        }
+        for (int i = 0; i < nfsv3.length; i++) {
+            nfsv3[i] = new OperationMetrics(NFSV3_PROCEDURES[i]);
+        }
+    }
+
+    /**
+     * Get statistics of an NFSv4 operation.
+     *
+     * @param opnum the operation number.
+     * @return statistics of the operation, or of OP_ILLEGAL for unknown operations.
+     */
+    public OperationMetrics nfsv4(int opnum) {
+        return opnum >= 0 && opnum < nfsv4.length ? nfsv4[opnum] : nfsv4Illegal;
+    }
+
+    /**
+     * Get statistics of an NFSv3 procedure.
+     *
+     * @param procedure the procedure number.
+     * @return statistics of the procedure.
+     */
+    public OperationMetrics nfsv3(int procedure) {
+        return procedure >= 0 && procedure < nfsv3.length ? nfsv3[procedure] : nfsv3Unknown;
+    }
+
+    /**
+     * Record a completed request.
+     *
+     * @param operation the statistics of request's operation.
+     * @param client the address of the client.
+     * @param latency request processing time in nanoseconds.
+     * @param status the nfs status of the request.
+     */
+    public void record(OperationMetrics operation, InetSocketAddress client, long latency, int status) {
+        operation.record(latency, status);
+        ClientMetrics clientMetrics = client(client);
+        if (clientMetrics != null) {
+            clientMetrics.record(latency);
+        }
+    }
+
+    /**
+     * Record number of bytes read or written by a request.
+     *
+     * @param operation the statistics of request's operation.
+     * @param client the address of the client.
+     * @param count number of bytes.
+     */
+    public void addBytes(OperationMetrics operation, InetSocketAddress client, long count) {
+        operation.addBytes(count);
+        ClientMetrics clientMetrics = client(client);
+        if (clientMetrics != null) {
+            clientMetrics.addBytes(count);
+        }
+    }
+
+    /**
+     * Get statistics of the given client.
+     *
+     * @return statistics of the client or null, if per client statistics are disabled or the limit of tracked
+     * clients is reached.
+     */
+    public ClientMetrics client(InetSocketAddress client) {
+        if (maxClients == 0 || client == null) {
+            return null;
+        }
+
+        InetAddress address = client.getAddress();
+        ClientMetrics clientMetrics = clients.get(address);
+        if (clientMetrics == null && clients.size() < maxClients) {
+            clientMetrics = clients.computeIfAbsent(address, a -> new ClientMetrics());
+        }
+        return clientMetrics;
+    }
+
+    public List<OperationMetrics> getNfsv4Operations() {
+        List<OperationMetrics> operations = new ArrayList<>(
+                Arrays.asList(nfsv4).subList(nfs_opnum4.OP_ACCESS, nfsv4.length));
+        operations.add(nfsv4Illegal);
+        return operations;
+    }
+
+    public List<OperationMetrics> getNfsv3Procedures() {
+        return Collections.unmodifiableList(Arrays.asList(nfsv3));
+    }
+
+    public Map<InetAddress, ClientMetrics> getClients() {
+        return Collections.unmodifiableMap(clients);
+    }
+
+    /**
+     * Start publishing metrics with the given exporter.
+     *
+     * @param exporter the exporter to use.
+     */
+    public void addExporter(MetricsExporter exporter) {
+        exporter.start(this);
+        exporters.add(exporter);
+    }
+
+    /**
+     * Stop all exporters.
+     */
+    public void shutdown() {
+        exporters.forEach(MetricsExporter::stop);
+        exporters.clear();
+    }
+}
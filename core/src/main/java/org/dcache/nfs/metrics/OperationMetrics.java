@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.dcache.nfs.nfsstat;
+
+/**
+ * Statistics of a single NFS operation or procedure: request latency, transferred bytes and error statuses.
+ *
+ * @since 0.28
+ */
+public class OperationMetrics {
+
+    /**
+     * Slots of error counters. NFSv3 errors and the first NFSv4 errors are below 100, remaining NFSv4 errors start at
+     * 10001. Unexpected codes are counted in the last slot.
+     */
+    private static final int LOW_STATUS_SLOTS = 100;
+    private static final int HIGH_STATUS_BASE = 10000;
+    private static final int HIGH_STATUS_SLOTS = 200;
+    private static final int OTHER_STATUS_SLOT = LOW_STATUS_SLOTS + HIGH_STATUS_SLOTS;
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLongArray errorsByStatus = new AtomicLongArray(OTHER_STATUS_SLOT + 1);
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Record a completed request.
+     *
+     * @param latency request processing time in nanoseconds.
+     * @param status the nfs status of the request.
+     */
+    public void record(long latency, int status) {
+        recordLatency(latency);
+        recordStatus(status);
+    }
+
+    /**
+     * Record processing time of a request.
+     *
+     * @param latency request processing time in nanoseconds.
+     */
+    public void recordLatency(long latency) {
+        this.latency.record(latency);
+    }
+
+    /**
+     * Record the status of a request. Only errors are counted.
+     *
+     * @param status the nfs status of the request.
+     */
+    public void recordStatus(int status) {
+        if (status != nfsstat.NFS_OK) {
+            errors.increment();
+            errorsByStatus.incrementAndGet(statusSlot(status));
+        }
+    }
+
+    /**
+     * Record number of bytes read or written by a request.
+     */
+    public void addBytes(long count) {
+        bytes.add(count);
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Get number of failed requests by error status.
+     *
+     * @return map of status name to number of requests failed with this status.
+     */
+    public Map<String, Long> getErrorsByStatus() {
+        Map<String, Long> byStatus = new HashMap<>();
+        for (int slot = 0; slot <= OTHER_STATUS_SLOT; slot++) {
+            long count = errorsByStatus.get(slot);
+            if (count > 0) {
+                byStatus.put(slot == OTHER_STATUS_SLOT ? "OTHER" : nfsstat.toString(slotStatus(slot)), count);
+            }
+        }
+        return byStatus;
+    }
+
+    private static int statusSlot(int status) {
+        if (status >= 0 && status < LOW_STATUS_SLOTS) {
+            return status;
+        }
+        if (status >= HIGH_STATUS_BASE && status < HIGH_STATUS_BASE + HIGH_STATUS_SLOTS) {
+            return LOW_STATUS_SLOTS + status - HIGH_STATUS_BASE;
+        }
+        return OTHER_STATUS_SLOT;
+    }
+
+    private static int slotStatus(int slot) {
+        return slot < LOW_STATUS_SLOTS ? slot : HIGH_STATUS_BASE + slot - LOW_STATUS_SLOTS;
+    }
+}
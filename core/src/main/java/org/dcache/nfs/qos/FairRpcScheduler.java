@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.qos;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+import org.dcache.oncrpc4j.rpc.OncRpcException;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.oncrpc4j.rpc.RpcDispatchable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A scheduling stage in front of RPC programs, which shares a worker pool between request classes by weighted fair
+ * queuing. Requests are classified by export and client address, see {@link RequestClass}. Each class gets a share of
+ * the workers proportional to its weight, thus a single client scanning a file system can't starve other clients or
+ * exports.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>
+ *   FairRpcScheduler scheduler = new FairRpcScheduler(64);
+ *   nfsSvc.register(new OncRpcProgram(nfs4_prot.NFS4_PROGRAM, nfs4_prot.NFS_V4), scheduler.schedule(nfs4));
+ *   nfsSvc.register(new OncRpcProgram(nfs3_prot.NFS_PROGRAM, nfs3_prot.NFS_V3), scheduler.schedule(nfs3));
+ * </pre>
+ *
+ * The scheduler uses start-time fair queuing: each request gets a virtual finish tag, which grows by the inverse of
+ * class' weight, and the request with the smallest tag is served next.
+ *
+ * @since 0.28
+ */
+public class FairRpcScheduler implements FairRpcSchedulerMXBean {
+
+    private static final Logger _log = LoggerFactory.getLogger(FairRpcScheduler.class);
+
+    /**
+     * Number of known classes, above which idle classes are forgotten.
+     */
+    private static final int MAX_IDLE_CLASSES = 4096;
+
+    /**
+     * Sequence number of created schedulers, used to distinguish their JMX beans.
+     */
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final Function<RpcCall, RequestClass> classifier;
+    private final ToIntFunction<RequestClass> weights;
+    private final int maxQueued;
+    private final ExecutorService workers;
+    private final ObjectName mxBeanName;
+
+    private final Object lock = new Object();
+
+    @GuardedBy("lock")
+    private final PriorityQueue<Request> queue = new PriorityQueue<>(
+            Comparator.comparingDouble(Request::finishTag).thenComparingLong(Request::sequence));
+
+    @GuardedBy("lock")
+    private final Map<RequestClass, ClassState> classes = new HashMap<>();
+
+    @GuardedBy("lock")
+    private double virtualTime;
+
+    @GuardedBy("lock")
+    private long sequence;
+
+    /**
+     * Number of known classes, above which idle classes are swept. Growing it with the number of classes, which
+     * survived the last sweep, keeps the cost of sweeps constant per request.
+     */
+    @GuardedBy("lock")
+    private int sweepThreshold = MAX_IDLE_CLASSES;
+
+    /**
+     * Create a new scheduler, where all classes have the same weight and queues are not limited.
+     *
+     * @param parallelism number of worker threads.
+     */
+    public FairRpcScheduler(int parallelism) {
+        this(parallelism, c -> 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a new scheduler.
+     *
+     * @param parallelism number of worker threads.
+     * @param weights weight of a request class, a positive number.
+     * @param maxQueued maximal number of queued requests per class, above which requests are rejected.
+     */
+    public FairRpcScheduler(int parallelism, ToIntFunction<RequestClass> weights, int maxQueued) {
+        this(parallelism, RequestClass::of, weights, maxQueued);
+    }
+
+    FairRpcScheduler(int parallelism, Function<RpcCall, RequestClass> classifier,
+            ToIntFunction<RequestClass> weights, int maxQueued) {
+        this.classifier = classifier;
+        this.weights = weights;
+        this.maxQueued = maxQueued;
+        workers = Executors.newFixedThreadPool(parallelism,
+                new ThreadFactoryBuilder()
+                        .setNameFormat("nfs-qos-worker-%d")
+                        .setDaemon(true)
+                        .build());
+
+        ObjectName name = null;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            name = new ObjectName(String.format("%s:type=Scheduler,name=%s-%d",
+                    getClass().getPackage().getName(), getClass().getSimpleName(), INSTANCES.incrementAndGet()));
+            server.registerMBean(this, name);
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+                | MBeanRegistrationException | NotCompliantMBeanException ex) {
+            _log.warn("Failed to register JMX bean: {}", ex.getMessage());
+            name = null;
+        }
+        mxBeanName = name;
+    }
+
+    /**
+     * Get a {@link RpcDispatchable} which dispatches requests to the given program through this scheduler. Requests
+     * rejected because the queue limit is reached are failed with SYSTEM_ERR.
+     *
+     * @param program the program to schedule requests for.
+     * @return scheduled program.
+     */
+    public RpcDispatchable schedule(RpcDispatchable program) {
+        return schedule(program, OverloadReplies.systemError());
+    }
+
+    /**
+     * Get a {@link RpcDispatchable} which dispatches requests to the given program through this scheduler. Requests
+     * rejected because the queue limit is reached, or because the scheduler is shut down, are passed to
+     * {@code overloaded}, which must reply to them, see {@link OverloadReplies}.
+     *
+     * @param program the program to schedule requests for.
+     * @param overloaded the program to reply to rejected requests.
+     * @return scheduled program.
+     */
+    public RpcDispatchable schedule(RpcDispatchable program, RpcDispatchable overloaded) {
+        return call -> submit(program, overloaded, call);
+    }
+
+    /**
+     * Stop worker threads. Queued requests are not processed.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+        if (mxBeanName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(mxBeanName);
+            } catch (InstanceNotFoundException | MBeanRegistrationException ex) {
+                _log.warn("Failed to unregister JMX bean: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private void submit(RpcDispatchable program, RpcDispatchable overloaded, RpcCall call) {
+
+        RequestClass requestClass = classifier.apply(call);
+        Request request = null;
+        synchronized (lock) {
+            ClassState state = classes.computeIfAbsent(requestClass, c -> new ClassState());
+            if (state.queued >= maxQueued) {
+                state.dropped++;
+            } else {
+                double startTag = Math.max(virtualTime, state.lastFinishTag);
+                double finishTag = startTag + 1.0 / Math.max(1, weights.applyAsInt(requestClass));
+                state.lastFinishTag = finishTag;
+                state.queued++;
+                request = new Request(program, call, state, startTag, finishTag, sequence++, System.nanoTime());
+                queue.add(request);
+            }
+        }
+
+        if (request == null) {
+            _log.debug("Rejecting request of {}: queue limit reached", requestClass);
+            reject(overloaded, call);
+            return;
+        }
+
+        try {
+            workers.execute(this::runNext);
+        } catch (RejectedExecutionException e) {
+            // the scheduler is shut down, nobody will pick up the request
+            boolean removed;
+            synchronized (lock) {
+                removed = queue.remove(request);
+                if (removed) {
+                    request.state().queued--;
+                    request.state().dropped++;
+                }
+            }
+            if (removed) {
+                _log.debug("Rejecting request of {}: scheduler is shut down", requestClass);
+                reject(overloaded, call);
+            }
+        }
+    }
+
+    /**
+     * Reply to a request, which will not be processed.
+     */
+    private static void reject(RpcDispatchable overloaded, RpcCall call) {
+        try {
+            overloaded.dispatchOncRpcCall(call);
+        } catch (OncRpcException | IOException | RuntimeException e) {
+            _log.warn("Failed to reject RPC request: {}", e.toString());
+        }
+    }
+
+    /**
+     * Process the request with the smallest finish tag, which is not necessarily the one submitted by the caller.
+     */
+    private void runNext() {
+        Request request;
+        synchronized (lock) {
+            request = queue.poll();
+            if (request == null) {
+                // removed by a submitter, which failed to start a worker
+                return;
+            }
+            virtualTime = request.startTag();
+            ClassState state = request.state();
+            state.queued--;
+            long waitTime = System.nanoTime() - request.queuedAt();
+            state.totalWaitTime += waitTime;
+            state.maxWaitTime = Math.max(state.maxWaitTime, waitTime);
+            state.served++;
+            if (classes.size() > sweepThreshold) {
+                classes.values().removeIf(s -> s.queued == 0 && s.lastFinishTag <= virtualTime);
+                sweepThreshold = Math.max(MAX_IDLE_CLASSES, 2 * classes.size());
+            }
+        }
+
+        RpcCall call = request.call();
+        try {
+            request.program().dispatchOncRpcCall(call);
+        } catch (OncRpcException e) {
+            _log.warn("Failed to process RPC request: {}", e.getMessage());
+            call.failRpcGarbage();
+        } catch (IOException | RuntimeException e) {
+            _log.error("Failed to process RPC request: {}", e.toString());
+            call.failRpcSystem();
+        }
+    }
+
+    @Override
+    public int getQueuedRequests() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    @Override
+    public Map<String, Integer> getQueueDepths() {
+        return collect(s -> s.queued);
+    }
+
+    @Override
+    public Map<String, Long> getAverageWaitTimes() {
+        return collect(s -> s.served == 0 ? 0L : TimeUnit.NANOSECONDS.toMicros(s.totalWaitTime / s.served));
+    }
+
+    @Override
+    public Map<String, Long> getMaxWaitTimes() {
+        return collect(s -> TimeUnit.NANOSECONDS.toMicros(s.maxWaitTime));
+    }
+
+    @Override
+    public Map<String, Long> getDroppedRequests() {
+        return collect(s -> s.dropped);
+    }
+
+    private <T> Map<String, T> collect(Function<ClassState, T> value) {
+        synchronized (lock) {
+            return classes.entrySet().stream()
+                    .collect(Collectors.toMap(e -> e.getKey().toString(), e -> value.apply(e.getValue())));
+        }
+    }
+
+    /**
+     * Scheduling state and statistics of a request class.
+     */
+    private static class ClassState {
+        double lastFinishTag;
+        int queued;
+        long served;
+        long dropped;
+        long totalWaitTime;
+        long maxWaitTime;
+    }
+
+    private record Request(RpcDispatchable program, RpcCall call, ClassState state, double startTag,
+            double finishTag, long sequence, long queuedAt) {
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.qos;
+
+import java.util.Map;
+
+/**
+ * JMX interface of {@link FairRpcScheduler}. Per class values are keyed by {@code client:exportIndex}.
+ *
+ * @since 0.28
+ */
+public interface FairRpcSchedulerMXBean {
+
+    /**
+     * @return total number of queued requests.
+     */
+    int getQueuedRequests();
+
+    /**
+     * @return number of queued requests per class.
+     */
+    Map<String, Integer> getQueueDepths();
+
+    /**
+     * @return average time in microseconds requests spent in the queue per class.
+     */
+    Map<String, Long> getAverageWaitTimes();
+
+    /**
+     * @return maximal time in microseconds a request spent in the queue per class.
+     */
+    Map<String, Long> getMaxWaitTimes();
+
+    /**
+     * @return number of requests rejected due to queue limit per class.
+     */
+    Map<String, Long> getDroppedRequests();
+}
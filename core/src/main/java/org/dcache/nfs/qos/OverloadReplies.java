@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.qos;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.v3.xdr.nfs3_prot;
+import org.dcache.nfs.v4.xdr.COMPOUND4args;
+import org.dcache.nfs.v4.xdr.COMPOUND4res;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.oncrpc4j.rpc.OncRpcException;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.oncrpc4j.rpc.RpcDispatchable;
+import org.dcache.oncrpc4j.xdr.XdrAble;
+import org.dcache.oncrpc4j.xdr.XdrDecodingStream;
+import org.dcache.oncrpc4j.xdr.XdrEncodingStream;
+import org.dcache.oncrpc4j.xdr.XdrVoid;
+
+/**
+ * Replies sent by {@link FairRpcScheduler} to requests which are rejected because their class' queue is full. A
+ * rejected request must be answered, as clients which use a reliable transport don't retransmit requests.
+ *
+ * @since 0.28
+ */
+public final class OverloadReplies {
+
+    private OverloadReplies() {
+    }
+
+    /**
+     * Fail rejected requests with a SYSTEM_ERR RPC reply. Can be used with any program.
+     */
+    public static RpcDispatchable systemError() {
+        return RpcCall::failRpcSystem;
+    }
+
+    /**
+     * Fail rejected NFSv4 COMPOUND requests with NFS4ERR_DELAY, the client retries them after a while.
+     */
+    public static RpcDispatchable nfs4Delay() {
+        return call -> {
+            if (call.getProcedure() != nfs4_prot.NFSPROC4_COMPOUND_4) {
+                call.retrieveCall(XdrVoid.XDR_VOID);
+                call.reply(XdrVoid.XDR_VOID);
+                return;
+            }
+
+            COMPOUND4args args = new COMPOUND4args();
+            call.retrieveCall(args);
+
+            COMPOUND4res res = new COMPOUND4res();
+            res.status = nfsstat.NFSERR_DELAY;
+            res.tag = args.tag;
+            if (args.argarray.length == 0) {
+                res.resarray = Collections.emptyList();
+            } else {
+                nfs_resop4 resop = nfs_resop4.resopFor(args.argarray[0].argop);
+                resop.setStatus(nfsstat.NFSERR_DELAY);
+                res.resarray = Collections.singletonList(resop);
+            }
+            call.reply(res);
+        };
+    }
+
+    /**
+     * Fail rejected NFSv3 requests with NFS3ERR_JUKEBOX, the client retries them after a while.
+     */
+    public static RpcDispatchable nfs3Jukebox() {
+        return call -> {
+            call.retrieveCall(XdrVoid.XDR_VOID);
+            int procedure = call.getProcedure();
+            if (procedure == nfs3_prot.NFSPROC3_NULL_3) {
+                call.reply(XdrVoid.XDR_VOID);
+                return;
+            }
+
+            call.reply(new JukeboxReply(absentAttributes(procedure)));
+        };
+    }
+
+    /**
+     * Get number of optional attributes (post_op_attr or pre_op_attr) in the failure arm of procedure's result.
+     */
+    private static int absentAttributes(int procedure) {
+        switch (procedure) {
+            case nfs3_prot.NFSPROC3_GETATTR_3:
+                return 0;
+            case nfs3_prot.NFSPROC3_LOOKUP_3:
+            case nfs3_prot.NFSPROC3_ACCESS_3:
+            case nfs3_prot.NFSPROC3_READLINK_3:
+            case nfs3_prot.NFSPROC3_READ_3:
+            case nfs3_prot.NFSPROC3_READDIR_3:
+            case nfs3_prot.NFSPROC3_READDIRPLUS_3:
+            case nfs3_prot.NFSPROC3_FSSTAT_3:
+            case nfs3_prot.NFSPROC3_FSINFO_3:
+            case nfs3_prot.NFSPROC3_PATHCONF_3:
+                // post_op_attr
+                return 1;
+            case nfs3_prot.NFSPROC3_LINK_3:
+                // post_op_attr and wcc_data
+                return 3;
+            case nfs3_prot.NFSPROC3_RENAME_3:
+                // two wcc_data
+                return 4;
+            default:
+                // wcc_data
+                return 2;
+        }
+    }
+
+    /**
+     * NFSv3 failure reply. The failure arm of all results is a list of optional attributes, which are not sent.
+     */
+    private static class JukeboxReply implements XdrAble {
+
+        private final int absentAttributes;
+
+        JukeboxReply(int absentAttributes) {
+            this.absentAttributes = absentAttributes;
+        }
+
+        @Override
+        public void xdrEncode(XdrEncodingStream xdr) throws OncRpcException, IOException {
+            xdr.xdrEncodeInt(nfsstat.NFSERR_JUKEBOX);
+            for (int i = 0; i < absentAttributes; i++) {
+                xdr.xdrEncodeBoolean(false);
+            }
+        }
+
+        @Override
+        public void xdrDecode(XdrDecodingStream xdr) throws OncRpcException, IOException {
+            throw new UnsupportedOperationException("reply only");
+        }
+    }
+}
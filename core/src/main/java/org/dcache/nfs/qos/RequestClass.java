@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.qos;
+
+import java.net.InetAddress;
+
+import org.dcache.nfs.v3.xdr.nfs3_prot;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.glassfish.grizzly.Buffer;
+
+/**
+ * The scheduling class of an RPC request, defined by the export and the client address.
+ *
+ * @param exportIndex index of the export the request refers to, or {@link #UNKNOWN_EXPORT}.
+ * @param client address of the client.
+ * @since 0.28
+ */
+public record RequestClass(int exportIndex, InetAddress client) {
+
+    /**
+     * Export index of requests, which don't refer to an export or can't be classified.
+     */
+    public static final int UNKNOWN_EXPORT = -1;
+
+    private static final int NFSPROC3_NULL = 0;
+    private static final int NFSPROC4_COMPOUND = 1;
+
+    /**
+     * Size of SEQUENCE4args: session id, sequence id, slot id, highest slot id and cache this flag.
+     */
+    private static final int SEQUENCE4ARGS_SIZE = nfs4_prot.NFS4_SESSIONID_SIZE + 4 * 4;
+
+    /**
+     * Classify an NFS request. The export index is taken from the file handle of NFSv3 requests and from the
+     * PUTFH operation of NFSv4 COMPOUNDs, which follows optional SEQUENCE. The arguments are peeked at without
+     * consuming them, thus the request can be decoded by the program afterwards.
+     *
+     * @param call the request to classify.
+     * @return request's class.
+     */
+    public static RequestClass of(RpcCall call) {
+        InetAddress client = call.getTransport().getRemoteSocketAddress().getAddress();
+        int exportIndex;
+        try {
+            Buffer args = call.getXdr().asBuffer();
+            exportIndex = peekExportIndex(call.getProgram(), call.getProgramVersion(), call.getProcedure(), args);
+        } catch (RuntimeException e) {
+            // malformed request, let the program to reject it.
+            exportIndex = UNKNOWN_EXPORT;
+        }
+        return new RequestClass(exportIndex, client);
+    }
+
+    private static int peekExportIndex(int program, int version, int procedure, Buffer args) {
+
+        if (program != nfs3_prot.NFS_PROGRAM) {
+            return UNKNOWN_EXPORT;
+        }
+
+        int position = args.position();
+        if (version == nfs3_prot.NFS_V3) {
+            // all procedures, except NULL, start with a file handle
+            return procedure == NFSPROC3_NULL ? UNKNOWN_EXPORT : exportOf(args, position);
+        }
+
+        if (version == nfs4_prot.NFS_V4 && procedure == NFSPROC4_COMPOUND) {
+            position = skipOpaque(args, position); // tag
+            position += 4; // minor version
+            int opCount = args.getInt(position);
+            position += 4;
+            if (opCount == 0) {
+                return UNKNOWN_EXPORT;
+            }
+
+            int op = args.getInt(position);
+            position += 4;
+            if (op == nfs_opnum4.OP_SEQUENCE && opCount > 1) {
+                position += SEQUENCE4ARGS_SIZE;
+                op = args.getInt(position);
+                position += 4;
+            }
+            return op == nfs_opnum4.OP_PUTFH ? exportOf(args, position) : UNKNOWN_EXPORT;
+        }
+
+        return UNKNOWN_EXPORT;
+    }
+
+    private static int exportOf(Buffer args, int position) {
+        int len = args.getInt(position);
+        if (len <= 0 || len > nfs4_prot.NFS4_FHSIZE) {
+            return UNKNOWN_EXPORT;
+        }
+        byte[] handle = new byte[len];
+        for (int i = 0; i < len; i++) {
+            handle[i] = args.get(position + 4 + i);
+        }
+        return Inode.forNfsHandle(handle).exportIndex();
+    }
+
+    private static int skipOpaque(Buffer args, int position) {
+        int len = args.getInt(position);
+        return position + 4 + ((len + 3) & ~3);
+    }
+
+    @Override
+    public String toString() {
+        return client.getHostAddress() + ":" + exportIndex;
+    }
+}
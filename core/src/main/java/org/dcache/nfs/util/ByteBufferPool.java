@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of direct {@link ByteBuffer}s organized in power-of-two size classes. A buffer acquired from the pool has
+ * its limit set to the requested size and must be given back with {@link #release(ByteBuffer)} as soon as its content
+ * is not needed any more. Released buffers are kept for reuse until the total amount of idle memory reaches the
+ * configured limit; beyond that released buffers are dropped and left to the garbage collector.
+ * <p>
+ * Requests larger than the largest size class are served with non-pooled heap buffers.
+ */
+public class ByteBufferPool {
+
+    /**
+     * The smallest size class, 4KB.
+     */
+    private static final int MIN_CLASS_SHIFT = 12;
+
+    /**
+     * Per size class queues of idle buffers.
+     */
+    private final Queue<ByteBuffer>[] _pools;
+
+    /**
+     * The size of the largest pooled buffer.
+     */
+    private final int _maxBufferSize;
+
+    /**
+     * Maximal amount of memory kept by idle buffers.
+     */
+    private final long _maxIdleBytes;
+
+    /**
+     * Amount of memory currently kept by idle buffers.
+     */
+    private final AtomicLong _idleBytes = new AtomicLong();
+
+    /**
+     * Number of requests served from a pooled buffer.
+     */
+    private final AtomicLong _hits = new AtomicLong();
+
+    /**
+     * Number of requests that required a new allocation.
+     */
+    private final AtomicLong _misses = new AtomicLong();
+
+    /**
+     * Create a new buffer pool.
+     *
+     * @param maxBufferSize the largest buffer size served by the pool, rounded up to the next power of two.
+     * @param maxIdleBytes maximal amount of memory retained by idle buffers.
+     */
+    @SuppressWarnings("unchecked")
+    public ByteBufferPool(int maxBufferSize, long maxIdleBytes) {
+        checkArgument(maxBufferSize > 0, "Max buffer size must be positive");
+        checkArgument(maxIdleBytes >= 0, "Max idle bytes can't be negative");
+
+        int classes = sizeClassOf(maxBufferSize) + 1;
+        _maxBufferSize = classSize(classes - 1);
+        _maxIdleBytes = maxIdleBytes;
+        _pools = new Queue[classes];
+        for (int i = 0; i < classes; i++) {
+            _pools[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Get a buffer with at least {@code size} bytes capacity. The returned buffer's position is zero and the limit is
+     * set to {@code size}.
+     *
+     * @param size the number of bytes required.
+     * @return a byte buffer.
+     */
+    public ByteBuffer acquire(int size) {
+        checkArgument(size >= 0, "Buffer size can't be negative");
+
+        if (size > _maxBufferSize) {
+            _misses.incrementAndGet();
+            return ByteBuffer.allocate(size);
+        }
+
+        int sizeClass = sizeClassOf(size);
+        ByteBuffer buffer = _pools[sizeClass].poll();
+        if (buffer == null) {
+            _misses.incrementAndGet();
+            buffer = ByteBuffer.allocateDirect(classSize(sizeClass));
+        } else {
+            _hits.incrementAndGet();
+            _idleBytes.addAndGet(-buffer.capacity());
+        }
+
+        buffer.clear().limit(size);
+        return buffer;
+    }
+
+    /**
+     * Give a buffer, which was obtained by {@link #acquire(int)}, back to the pool. The buffer must not be used by
+     * the caller after this method is called.
+     *
+     * @param buffer the buffer to release.
+     */
+    public void release(ByteBuffer buffer) {
+
+        int capacity = buffer.capacity();
+        if (!buffer.isDirect() || capacity > _maxBufferSize || Integer.bitCount(capacity) != 1
+                || capacity < classSize(0)) {
+            // not ours
+            return;
+        }
+
+        long idle = _idleBytes.addAndGet(capacity);
+        if (idle > _maxIdleBytes) {
+            _idleBytes.addAndGet(-capacity);
+            return;
+        }
+        _pools[sizeClassOf(capacity)].offer(buffer);
+    }
+
+    /**
+     * Get the amount of memory currently retained by idle buffers.
+     *
+     * @return number of bytes kept by idle buffers.
+     */
+    public long getIdleBytes() {
+        return _idleBytes.get();
+    }
+
+    /**
+     * Get the number of requests served with a recycled buffer.
+     *
+     * @return number of pool hits.
+     */
+    public long getHits() {
+        return _hits.get();
+    }
+
+    /**
+     * Get the number of requests that required a new allocation.
+     *
+     * @return number of pool misses.
+     */
+    public long getMisses() {
+        return _misses.get();
+    }
+
+    private static int sizeClassOf(int size) {
+        if (size <= (1 << MIN_CLASS_SHIFT)) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_CLASS_SHIFT;
+    }
+
+    private static int classSize(int sizeClass) {
+        return 1 << (sizeClass + MIN_CLASS_SHIFT);
+    }
+}
@@ -55,7 +55,7 @@ import org.slf4j.LoggerFactory;
  * @param <K> the type of keys maintained by this cache
  * @param <V> the type of cached values
  */
-public class Cache<K, V> {
+public class Cache<K, V> implements ExpiringCache<K, V> {
 
     private static final Logger _log = LoggerFactory.getLogger(Cache.class);
     private final Clock _timeSource;
@@ -164,6 +164,7 @@ public class Cache<K, V> {
      *
      * @return name of the cache.
      */
+    @Override
     public String getName() {
         return _name;
     }
@@ -176,6 +177,7 @@ public class Cache<K, V> {
      *
      * @throws MissingResourceException if Cache limit is reached.
      */
+    @Override
     public void put(K k, V v) {
         this.put(k, v, _defaultEntryMaxLifeTime, _defaultEntryIdleTime);
     }
@@ -190,6 +192,7 @@ public class Cache<K, V> {
      *
      * @throws MissingResourceException if Cache limit is reached.
      */
+    @Override
     public void put(K k, V v, Duration entryMaxLifeTime, Duration entryIdleTime) {
         _log.debug("Adding new cache entry: key = [{}], value = [{}]", k, v);
 
@@ -204,7 +207,7 @@ public class Cache<K, V> {
             _accessLock.unlock(stamp);
         }
 
-        _eventListener.notifyPut(this, v);
+        _eventListener.notifyPut(self(), v);
     }
 
     /**
@@ -214,6 +217,7 @@ public class Cache<K, V> {
      * @param k key associated with entry.
      * @return cached value associated with specified key.
      */
+    @Override
     public V get(K k) {
 
         V v;
@@ -252,11 +256,11 @@ public class Cache<K, V> {
         if (!valid) {
             // notify only if this thread have removed the expired entry
             if (removed) {
-                _eventListener.notifyExpired(this, v);
+                _eventListener.notifyExpired(self(), v);
             }
             v = null;
         } else {
-            _eventListener.notifyGet(this, v);
+            _eventListener.notifyGet(self(), v);
         }
         return v;
     }
@@ -267,6 +271,7 @@ public class Cache<K, V> {
      * @param k key
      * @return valid entry associated with the key or null if key not found or expired.
      */
+    @Override
     public V remove(K k) {
 
         V v;
@@ -286,17 +291,26 @@ public class Cache<K, V> {
         _log.debug("Removing entry: active = [{}] key = [{}], value = [{}]",
                 valid, k, v);
 
-        _eventListener.notifyRemove(this, v);
+        _eventListener.notifyRemove(self(), v);
 
         return valid ? v : null;
     }
 
+    /**
+     * Get this cache as {@link ExpiringCache}, so that listeners are notified through the methods, which dispatch to
+     * both current and legacy listener methods.
+     */
+    private ExpiringCache<K, V> self() {
+        return this;
+    }
+
     /**
      * Get number of elements inside the cache.
      *
      * @return number of elements.
      */
-    int size() {
+    @Override
+    public int size() {
 
         long stamp = _accessLock.readLock();
         try {
@@ -311,6 +325,7 @@ public class Cache<K, V> {
      *
      * @return default amount of an entry's maximal idle time.
      */
+    @Override
     public Duration getEntryIdleTime() {
         return _defaultEntryIdleTime;
     }
@@ -320,6 +335,7 @@ public class Cache<K, V> {
      *
      * @return default amount of an entry's live time.
      */
+    @Override
     public Duration getEntryLiveTime() {
         return _defaultEntryMaxLifeTime;
     }
@@ -327,6 +343,7 @@ public class Cache<K, V> {
     /**
      * Remove all values from the Cache. Notice, that remove notifications are not triggered.
      */
+    @Override
     public void clear() {
 
         _log.debug("Cleaning the cache");
@@ -342,6 +359,7 @@ public class Cache<K, V> {
     /**
      * Check and remove expired entries.
      */
+    @Override
     public void cleanUp() {
         List<V> expiredEntries = new ArrayList<>();
 
@@ -365,7 +383,7 @@ public class Cache<K, V> {
             _accessLock.unlock(stamp);
         }
 
-        expiredEntries.forEach(v -> _eventListener.notifyExpired(this, v));
+        expiredEntries.forEach(v -> _eventListener.notifyExpired(self(), v));
     }
 
     /**
@@ -373,6 +391,7 @@ public class Cache<K, V> {
      *
      * @return list of entries.
      */
+    @Override
     public List<CacheElement<V>> entries() {
         List<CacheElement<V>> entries;
 
@@ -386,6 +405,7 @@ public class Cache<K, V> {
         return entries;
     }
 
+    @Override
     public Instant lastClean() {
         return _lastClean.get();
     }
@@ -23,6 +23,8 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 
+import com.google.common.math.LongMath;
+
 /**
  * CacheElement wrapper.
  *
@@ -98,6 +100,33 @@ public class CacheElement<V> {
                 Duration.between(_creationTime, instant).compareTo(_maxLifeTime) <= 0;
     }
 
+    /**
+     * Get the point in time, in milliseconds since epoch, after which this entry becomes invalid, unless accessed
+     * again. Returns {@link Long#MAX_VALUE} if entry never expires.
+     *
+     * @return expiration time in milliseconds since epoch.
+     */
+    long expiresAtMillis() {
+        return Math.min(
+                LongMath.saturatedAdd(_lastAccessTime.toEpochMilli(), saturatedToMillis(_idleTime)),
+                LongMath.saturatedAdd(_creationTime.toEpochMilli(), saturatedToMillis(_maxLifeTime)));
+    }
+
+    /**
+     * Convert duration to milliseconds. Durations, which don't fit into a long, e.g. used for entries which never
+     * expire, are converted to {@link Long#MAX_VALUE}.
+     *
+     * @param duration the duration to convert.
+     * @return duration in milliseconds.
+     */
+    static long saturatedToMillis(Duration duration) {
+        try {
+            return duration.toMillis();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
     @Override
     public String toString() {
         Instant now = _clock.instant();
@@ -22,41 +22,108 @@ package org.dcache.nfs.util;
 /**
  * Cache event notification. Reacts on: <pre>
  * <code>put</code> <code>get</code> <code>remove</code> <code>expire</code> </pre>
+ * <p>
+ * Listeners should implement the methods, which accept an {@link ExpiringCache}. The methods, which accept a
+ * {@link Cache}, are kept for existing listeners and are called only for events of a {@link Cache}.
  *
  * @param <T> the type of value objects of the cache.
  * @author Tigran Mkrtchyan
  */
 public interface CacheEventListener<K, V> {
 
+    /**
+     * Fired after the entry is added into the cache.
+     *
+     * @param cache {@link ExpiringCache} into which the entry was put.
+     * @param v
+     * @since 0.28
+     */
+    default void notifyPut(ExpiringCache<K, V> cache, V v) {
+        if (cache instanceof Cache) {
+            notifyPut((Cache<K, V>) cache, v);
+        }
+    }
+
+    /**
+     * Fired after the valid (existing, not expired) is found.
+     *
+     * @param cache {@link ExpiringCache} in which the value is stored.
+     * @param v
+     * @since 0.28
+     */
+    default void notifyGet(ExpiringCache<K, V> cache, V v) {
+        if (cache instanceof Cache) {
+            notifyGet((Cache<K, V>) cache, v);
+        }
+    }
+
+    /**
+     * Fired after a valid (existing, not expired) entry was removed from the cache <code>storage</code>
+     *
+     * @param cache {@link ExpiringCache} from which the value was removed.
+     * @param v
+     * @since 0.28
+     */
+    default void notifyRemove(ExpiringCache<K, V> cache, V v) {
+        if (cache instanceof Cache) {
+            notifyRemove((Cache<K, V>) cache, v);
+        }
+    }
+
+    /**
+     * Fired when an entry was found to have expired.
+     *
+     * @param cache {@link ExpiringCache} from which the value was expired.
+     * @param v entry
+     * @since 0.28
+     */
+    default void notifyExpired(ExpiringCache<K, V> cache, V v) {
+        if (cache instanceof Cache) {
+            notifyExpired((Cache<K, V>) cache, v);
+        }
+    }
+
     /**
      * Fired after the entry is added into the cache.
      *
      * @param cache {@link Cache} into which the entry was put.
      * @param v
+     * @deprecated implement {@link #notifyPut(ExpiringCache, Object)} instead.
      */
-    void notifyPut(Cache<K, V> cache, V v);
+    @Deprecated
+    default void notifyPut(Cache<K, V> cache, V v) {
+    }
 
     /**
      * Fired after the valid (existing, not expired) is found.
      *
      * @param cache {@link Cache} in which the value is stored.
      * @param v
+     * @deprecated implement {@link #notifyGet(ExpiringCache, Object)} instead.
      */
-    void notifyGet(Cache<K, V> cache, V v);
+    @Deprecated
+    default void notifyGet(Cache<K, V> cache, V v) {
+    }
 
     /**
      * Fired after a valid (existing, not expired) entry was removed from the {@link Cache} <code>storage</code>
      *
      * @param cache {@link Cache} from which the value was removed.
      * @param v
+     * @deprecated implement {@link #notifyRemove(ExpiringCache, Object)} instead.
      */
-    void notifyRemove(Cache<K, V> cache, V v);
+    @Deprecated
+    default void notifyRemove(Cache<K, V> cache, V v) {
+    }
 
     /**
      * Fired when an entry was found to have expired.
      *
      * @param cache {@link Cache} from which the value was expired.
      * @param v entry
+     * @deprecated implement {@link #notifyExpired(ExpiringCache, Object)} instead.
      */
-    void notifyExpired(Cache<K, V> cache, V v);
+    @Deprecated
+    default void notifyExpired(Cache<K, V> cache, V v) {
+    }
 }
@@ -37,9 +37,9 @@ public class CacheMXBeanImpl<K, V> implements CacheMXBean<V> {
 
     private static final Logger _log = LoggerFactory.getLogger(CacheMXBeanImpl.class);
 
-    private final Cache<K, V> _cache;
+    private final ExpiringCache<K, V> _cache;
 
-    public CacheMXBeanImpl(Cache<K, V> cache) {
+    public CacheMXBeanImpl(ExpiringCache<K, V> cache) {
         _cache = cache;
         MBeanServer server = ManagementFactory.getPlatformMBeanServer();
         try {
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.MissingResourceException;
+
+/**
+ * A bounded key-value cache, which entries become unavailable when their life or idle time is expired.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ * @since 0.28
+ */
+public interface ExpiringCache<K, V> {
+
+    /**
+     * Get cache's name.
+     *
+     * @return name of the cache.
+     */
+    String getName();
+
+    /**
+     * Put/Update cache entry with default life and idle time.
+     *
+     * @param k key associated with the value.
+     * @param v value associated with key.
+     *
+     * @throws MissingResourceException if Cache limit is reached.
+     */
+    void put(K k, V v);
+
+    /**
+     * Put/Update cache entry.
+     *
+     * @param k key associated with the value.
+     * @param v value associated with key.
+     * @param entryMaxLifeTime maximal time that an entry allowed to stay in the cache after creation.
+     * @param entryIdleTime maximal time that an entry allowed to stay in the cache after last access.
+     *
+     * @throws MissingResourceException if Cache limit is reached.
+     */
+    void put(K k, V v, Duration entryMaxLifeTime, Duration entryIdleTime);
+
+    /**
+     * Get stored value. If cache does not have the associated entry or entry live time is expired <code>null</code>
+     * is returned.
+     *
+     * @param k key associated with entry.
+     * @return cached value associated with specified key.
+     */
+    V get(K k);
+
+    /**
+     * Remove entry associated with key.
+     *
+     * @param k key
+     * @return valid entry associated with the key or null if key not found or expired.
+     */
+    V remove(K k);
+
+    /**
+     * Get number of elements inside the cache.
+     *
+     * @return number of elements.
+     */
+    int size();
+
+    /**
+     * Get maximal idle time until entry become unavailable.
+     *
+     * @return default amount of an entry's maximal idle time.
+     */
+    Duration getEntryIdleTime();
+
+    /**
+     * Get maximal total time until entry become unavailable.
+     *
+     * @return default amount of an entry's live time.
+     */
+    Duration getEntryLiveTime();
+
+    /**
+     * Remove all values from the cache. Notice, that remove notifications are not triggered.
+     */
+    void clear();
+
+    /**
+     * Check and remove expired entries.
+     */
+    void cleanUp();
+
+    /**
+     * Get {@link List} of entries.
+     *
+     * @return list of entries.
+     */
+    List<CacheElement<V>> entries();
+
+    /**
+     * Get time of the last check for expired entries.
+     *
+     * @return time of the last cleanup.
+     */
+    Instant lastClean();
+}
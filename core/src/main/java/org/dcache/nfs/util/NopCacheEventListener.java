@@ -25,16 +25,4 @@ package org.dcache.nfs.util;
  * @param <T>
  */
 public class NopCacheEventListener<K, V> implements CacheEventListener<K, V> {
-
-    public void notifyPut(Cache<K, V> cache, V v) {
-    }
-
-    public void notifyGet(Cache<K, V> cache, V v) {
-    }
-
-    public void notifyRemove(Cache<K, V> cache, V v) {
-    }
-
-    public void notifyExpired(Cache<K, V> cache, V v) {
-    }
 }
@@ -0,0 +1,507 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.math.IntMath;
+
+/**
+ * An {@link ExpiringCache} which splits its storage into independently locked shards to reduce lock contention under high
+ * concurrency. Expired entries are tracked by a per-shard hashed timer wheel, thus {@link #cleanUp()} and
+ * {@link #put(Object, Object)} only visit entries which are due to expire instead of scanning the whole cache.
+ * <p>
+ * The {@link CacheEventListener} contract is the same as of {@link Cache}. The listeners are always notified outside of
+ * shard locks.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ */
+public class ShardedCache<K, V> implements ExpiringCache<K, V> {
+
+    private static final Logger _log = LoggerFactory.getLogger(ShardedCache.class);
+
+    /**
+     * Number of slots in timer wheel of each shard.
+     */
+    private static final int WHEEL_SIZE = 256;
+
+    private final Clock _timeSource;
+
+    /**
+     * The name of this cache.
+     */
+    private final String _name;
+
+    /**
+     * Maximum amount of time that an object is allowed to be cached. After expiration of this time cache entry
+     * invalidated.
+     */
+    private final Duration _defaultEntryMaxLifeTime;
+
+    /**
+     * Time amount since last use of the object. After expiration of this time cache entry is invalidated.
+     */
+    private final Duration _defaultEntryIdleTime;
+
+    /**
+     * Maximum number of entries in cache.
+     */
+    private final int _size;
+
+    /**
+     * Current number of entries in cache. A striped counter, as it's updated by all shards.
+     */
+    private final LongAdder _count = new LongAdder();
+
+    private final Shard<K, V>[] _shards;
+
+    /**
+     * Resolution of timer wheel in milliseconds.
+     */
+    private final long _tickMillis;
+
+    /**
+     * Cache event listener.
+     */
+    private final CacheEventListener<K, V> _eventListener;
+
+    /**
+     * The JMX interface to this cache
+     */
+    private final CacheMXBean<V> _mxBean;
+
+    /**
+     * Last cleanup time
+     */
+    private final AtomicReference<Instant> _lastClean;
+
+    /**
+     * Create new cache instance with number of shards based on available CPUs and default {@link CacheEventListener}.
+     *
+     * @param name Unique id for this cache.
+     * @param size maximal number of elements.
+     * @param entryLifeTime maximal time that an entry allowed to stay in the cache after creation.
+     * @param entryIdleTime maximal time that an entry allowed to stay in the cache after last access.
+     */
+    public ShardedCache(String name, int size, Duration entryLifeTime, Duration entryIdleTime) {
+        this(name, size, entryLifeTime, entryIdleTime, new NopCacheEventListener<K, V>());
+    }
+
+    /**
+     * Create new cache instance with number of shards based on available CPUs.
+     *
+     * @param name Unique id for this cache.
+     * @param size maximal number of elements.
+     * @param entryLifeTime maximal time that an entry allowed to stay in the cache after creation.
+     * @param entryIdleTime maximal time that an entry allowed to stay in the cache after last access.
+     * @param eventListener {@link CacheEventListener}
+     */
+    public ShardedCache(String name, int size, Duration entryLifeTime, Duration entryIdleTime,
+            CacheEventListener<K, V> eventListener) {
+        this(name, size, entryLifeTime, entryIdleTime, eventListener, Clock.systemDefaultZone(),
+                Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Create new cache instance.
+     *
+     * @param name Unique id for this cache.
+     * @param size maximal number of elements.
+     * @param entryLifeTime maximal time that an entry allowed to stay in the cache after creation.
+     * @param entryIdleTime maximal time that an entry allowed to stay in the cache after last access.
+     * @param eventListener {@link CacheEventListener}
+     * @param clock {@link Clock} to use <code>timeValue</code> parameter.
+     * @param shards number of shards, rounded up to the next power of two.
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedCache(String name, int size, Duration entryLifeTime, Duration entryIdleTime,
+            CacheEventListener<K, V> eventListener, Clock clock, int shards) {
+        checkArgument(entryLifeTime.compareTo(entryIdleTime) >= 0, "Entry life time cant be smaller that idle time");
+        checkArgument(shards > 0, "Number of shards must be positive");
+
+        _name = name;
+        _size = size;
+        _defaultEntryMaxLifeTime = entryLifeTime;
+        _defaultEntryIdleTime = entryIdleTime;
+        _eventListener = eventListener;
+        _timeSource = clock;
+        _lastClean = new AtomicReference<>(_timeSource.instant());
+
+        long minTimeout = Math.min(CacheElement.saturatedToMillis(entryLifeTime),
+                CacheElement.saturatedToMillis(entryIdleTime));
+        _tickMillis = Math.max(1, minTimeout / WHEEL_SIZE);
+
+        long now = _timeSource.millis();
+        _shards = new Shard[IntMath.ceilingPowerOfTwo(shards)];
+        for (int i = 0; i < _shards.length; i++) {
+            _shards[i] = new Shard<>(now / _tickMillis);
+        }
+        _mxBean = new CacheMXBeanImpl<>(this);
+    }
+
+    private Shard<K, V> shardOf(K k) {
+        int h = k.hashCode();
+        return _shards[(h ^ (h >>> 16)) & (_shards.length - 1)];
+    }
+
+    @Override
+    public String getName() {
+        return _name;
+    }
+
+    @Override
+    public void put(K k, V v) {
+        put(k, v, _defaultEntryMaxLifeTime, _defaultEntryIdleTime);
+    }
+
+    @Override
+    public void put(K k, V v, Duration entryMaxLifeTime, Duration entryIdleTime) {
+        _log.debug("Adding new cache entry: key = [{}], value = [{}]", k, v);
+
+        Shard<K, V> shard = shardOf(k);
+        List<V> expiredEntries = new ArrayList<>();
+
+        long stamp = shard.lock.writeLock();
+        try {
+            Instant now = _timeSource.instant();
+            expire(shard, now, expiredEntries);
+
+            TimerNode<K, V> existing = shard.storage.get(k);
+            if (existing != null) {
+                existing.unlink();
+            } else if (_count.sum() >= _size) {
+                // the limit is checked without a global lock, thus concurrent puts into different shards may exceed
+                // it by at most one entry per shard
+                _log.warn("Cache limit reached: {}", _size);
+                throw new MissingResourceException("Cache limit reached", ShardedCache.class.getName(), "");
+            } else {
+                _count.increment();
+            }
+
+            TimerNode<K, V> node = new TimerNode<>(k,
+                    new CacheElement<>(v, _timeSource, entryMaxLifeTime, entryIdleTime));
+            shard.storage.put(k, node);
+            schedule(shard, node, shard.currentTick + 1);
+        } finally {
+            shard.lock.unlock(stamp);
+            // expired entries must be reported even if the new one is rejected
+            expiredEntries.forEach(e -> _eventListener.notifyExpired(this, e));
+        }
+
+        _eventListener.notifyPut(this, v);
+    }
+
+    @Override
+    public V get(K k) {
+
+        V v;
+        boolean valid;
+        boolean removed = false;
+
+        Shard<K, V> shard = shardOf(k);
+        long stamp = shard.lock.readLock();
+        try {
+            TimerNode<K, V> node = shard.storage.get(k);
+
+            if (node == null) {
+                _log.debug("No cache hits for key = [{}]", k);
+                return null;
+            }
+
+            valid = node.element.validAt(_timeSource.instant());
+            v = node.element.getObject();
+
+            if (!valid) {
+                _log.debug("Cache hits but entry expired for key = [{}], value = [{}]", k, v);
+                long ws = shard.lock.tryConvertToWriteLock(stamp);
+                if (ws != 0L) {
+                    stamp = ws;
+                } else {
+                    shard.lock.unlock(stamp);
+                    stamp = shard.lock.writeLock();
+                }
+                removed = shard.storage.remove(k, node);
+                if (removed) {
+                    node.unlink();
+                    _count.decrement();
+                }
+            } else {
+                _log.debug("Cache hits for key = [{}], value = [{}]", k, v);
+            }
+        } finally {
+            shard.lock.unlock(stamp);
+        }
+
+        if (!valid) {
+            // notify only if this thread have removed the expired entry
+            if (removed) {
+                _eventListener.notifyExpired(this, v);
+            }
+            v = null;
+        } else {
+            _eventListener.notifyGet(this, v);
+        }
+        return v;
+    }
+
+    @Override
+    public V remove(K k) {
+
+        V v;
+        boolean valid;
+
+        Shard<K, V> shard = shardOf(k);
+        long stamp = shard.lock.writeLock();
+        try {
+            TimerNode<K, V> node = shard.storage.remove(k);
+            if (node == null)
+                return null;
+            node.unlink();
+            _count.decrement();
+            valid = node.element.validAt(_timeSource.instant());
+            v = node.element.getObject();
+        } finally {
+            shard.lock.unlock(stamp);
+        }
+
+        _log.debug("Removing entry: active = [{}] key = [{}], value = [{}]",
+                valid, k, v);
+
+        _eventListener.notifyRemove(this, v);
+
+        return valid ? v : null;
+    }
+
+    @Override
+    public int size() {
+        // the sum is not an atomic snapshot and may be off while entries are added and removed concurrently
+        return Math.max(0, _count.intValue());
+    }
+
+    @Override
+    public Duration getEntryIdleTime() {
+        return _defaultEntryIdleTime;
+    }
+
+    @Override
+    public Duration getEntryLiveTime() {
+        return _defaultEntryMaxLifeTime;
+    }
+
+    /**
+     * Get number of shards used by this cache.
+     *
+     * @return number of shards.
+     */
+    public int getShardCount() {
+        return _shards.length;
+    }
+
+    @Override
+    public void clear() {
+
+        _log.debug("Cleaning the cache");
+
+        for (Shard<K, V> shard : _shards) {
+            long stamp = shard.lock.writeLock();
+            try {
+                _count.add(-shard.storage.size());
+                shard.storage.values().forEach(TimerNode::unlink);
+                shard.storage.clear();
+            } finally {
+                shard.lock.unlock(stamp);
+            }
+        }
+    }
+
+    @Override
+    public void cleanUp() {
+
+        Instant now = _timeSource.instant();
+        for (Shard<K, V> shard : _shards) {
+            List<V> expiredEntries = new ArrayList<>();
+            long stamp = shard.lock.writeLock();
+            try {
+                expire(shard, now, expiredEntries);
+            } finally {
+                shard.lock.unlock(stamp);
+            }
+            expiredEntries.forEach(v -> _eventListener.notifyExpired(this, v));
+        }
+        _lastClean.set(now);
+    }
+
+    @Override
+    public List<CacheElement<V>> entries() {
+        List<CacheElement<V>> entries = new ArrayList<>(size());
+        for (Shard<K, V> shard : _shards) {
+            long stamp = shard.lock.readLock();
+            try {
+                shard.storage.values().forEach(n -> entries.add(n.element));
+            } finally {
+                shard.lock.unlock(stamp);
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public Instant lastClean() {
+        return _lastClean.get();
+    }
+
+    /**
+     * Add an entry into shard's timer wheel. Entries, which never expire, are not tracked. Must be called with shard's
+     * write lock held.
+     */
+    private void schedule(Shard<K, V> shard, TimerNode<K, V> node, long minTick) {
+        long expiresAt = node.element.expiresAtMillis();
+        if (expiresAt == Long.MAX_VALUE) {
+            return;
+        }
+
+        node.tick = Math.max(minTick, expiresAt / _tickMillis + 1);
+        node.linkBefore(shard.wheel[(int) (node.tick & (WHEEL_SIZE - 1))]);
+    }
+
+    /**
+     * Advance shard's timer wheel up to provided time and remove expired entries. Must be called with shard's write
+     * lock held.
+     *
+     * @param shard the shard to process.
+     * @param now current time.
+     * @param expiredEntries collection to which expired values are added.
+     */
+    private void expire(Shard<K, V> shard, Instant now, List<V> expiredEntries) {
+
+        long nowTick = now.toEpochMilli() / _tickMillis;
+        if (nowTick <= shard.currentTick) {
+            return;
+        }
+
+        // visit each slot at most once, even if the wheel has turned multiple times since the last call
+        long steps = Math.min(nowTick - shard.currentTick, WHEEL_SIZE);
+        for (long tick = shard.currentTick + 1; tick <= shard.currentTick + steps; tick++) {
+            TimerNode<K, V> head = shard.wheel[(int) (tick & (WHEEL_SIZE - 1))];
+            TimerNode<K, V> node = head.next;
+            while (node != head) {
+                TimerNode<K, V> next = node.next;
+
+                // entries due in one of the next turns of the wheel stay in place
+                if (node.tick <= nowTick) {
+                    node.unlink();
+                    if (node.element.validAt(now)) {
+                        // entry was accessed since scheduled
+                        schedule(shard, node, nowTick + 1);
+                    } else {
+                        _log.debug("Cleaning expired entry key = [{}], value = [{}]",
+                                node.key, node.element.peekObject());
+                        shard.storage.remove(node.key);
+                        _count.decrement();
+                        expiredEntries.add(node.element.peekObject());
+                    }
+                }
+                node = next;
+            }
+        }
+        shard.currentTick = nowTick;
+    }
+
+    /**
+     * Cache entry linked into a slot of the timer wheel. Each slot is a circular doubly-linked list with a sentinel
+     * node, which allows to remove an entry in constant time.
+     */
+    private static final class TimerNode<K, V> {
+
+        private final K key;
+        private final CacheElement<V> element;
+        private long tick;
+        private TimerNode<K, V> prev;
+        private TimerNode<K, V> next;
+
+        TimerNode(K key, CacheElement<V> element) {
+            this.key = key;
+            this.element = element;
+        }
+
+        /**
+         * Create a sentinel node.
+         */
+        static <K, V> TimerNode<K, V> sentinel() {
+            TimerNode<K, V> node = new TimerNode<>(null, null);
+            node.prev = node;
+            node.next = node;
+            return node;
+        }
+
+        void linkBefore(TimerNode<K, V> other) {
+            prev = other.prev;
+            next = other;
+            other.prev.next = this;
+            other.prev = this;
+        }
+
+        void unlink() {
+            if (next != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+
+    private static final class Shard<K, V> {
+
+        private final StampedLock lock = new StampedLock();
+        private final Map<K, TimerNode<K, V>> storage = new HashMap<>();
+
+        @SuppressWarnings("unchecked")
+        private final TimerNode<K, V>[] wheel = new TimerNode[WHEEL_SIZE];
+
+        /**
+         * The last processed tick of the timer wheel.
+         */
+        private long currentTick;
+
+        Shard(long currentTick) {
+            this.currentTick = currentTick;
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = TimerNode.sentinel();
+            }
+        }
+    }
+}
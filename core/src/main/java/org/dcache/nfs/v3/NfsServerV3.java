@@ -23,12 +23,15 @@ import static org.dcache.nfs.v3.Utils.checkFilename;
 import static org.dcache.nfs.v3.Utils.defaultPostOpAttr;
 import static org.dcache.nfs.v3.Utils.defaultWccData;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 
 import javax.security.auth.Subject;
 
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.ExportTable;
+import org.dcache.nfs.metrics.NfsMetrics;
 import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.status.*;
 import org.dcache.nfs.util.UnixSubjects;
@@ -144,8 +147,10 @@ import org.dcache.nfs.vfs.DirectoryStream;
 import org.dcache.nfs.vfs.FsStat;
 import org.dcache.nfs.vfs.Inode;
 import org.dcache.nfs.vfs.PseudoFs;
+import org.dcache.nfs.vfs.PseudoFsTreeCache;
 import org.dcache.nfs.vfs.Stat;
 import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.oncrpc4j.rpc.OncRpcException;
 import org.dcache.oncrpc4j.rpc.RpcCall;
 import org.dcache.oncrpc4j.util.Bytes;
 import org.slf4j.Logger;
@@ -172,12 +177,27 @@ public class NfsServerV3 extends nfs3_protServerStub {
 
     private final VirtualFileSystem _vfs;
     private final ExportTable _exports;
+    private final PseudoFsTreeCache _pseudoFsTrees = new PseudoFsTreeCache();
 
     private final writeverf3 writeVerifier = generateInstanceWriteVerifier();
 
+    /**
+     * Per procedure statistics, or null if not collected.
+     */
+    private final NfsMetrics _metrics;
+
     public NfsServerV3(ExportTable exports, VirtualFileSystem fs) {
+        this(exports, fs, null);
+    }
+
+    /**
+     * Create a new NFSv3 server, which collects per procedure latency, throughput and error statistics into provided
+     * {@link NfsMetrics}.
+     */
+    public NfsServerV3(ExportTable exports, VirtualFileSystem fs, NfsMetrics metrics) {
         _vfs = fs;
         _exports = exports;
+        _metrics = metrics;
     }
 
     private static writeverf3 generateInstanceWriteVerifier() {
@@ -188,10 +208,40 @@ public class NfsServerV3 extends nfs3_protServerStub {
         return verf;
     }
 
+    @Override
+    public void dispatchOncRpcCall(RpcCall call) throws OncRpcException, IOException {
+
+        if (_metrics == null) {
+            super.dispatchOncRpcCall(call);
+            return;
+        }
+
+        long started = System.nanoTime();
+        try {
+            super.dispatchOncRpcCall(call);
+        } finally {
+            // the status is recorded by the procedure itself, as the result is not visible here
+            _metrics.record(_metrics.nfsv3(call.getProcedure()), call.getTransport().getRemoteSocketAddress(),
+                    System.nanoTime() - started, nfsstat.NFS_OK);
+        }
+    }
+
+    private void recordStatus(int procedure, int status) {
+        if (_metrics != null) {
+            _metrics.nfsv3(procedure).recordStatus(status);
+        }
+    }
+
+    private void recordBytes(RpcCall call, int procedure, long count) {
+        if (_metrics != null) {
+            _metrics.addBytes(_metrics.nfsv3(procedure), call.getTransport().getRemoteSocketAddress(), count);
+        }
+    }
+
     @Override
     public ACCESS3res NFSPROC3_ACCESS_3(RpcCall call$, ACCESS3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         ACCESS3res res = new ACCESS3res();
         _log.debug("NFS Request ACCESS uid: {}", call$.getCredential());
 
@@ -224,13 +274,14 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.obj_attributes = defaultPostOpAttr();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_ACCESS_3, res.status);
         return res;
     }
 
     @Override
     public COMMIT3res NFSPROC3_COMMIT_3(RpcCall call$, COMMIT3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         COMMIT3res res = new COMMIT3res();
 
         try {
@@ -263,6 +314,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.file_wcc = defaultWccData();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_COMMIT_3, res.status);
         return res;
 
     }
@@ -270,7 +322,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public CREATE3res NFSPROC3_CREATE_3(RpcCall call$, CREATE3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         _log.debug("NFS Request CREATE3 uid: {}", call$.getCredential());
 
         CREATE3res res = new CREATE3res();
@@ -357,13 +409,14 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.dir_wcc = defaultWccData();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_CREATE_3, res.status);
         return res;
     }
 
     @Override
     public FSINFO3res NFSPROC3_FSINFO_3(RpcCall call$, FSINFO3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         _log.debug("NFS Request FSINFO from: {}", call$.getCredential());
 
         FSINFO3res res = new FSINFO3res();
@@ -414,13 +467,14 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.obj_attributes = defaultPostOpAttr();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_FSINFO_3, res.status);
         return res;
     }
 
     @Override
     public FSSTAT3res NFSPROC3_FSSTAT_3(RpcCall call$, FSSTAT3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         FSSTAT3res res = new FSSTAT3res();
 
         try {
@@ -454,6 +508,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.obj_attributes = defaultPostOpAttr();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_FSSTAT_3, res.status);
         return res;
 
     }
@@ -461,7 +516,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public GETATTR3res NFSPROC3_GETATTR_3(RpcCall call$, GETATTR3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         _log.debug("NFS Request GETTATTR3 uid: {}", call$.getCredential());
 
         GETATTR3res res = new GETATTR3res();
@@ -483,13 +538,14 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.status = nfsstat.NFSERR_SERVERFAULT;
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_GETATTR_3, res.status);
         return res;
     }
 
     @Override
     public LINK3res NFSPROC3_LINK_3(RpcCall call$, LINK3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         _log.debug("NFS Request LINK3 uid: {}", call$.getCredential());
 
         LINK3res res = new LINK3res();
@@ -538,13 +594,14 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.linkdir_wcc = defaultWccData();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_LINK_3, res.status);
         return res;
     }
 
     @Override
     public LOOKUP3res NFSPROC3_LOOKUP_3(RpcCall call$, LOOKUP3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         LOOKUP3res res = new LOOKUP3res();
 
         try {
@@ -586,13 +643,14 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.dir_attributes = defaultPostOpAttr();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_LOOKUP_3, res.status);
         return res;
     }
 
     @Override
     public MKDIR3res NFSPROC3_MKDIR_3(RpcCall call$, MKDIR3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         _log.debug("NFS Request MKDIR3 uid: {}", call$.getCredential());
 
         MKDIR3res res = new MKDIR3res();
@@ -657,6 +715,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.dir_wcc = defaultWccData();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_MKDIR_3, res.status);
         return res;
     }
 
@@ -667,6 +726,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
         res.status = nfsstat.NFSERR_NOTSUPP;
         res.resfail = new MKNOD3resfail();
         res.resfail.dir_wcc = defaultWccData();
+        recordStatus(nfs3_prot.NFSPROC3_MKNOD_3, res.status);
         return res;
 
     }
@@ -693,6 +753,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
 
         res.status = nfsstat.NFS_OK;
 
+        recordStatus(nfs3_prot.NFSPROC3_PATHCONF_3, res.status);
         return res;
 
     }
@@ -707,7 +768,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public READDIRPLUS3res NFSPROC3_READDIRPLUS_3(RpcCall call$, READDIRPLUS3args arg1) {
 
-        final VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        final VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         _log.debug("NFS Request READDIRPLUS3 uid: {}", call$.getCredential());
 
         READDIRPLUS3res res = new READDIRPLUS3res();
@@ -723,84 +784,99 @@ public class NfsServerV3 extends nfs3_protServerStub {
             }
 
             long startValue = arg1.cookie.value.value;
-            DirectoryStream directoryStream;
             cookieverf3 cookieverf = arg1.cookieverf;
 
-            directoryStream = fs.list(dir, cookieverf.value, startValue);
-            Iterator<DirectoryEntry> dirList = directoryStream.iterator();
+            // the stream may be lazy; only entries which fit into the reply are read
+            try (DirectoryStream directoryStream = fs.list(dir, cookieverf.value, startValue)
+                    .withAttributes(fs, arg1.maxcount.value.value / ENTRYPLUS3_SIZE)) {
+                Iterator<DirectoryEntry> dirList = directoryStream.iterator();
+
+                res.status = nfsstat.NFS_OK;
+                res.resok = new READDIRPLUS3resok();
+                res.resok.reply = new dirlistplus3();
+                res.resok.reply.eof = true;
+                res.resok.dir_attributes = new post_op_attr();
+                res.resok.dir_attributes.attributes_follow = true;
+                res.resok.dir_attributes.attributes = new fattr3();
+                res.resok.cookieverf = new cookieverf3(directoryStream.getVerifier());
+
+                Utils.fill_attributes(dirStat, res.resok.dir_attributes.attributes);
+
+                int currcount = READDIRPLUS3RESOK_SIZE;
+                int dircount = 0;
+                int fcount = 0;
+                entryplus3 lastEntry = null;
+
+                while (dirList.hasNext()) {
+
+                    DirectoryEntry le = dirList.next();
+                    String name = le.getName();
+                    Inode ef = le.getInode();
+                    Stat entryStat = le.getStat() != null ? le.getStat() : fs.getattr(ef);
+
+                    entryplus3 currentEntry = new entryplus3();
+                    currentEntry.fileid = new fileid3(new uint64(entryStat.getIno()));
+                    currentEntry.name = new filename3(name);
+                    currentEntry.cookie = new cookie3(new uint64(le.getCookie()));
+                    currentEntry.name_handle = new post_op_fh3();
+                    currentEntry.name_handle.handle_follows = true;
+                    currentEntry.name_handle.handle = new nfs_fh3();
+                    currentEntry.name_handle.handle.data = ef.toNfsHandle();
+                    currentEntry.name_attributes = new post_op_attr();
+                    currentEntry.name_attributes.attributes_follow = true;
+                    currentEntry.name_attributes.attributes = new fattr3();
+                    Utils.fill_attributes(entryStat, currentEntry.name_attributes.attributes);
+
+                    // check if writing this entry exceeds the count limit
+                    int newSize = ENTRYPLUS3_SIZE + name.length() + currentEntry.name_handle.handle.data.length;
+                    int newDirSize = name.length();
+                    if ((currcount + newSize > arg1.maxcount.value.value) || (dircount
+                            + newDirSize > arg1.dircount.value.value)) {
+                        if (lastEntry == null) {
+                            // corner case - means we didnt have enough space to
+                            // write even a single entry.
+                            throw new TooSmallException("can't send even a single entry");
+                        }
+                        res.resok.reply.eof = false;
+                        break;
+                    }
+
+                    fcount++;
+                    dircount += newDirSize;
+                    currcount += newSize;
 
-            res.status = nfsstat.NFS_OK;
-            res.resok = new READDIRPLUS3resok();
-            res.resok.reply = new dirlistplus3();
-            res.resok.reply.eof = true;
-            res.resok.dir_attributes = new post_op_attr();
-            res.resok.dir_attributes.attributes_follow = true;
-            res.resok.dir_attributes.attributes = new fattr3();
-            res.resok.cookieverf = new cookieverf3(directoryStream.getVerifier());
-
-            Utils.fill_attributes(dirStat, res.resok.dir_attributes.attributes);
-
-            int currcount = READDIRPLUS3RESOK_SIZE;
-            int dircount = 0;
-            int fcount = 0;
-            entryplus3 lastEntry = null;
-
-            while (dirList.hasNext()) {
-
-                DirectoryEntry le = dirList.next();
-                String name = le.getName();
-                Inode ef = le.getInode();
-
-                entryplus3 currentEntry = new entryplus3();
-                currentEntry.fileid = new fileid3(new uint64(le.getStat().getIno()));
-                currentEntry.name = new filename3(name);
-                currentEntry.cookie = new cookie3(new uint64(le.getCookie()));
-                currentEntry.name_handle = new post_op_fh3();
-                currentEntry.name_handle.handle_follows = true;
-                currentEntry.name_handle.handle = new nfs_fh3();
-                currentEntry.name_handle.handle.data = ef.toNfsHandle();
-                currentEntry.name_attributes = new post_op_attr();
-                currentEntry.name_attributes.attributes_follow = true;
-                currentEntry.name_attributes.attributes = new fattr3();
-                Utils.fill_attributes(le.getStat(), currentEntry.name_attributes.attributes);
-
-                // check if writing this entry exceeds the count limit
-                int newSize = ENTRYPLUS3_SIZE + name.length() + currentEntry.name_handle.handle.data.length;
-                int newDirSize = name.length();
-                if ((currcount + newSize > arg1.maxcount.value.value) || (dircount
-                        + newDirSize > arg1.dircount.value.value)) {
                     if (lastEntry == null) {
-                        // corner case - means we didnt have enough space to
-                        // write even a single entry.
-                        throw new TooSmallException("can't send even a single entry");
+                        res.resok.reply.entries = currentEntry;
+                    } else {
+                        lastEntry.nextentry = currentEntry;
                     }
-                    res.resok.reply.eof = false;
-                    break;
+                    lastEntry = currentEntry;
                 }
 
-                fcount++;
-                dircount += newDirSize;
-                currcount += newSize;
-
-                if (lastEntry == null) {
-                    res.resok.reply.entries = currentEntry;
-                } else {
-                    lastEntry.nextentry = currentEntry;
-                }
-                lastEntry = currentEntry;
+                _log.debug("Sending {} entries ( {} bytes from {}, dircount = {} from {} ) cookie = {}",
+                        fcount, currcount,
+                        arg1.maxcount.value.value, dircount,
+                        arg1.dircount.value.value,
+                        startValue);
             }
 
-            _log.debug("Sending {} entries ( {} bytes from {}, dircount = {} from {} ) cookie = {}",
-                    fcount, currcount,
-                    arg1.maxcount.value.value, dircount,
-                    arg1.dircount.value.value,
-                    startValue);
-
         } catch (ChimeraNFSException hne) {
             _log.debug("READDIRPLUS3 status: {}", hne.toString());
             res.resfail = new READDIRPLUS3resfail();
             res.resfail.dir_attributes = defaultPostOpAttr();
             res.status = hne.getStatus();
+        } catch (UncheckedIOException e) {
+            // lazy directory listings fail while being iterated
+            if (e.getCause() instanceof ChimeraNFSException) {
+                ChimeraNFSException hne = (ChimeraNFSException) e.getCause();
+                _log.debug("READDIRPLUS3 status: {}", hne.toString());
+                res.status = hne.getStatus();
+            } else {
+                _log.error("READDIRPLUS3", e.getCause());
+                res.status = nfsstat.NFSERR_SERVERFAULT;
+            }
+            res.resfail = new READDIRPLUS3resfail();
+            res.resfail.dir_attributes = defaultPostOpAttr();
         } catch (Exception e) {
             _log.error("READDIRPLUS3", e);
             res.status = nfsstat.NFSERR_SERVERFAULT;
@@ -808,13 +884,14 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.dir_attributes = defaultPostOpAttr();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_READDIRPLUS_3, res.status);
         return res;
     }
 
     @Override
     public READDIR3res NFSPROC3_READDIR_3(RpcCall call$, READDIR3args arg1) {
 
-        final VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        final VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         _log.debug("NFS Request READDIR3 uid: {}", call$.getCredential());
 
         READDIR3res res = new READDIR3res();
@@ -830,69 +907,85 @@ public class NfsServerV3 extends nfs3_protServerStub {
             }
 
             long startValue = arg1.cookie.value.value;
-            DirectoryStream directoryStream;
             cookieverf3 cookieverf = arg1.cookieverf;
 
-            directoryStream = fs.list(dir, cookieverf.value, startValue);
-            Iterator<DirectoryEntry> dirList = directoryStream.iterator();
-
-            res.status = nfsstat.NFS_OK;
-            res.resok = new READDIR3resok();
-            res.resok.reply = new dirlist3();
-            res.resok.reply.eof = true;
-            res.resok.dir_attributes = new post_op_attr();
-            res.resok.dir_attributes.attributes_follow = true;
-            res.resok.dir_attributes.attributes = new fattr3();
-            Utils.fill_attributes(dirStat, res.resok.dir_attributes.attributes);
-
-            res.resok.cookieverf = new cookieverf3(directoryStream.getVerifier());
-
-            int currcount = READDIR3RESOK_SIZE;
-            int fcount = 0;
-            entry3 lastEntry = null;
-
-            while (dirList.hasNext()) {
-
-                DirectoryEntry le = dirList.next();
-                String name = le.getName();
-
-                entry3 currentEntry = new entry3();
-                currentEntry.fileid = new fileid3(new uint64(le.getStat().getIno()));
-                currentEntry.name = new filename3(name);
-                currentEntry.cookie = new cookie3(new uint64(le.getCookie()));
+            // the stream may be lazy; only entries which fit into the reply are read
+            try (DirectoryStream directoryStream = fs.list(dir, cookieverf.value, startValue)
+                    .withAttributes(fs, arg1.count.value.value / ENTRY3_SIZE)) {
+                Iterator<DirectoryEntry> dirList = directoryStream.iterator();
+
+                res.status = nfsstat.NFS_OK;
+                res.resok = new READDIR3resok();
+                res.resok.reply = new dirlist3();
+                res.resok.reply.eof = true;
+                res.resok.dir_attributes = new post_op_attr();
+                res.resok.dir_attributes.attributes_follow = true;
+                res.resok.dir_attributes.attributes = new fattr3();
+                Utils.fill_attributes(dirStat, res.resok.dir_attributes.attributes);
+
+                res.resok.cookieverf = new cookieverf3(directoryStream.getVerifier());
+
+                int currcount = READDIR3RESOK_SIZE;
+                int fcount = 0;
+                entry3 lastEntry = null;
+
+                while (dirList.hasNext()) {
+
+                    DirectoryEntry le = dirList.next();
+                    String name = le.getName();
+
+                    Stat entryStat = le.getStat() != null ? le.getStat() : fs.getattr(le.getInode());
+
+                    entry3 currentEntry = new entry3();
+                    currentEntry.fileid = new fileid3(new uint64(entryStat.getIno()));
+                    currentEntry.name = new filename3(name);
+                    currentEntry.cookie = new cookie3(new uint64(le.getCookie()));
+
+                    // check if writing this entry exceeds the count limit
+                    int newSize = ENTRY3_SIZE + name.length();
+                    if (currcount + newSize > arg1.count.value.value) {
+                        if (lastEntry == null) {
+                            // corner case - means we didnt have enough space to
+                            // write even a single entry.
+                            throw new TooSmallException("can't send even a single entry");
+                        }
+                        res.resok.reply.eof = false;
+                        break;
+                    }
+                    fcount++;
+                    currcount += newSize;
 
-                // check if writing this entry exceeds the count limit
-                int newSize = ENTRY3_SIZE + name.length();
-                if (currcount + newSize > arg1.count.value.value) {
                     if (lastEntry == null) {
-                        // corner case - means we didnt have enough space to
-                        // write even a single entry.
-                        throw new TooSmallException("can't send even a single entry");
+                        res.resok.reply.entries = currentEntry;
+                    } else {
+                        lastEntry.nextentry = currentEntry;
                     }
-                    res.resok.reply.eof = false;
-                    break;
+                    lastEntry = currentEntry;
                 }
-                fcount++;
-                currcount += newSize;
 
-                if (lastEntry == null) {
-                    res.resok.reply.entries = currentEntry;
-                } else {
-                    lastEntry.nextentry = currentEntry;
-                }
-                lastEntry = currentEntry;
+                _log.debug("Sending {} entries ( {} bytes from {}) cookie = {}",
+                        fcount, currcount,
+                        arg1.count.value.value,
+                        startValue);
             }
 
-            _log.debug("Sending {} entries ( {} bytes from {}) cookie = {}",
-                    fcount, currcount,
-                    arg1.count.value.value,
-                    startValue);
-
         } catch (ChimeraNFSException hne) {
             _log.error("READDIR: {}", hne.toString());
             res.resfail = new READDIR3resfail();
             res.resfail.dir_attributes = defaultPostOpAttr();
             res.status = hne.getStatus();
+        } catch (UncheckedIOException e) {
+            // lazy directory listings fail while being iterated
+            if (e.getCause() instanceof ChimeraNFSException) {
+                ChimeraNFSException hne = (ChimeraNFSException) e.getCause();
+                _log.error("READDIR: {}", hne.toString());
+                res.status = hne.getStatus();
+            } else {
+                _log.error("READDIR", e.getCause());
+                res.status = nfsstat.NFSERR_SERVERFAULT;
+            }
+            res.resfail = new READDIR3resfail();
+            res.resfail.dir_attributes = defaultPostOpAttr();
         } catch (Exception e) {
             _log.error("READDIR", e);
             res.status = nfsstat.NFSERR_SERVERFAULT;
@@ -900,13 +993,14 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.dir_attributes = defaultPostOpAttr();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_READDIR_3, res.status);
         return res;
     }
 
     @Override
     public READLINK3res NFSPROC3_READLINK_3(RpcCall call$, READLINK3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         READLINK3res res = new READLINK3res();
 
         try {
@@ -934,6 +1028,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.symlink_attributes = defaultPostOpAttr();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_READLINK_3, res.status);
         return res;
 
     }
@@ -941,7 +1036,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public READ3res NFSPROC3_READ_3(RpcCall call$, READ3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         READ3res res = new READ3res();
 
         try {
@@ -972,6 +1067,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             if (res.resok.count.value.value + offset == inodeStat.getSize()) {
                 res.resok.eof = true;
             }
+            recordBytes(call$, nfs3_prot.NFSPROC3_READ_3, res.resok.count.value.value);
 
             res.resok.file_attributes = new post_op_attr();
             res.resok.file_attributes.attributes_follow = true;
@@ -988,6 +1084,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.file_attributes = defaultPostOpAttr();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_READ_3, res.status);
         return res;
 
     }
@@ -995,7 +1092,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public REMOVE3res NFSPROC3_REMOVE_3(RpcCall call$, REMOVE3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         _log.debug("NFS Request REMOVE3 uid: {}", call$.getCredential());
 
         REMOVE3res res = new REMOVE3res();
@@ -1040,6 +1137,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.dir_wcc = defaultWccData();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_REMOVE_3, res.status);
         return res;
 
     }
@@ -1047,7 +1145,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public RENAME3res NFSPROC3_RENAME_3(RpcCall call$, RENAME3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         _log.debug("NFS Request RENAME3 uid: {}", call$.getCredential());
 
         RENAME3res res = new RENAME3res();
@@ -1097,6 +1195,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.todir_wcc = defaultWccData();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_RENAME_3, res.status);
         return res;
 
     }
@@ -1104,7 +1203,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public RMDIR3res NFSPROC3_RMDIR_3(RpcCall call$, RMDIR3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         _log.debug("NFS Request RMDIR3 uid: {}", call$.getCredential());
 
         RMDIR3res res = new RMDIR3res();
@@ -1149,13 +1248,14 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.dir_wcc = defaultWccData();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_RMDIR_3, res.status);
         return res;
     }
 
     @Override
     public SETATTR3res NFSPROC3_SETATTR_3(RpcCall call$, SETATTR3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         _log.debug("NFS Request SETATTR3 uid: {}", call$.getCredential());
 
         SETATTR3res res = new SETATTR3res();
@@ -1187,6 +1287,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.obj_wcc = defaultWccData();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_SETATTR_3, res.status);
         return res;
 
     }
@@ -1194,7 +1295,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public SYMLINK3res NFSPROC3_SYMLINK_3(RpcCall call$, SYMLINK3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         _log.debug("NFS Request SYMLINK3 uid: {}", call$.getCredential());
 
         SYMLINK3res res = new SYMLINK3res();
@@ -1252,6 +1353,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.dir_wcc = defaultWccData();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_SYMLINK_3, res.status);
         return res;
 
     }
@@ -1259,7 +1361,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public WRITE3res NFSPROC3_WRITE_3(RpcCall call$, WRITE3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _pseudoFsTrees);
         WRITE3res res = new WRITE3res();
 
         try {
@@ -1278,6 +1380,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             }
 
             res.resok.count = new count3(new uint32(ret.getBytesWritten()));
+            recordBytes(call$, nfs3_prot.NFSPROC3_WRITE_3, ret.getBytesWritten());
             res.resok.file_wcc = new wcc_data();
             res.resok.file_wcc.after = new post_op_attr();
             res.resok.file_wcc.after.attributes_follow = true;
@@ -1299,6 +1402,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resfail.file_wcc = defaultWccData();
         }
 
+        recordStatus(nfs3_prot.NFSPROC3_WRITE_3, res.status);
         return res;
 
     }
@@ -20,6 +20,8 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.v4.xdr.nfs_argop4;
@@ -50,4 +52,26 @@ public abstract class AbstractNFSv4Operation {
      */
     public abstract void process(CompoundContext context, nfs_resop4 result)
             throws ChimeraNFSException, IOException, OncRpcException;
+
+    /**
+     * Process current operation asynchronously. The {@code result} object is used to store result of the operation
+     * execution and must not be accessed by the caller until the returned {@link CompletionStage} is completed.
+     * Operations which wait for external events, like back-end or callback replies, should override this method to
+     * release the calling thread.
+     * <p>
+     * The default implementation calls {@link #process(CompoundContext, nfs_resop4)} in the calling thread.
+     *
+     * @param context the context of compound request of this operation.
+     * @param result the operation result object to use.
+     * @return a {@link CompletionStage} which completes when operation is processed. The stage completes
+     *         exceptionally with {@link ChimeraNFSException} when a specific NFS error is returned.
+     */
+    public CompletionStage<Void> processAsync(CompoundContext context, nfs_resop4 result) {
+        try {
+            process(context, result);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
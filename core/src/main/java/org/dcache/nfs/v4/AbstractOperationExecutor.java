@@ -20,6 +20,8 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.nfsstat;
@@ -56,6 +58,42 @@ public abstract class AbstractOperationExecutor implements OperationExecutor {
 
         try {
             op.process(context, opResult);
+        } catch (IOException e) {
+            handleError(args, opResult, e);
+        }
+        return opResult;
+    }
+
+    @Override
+    public CompletableFuture<nfs_resop4> executeAsync(CompoundContext context, nfs_argop4 args) {
+
+        AbstractNFSv4Operation op = getOperation(args);
+        nfs_resop4 opResult = nfs_resop4.resopFor(args.argop);
+
+        return op.processAsync(context, opResult)
+                .handle((v, t) -> {
+                    if (t != null) {
+                        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+                        if (!(cause instanceof IOException)) {
+                            throw new CompletionException(cause);
+                        }
+                        try {
+                            handleError(args, opResult, (IOException) cause);
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        }
+                    }
+                    return opResult;
+                }).toCompletableFuture();
+    }
+
+    /**
+     * Convert operation's failure into result status. Errors which can't be expressed as an operation status are
+     * re-thrown.
+     */
+    private void handleError(nfs_argop4 args, nfs_resop4 opResult, IOException error) throws IOException {
+        try {
+            throw error;
         } catch (NfsIoException | ResourceException | ServerFaultException e) {
             LOGGER.error("NFS server fault: op: {} : {}", nfs_opnum4.toString(args.argop), e.getMessage());
             opResult.setStatus(e.getStatus());
@@ -72,7 +110,6 @@ public abstract class AbstractOperationExecutor implements OperationExecutor {
             opResult.setStatus(nfsstat.NFSERR_BADXDR);
             LOGGER.warn("Bad xdr: {}: ", e.getMessage());
         }
-        return opResult;
     }
 
     /**
@@ -22,14 +22,28 @@ package org.dcache.nfs.v4;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.File;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.GuardedBy;
 
 import org.dcache.nfs.status.NoGraceException;
 import org.dcache.nfs.status.ReclaimBadException;
+import org.dcache.nfs.status.ServerFaultException;
+import org.dcache.nfs.util.Opaque;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import com.sleepycat.bind.tuple.LongBinding;
 import com.sleepycat.je.Cursor;
 import com.sleepycat.je.CursorConfig;
@@ -50,6 +64,12 @@ import com.sleepycat.je.Transaction;
  * created. After recover is complete, due to grace period expiry or when all known clients have complete the recovery,
  * the old db will be removed and new one will take it's place.
  *
+ * <p>
+ * In write-behind mode changes of client records are kept in memory and written to the database in a single
+ * transaction at a fixed interval. Callers, which require client's record to be durable, should use
+ * {@link #sync(byte[])}, which completes with the next group commit. Changes of a failed group commit are kept and
+ * retried with the next one.
+ *
  * @since 0.18
  */
 public class BerkeleyDBClientStore implements ClientRecoveryStore {
@@ -84,6 +104,40 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
 
     private final Instant bootTime = Instant.now();
 
+    /**
+     * Executor used for group commits in write-behind mode, or null if changes are written immediately.
+     */
+    private final ScheduledExecutorService commitScheduler;
+
+    /**
+     * Lock to protect not yet committed changes.
+     */
+    private final Object pendingLock = new Object();
+
+    /**
+     * Changes to be written by the next group commit.
+     */
+    @GuardedBy("pendingLock")
+    private Map<Opaque, PendingChange> pendingChanges = new HashMap<>();
+
+    /**
+     * Changes, which are currently written to the database.
+     */
+    @GuardedBy("pendingLock")
+    private Map<Opaque, PendingChange> committingChanges = Map.of();
+
+    /**
+     * Completed when {@link #pendingChanges} are committed.
+     */
+    @GuardedBy("pendingLock")
+    private CompletableFuture<Void> nextCommit = new CompletableFuture<>();
+
+    /**
+     * Completed when {@link #committingChanges} are committed.
+     */
+    @GuardedBy("pendingLock")
+    private CompletableFuture<Void> runningCommit = CompletableFuture.completedFuture(null);
+
     /**
      * Create a BerkeleyDBClientStore with db file located in the given directory.
      *
@@ -101,6 +155,20 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
      * @param properties database configuration properties.
      */
     public BerkeleyDBClientStore(File dir, Properties properties) {
+        this(dir, properties, Duration.ZERO);
+    }
+
+    /**
+     * Create a BerkeleyDBClientStore with db file located in the given directory and configuration is specified by the
+     * specified properties. If {@code commitInterval} is not zero, the store operates in write-behind mode, where
+     * changes of client records are group-committed at the given interval.
+     *
+     * @param dir the directory where berkeley DB files are stored.
+     * @param properties database configuration properties.
+     * @param commitInterval interval between two group commits, or zero to write each change immediately.
+     * @since 0.28
+     */
+    public BerkeleyDBClientStore(File dir, Properties properties, Duration commitInterval) {
 
         EnvironmentConfig envConfig = new EnvironmentConfig(properties);
 
@@ -145,6 +213,18 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
         }
 
         dump();
+
+        if (commitInterval.isZero()) {
+            commitScheduler = null;
+        } else {
+            commitScheduler = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("nfs-client-store-commit")
+                            .setDaemon(true)
+                            .build());
+            long interval = commitInterval.toMillis();
+            commitScheduler.scheduleWithFixedDelay(this::commitPending, interval, interval, TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
@@ -153,16 +233,22 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
      * @param client client's unique identifier.
      */
     @Override
-    public synchronized void addClient(byte[] client) {
+    public void addClient(byte[] client) {
         Instant now = Instant.now();
 
-        DatabaseEntry key = new DatabaseEntry(client);
-        DatabaseEntry data = new DatabaseEntry();
-
-        LongBinding.longToEntry(now.toEpochMilli(), data);
-
         LOGGER.debug("New client record [{}] at {}", new String(client, UTF_8), now);
-        clientDatabase.put(null, key, data);
+        if (commitScheduler == null) {
+            synchronized (this) {
+                putClient(null, client, now.toEpochMilli());
+            }
+            return;
+        }
+
+        synchronized (pendingLock) {
+            // keep pending removal of recovery record, if any
+            pendingChanges.merge(Opaque.forBytes(client), new PendingChange(now.toEpochMilli(), false),
+                    (old, change) -> change.after(old));
+        }
     }
 
     /**
@@ -172,12 +258,52 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
      * @param client client's unique identifier.
      */
     @Override
-    public synchronized void removeClient(byte[] client) {
-        DatabaseEntry key = new DatabaseEntry(client);
-        clientDatabase.delete(null, key);
-        if (clientRecoveryDatabase != null) {
-            clientRecoveryDatabase.delete(null, key);
+    public void removeClient(byte[] client) {
+        if (commitScheduler == null) {
+            synchronized (this) {
+                deleteClient(null, client);
+            }
+            return;
+        }
+
+        synchronized (pendingLock) {
+            pendingChanges.put(Opaque.forBytes(client), PendingChange.REMOVED);
+        }
+    }
+
+    /**
+     * Get a future, which completes when the record of the given client is written by a group commit. The returned
+     * future is already complete if there are no pending changes of client's record or the store is not in
+     * write-behind mode. If the group commit fails, the future completes exceptionally with
+     * {@link ServerFaultException}.
+     *
+     * @param client client's unique identifier.
+     * @return future, which completes when client's record is committed.
+     */
+    @Override
+    public CompletableFuture<Void> sync(byte[] client) {
+        if (commitScheduler == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Opaque key = Opaque.forBytes(client);
+        CompletableFuture<Void> committed;
+        synchronized (pendingLock) {
+            if (pendingChanges.containsKey(key)) {
+                committed = nextCommit;
+            } else if (committingChanges.containsKey(key)) {
+                committed = runningCommit;
+            } else {
+                return CompletableFuture.completedFuture(null);
+            }
         }
+
+        return committed.handle((v, e) -> {
+            if (e != null) {
+                throw new CompletionException(new ServerFaultException("Failed to commit client record", e));
+            }
+            return null;
+        });
     }
 
     /**
@@ -220,6 +346,16 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
             throw new NoGraceException("Grace period expired");
         }
 
+        if (commitScheduler != null) {
+            synchronized (pendingLock) {
+                PendingChange change = pendingChanges.get(Opaque.forBytes(client));
+                if (change != null && change.dropRecovery()) {
+                    LOGGER.debug("Record for client [{}] is removed", new String(client, UTF_8));
+                    throw new ReclaimBadException("No pre-reboot record found");
+                }
+            }
+        }
+
         DatabaseEntry key = new DatabaseEntry(client);
         DatabaseEntry data = new DatabaseEntry();
 
@@ -335,12 +471,113 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
         }
     }
 
+    /**
+     * Write all pending changes to the database in a single transaction.
+     */
+    private synchronized void commitPending() {
+
+        Map<Opaque, PendingChange> changes;
+        CompletableFuture<Void> committed;
+        synchronized (pendingLock) {
+            if (pendingChanges.isEmpty()) {
+                return;
+            }
+            changes = pendingChanges;
+            committed = nextCommit;
+            pendingChanges = new HashMap<>();
+            nextCommit = new CompletableFuture<>();
+            committingChanges = changes;
+            runningCommit = committed;
+        }
+
+        try {
+            Transaction tx = env.beginTransaction(null, null);
+            try {
+                changes.forEach((client, change) -> {
+                    if (change.isRemoved()) {
+                        deleteClient(tx, client.toBytes());
+                    } else {
+                        if (change.dropRecovery() && clientRecoveryDatabase != null) {
+                            clientRecoveryDatabase.delete(tx, new DatabaseEntry(client.toBytes()));
+                        }
+                        putClient(tx, client.toBytes(), change.creationTime());
+                    }
+                });
+                tx.commit();
+            } catch (RuntimeException e) {
+                tx.abort();
+                throw e;
+            }
+            LOGGER.debug("Committed {} client record changes", changes.size());
+            committed.complete(null);
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to commit {} client record changes: {}", changes.size(), e.getMessage());
+            synchronized (pendingLock) {
+                // retry with the next group commit, unless overridden by a newer change
+                changes.forEach((client, change) -> pendingChanges.merge(client, change, PendingChange::after));
+            }
+            // only the callers waiting for this commit are failed
+            committed.completeExceptionally(e);
+        } finally {
+            synchronized (pendingLock) {
+                committingChanges = Map.of();
+            }
+        }
+    }
+
+    @GuardedBy("this")
+    private void putClient(Transaction tx, byte[] client, long creationTime) {
+        DatabaseEntry key = new DatabaseEntry(client);
+        DatabaseEntry data = new DatabaseEntry();
+
+        LongBinding.longToEntry(creationTime, data);
+        clientDatabase.put(tx, key, data);
+    }
+
+    @GuardedBy("this")
+    private void deleteClient(Transaction tx, byte[] client) {
+        DatabaseEntry key = new DatabaseEntry(client);
+        clientDatabase.delete(tx, key);
+        if (clientRecoveryDatabase != null) {
+            clientRecoveryDatabase.delete(tx, key);
+        }
+    }
+
     @Override
     public synchronized void close() {
+        if (commitScheduler != null) {
+            commitScheduler.shutdown();
+            commitPending();
+        }
         clientDatabase.close();
         if (clientRecoveryDatabase != null) {
             clientRecoveryDatabase.close();
             clientRecoveryDatabase = null;
         }
     }
+
+    /**
+     * A not yet committed change of a client record.
+     *
+     * @param creationTime client's record creation time in milliseconds, or -1 if record is removed.
+     * @param dropRecovery true, if client's pre-reboot record must be removed as well.
+     */
+    private record PendingChange(long creationTime, boolean dropRecovery) {
+
+        static final PendingChange REMOVED = new PendingChange(-1, true);
+
+        boolean isRemoved() {
+            return creationTime < 0;
+        }
+
+        /**
+         * Combine this change with an older, not committed change of the same record.
+         */
+        PendingChange after(PendingChange older) {
+            if (isRemoved()) {
+                return this;
+            }
+            return new PendingChange(creationTime, dropRecovery || older.dropRecovery);
+        }
+    }
 }
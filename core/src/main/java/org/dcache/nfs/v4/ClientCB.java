@@ -20,6 +20,12 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.CompletionHandler;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -27,6 +33,7 @@ import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.v4.xdr.CB_COMPOUND4args;
 import org.dcache.nfs.v4.xdr.CB_COMPOUND4res;
 import org.dcache.nfs.v4.xdr.CB_LAYOUTRECALL4args;
+import org.dcache.nfs.v4.xdr.CB_NOTIFY_LOCK4args;
 import org.dcache.nfs.v4.xdr.CB_NOTIFY_DEVICEID4args;
 import org.dcache.nfs.v4.xdr.CB_OFFLOAD4args;
 import org.dcache.nfs.v4.xdr.CB_RECALL4args;
@@ -41,6 +48,7 @@ import org.dcache.nfs.v4.xdr.layoutrecall_file4;
 import org.dcache.nfs.v4.xdr.layoutrecall_type4;
 import org.dcache.nfs.v4.xdr.layouttype4;
 import org.dcache.nfs.v4.xdr.length4;
+import org.dcache.nfs.v4.xdr.lock_owner4;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.dcache.nfs.v4.xdr.nfs_cb_argop4;
 import org.dcache.nfs.v4.xdr.nfs_cb_opnum4;
@@ -65,6 +73,7 @@ import org.dcache.oncrpc4j.rpc.RpcAuthType;
 import org.dcache.oncrpc4j.rpc.RpcAuthTypeNone;
 import org.dcache.oncrpc4j.rpc.RpcAuthTypeUnix;
 import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.oncrpc4j.rpc.RpcReply;
 import org.dcache.oncrpc4j.rpc.RpcTransport;
 import org.dcache.oncrpc4j.xdr.Xdr;
 import org.dcache.oncrpc4j.xdr.XdrAble;
@@ -208,15 +217,7 @@ public class ClientCB {
      */
     public void cbDelegationRecall(nfs_fh4 fh, stateid4 stateid, boolean truncate) throws OncRpcException, IOException {
 
-        CB_RECALL4args cbDelegRecall = new CB_RECALL4args();
-
-        cbDelegRecall.stateid = stateid;
-        cbDelegRecall.fh = fh;
-        cbDelegRecall.truncate = truncate;
-
-        nfs_cb_argop4 opArgs = new nfs_cb_argop4();
-        opArgs.argop = nfs_cb_opnum4.OP_CB_RECALL;
-        opArgs.opcbrecall = cbDelegRecall;
+        nfs_cb_argop4 opArgs = delegationRecallOp(fh, stateid, truncate);
 
         var slot = _clientSession.acquireSlot();
         try {
@@ -239,21 +240,7 @@ public class ClientCB {
     public void cbLayoutRecallFile(nfs_fh4 fh, stateid4 stateid, layouttype4 layouttype) throws OncRpcException,
             IOException {
 
-        CB_LAYOUTRECALL4args cbLayoutrecall = new CB_LAYOUTRECALL4args();
-        cbLayoutrecall.clora_changed = true;
-        cbLayoutrecall.clora_type = layouttype.getValue();
-        cbLayoutrecall.clora_iomode = layoutiomode4.LAYOUTIOMODE4_ANY;
-        cbLayoutrecall.clora_recall = new layoutrecall4();
-        cbLayoutrecall.clora_recall.lor_recalltype = layoutrecall_type4.LAYOUTRECALL4_FILE;
-        cbLayoutrecall.clora_recall.lor_layout = new layoutrecall_file4();
-        cbLayoutrecall.clora_recall.lor_layout.lor_fh = fh;
-        cbLayoutrecall.clora_recall.lor_layout.lor_offset = new offset4(0L);
-        cbLayoutrecall.clora_recall.lor_layout.lor_length = new length4(nfs4_prot.NFS4_UINT64_MAX);
-        cbLayoutrecall.clora_recall.lor_layout.lor_stateid = stateid;
-
-        nfs_cb_argop4 opArgs = new nfs_cb_argop4();
-        opArgs.argop = nfs_cb_opnum4.OP_CB_LAYOUTRECALL;
-        opArgs.opcblayoutrecall = cbLayoutrecall;
+        nfs_cb_argop4 opArgs = layoutRecallFileOp(fh, stateid, layouttype);
 
         var slot = _clientSession.acquireSlot();
         try {
@@ -268,37 +255,39 @@ public class ClientCB {
     }
 
     /**
-     * Notify the client that a device id has been added.
+     * Notify the client that a previously denied blocking lock might be available.
      *
-     * @param id device id
+     * @param fh file handle of the file
+     * @param owner lock owner of the denied lock request
      * @throws OncRpcException if an RPC error occurs
      * @throws IOException if an I/O error occurs
      */
-    public void cbDeleteDevice(deviceid4 id) throws OncRpcException, IOException {
+    public void cbNotifyLock(nfs_fh4 fh, lock_owner4 owner) throws OncRpcException, IOException {
 
-        CB_NOTIFY_DEVICEID4args cbDeleteDeciveId = new CB_NOTIFY_DEVICEID4args();
-
-        cbDeleteDeciveId.cnda_changes = new notify4[1];
-        cbDeleteDeciveId.cnda_changes[0] = new notify4();
-        cbDeleteDeciveId.cnda_changes[0].notify_mask = bitmap4.of(notify_deviceid_type4.NOTIFY_DEVICEID4_DELETE);
-
-        notify_deviceid_delete4 deleteDevice = new notify_deviceid_delete4();
-        deleteDevice.ndd_layouttype = layouttype4.LAYOUT4_NFSV4_1_FILES.getValue();
-        deleteDevice.ndd_deviceid = id;
-
-        try (Xdr xdr = new Xdr(32)) {
+        nfs_cb_argop4 opArgs = notifyLockOp(fh, owner);
 
-            xdr.beginEncoding();
-            deleteDevice.xdrEncode(xdr);
-            xdr.endEncoding();
-            byte[] b = xdr.getBytes();
+        var slot = _clientSession.acquireSlot();
+        try {
+            XdrAble args = generateCompound(slot, "cb_notify_lock", opArgs);
 
-            cbDeleteDeciveId.cnda_changes[0].notify_vals = new notifylist4(b);
+            CB_COMPOUND4res res = new CB_COMPOUND4res();
+            _rpc.call(nfs4_prot.CB_COMPOUND_1, args, res);
+            nfsstat.throwIfNeeded(res.status);
+        } finally {
+            _clientSession.releaseSlot(slot);
         }
+    }
 
-        nfs_cb_argop4 opArgs = new nfs_cb_argop4();
-        opArgs.argop = nfs_cb_opnum4.OP_CB_NOTIFY_DEVICEID;
-        opArgs.opcbnotify_deviceid = cbDeleteDeciveId;
+    /**
+     * Notify the client that a device id has been added.
+     *
+     * @param id device id
+     * @throws OncRpcException if an RPC error occurs
+     * @throws IOException if an I/O error occurs
+     */
+    public void cbDeleteDevice(deviceid4 id) throws OncRpcException, IOException {
+
+        nfs_cb_argop4 opArgs = deleteDeviceOp(id);
 
         var slot = _clientSession.acquireSlot();
         try {
@@ -323,17 +312,7 @@ public class ClientCB {
     public void cbOffload(nfs_fh4 fh, stateid4 stateid, write_response4 response, int status) throws OncRpcException,
             IOException {
 
-        CB_OFFLOAD4args copyOffload = new CB_OFFLOAD4args();
-
-        copyOffload.coa_fh = fh;
-        copyOffload.coa_stateid = stateid;
-        copyOffload.coa_offload_info = new offload_info4();
-        copyOffload.coa_offload_info.coa_resok4 = response;
-        copyOffload.coa_offload_info.coa_status = status;
-
-        nfs_cb_argop4 opArgs = new nfs_cb_argop4();
-        opArgs.argop = nfs_cb_opnum4.OP_CB_OFFLOAD;
-        opArgs.opcboffload = copyOffload;
+        nfs_cb_argop4 opArgs = offloadOp(fh, stateid, response, status);
 
         var slot = _clientSession.acquireSlot();
         try {
@@ -347,4 +326,281 @@ public class ClientCB {
         }
     }
 
+    /**
+     * Asynchronously recall file delegation from the client.
+     *
+     * @param fh file handle of the file
+     * @param stateid stateid of the delegation
+     * @param truncate true if the client should truncate the file
+     * @param timeout time to wait for the client's reply
+     * @return future, completed when the client has replied.
+     */
+    public CompletableFuture<CB_COMPOUND4res> cbDelegationRecallAsync(nfs_fh4 fh, stateid4 stateid, boolean truncate,
+            Duration timeout) {
+        return compound("cb_recall_delegation")
+                .delegationRecall(fh, stateid, truncate)
+                .sendAsync(timeout);
+    }
+
+    /**
+     * Asynchronously recall pNFS layout from the client.
+     *
+     * @param fh file handle of the file
+     * @param stateid stateid of the layout
+     * @param layouttype type of layout to recall
+     * @param timeout time to wait for the client's reply
+     * @return future, completed when the client has replied.
+     */
+    public CompletableFuture<CB_COMPOUND4res> cbLayoutRecallFileAsync(nfs_fh4 fh, stateid4 stateid,
+            layouttype4 layouttype, Duration timeout) {
+        return compound("cb_layout_recall_file")
+                .layoutRecallFile(fh, stateid, layouttype)
+                .sendAsync(timeout);
+    }
+
+    /**
+     * Asynchronously notify the client that a previously denied blocking lock might be available.
+     *
+     * @param fh file handle of the file
+     * @param owner lock owner of the denied lock request
+     * @param timeout time to wait for the client's reply
+     * @return future, completed when the client has replied.
+     */
+    public CompletableFuture<CB_COMPOUND4res> cbNotifyLockAsync(nfs_fh4 fh, lock_owner4 owner, Duration timeout) {
+        return compound("cb_notify_lock")
+                .notifyLock(fh, owner)
+                .sendAsync(timeout);
+    }
+
+    /**
+     * Asynchronously notify the client that a device id has been removed.
+     *
+     * @param id device id
+     * @param timeout time to wait for the client's reply
+     * @return future, completed when the client has replied.
+     */
+    public CompletableFuture<CB_COMPOUND4res> cbDeleteDeviceAsync(deviceid4 id, Duration timeout) {
+        return compound("cb_delete_device")
+                .deleteDevice(id)
+                .sendAsync(timeout);
+    }
+
+    /**
+     * Asynchronously notify the client that offload copy has been completed.
+     *
+     * @param fh file handle of the file
+     * @param stateid stateid of the file
+     * @param response write response
+     * @param status status of the offload
+     * @param timeout time to wait for the client's reply
+     * @return future, completed when the client has replied.
+     */
+    public CompletableFuture<CB_COMPOUND4res> cbOffloadAsync(nfs_fh4 fh, stateid4 stateid, write_response4 response,
+            int status, Duration timeout) {
+        return compound("cb_offload")
+                .offload(fh, stateid, response, status)
+                .sendAsync(timeout);
+    }
+
+    /**
+     * Create a new callback compound, which sends multiple callback operations to the client with a single
+     * CB_COMPOUND request.
+     *
+     * @param tag compound tag
+     * @return new callback compound.
+     */
+    public Compound compound(String tag) {
+        return new Compound(tag);
+    }
+
+    /**
+     * A CB_COMPOUND request with one or more callback operations. The request is sent asynchronously on the first
+     * available back-channel slot, thus multiple requests to the same client are in flight concurrently, up to the
+     * number of slots of the back-channel.
+     */
+    public class Compound {
+
+        private final String tag;
+        private final List<nfs_cb_argop4> operations = new ArrayList<>();
+
+        private Compound(String tag) {
+            this.tag = tag;
+        }
+
+        public Compound delegationRecall(nfs_fh4 fh, stateid4 stateid, boolean truncate) {
+            operations.add(delegationRecallOp(fh, stateid, truncate));
+            return this;
+        }
+
+        public Compound layoutRecallFile(nfs_fh4 fh, stateid4 stateid, layouttype4 layouttype) {
+            operations.add(layoutRecallFileOp(fh, stateid, layouttype));
+            return this;
+        }
+
+        public Compound notifyLock(nfs_fh4 fh, lock_owner4 owner) {
+            operations.add(notifyLockOp(fh, owner));
+            return this;
+        }
+
+        public Compound deleteDevice(deviceid4 id) {
+            operations.add(deleteDeviceOp(id));
+            return this;
+        }
+
+        public Compound offload(nfs_fh4 fh, stateid4 stateid, write_response4 response, int status) {
+            operations.add(offloadOp(fh, stateid, response, status));
+            return this;
+        }
+
+        /**
+         * Send the request to the client.
+         *
+         * @param timeout time to wait for the client's reply, not including the time waiting for a free slot.
+         * @return future, completed with the client's reply, or exceptionally, if the request has failed, timed out
+         *         or the client has replied with an error.
+         */
+        public CompletableFuture<CB_COMPOUND4res> sendAsync(Duration timeout) {
+            nfs_cb_argop4[] opArgs = operations.toArray(nfs_cb_argop4[]::new);
+            return _clientSession.acquireSlotAsync()
+                    .thenCompose(slot -> callAsync(slot, tag, timeout, opArgs));
+        }
+    }
+
+    /**
+     * Send CB_COMPOUND with the given slot. The slot is released only when the client has replied, as only then the
+     * slot's sequence id is known to match on both sides. If there is no reply, for instance on timeout, the slot is
+     * retired.
+     */
+    private CompletableFuture<CB_COMPOUND4res> callAsync(ClientSession.SessionSlot slot, String tag,
+            Duration timeout, nfs_cb_argop4... opArgs) {
+
+        CompletableFuture<CB_COMPOUND4res> result = new CompletableFuture<>();
+        try {
+            XdrAble args = generateCompound(slot, tag, opArgs);
+            _rpc.call(nfs4_prot.CB_COMPOUND_1, args, new CompletionHandler<RpcReply, RpcTransport>() {
+                @Override
+                public void completed(RpcReply reply, RpcTransport transport) {
+                    try {
+                        CB_COMPOUND4res res = new CB_COMPOUND4res();
+                        try {
+                            reply.getReplyResult(res);
+                        } catch (IOException | RuntimeException e) {
+                            // rejected RPC or garbage, the client has not processed CB_SEQUENCE
+                            _clientSession.retireSlot(slot);
+                            throw e;
+                        }
+                        _clientSession.releaseSlot(slot);
+                        nfsstat.throwIfNeeded(res.status);
+                        result.complete(res);
+                    } catch (IOException | RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                }
+
+                @Override
+                public void failed(Throwable t, RpcTransport transport) {
+                    _clientSession.retireSlot(slot);
+                    result.completeExceptionally(t);
+                }
+            }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (IOException | RuntimeException e) {
+            // the sequence id is already advanced and the request might be partially sent
+            _clientSession.retireSlot(slot);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private static nfs_cb_argop4 delegationRecallOp(nfs_fh4 fh, stateid4 stateid, boolean truncate) {
+
+        CB_RECALL4args cbDelegRecall = new CB_RECALL4args();
+
+        cbDelegRecall.stateid = stateid;
+        cbDelegRecall.fh = fh;
+        cbDelegRecall.truncate = truncate;
+
+        nfs_cb_argop4 opArgs = new nfs_cb_argop4();
+        opArgs.argop = nfs_cb_opnum4.OP_CB_RECALL;
+        opArgs.opcbrecall = cbDelegRecall;
+        return opArgs;
+    }
+
+    private static nfs_cb_argop4 layoutRecallFileOp(nfs_fh4 fh, stateid4 stateid, layouttype4 layouttype) {
+
+        CB_LAYOUTRECALL4args cbLayoutrecall = new CB_LAYOUTRECALL4args();
+        cbLayoutrecall.clora_changed = true;
+        cbLayoutrecall.clora_type = layouttype.getValue();
+        cbLayoutrecall.clora_iomode = layoutiomode4.LAYOUTIOMODE4_ANY;
+        cbLayoutrecall.clora_recall = new layoutrecall4();
+        cbLayoutrecall.clora_recall.lor_recalltype = layoutrecall_type4.LAYOUTRECALL4_FILE;
+        cbLayoutrecall.clora_recall.lor_layout = new layoutrecall_file4();
+        cbLayoutrecall.clora_recall.lor_layout.lor_fh = fh;
+        cbLayoutrecall.clora_recall.lor_layout.lor_offset = new offset4(0L);
+        cbLayoutrecall.clora_recall.lor_layout.lor_length = new length4(nfs4_prot.NFS4_UINT64_MAX);
+        cbLayoutrecall.clora_recall.lor_layout.lor_stateid = stateid;
+
+        nfs_cb_argop4 opArgs = new nfs_cb_argop4();
+        opArgs.argop = nfs_cb_opnum4.OP_CB_LAYOUTRECALL;
+        opArgs.opcblayoutrecall = cbLayoutrecall;
+        return opArgs;
+    }
+
+    private static nfs_cb_argop4 notifyLockOp(nfs_fh4 fh, lock_owner4 owner) {
+
+        CB_NOTIFY_LOCK4args cbNotifyLock = new CB_NOTIFY_LOCK4args();
+        cbNotifyLock.cnla_fh = fh;
+        cbNotifyLock.cnla_lock_owner = owner;
+
+        nfs_cb_argop4 opArgs = new nfs_cb_argop4();
+        opArgs.argop = nfs_cb_opnum4.OP_CB_NOTIFY_LOCK;
+        opArgs.opcbnotify_lock = cbNotifyLock;
+        return opArgs;
+    }
+
+    private static nfs_cb_argop4 deleteDeviceOp(deviceid4 id) {
+
+        CB_NOTIFY_DEVICEID4args cbDeleteDeciveId = new CB_NOTIFY_DEVICEID4args();
+
+        cbDeleteDeciveId.cnda_changes = new notify4[1];
+        cbDeleteDeciveId.cnda_changes[0] = new notify4();
+        cbDeleteDeciveId.cnda_changes[0].notify_mask = bitmap4.of(notify_deviceid_type4.NOTIFY_DEVICEID4_DELETE);
+
+        notify_deviceid_delete4 deleteDevice = new notify_deviceid_delete4();
+        deleteDevice.ndd_layouttype = layouttype4.LAYOUT4_NFSV4_1_FILES.getValue();
+        deleteDevice.ndd_deviceid = id;
+
+        try (Xdr xdr = new Xdr(32)) {
+
+            xdr.beginEncoding();
+            deleteDevice.xdrEncode(xdr);
+            xdr.endEncoding();
+            byte[] b = xdr.getBytes();
+
+            cbDeleteDeciveId.cnda_changes[0].notify_vals = new notifylist4(b);
+        } catch (IOException e) {
+            // encoding into memory buffer
+            throw new UncheckedIOException(e);
+        }
+
+        nfs_cb_argop4 opArgs = new nfs_cb_argop4();
+        opArgs.argop = nfs_cb_opnum4.OP_CB_NOTIFY_DEVICEID;
+        opArgs.opcbnotify_deviceid = cbDeleteDeciveId;
+        return opArgs;
+    }
+
+    private static nfs_cb_argop4 offloadOp(nfs_fh4 fh, stateid4 stateid, write_response4 response, int status) {
+
+        CB_OFFLOAD4args copyOffload = new CB_OFFLOAD4args();
+
+        copyOffload.coa_fh = fh;
+        copyOffload.coa_stateid = stateid;
+        copyOffload.coa_offload_info = new offload_info4();
+        copyOffload.coa_offload_info.coa_resok4 = response;
+        copyOffload.coa_offload_info.coa_status = status;
+
+        nfs_cb_argop4 opArgs = new nfs_cb_argop4();
+        opArgs.argop = nfs_cb_opnum4.OP_CB_OFFLOAD;
+        opArgs.opcboffload = copyOffload;
+        return opArgs;
+    }
 }
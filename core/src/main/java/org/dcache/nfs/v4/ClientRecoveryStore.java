@@ -20,6 +20,7 @@
 package org.dcache.nfs.v4;
 
 import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
 
 import org.dcache.nfs.status.NoGraceException;
 import org.dcache.nfs.status.ReclaimBadException;
@@ -78,4 +79,17 @@ public interface ClientRecoveryStore extends Closeable {
      */
     void reclaimComplete();
 
+    /**
+     * Get a future, which completes when the record of the given client is durably stored. Stores, which write
+     * changes immediately, return a completed future.
+     *
+     * @param client client's unique identifier.
+     * @return future, which completes when client's record is stored, or completes exceptionally with
+     *         {@link org.dcache.nfs.ChimeraNFSException} if the record can't be stored.
+     * @since 0.28
+     */
+    default CompletableFuture<Void> sync(byte[] client) {
+        return CompletableFuture.completedFuture(null);
+    }
+
 }
@@ -21,8 +21,14 @@ package org.dcache.nfs.v4;
 
 import java.io.IOException;
 import java.io.InterruptedIOException;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.dcache.nfs.status.CbPathDownException;
 
 import org.dcache.nfs.v4.xdr.sequenceid4;
 import org.dcache.nfs.v4.xdr.sessionid4;
@@ -46,7 +52,17 @@ public class ClientSession {
     /**
      * Queue that maintains the available/unused sessions slots.
      */
-    private final BlockingQueue<SessionSlot> unusedSessionSlots = new LinkedBlockingQueue<>();
+    private final Deque<SessionSlot> unusedSessionSlots = new ArrayDeque<>();
+
+    /**
+     * Requests waiting for a slot, oldest first.
+     */
+    private final Deque<CompletableFuture<SessionSlot>> slotWaiters = new ArrayDeque<>();
+
+    /**
+     * Number of slots taken out of use, as requests sent with them got no reply.
+     */
+    private int retiredSlots;
 
     /**
      * session slot with associated id and sequence.
@@ -96,13 +112,42 @@ public class ClientSession {
      * Get available session slot, waiting if necessary until a sot becomes available.
      */
     public SessionSlot acquireSlot() throws IOException {
+        CompletableFuture<SessionSlot> slot = acquireSlotAsync();
         try {
-            return unusedSessionSlots.take();
+            return slot.get();
         } catch (InterruptedException e) {
+            // the slot might be assigned concurrently
+            if (!slot.cancel(false)) {
+                releaseSlot(slot.join());
+            }
             InterruptedIOException eio = new InterruptedIOException(e.getMessage());
             // preserve the original stacktrace
             eio.setStackTrace(e.getStackTrace());
             throw eio;
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Get available session slot without blocking. The returned future is completed when a slot becomes available.
+     * Slots are assigned to waiting requests in the order of requests. A waiting request can be cancelled by
+     * cancelling the returned future.
+     *
+     * @return future, completed with the acquired slot.
+     */
+    public CompletableFuture<SessionSlot> acquireSlotAsync() {
+        synchronized (this) {
+            SessionSlot slot = unusedSessionSlots.poll();
+            if (slot != null) {
+                return CompletableFuture.completedFuture(slot);
+            }
+            if (retiredSlots == maxRequests) {
+                return CompletableFuture.failedFuture(noUsableSlots());
+            }
+            CompletableFuture<SessionSlot> waiter = new CompletableFuture<>();
+            slotWaiters.add(waiter);
+            return waiter;
         }
     }
 
@@ -110,7 +155,45 @@ public class ClientSession {
      * Return session slot into pool of available slots.
      */
     public void releaseSlot(SessionSlot slot) {
-        unusedSessionSlots.offer(slot);
+        while (true) {
+            CompletableFuture<SessionSlot> waiter;
+            synchronized (this) {
+                waiter = slotWaiters.poll();
+                if (waiter == null) {
+                    unusedSessionSlots.add(slot);
+                    return;
+                }
+            }
+            // complete outside of the monitor as dependent actions run in this thread
+            if (waiter.complete(slot)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Take the slot out of use after a request, which got no reply. As the client might have processed the request,
+     * the sequence id of the slot on the client side is unknown and the slot can't be used any more (RFC 8881
+     * Section 2.10.6). The slot comes back only with a new session, which is created when the client re-establishes
+     * the back channel. If all slots are retired, the waiting requests fail.
+     */
+    public void retireSlot(SessionSlot slot) {
+        List<CompletableFuture<SessionSlot>> orphans;
+        synchronized (this) {
+            retiredSlots++;
+            if (retiredSlots < maxRequests) {
+                return;
+            }
+            orphans = new ArrayList<>(slotWaiters);
+            slotWaiters.clear();
+        }
+
+        CbPathDownException e = noUsableSlots();
+        orphans.forEach(waiter -> waiter.completeExceptionally(e));
+    }
+
+    private CbPathDownException noUsableSlots() {
+        return new CbPathDownException("all back channel slots are retired");
     }
 
     /**
@@ -22,7 +22,9 @@ package org.dcache.nfs.v4;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +36,7 @@ import org.dcache.nfs.ExportTable;
 import org.dcache.nfs.status.BadStateidException;
 import org.dcache.nfs.status.NoFileHandleException;
 import org.dcache.nfs.status.RestoreFhException;
+import org.dcache.nfs.util.ByteBufferPool;
 import org.dcache.nfs.v4.nlm.LockManager;
 import org.dcache.nfs.v4.xdr.nfs_impl_id4;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
@@ -101,6 +104,36 @@ public class CompoundContext {
 
     private final nfs_impl_id4 _implId;
 
+    /**
+     * Pool to allocate reply buffers from, or null if buffers are not pooled.
+     */
+    private final ByteBufferPool _bufferPool;
+
+    /**
+     * Cache of encoded file attributes, or null if attributes are not cached.
+     */
+    private final EncodedAttributeCache _attributeCache;
+
+    /**
+     * Flow control of sessions, or null if slot targets are not adjusted.
+     */
+    private final SlotTableController _slotTableController;
+
+    /**
+     * Memory budget of session reply caches, or null if replies are not cached.
+     */
+    private final ReplyCacheBudget _replyCacheBudget;
+
+    /**
+     * Whether denied blocking locks are queued and clients are notified with CB_NOTIFY_LOCK.
+     */
+    private final boolean _blockingLocks;
+
+    /**
+     * Buffers leased from the pool to build the reply of this compound.
+     */
+    private final List<ByteBuffer> _leasedBuffers = new ArrayList<>(1);
+
     /**
      * Create context of COUMPOUND request.
      *
@@ -121,6 +154,11 @@ public class CompoundContext {
         _rebootVerifier = builder.getRebootVerifier();
         _implId = builder.getImplementationId();
         _session = builder.getSession();
+        _bufferPool = builder.getBufferPool();
+        _attributeCache = builder.getAttributeCache();
+        _slotTableController = builder.getSlotTableController();
+        _replyCacheBudget = builder.getReplyCacheBudget();
+        _blockingLocks = builder.isBlockingLocks();
     }
 
     public RpcCall getRpcCall() {
@@ -280,6 +318,77 @@ public class CompoundContext {
         _cache = cache;
     }
 
+    /**
+     * Get the cache of encoded file attributes.
+     *
+     * @return the cache or null, if attributes are not cached.
+     */
+    public EncodedAttributeCache getAttributeCache() {
+        return _attributeCache;
+    }
+
+    /**
+     * Get the flow control of sessions.
+     *
+     * @return the controller or null, if slot targets are not adjusted.
+     */
+    public SlotTableController getSlotTableController() {
+        return _slotTableController;
+    }
+
+    /**
+     * Get the memory budget of session reply caches.
+     *
+     * @return the budget or null, if replies are not cached.
+     */
+    public ReplyCacheBudget getReplyCacheBudget() {
+        return _replyCacheBudget;
+    }
+
+    /**
+     * Returns {@code true} if the server queues denied blocking locks and notifies clients with CB_NOTIFY_LOCK when
+     * the lock might be available.
+     */
+    public boolean isBlockingLocks() {
+        return _blockingLocks;
+    }
+
+    /**
+     * Allocate a buffer which will be used as a part of the reply. If the server is configured with a
+     * {@link ByteBufferPool}, then buffer is leased from the pool and returned back by
+     * {@link #releaseReplyBuffers()} once the reply is sent.
+     *
+     * @param size the required buffer size.
+     * @return a buffer with position zero and limit equal to {@code size}.
+     */
+    public ByteBuffer allocateReplyBuffer(int size) {
+        if (_bufferPool == null) {
+            return ByteBuffer.allocate(size);
+        }
+        ByteBuffer buffer = _bufferPool.acquire(size);
+        _leasedBuffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Return all buffers allocated by {@link #allocateReplyBuffer(int)} back to the pool. Must be called only after
+     * reply is encoded.
+     */
+    public void releaseReplyBuffers() {
+        if (_bufferPool != null) {
+            _leasedBuffers.forEach(_bufferPool::release);
+        }
+        _leasedBuffers.clear();
+    }
+
+    /**
+     * Detach buffers allocated by {@link #allocateReplyBuffer(int)} from the pool. Used when the reply is kept by
+     * the session's reply cache and, thus, the buffers must outlive the request.
+     */
+    public void detachReplyBuffers() {
+        _leasedBuffers.clear();
+    }
+
     public stateid4 currentStateid() throws ChimeraNFSException {
         if (_currentStateid == null)
             throw new BadStateidException("no current stateid");
@@ -22,6 +22,7 @@ package org.dcache.nfs.v4;
 import static java.util.Objects.requireNonNull;
 
 import org.dcache.nfs.ExportTable;
+import org.dcache.nfs.util.ByteBufferPool;
 import org.dcache.nfs.v4.nlm.LockManager;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.dcache.nfs.v4.xdr.nfs_impl_id4;
@@ -41,6 +42,11 @@ public class CompoundContextBuilder {
     private int exchangeIdFlags = nfs4_prot.EXCHGID4_FLAG_USE_NON_PNFS;
     private verifier4 rebootVerifier;
     private NFSv41Session session;
+    private ByteBufferPool bufferPool;
+    private EncodedAttributeCache attributeCache;
+    private SlotTableController slotTableController;
+    private ReplyCacheBudget replyCacheBudget;
+    private boolean blockingLocks;
 
     private nfs_impl_id4 implId;
 
@@ -84,6 +90,31 @@ public class CompoundContextBuilder {
         return this;
     }
 
+    public CompoundContextBuilder withBufferPool(ByteBufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+        return this;
+    }
+
+    public CompoundContextBuilder withAttributeCache(EncodedAttributeCache attributeCache) {
+        this.attributeCache = attributeCache;
+        return this;
+    }
+
+    public CompoundContextBuilder withSlotTableController(SlotTableController slotTableController) {
+        this.slotTableController = slotTableController;
+        return this;
+    }
+
+    public CompoundContextBuilder withReplyCacheBudget(ReplyCacheBudget replyCacheBudget) {
+        this.replyCacheBudget = replyCacheBudget;
+        return this;
+    }
+
+    public CompoundContextBuilder withBlockingLocks() {
+        this.blockingLocks = true;
+        return this;
+    }
+
     public LockManager getLm() {
         return lm;
     }
@@ -116,6 +147,26 @@ public class CompoundContextBuilder {
         return implId;
     }
 
+    public ByteBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    public EncodedAttributeCache getAttributeCache() {
+        return attributeCache;
+    }
+
+    public SlotTableController getSlotTableController() {
+        return slotTableController;
+    }
+
+    public ReplyCacheBudget getReplyCacheBudget() {
+        return replyCacheBudget;
+    }
+
+    public boolean isBlockingLocks() {
+        return blockingLocks;
+    }
+
     public CompoundContext build() {
 
         requireNonNull(call);
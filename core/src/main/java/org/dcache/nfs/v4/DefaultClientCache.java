@@ -28,8 +28,25 @@ import org.dcache.nfs.util.CacheEventListener;
 import org.dcache.nfs.v4.xdr.clientid4;
 
 public class DefaultClientCache extends Cache<clientid4, NFS4Client> implements ClientCache {
+    /**
+     * Default maximal number of clients.
+     */
+    public static final int DEFAULT_MAX_CLIENTS = 5000;
+
     public DefaultClientCache(Duration leaseTime, CacheEventListener<clientid4, NFS4Client> eventListener) {
-        super("NFSv41 clients", 5000, Duration.ofSeconds(Long.MAX_VALUE),
+        this(leaseTime, DEFAULT_MAX_CLIENTS, eventListener);
+    }
+
+    /**
+     * Create client cache that can hold up to {@code maxClients} clients.
+     *
+     * @param leaseTime client's lease time.
+     * @param maxClients maximal number of clients.
+     * @param eventListener listener to be notified on cache events.
+     */
+    public DefaultClientCache(Duration leaseTime, int maxClients,
+            CacheEventListener<clientid4, NFS4Client> eventListener) {
+        super("NFSv41 clients", maxClients, Duration.ofSeconds(Long.MAX_VALUE),
                 leaseTime.multipliedBy(2),
                 eventListener);
     }
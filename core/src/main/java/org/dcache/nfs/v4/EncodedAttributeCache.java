@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.dcache.nfs.v4.xdr.attrlist4;
+import org.dcache.nfs.v4.xdr.bitmap4;
+import org.dcache.nfs.v4.xdr.fattr4;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.Stat.StatAttribute;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A cache of encoded file attributes. The entries are keyed by file handle, requested bitmap and file's change id,
+ * thus, any modification of a file, which updates the change id, makes cached entries for this file obsolete.
+ * <p>
+ * Only attributes which are fully derived from {@link Stat} and {@link Inode} are cached. As the change id is not
+ * required to be updated on access, requests containing {@code time_access} are not cached. The backend must update
+ * the generation of the file ({@link Stat#getGeneration()}) on every other modification.
+ *
+ * @since 0.28
+ */
+public class EncodedAttributeCache {
+
+    private final Cache<Key, fattr4> cache;
+
+    /**
+     * Create a new cache.
+     *
+     * @param maxEntries maximal number of cached entries.
+     * @param lifetime time after which an entry expires, even if file is not modified.
+     */
+    public EncodedAttributeCache(int maxEntries, Duration lifetime) {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(lifetime.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Returns true if attributes, requested by {@code bitmap}, of a file with the given {@code stat} can be cached.
+     */
+    static boolean isCacheable(bitmap4 bitmap, Stat stat) {
+        return stat.isDefined(StatAttribute.GENERATION)
+                && !bitmap.isSet(nfs4_prot.FATTR4_TIME_ACCESS)
+                && Fattr4Encoder.isStatOnly(bitmap);
+    }
+
+    /**
+     * Get cached attributes.
+     *
+     * @return encoded attributes or null, if there is no matching entry.
+     */
+    fattr4 get(Inode inode, bitmap4 bitmap, Stat stat) {
+        fattr4 cached = cache.getIfPresent(new Key(inode, bitmap, stat.getGeneration()));
+        if (cached == null) {
+            return null;
+        }
+
+        // the cached instance is shared, return a copy, which can be modified by the caller
+        fattr4 attributes = new fattr4();
+        attributes.attrmask = new bitmap4(cached.attrmask.value.clone());
+        attributes.attr_vals = new attrlist4(cached.attr_vals.value);
+        return attributes;
+    }
+
+    void put(Inode inode, bitmap4 bitmap, Stat stat, fattr4 attributes) {
+        fattr4 copy = new fattr4();
+        copy.attrmask = new bitmap4(attributes.attrmask.value.clone());
+        copy.attr_vals = new attrlist4(attributes.attr_vals.value);
+        cache.put(new Key(inode, bitmap, stat.getGeneration()), copy);
+    }
+
+    /**
+     * Discards all cached entries.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static final class Key {
+
+        private final byte[] fh;
+        private final int[] bitmap;
+        private final long change;
+        private final int hashCode;
+
+        Key(Inode inode, bitmap4 bitmap, long change) {
+            this.fh = inode.toNfsHandle();
+            this.bitmap = bitmap.value.clone();
+            this.change = change;
+            this.hashCode = 31 * (31 * Arrays.hashCode(fh) + Arrays.hashCode(this.bitmap)) + Long.hashCode(change);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return change == other.change
+                    && Arrays.equals(fh, other.fh)
+                    && Arrays.equals(bitmap, other.bitmap);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.dcache.nfs.v4.xdr.attrlist4;
+import org.dcache.nfs.v4.xdr.bitmap4;
+import org.dcache.nfs.v4.xdr.fattr4;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.Stat.StatAttribute;
+import org.dcache.oncrpc4j.rpc.OncRpcException;
+import org.dcache.oncrpc4j.xdr.Xdr;
+import org.dcache.oncrpc4j.xdr.XdrAble;
+
+/**
+ * Encoder of file attributes, which writes attributes that can be derived from {@link Stat} and {@link Inode}
+ * straight into a reusable buffer, without creating intermediate {@code fattr4_*} objects. All other attributes are
+ * delegated to a {@link Fallback}.
+ * <p>
+ * The produced encoding is byte-to-byte identical to encoding of the corresponding {@code fattr4_*} objects. Encoder
+ * instances are not thread safe.
+ *
+ * @since 0.28
+ */
+public class Fattr4Encoder {
+
+    /**
+     * Encoder of attributes, which are not handled by {@link Fattr4Encoder}.
+     */
+    @FunctionalInterface
+    public interface Fallback {
+
+        /**
+         * Get attribute value.
+         *
+         * @param fattr attribute number.
+         * @return attribute value or empty, if attribute is not supported.
+         */
+        Optional<? extends XdrAble> apply(int fattr) throws IOException;
+    }
+
+    /**
+     * Attributes, which are encoded by this class.
+     */
+    private static final bitmap4 STAT_ATTRIBUTES = bitmap4.of(
+            nfs4_prot.FATTR4_TYPE,
+            nfs4_prot.FATTR4_FH_EXPIRE_TYPE,
+            nfs4_prot.FATTR4_CHANGE,
+            nfs4_prot.FATTR4_SIZE,
+            nfs4_prot.FATTR4_LINK_SUPPORT,
+            nfs4_prot.FATTR4_SYMLINK_SUPPORT,
+            nfs4_prot.FATTR4_NAMED_ATTR,
+            nfs4_prot.FATTR4_FSID,
+            nfs4_prot.FATTR4_UNIQUE_HANDLES,
+            nfs4_prot.FATTR4_FILEHANDLE,
+            nfs4_prot.FATTR4_CANSETTIME,
+            nfs4_prot.FATTR4_FILEID,
+            nfs4_prot.FATTR4_HOMOGENEOUS,
+            nfs4_prot.FATTR4_MAXFILESIZE,
+            nfs4_prot.FATTR4_MAXLINK,
+            nfs4_prot.FATTR4_MAXNAME,
+            nfs4_prot.FATTR4_MAXREAD,
+            nfs4_prot.FATTR4_MAXWRITE,
+            nfs4_prot.FATTR4_MODE,
+            nfs4_prot.FATTR4_NO_TRUNC,
+            nfs4_prot.FATTR4_NUMLINKS,
+            nfs4_prot.FATTR4_OWNER,
+            nfs4_prot.FATTR4_OWNER_GROUP,
+            nfs4_prot.FATTR4_RAWDEV,
+            nfs4_prot.FATTR4_SPACE_USED,
+            nfs4_prot.FATTR4_TIME_ACCESS,
+            nfs4_prot.FATTR4_TIME_CREATE,
+            nfs4_prot.FATTR4_TIME_METADATA,
+            nfs4_prot.FATTR4_TIME_MODIFY,
+            nfs4_prot.FATTR4_MOUNTED_ON_FILEID);
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private byte[] buffer;
+    private int position;
+
+    public Fattr4Encoder() {
+        buffer = new byte[DEFAULT_BUFFER_SIZE];
+    }
+
+    /**
+     * Returns true if all attributes in the given bitmap are encoded from {@link Stat} and {@link Inode} only, i.e.
+     * the {@link Fallback} is never used.
+     *
+     * @param bitmap requested attributes.
+     * @return true if fallback is not required.
+     */
+    public static boolean isStatOnly(bitmap4 bitmap) {
+        for (int i = 0; i < bitmap.value.length; i++) {
+            int supported = i < STAT_ATTRIBUTES.value.length ? STAT_ATTRIBUTES.value[i] : 0;
+            if ((bitmap.value[i] & ~supported) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Encode requested attributes.
+     *
+     * @param bitmap requested attributes.
+     * @param inode file's inode.
+     * @param stat file's attributes.
+     * @param idMapper mapper of uid and gid into principal names.
+     * @param fallback encoder of attributes not derived from {@code stat}.
+     * @return encoded attributes.
+     */
+    public fattr4 encode(bitmap4 bitmap, Inode inode, Stat stat, NfsIdMapping idMapper, Fallback fallback)
+            throws IOException, OncRpcException {
+
+        position = 0;
+        int[] processed = new int[bitmap.value.length];
+
+        for (int i : bitmap) {
+            if (encode(i, inode, stat, idMapper) || encodeFallback(fallback.apply(i))) {
+                processed[i / Integer.SIZE] |= 1 << i % Integer.SIZE;
+            }
+        }
+
+        int n = processed.length;
+        while (n > 0 && processed[n - 1] == 0) {
+            n--;
+        }
+
+        fattr4 attributes = new fattr4();
+        attributes.attrmask = new bitmap4(Arrays.copyOf(processed, n));
+        attributes.attr_vals = new attrlist4(Arrays.copyOf(buffer, position));
+        return attributes;
+    }
+
+    /**
+     * Encode single attribute, if it's derived from stat.
+     *
+     * @return true if attribute is encoded.
+     */
+    private boolean encode(int fattr, Inode inode, Stat stat, NfsIdMapping idMapper) {
+
+        switch (fattr) {
+            case nfs4_prot.FATTR4_TYPE:
+                putInt(OperationGETATTR.unixType2NFS(stat.getMode()));
+                return true;
+            case nfs4_prot.FATTR4_FH_EXPIRE_TYPE:
+                putInt(nfs4_prot.FH4_PERSISTENT);
+                return true;
+            case nfs4_prot.FATTR4_CHANGE:
+                putLong(stat.getGeneration());
+                return true;
+            case nfs4_prot.FATTR4_SIZE:
+            case nfs4_prot.FATTR4_SPACE_USED:
+                putLong(stat.getSize());
+                return true;
+            case nfs4_prot.FATTR4_LINK_SUPPORT:
+            case nfs4_prot.FATTR4_SYMLINK_SUPPORT:
+            case nfs4_prot.FATTR4_UNIQUE_HANDLES:
+            case nfs4_prot.FATTR4_CANSETTIME:
+            case nfs4_prot.FATTR4_HOMOGENEOUS:
+            case nfs4_prot.FATTR4_NO_TRUNC:
+                putBoolean(true);
+                return true;
+            case nfs4_prot.FATTR4_NAMED_ATTR:
+                putBoolean(false);
+                return true;
+            case nfs4_prot.FATTR4_FSID:
+                putLong(17);
+                putLong(17);
+                return true;
+            case nfs4_prot.FATTR4_FILEHANDLE:
+                putOpaque(inode.toNfsHandle());
+                return true;
+            case nfs4_prot.FATTR4_FILEID:
+                if (!stat.isDefined(StatAttribute.INO)) {
+                    return false;
+                }
+                putLong(stat.getIno());
+                return true;
+            case nfs4_prot.FATTR4_MAXFILESIZE:
+                putLong(NFSv4Defaults.NFS4_MAXFILESIZE);
+                return true;
+            case nfs4_prot.FATTR4_MAXLINK:
+                putInt(NFSv4Defaults.NFS4_MAXLINK);
+                return true;
+            case nfs4_prot.FATTR4_MAXNAME:
+                putInt(NFSv4Defaults.NFS4_MAXFILENAME);
+                return true;
+            case nfs4_prot.FATTR4_MAXREAD:
+            case nfs4_prot.FATTR4_MAXWRITE:
+                putLong(NFSv4Defaults.NFS4_MAXIOBUFFERSIZE);
+                return true;
+            case nfs4_prot.FATTR4_MODE:
+                putInt(stat.getMode() & 07777);
+                return true;
+            case nfs4_prot.FATTR4_NUMLINKS:
+                putInt(stat.getNlink());
+                return true;
+            case nfs4_prot.FATTR4_OWNER:
+                putOpaque(idMapper.uidToPrincipal(stat.getUid()).getBytes(StandardCharsets.UTF_8));
+                return true;
+            case nfs4_prot.FATTR4_OWNER_GROUP:
+                putOpaque(idMapper.gidToPrincipal(stat.getGid()).getBytes(StandardCharsets.UTF_8));
+                return true;
+            case nfs4_prot.FATTR4_RAWDEV:
+                putInt(0);
+                putInt(0);
+                return true;
+            case nfs4_prot.FATTR4_TIME_ACCESS:
+                putTime(stat.getATime());
+                return true;
+            case nfs4_prot.FATTR4_TIME_CREATE:
+                putTime(stat.isDefined(StatAttribute.BTIME) ? stat.getBTime() : stat.getCTime());
+                return true;
+            case nfs4_prot.FATTR4_TIME_METADATA:
+                putTime(stat.getCTime());
+                return true;
+            case nfs4_prot.FATTR4_TIME_MODIFY:
+                putTime(stat.getMTime());
+                return true;
+            case nfs4_prot.FATTR4_MOUNTED_ON_FILEID:
+                if (!stat.isDefined(StatAttribute.INO)) {
+                    return false;
+                }
+                long mofi = stat.getIno();
+                if (mofi == 0x00b0a23a /* it's a root */) {
+                    mofi = 0x12345678;
+                }
+                putLong(mofi);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean encodeFallback(Optional<? extends XdrAble> attr) throws IOException, OncRpcException {
+        if (attr.isEmpty()) {
+            return false;
+        }
+
+        try (Xdr xdr = new Xdr(128)) {
+            xdr.beginEncoding();
+            attr.get().xdrEncode(xdr);
+            xdr.endEncoding();
+            byte[] bytes = xdr.getBytes();
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int size) {
+        if (position + size > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + size));
+        }
+    }
+
+    private void putInt(int value) {
+        ensureCapacity(Integer.BYTES);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void putLong(long value) {
+        putInt((int) (value >>> 32));
+        putInt((int) value);
+    }
+
+    private void putBoolean(boolean value) {
+        putInt(value ? 1 : 0);
+    }
+
+    // nfstime4: seconds and nano-seconds
+    private void putTime(long millis) {
+        putLong(millis / 1000);
+        putInt((int) ((millis % 1000) * 1000000));
+    }
+
+    private void putOpaque(byte[] value) {
+        int padding = (4 - (value.length & 3)) & 3;
+        putInt(value.length);
+        ensureCapacity(value.length + padding);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+        for (int i = 0; i < padding; i++) {
+            buffer[position++] = 0;
+        }
+    }
+}
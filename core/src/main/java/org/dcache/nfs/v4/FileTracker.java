@@ -19,7 +19,6 @@
  */
 package org.dcache.nfs.v4;
 
-import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -27,7 +26,15 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
@@ -49,6 +56,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * A class which tracks open files.
@@ -81,6 +89,66 @@ public class FileTracker {
     private final AdaptiveDelegationLogic adlHeuristic =
             new AdaptiveDelegationLogic(4096, 4096, Duration.ofSeconds(120));
 
+    /**
+     * Executor used to send CB_RECALL requests to the clients. The callbacks are never sent while holding a file lock.
+     * As callbacks are sent asynchronously, the executor doesn't wait for client's reply.
+     */
+    private final Executor recallExecutor;
+
+    /**
+     * Executor created by this tracker, which must be shut down with it, or {@code null}, if executor is provided.
+     */
+    private final ExecutorService ownRecallExecutor;
+
+    /**
+     * Time given to a client to return a recalled delegation before it gets revoked.
+     */
+    private final Duration recallTimeout;
+
+    public FileTracker() {
+        this(Duration.ofSeconds(NFSv4Defaults.NFS4_LEASE_TIME));
+    }
+
+    /**
+     * Create a new FileTracker, which revokes recalled delegations that are not returned within
+     * {@code recallTimeout}.
+     *
+     * @param recallTimeout time given to a client to return a recalled delegation.
+     */
+    public FileTracker(Duration recallTimeout) {
+        this(recallTimeout, Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder()
+                        .setNameFormat("delegation-recall-%d")
+                        .setDaemon(true)
+                        .build()), true);
+    }
+
+    /**
+     * Create a new FileTracker, which uses provided executor to send delegation recalls. The executor is not shut
+     * down by this tracker.
+     *
+     * @param recallTimeout time given to a client to return a recalled delegation.
+     * @param recallExecutor executor used to send CB_RECALL requests.
+     */
+    public FileTracker(Duration recallTimeout, Executor recallExecutor) {
+        this(recallTimeout, recallExecutor, false);
+    }
+
+    private FileTracker(Duration recallTimeout, Executor recallExecutor, boolean ownExecutor) {
+        this.recallTimeout = Objects.requireNonNull(recallTimeout);
+        this.recallExecutor = Objects.requireNonNull(recallExecutor);
+        this.ownRecallExecutor = ownExecutor ? (ExecutorService) recallExecutor : null;
+    }
+
+    /**
+     * Stop the executor used to send delegation recalls, if it was created by this tracker.
+     */
+    public void shutdown() {
+        if (ownRecallExecutor != null) {
+            ownRecallExecutor.shutdown();
+        }
+    }
+
     private static class OpenState {
 
         private final NFS4Client client;
@@ -149,6 +217,12 @@ public class FileTracker {
         private final int delegationType;
         private boolean revoked;
 
+        /**
+         * Outstanding recall of this delegation, or {@code null} if not recalled. The future is completed when
+         * delegation is returned by the client, or completed exceptionally if recall failed or timed out.
+         */
+        private CompletableFuture<Void> recall;
+
         /**
          * @param client
          * @param delegationStateid
@@ -279,23 +353,18 @@ public class FileTracker {
 
             // recall any read delegations if write
             if ((existingDelegations != null) && (shareAccess & nfs4_prot.OPEN4_SHARE_ACCESS_WRITE) != 0) {
-                var fh = new nfs_fh4(inode.toNfsHandle());
-                int recalledDelegations = existingDelegations.stream()
+                var conflictingDelegations = existingDelegations.stream()
                         .filter(d -> d.client().isLeaseValid())
                         .filter(d -> !d.client().getId().equals(client.getId()))
-                        .reduce(0, (c, d) -> {
-                            try {
-                                d.client().getCB().cbDelegationRecall(fh, d.delegationStateid().stateid(), false);
-                                d.revoked = true;
-                                return c + 1;
-                            } catch (IOException e) {
-                                LOG.warn("Failed to recall delegation from {} : {}", d.client(), e.toString());
-                                d.delegationStateid().disposeIgnoreFailures();
-                                return c;
-                            }
-                        }, Integer::sum);
-
-                if (recalledDelegations > 0) {
+                        .toList();
+
+                if (!conflictingDelegations.isEmpty()) {
+                    // delegations with a recall in progress are not recalled again
+                    var fh = new nfs_fh4(inode.toNfsHandle());
+                    conflictingDelegations.stream()
+                            .filter(d -> d.recall == null)
+                            .forEach(d -> recallDelegation(fileId, fh, d));
+
                     throw new DelayException("Recalling read delegations");
                 }
             }
@@ -442,6 +511,9 @@ public class FileTracker {
                     .findFirst()
                     .orElseThrow(StaleException::new);
 
+            if (delegation.recall != null) {
+                delegation.recall.complete(null);
+            }
             delegation.delegationStateid().tryDispose();
             fileDelegations.remove(delegation);
             if (fileDelegations.isEmpty()) {
@@ -453,6 +525,95 @@ public class FileTracker {
         }
     }
 
+    /**
+     * Asynchronously send CB_RECALL for the given delegation. The delegation gets revoked if the callback fails or
+     * client doesn't return it within {@link #recallTimeout}. Must be called with file lock held.
+     *
+     * @param fileId the file id key of the delegated file.
+     * @param fh the file handle of the delegated file.
+     * @param delegation the delegation to recall.
+     */
+    private void recallDelegation(Opaque fileId, nfs_fh4 fh, DelegationState delegation) {
+
+        delegation.recall = new CompletableFuture<>();
+        delegation.recall.orTimeout(recallTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((v, t) -> {
+                    if (t != null) {
+                        revokeDelegation(fileId, delegation, t);
+                    }
+                });
+
+        try {
+            recallExecutor.execute(() -> {
+                try {
+                    delegation.client().getCB()
+                            .cbDelegationRecallAsync(fh, delegation.delegationStateid().stateid(), false,
+                                    recallTimeout)
+                            .whenComplete((v, t) -> onRecallReply(fileId, delegation, t));
+                } catch (RuntimeException e) {
+                    onRecallReply(fileId, delegation, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            onRecallReply(fileId, delegation, e);
+        }
+    }
+
+    /**
+     * Handle client's reply to CB_RECALL.
+     *
+     * @param fileId the file id key of the delegated file.
+     * @param delegation the recalled delegation.
+     * @param t the reason of failure, or {@code null}, if the callback was successful.
+     */
+    private void onRecallReply(Opaque fileId, DelegationState delegation, Throwable t) {
+        if (t == null) {
+            Lock lock = filesLock.get(fileId);
+            lock.lock();
+            try {
+                delegation.revoked = true;
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            delegation.recall.completeExceptionally(t instanceof CompletionException ? t.getCause() : t);
+        }
+    }
+
+    /**
+     * Revoke a delegation that has not been returned after a recall. Nothing is done, if the delegation has been
+     * returned or removed in the meantime.
+     *
+     * @param fileId the file id key of the delegated file.
+     * @param delegation the delegation to revoke.
+     * @param cause the reason of revocation.
+     */
+    private void revokeDelegation(Opaque fileId, DelegationState delegation, Throwable cause) {
+
+        Lock lock = filesLock.get(fileId);
+        lock.lock();
+        try {
+            var fileDelegations = delegations.get(fileId);
+            if (fileDelegations == null || !fileDelegations.removeIf(d -> d == delegation)) {
+                // returned or removed in the meantime
+                return;
+            }
+            if (fileDelegations.isEmpty()) {
+                delegations.remove(fileId);
+            }
+            delegation.revoked = true;
+        } finally {
+            lock.unlock();
+        }
+
+        if (cause instanceof TimeoutException) {
+            LOG.warn("Delegation recall from {} timed out, revoking", delegation.client());
+        } else {
+            LOG.warn("Failed to recall delegation from {} : {}", delegation.client(), cause.toString());
+        }
+        delegation.delegationStateid().disposeIgnoreFailures();
+    }
+
     /**
      * Get access mode for a given files, client and stateid. The state is must be either an open, lock or delegation
      * stateid.
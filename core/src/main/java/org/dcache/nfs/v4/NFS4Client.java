@@ -27,7 +27,6 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HexFormat;
 import java.util.Iterator;
 import java.util.List;
@@ -96,7 +95,7 @@ public class NFS4Client {
     /**
      * Server side generated verifier that is used to detect retry.
      */
-    private verifier4 _serverVerifier;
+    private volatile verifier4 _serverVerifier;
 
     /**
      * The RPCSEC_GSS principal sent via the RPC headers.
@@ -110,11 +109,17 @@ public class NFS4Client {
     /**
      * A flag to indicate whether or not a client record has been confirmed.
      */
-    private boolean _isConfirmed = false;
+    private volatile boolean _isConfirmed = false;
+
+    /**
+     * Lock to serialize session creation and removal. Session lookups don't need it.
+     */
+    private final Object _sessionLock = new Object();
 
     /**
      * The sequence number used to track session creations.
      */
+    @GuardedBy("_sessionLock")
     private int _sessionSequence = 1;
 
     private final Map<stateid4, NFS4State> _clientStates = new ConcurrentHashMap<>();
@@ -122,7 +127,7 @@ public class NFS4Client {
     /**
      * sessions associated with the client
      */
-    private final Map<sessionid4, NFSv41Session> _sessions = new HashMap<>();
+    private final Map<sessionid4, NFSv41Session> _sessions = new ConcurrentHashMap<>();
 
     /**
      * The point in time of the last lease renewal.
@@ -132,7 +137,7 @@ public class NFS4Client {
     /**
      * Open Owners associated with client.
      */
-    private final Map<Opaque, StateOwner> _owners = new HashMap<>();
+    private final Map<Opaque, StateOwner> _owners = new ConcurrentHashMap<>();
     /*
      *
      * Client identification is encapsulated in the following structure:
@@ -162,10 +167,15 @@ public class NFS4Client {
      */
     private final Duration _leaseTime;
 
+    /**
+     * Lock to serialize state reclaim operations.
+     */
+    private final Object _reclaimLock = new Object();
+
     /**
      * A flag to indicate that the client already have reclaimed associated states.
      */
-    private boolean _reclaim_completed;
+    private volatile boolean _reclaim_completed;
 
     /**
      * Indicates that server needs a callback channel with this client.
@@ -263,11 +273,11 @@ public class NFS4Client {
     }
 
 
-    public synchronized boolean isConfirmed() {
+    public boolean isConfirmed() {
         return _isConfirmed;
     }
 
-    public synchronized void setConfirmed() {
+    public void setConfirmed() {
         _isConfirmed = true;
     }
 
@@ -301,10 +311,12 @@ public class NFS4Client {
     /**
      * re-initialize client
      */
-    public synchronized void reset() {
-        refreshLeaseTime();
-        _isConfirmed = false;
-        _serverVerifier = verifier4.valueOf(System.currentTimeMillis());
+    public void reset() {
+        synchronized (_sessionLock) {
+            refreshLeaseTime();
+            _isConfirmed = false;
+            _serverVerifier = verifier4.valueOf(System.currentTimeMillis());
+        }
     }
 
     /**
@@ -326,7 +338,9 @@ public class NFS4Client {
     }
 
     public int currentSeqID() {
-        return _sessionSequence;
+        synchronized (_sessionLock) {
+            return _sessionSequence;
+        }
     }
 
     private NFS4State createState(StateOwner stateOwner, byte type, NFS4State openState) throws ChimeraNFSException {
@@ -455,8 +469,21 @@ public class NFS4Client {
         return _sessions.values();
     }
 
-    public synchronized NFSv41Session createSession(int sequence, int cacheSize, int cbCacheSize, int maxOps,
+    public NFSv41Session createSession(int sequence, int cacheSize, int cbCacheSize, int maxOps,
             int maxCbOps) throws ChimeraNFSException {
+        return createSession(sequence, cacheSize, cbCacheSize, maxOps, maxCbOps, Integer.MAX_VALUE);
+    }
+
+    public NFSv41Session createSession(int sequence, int cacheSize, int cbCacheSize, int maxOps,
+            int maxCbOps, int maxResponseSizeCached) throws ChimeraNFSException {
+        synchronized (_sessionLock) {
+            return createSessionLocked(sequence, cacheSize, cbCacheSize, maxOps, maxCbOps, maxResponseSizeCached);
+        }
+    }
+
+    @GuardedBy("_sessionLock")
+    private NFSv41Session createSessionLocked(int sequence, int cacheSize, int cbCacheSize, int maxOps,
+            int maxCbOps, int maxResponseSizeCached) throws ChimeraNFSException {
 
         /*
          * For unconfirmed cleints server expects sequence number to be equal to value of eir_sequenceid that was
@@ -482,7 +509,8 @@ public class NFS4Client {
         }
 
         sessionid4 sessionid = _stateHandler.createSessionId(this, _sessionSequence);
-        NFSv41Session session = new NFSv41Session(this, sessionid, cacheSize, cbCacheSize, maxOps, maxCbOps);
+        NFSv41Session session = new NFSv41Session(this, sessionid, cacheSize, cbCacheSize, maxOps, maxCbOps,
+                maxResponseSizeCached);
 
         _sessions.put(sessionid, session);
         _sessionSequence++;
@@ -495,14 +523,15 @@ public class NFS4Client {
         return session;
     }
 
-    public synchronized void removeSession(sessionid4 id) throws BadSessionException {
+    public void removeSession(sessionid4 id) throws BadSessionException {
         NFSv41Session session = _sessions.remove(id);
         if (session == null) {
             throw new BadSessionException("session not found");
         }
+        session.releaseReplies();
     }
 
-    public synchronized NFSv41Session getSession(sessionid4 id) throws BadSessionException {
+    public NFSv41Session getSession(sessionid4 id) throws BadSessionException {
         NFSv41Session session = _sessions.get(id);
         if (session == null) {
             throw new BadSessionException("session not found");
@@ -560,6 +589,7 @@ public class NFS4Client {
      */
     public synchronized final void tryDispose() throws ChimeraNFSException {
         drainStates();
+        _sessions.values().forEach(NFSv41Session::releaseReplies);
         Iterator<DisposeListener<NFS4Client>> i = _disposeListeners.iterator();
         while (i.hasNext()) {
             DisposeListener<NFS4Client> listener = i.next();
@@ -573,6 +603,7 @@ public class NFS4Client {
      */
     public synchronized final void disposeIgnoreFailures() {
         drainStates();
+        _sessions.values().forEach(NFSv41Session::releaseReplies);
         _disposeListeners.forEach(l -> {
             try {
                 l.notifyDisposed(NFS4Client.this);
@@ -588,12 +619,14 @@ public class NFS4Client {
      *
      * @throws ChimeraNFSException
      */
-    public synchronized void reclaimComplete() throws ChimeraNFSException {
-        if (_reclaim_completed) {
-            throw new CompleteAlreadyException("Duplicating reclaim");
+    public void reclaimComplete() throws ChimeraNFSException {
+        synchronized (_reclaimLock) {
+            if (_reclaim_completed) {
+                throw new CompleteAlreadyException("Duplicating reclaim");
+            }
+            _stateHandler.reclaimComplete(getOwnerId());
+            _reclaim_completed = true;
         }
-        _stateHandler.reclaimComplete(getOwnerId());
-        _reclaim_completed = true;
     }
 
     /**
@@ -601,14 +634,16 @@ public class NFS4Client {
      *
      * @throws ChimeraNFSException
      */
-    public synchronized void wantReclaim() throws ChimeraNFSException {
-        if (_reclaim_completed) {
-            throw new NoGraceException("Already complete");
+    public void wantReclaim() throws ChimeraNFSException {
+        synchronized (_reclaimLock) {
+            if (_reclaim_completed) {
+                throw new NoGraceException("Already complete");
+            }
+            _stateHandler.wantReclaim(getOwnerId());
         }
-        _stateHandler.wantReclaim(getOwnerId());
     }
 
-    public synchronized boolean needReclaim() {
+    public boolean needReclaim() {
         return !_reclaim_completed;
     }
 
@@ -624,7 +659,7 @@ public class NFS4Client {
      * @return state owner
      * @throws BadSeqidException if sequence out of order.
      */
-    public synchronized StateOwner getOrCreateOwner(byte[] owner, seqid4 seq) throws BadSeqidException {
+    public StateOwner getOrCreateOwner(byte[] owner, seqid4 seq) throws BadSeqidException {
         StateOwner stateOwner;
         if (_minorVersion == 0) {
             Opaque k = Opaque.forBytes(owner);
@@ -633,11 +668,14 @@ public class NFS4Client {
                 state_owner4 so = new state_owner4();
                 so.clientid = _clientId;
                 so.owner = owner;
-                stateOwner = new StateOwner(so, seq.value);
-                _owners.put(k, stateOwner);
-            } else {
-                stateOwner.acceptAsNextSequence(seq);
+                StateOwner newOwner = new StateOwner(so, seq.value);
+                stateOwner = _owners.putIfAbsent(k, newOwner);
+                if (stateOwner == null) {
+                    return newOwner;
+                }
             }
+            // StateOwner serializes sequence updates by itself
+            stateOwner.acceptAsNextSequence(seq);
         } else {
             // for minor version client id derived from session
             state_owner4 so = new state_owner4();
@@ -653,7 +691,7 @@ public class NFS4Client {
      *
      * @param owner client unique state owner
      */
-    public synchronized void releaseOwner(byte[] owner) throws StaleClientidException {
+    public void releaseOwner(byte[] owner) throws StaleClientidException {
         Opaque k = Opaque.forBytes(owner);
         StateOwner stateOwner = _owners.remove(k);
         if (stateOwner == null) {
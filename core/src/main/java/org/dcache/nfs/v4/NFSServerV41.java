@@ -19,14 +19,25 @@
  */
 package org.dcache.nfs.v4;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.ExportFile;
 import org.dcache.nfs.ExportTable;
+import org.dcache.nfs.metrics.NfsMetrics;
+import org.dcache.nfs.metrics.OperationMetrics;
 import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.status.MinorVersMismatchException;
 import org.dcache.nfs.status.NotOnlyOpException;
@@ -35,11 +46,15 @@ import org.dcache.nfs.status.ResourceException;
 import org.dcache.nfs.status.RetryUncacheRepException;
 import org.dcache.nfs.status.SequencePosException;
 import org.dcache.nfs.status.TooManyOpsException;
+import org.dcache.nfs.util.ByteBufferPool;
+import org.dcache.nfs.v4.nlm.BlockingLockManager;
 import org.dcache.nfs.v4.nlm.LockManager;
 import org.dcache.nfs.v4.nlm.SimpleLm;
 import org.dcache.nfs.v4.xdr.*;
 import org.dcache.nfs.vfs.PseudoFs;
+import org.dcache.nfs.vfs.PseudoFsTreeCache;
 import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.oncrpc4j.rpc.OncRpcException;
 import org.dcache.oncrpc4j.rpc.RpcCall;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,7 +70,34 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
     private final NFSv41DeviceManager _deviceManager;
     private final NFSv4StateHandler _statHandler;
     private final LockManager _nlm;
+
+    /**
+     * Lock manager, which queues blocking locks, or {@code null} if blocking locks are not enabled.
+     */
+    private final BlockingLockManager _blockingLm;
     private final nfs_impl_id4 _implementationId;
+    private final ByteBufferPool _bufferPool;
+    private final EncodedAttributeCache _attributeCache;
+
+    /**
+     * Memory budget of session reply caches.
+     */
+    private final ReplyCacheBudget _replyCacheBudget;
+
+    /**
+     * Flow control of sessions.
+     */
+    private final SlotTableController _slotTableController;
+
+    /**
+     * Executor to run compound requests, or null to run them in the RPC worker thread.
+     */
+    private final Executor _compoundExecutor;
+
+    /**
+     * Per operation statistics, or null if not collected.
+     */
+    private final NfsMetrics _metrics;
 
     /**
      * Verifier to indicate client that server is rebooted. Current currentTimeMillis is good enough, unless server
@@ -63,13 +105,27 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
      */
     private final verifier4 _rebootVerifier = verifier4.valueOf(System.currentTimeMillis());
 
+    /**
+     * Pseudo file system trees shared by all requests.
+     */
+    private final PseudoFsTreeCache _pseudoFsTrees = new PseudoFsTreeCache();
+
     private NFSServerV41(Builder builder) {
         _deviceManager = builder.deviceManager;
         _fs = builder.vfs;
         _exportTable = builder.exportTable;
         _operationExecutor = builder.operationExecutor;
-        _nlm = builder.nlm == null ? new SimpleLm() : builder.nlm;
+        LockManager nlm = builder.nlm == null ? new SimpleLm() : builder.nlm;
+        _blockingLm = builder.blockingLockTimeout == null ? null
+                : new BlockingLockManager(nlm, builder.blockingLockTimeout);
+        _nlm = _blockingLm == null ? nlm : _blockingLm;
         _statHandler = builder.stateHandler == null ? new NFSv4StateHandler() : builder.stateHandler;
+        _bufferPool = builder.bufferPool;
+        _attributeCache = builder.attributeCache;
+        _compoundExecutor = builder.compoundExecutor;
+        _replyCacheBudget = builder.replyCacheBudget == null ? new ReplyCacheBudget() : builder.replyCacheBudget;
+        _slotTableController = builder.slotTableController;
+        _metrics = builder.metrics;
 
         _implementationId = new nfs_impl_id4();
         _implementationId.nii_date = new nfstime4(builder.implementationDate.toEpochMilli());
@@ -88,7 +144,14 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
         _exportTable = exportTable;
         _operationExecutor = operationExecutor;
         _nlm = new SimpleLm();
+        _blockingLm = null;
         _statHandler = new NFSv4StateHandler();
+        _bufferPool = null;
+        _attributeCache = null;
+        _compoundExecutor = null;
+        _replyCacheBudget = new ReplyCacheBudget();
+        _slotTableController = null;
+        _metrics = null;
 
         _implementationId = new nfs_impl_id4();
         _implementationId.nii_date = new nfstime4(NFSv4Defaults.NFS4_IMPLEMENTATION_DATE);
@@ -101,66 +164,220 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
         _log.debug("NFS PING client: {}", call$.getTransport().getRemoteSocketAddress());
     }
 
+    @Override
+    public void dispatchOncRpcCall(RpcCall call) throws OncRpcException, IOException {
+
+        if (call.getProcedure() != nfs4_prot.NFSPROC4_COMPOUND_4) {
+            super.dispatchOncRpcCall(call);
+            return;
+        }
+
+        COMPOUND4args args = new COMPOUND4args();
+        call.retrieveCall(args);
+
+        long started = requestStarted();
+        Runnable task = () -> {
+            CompoundContext context;
+            try {
+                context = newCompoundContext(call, args.minorversion.value);
+            } catch (RuntimeException e) {
+                _log.error("Failed to create compound context: {}", e.toString(), e);
+                requestCompleted(started, false);
+                reply(call, failed(args, nfsstat.NFSERR_SERVERFAULT));
+                return;
+            }
+
+            CompoundExecution execution = new CompoundExecution(context, args);
+            execution.start()
+                    .whenComplete((res, t) -> {
+                        requestCompleted(started, execution.isSuspended());
+                        try {
+                            if (t != null) {
+                                _log.error("Unhandled exception in compound execution: {}", t.toString(), t);
+                                res = failed(args, nfsstat.NFSERR_SERVERFAULT);
+                            }
+                            reply(call, res);
+                        } finally {
+                            // the reply is encoded, pooled buffers can be reused
+                            context.releaseReplyBuffers();
+                        }
+                    });
+        };
+
+        if (_compoundExecutor == null) {
+            task.run();
+        } else {
+            _compoundExecutor.execute(task);
+        }
+    }
+
     @Override
     public COMPOUND4res NFSPROC4_COMPOUND_4(RpcCall call$, COMPOUND4args arg1) {
 
-        COMPOUND4res res = new COMPOUND4res();
+        long started = requestStarted();
+        CompoundContext context = newCompoundContext(call$, arg1.minorversion.value);
+        CompoundExecution execution = new CompoundExecution(context, arg1);
+        try {
+            return execution.start().join();
+        } finally {
+            requestCompleted(started, execution.isSuspended());
+            // the caller owns the result, thus the buffers can't be recycled
+            context.detachReplyBuffers();
+        }
+    }
 
+    /**
+     * Send compound reply. As the reply is sent asynchronously, failures are logged, but not propagated.
+     */
+    private static void reply(RpcCall call, COMPOUND4res res) {
         try {
+            call.reply(res);
+        } catch (RuntimeException e) {
+            _log.error("Failed to send reply to {}: {}", call.getTransport().getRemoteSocketAddress(), e.toString(),
+                    e);
+        }
+    }
 
+    /**
+     * Build a reply, in which the first operation fails with the given status.
+     */
+    private static COMPOUND4res failed(COMPOUND4args args, int status) {
+        COMPOUND4res res = new COMPOUND4res();
+        res.status = status;
+        res.tag = args.tag;
+        if (args.argarray.length == 0) {
+            res.resarray = Collections.emptyList();
+        } else {
+            nfs_resop4 resop = nfs_resop4.resopFor(args.argarray[0].argop);
+            resop.setStatus(status);
+            res.resarray = Collections.singletonList(resop);
+        }
+        return res;
+    }
+
+    private CompoundContext newCompoundContext(RpcCall call$, int minorversion) {
+
+        VirtualFileSystem fs = new PseudoFs(_fs, call$, _exportTable, _pseudoFsTrees);
+
+        CompoundContextBuilder builder = new CompoundContextBuilder()
+                .withMinorversion(minorversion)
+                .withFs(fs)
+                .withDeviceManager(_deviceManager)
+                .withStateHandler(_statHandler)
+                .withLockManager(_nlm)
+                .withExportTable(_exportTable)
+                .withRebootVerifier(_rebootVerifier)
+                .withImplementationId(_implementationId)
+                .withBufferPool(_bufferPool)
+                .withAttributeCache(_attributeCache)
+                .withSlotTableController(_slotTableController)
+                .withReplyCacheBudget(_replyCacheBudget)
+                .withCall(call$);
+
+        if (_blockingLm != null) {
+            builder.withBlockingLocks();
+        }
+
+        if (_deviceManager != null) {
+            builder.withPnfsRoleMDS();
+            // we do proxy-io
+            builder.withPnfsRoleDS();
+        } else if (_exportTable == null) {
+            builder.withPnfsRoleDS();
+        } else {
+            builder.withoutPnfs();
+        }
+
+        return builder.build();
+    }
+
+    private long requestStarted() {
+        return _slotTableController == null ? 0L : _slotTableController.requestStarted();
+    }
+
+    /**
+     * Notify slot table controller, if any, about request completion. Requests, which were suspended waiting for an
+     * asynchronous operation, are not included into the latency average.
+     */
+    private void requestCompleted(long started, boolean suspended) {
+        if (_slotTableController != null) {
+            _slotTableController.requestCompleted(started, !suspended);
+        }
+    }
+
+    /**
+     * Execution of a single COMPOUND request. Operations are executed one after another. If an operation completes
+     * asynchronously, the remaining operations are executed by the compound executor, or, if there is none, by the
+     * thread which completes it. Thus no thread is blocked while waiting.
+     */
+    private class CompoundExecution {
+
+        private final CompoundContext context;
+        private final COMPOUND4args arg1;
+        private final COMPOUND4res res = new COMPOUND4res();
+        private final String tag;
+        private final String client;
+        private boolean retransmit;
+        private volatile boolean suspended;
+
+        CompoundExecution(CompoundContext context, COMPOUND4args arg1) {
+            this.context = context;
+            this.arg1 = arg1;
             /*
              * here we have to checkfor utf8, but it's too much overhead to keep spec happy.
              */
             res.tag = arg1.tag;
-            String tag = arg1.tag.toString();
-            MDC.put(NfsMdc.TAG, tag);
-            MDC.put(NfsMdc.CLIENT, call$.getTransport().getRemoteSocketAddress().toString());
+            tag = arg1.tag.toString();
+            client = context.getRemoteSocketAddress().toString();
+        }
 
-            _log.debug("NFS COMPOUND client: {}, tag: [{}]",
-                    call$.getTransport().getRemoteSocketAddress(),
-                    tag);
+        /**
+         * Start compound execution. The returned future never completes exceptionally, all errors are converted
+         * into compound status.
+         */
+        CompletableFuture<COMPOUND4res> start() {
 
-            int minorversion = arg1.minorversion.value;
-            if (minorversion > 2) {
-                throw new MinorVersMismatchException(String.format("Unsupported minor version [%d]",
-                        arg1.minorversion.value));
-            }
+            try {
+                setMdc();
+                _log.debug("NFS COMPOUND client: {}, tag: [{}]", client, tag);
 
-            if (arg1.argarray.length >= NFSv4Defaults.NFS4_MAX_OPS && minorversion == 0) {
-                /*
-                 * in 4.1 maxops handled per session
-                 */
-                throw new ResourceException(String.format("Too many ops [%d]", arg1.argarray.length));
-            }
-            res.resarray = new ArrayList<>(arg1.argarray.length);
-
-            VirtualFileSystem fs = new PseudoFs(_fs, call$, _exportTable);
-
-            CompoundContextBuilder builder = new CompoundContextBuilder()
-                    .withMinorversion(arg1.minorversion.value)
-                    .withFs(fs)
-                    .withDeviceManager(_deviceManager)
-                    .withStateHandler(_statHandler)
-                    .withLockManager(_nlm)
-                    .withExportTable(_exportTable)
-                    .withRebootVerifier(_rebootVerifier)
-                    .withImplementationId(_implementationId)
-                    .withCall(call$);
-
-            if (_deviceManager != null) {
-                builder.withPnfsRoleMDS();
-                // we do proxy-io
-                builder.withPnfsRoleDS();
-            } else if (_exportTable == null) {
-                builder.withPnfsRoleDS();
-            } else {
-                builder.withoutPnfs();
+                int minorversion = arg1.minorversion.value;
+                if (minorversion > 2) {
+                    throw new MinorVersMismatchException(String.format("Unsupported minor version [%d]",
+                            arg1.minorversion.value));
+                }
+
+                if (arg1.argarray.length >= NFSv4Defaults.NFS4_MAX_OPS && minorversion == 0) {
+                    /*
+                     * in 4.1 maxops handled per session
+                     */
+                    throw new ResourceException(String.format("Too many ops [%d]", arg1.argarray.length));
+                }
+                res.resarray = new ArrayList<>(arg1.argarray.length);
+
+                return executeFrom(0).handle((v, t) -> complete(t));
+            } catch (Exception e) {
+                return CompletableFuture.completedFuture(complete(e));
+            } finally {
+                clearMdc();
             }
+        }
 
-            CompoundContext context = builder.build();
+        /**
+         * @return true, if the execution was suspended waiting for an asynchronous operation.
+         */
+        boolean isSuspended() {
+            return suspended;
+        }
 
-            boolean retransmit = false;
-            for (int position = 0; position < arg1.argarray.length; position++) {
+        /**
+         * Execute operations starting at a given position. Operations which complete immediately are executed in a
+         * loop, the execution is suspended when an operation completes asynchronously.
+         */
+        private CompletableFuture<Void> executeFrom(int start) throws ChimeraNFSException {
+
+            int minorversion = arg1.minorversion.value;
+            for (int position = start; position < arg1.argarray.length; position++) {
 
                 nfs_argop4 op = arg1.argarray[position];
 
@@ -193,36 +410,132 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
                     }
                 }
 
-                nfs_resop4 opResult = _operationExecutor.execute(context, op);
+                long opStarted = System.nanoTime();
+                CompletableFuture<nfs_resop4> opFuture = _operationExecutor.executeAsync(context, op);
+                if (!opFuture.isDone()) {
+                    suspended = true;
+                    int next = position + 1;
+                    Function<nfs_resop4, CompletableFuture<Void>> resume = opResult -> {
+                        try {
+                            setMdc();
+                            recordMetrics(opResult, opStarted);
+                            return addResult(opResult) ? executeFrom(next) : CompletableFuture.completedFuture(null);
+                        } catch (ChimeraNFSException e) {
+                            throw new CompletionException(e);
+                        } finally {
+                            clearMdc();
+                        }
+                    };
+                    // don't run the rest of the compound on the thread of a file system or a database
+                    return _compoundExecutor == null ? opFuture.thenCompose(resume)
+                            : opFuture.thenComposeAsync(resume, _compoundExecutor);
+                }
 
-                res.resarray.add(opResult);
-                res.status = opResult.getStatus();
-                if (res.status != nfsstat.NFS_OK) {
+                nfs_resop4 opResult = opFuture.join();
+                recordMetrics(opResult, opStarted);
+                if (!addResult(opResult)) {
                     break;
                 }
             }
+            return CompletableFuture.completedFuture(null);
+        }
 
-            if (!retransmit && context.cacheThis()) {
-                context.getSessionSlot().update(res.resarray);
+        /**
+         * Record operation's latency, status and, for READ and WRITE, the number of transferred bytes.
+         */
+        private void recordMetrics(nfs_resop4 opResult, long started) {
+            if (_metrics == null) {
+                return;
             }
 
-            _log.debug("OP: [{}] status: {}", res.tag, res.status);
+            OperationMetrics opMetrics = _metrics.nfsv4(opResult.resop);
+            InetSocketAddress client = context.getRemoteSocketAddress();
+            int status = opResult.getStatus();
+            _metrics.record(opMetrics, client, System.nanoTime() - started, status);
+            if (status == nfsstat.NFS_OK) {
+                if (opResult.resop == nfs_opnum4.OP_READ) {
+                    _metrics.addBytes(opMetrics, client, opResult.opread.resok4.data.remaining());
+                } else if (opResult.resop == nfs_opnum4.OP_WRITE) {
+                    _metrics.addBytes(opMetrics, client, opResult.opwrite.resok4.count.value);
+                }
+            }
+        }
 
-        } catch (ChimeraNFSException e) {
-            _log.info("NFS operation failed: {}", e.getMessage());
-            res.resarray = Collections.emptyList();
-            res.status = e.getStatus();
-        } catch (Exception e) {
-            _log.error("Unhandled exception:", e);
-            res.resarray = Collections.emptyList();
-            res.status = nfsstat.NFSERR_SERVERFAULT;
-        } finally {
+        /**
+         * Add operation result to compound result.
+         *
+         * @return true if next operation should be executed.
+         */
+        private boolean addResult(nfs_resop4 opResult) {
+            if (context.getCache() == null && context.cacheThis() && !context.getSessionSlot().append(opResult)) {
+                /*
+                 * The client has asked to cache the reply, but it doesn't fit into ca_maxresponsesize_cached, see
+                 * RFC 8881 section 18.46.3.
+                 */
+                nfs_resop4 tooBig = nfs_resop4.resopFor(opResult.resop);
+                tooBig.setStatus(nfsstat.NFSERR_REP_TOO_BIG_TO_CACHE);
+                context.getSessionSlot().append(tooBig);
+                opResult = tooBig;
+            }
+            res.resarray.add(opResult);
+            res.status = opResult.getStatus();
+            return res.status == nfsstat.NFS_OK;
+        }
+
+        private COMPOUND4res complete(Throwable t) {
+
+            Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            try {
+                setMdc();
+                if (cause == null) {
+                    if (!retransmit && context.cacheThis()) {
+                        // the reply is cached in encoded form, thus reply buffers can be released
+                        context.getSessionSlot().commit();
+                    }
+                    _log.debug("OP: [{}] status: {}", res.tag, res.status);
+                } else if (cause instanceof ChimeraNFSException) {
+                    _log.info("NFS operation failed: {}", cause.getMessage());
+                    releaseReplyCache();
+                    res.resarray = Collections.emptyList();
+                    res.status = ((ChimeraNFSException) cause).getStatus();
+                } else {
+                    _log.error("Unhandled exception:", cause);
+                    releaseReplyCache();
+                    res.resarray = Collections.emptyList();
+                    res.status = nfsstat.NFSERR_SERVERFAULT;
+                }
+            } catch (Exception e) {
+                _log.error("Unhandled exception:", e);
+                releaseReplyCache();
+                res.resarray = Collections.emptyList();
+                res.status = nfsstat.NFSERR_SERVERFAULT;
+            } finally {
+                clearMdc();
+            }
+            return res;
+        }
+
+        /**
+         * Give back the reply cache reservation of a failed compound. The error reply doesn't match the results
+         * collected so far, thus there is nothing to replay on retransmit.
+         */
+        private void releaseReplyCache() {
+            SessionSlot slot = context.getSessionSlot();
+            if (slot != null && !retransmit && context.cacheThis()) {
+                slot.release();
+            }
+        }
+
+        private void setMdc() {
+            MDC.put(NfsMdc.TAG, tag);
+            MDC.put(NfsMdc.CLIENT, client);
+        }
+
+        private void clearMdc() {
             MDC.remove(NfsMdc.TAG);
             MDC.remove(NfsMdc.CLIENT);
             MDC.remove(NfsMdc.SESSION);
         }
-
-        return res;
     }
 
     /**
@@ -234,6 +547,16 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
         return _statHandler;
     }
 
+    /**
+     * Release resources allocated by this nfs server. The components provided with the {@link Builder}, like state
+     * handler or lock manager, are not affected and must be shut down by the caller.
+     */
+    public void shutdown() {
+        if (_blockingLm != null) {
+            _blockingLm.shutdown();
+        }
+    }
+
     /*
      *
      * from NFSv4.1 spec:
@@ -285,6 +608,17 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
         }
     }
 
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        // the code is compiled for java 17, thus virtual threads are looked up at runtime
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException("Virtual threads require java 21 or newer");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
     private static int statusOfLastOperation(List<nfs_resop4> ops) {
         return ops.get(ops.size() - 1).getStatus();
     }
@@ -296,10 +630,17 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
         private VirtualFileSystem vfs;
         private ExportTable exportTable;
         private LockManager nlm;
+        private Duration blockingLockTimeout;
         private NFSv4StateHandler stateHandler;
         private String implementationName = NFSv4Defaults.NFS4_IMPLEMENTATION_ID;
         private String implementationDomain = NFSv4Defaults.NFS4_IMPLEMENTATION_DOMAIN;
         private Instant implementationDate = NFSv4Defaults.NFS4_IMPLEMENTATION_DATE;
+        private ByteBufferPool bufferPool;
+        private EncodedAttributeCache attributeCache;
+        private Executor compoundExecutor;
+        private ReplyCacheBudget replyCacheBudget;
+        private SlotTableController slotTableController;
+        private NfsMetrics metrics;
 
         public Builder withDeviceManager(NFSv41DeviceManager deviceManager) {
             this.deviceManager = deviceManager;
@@ -321,6 +662,18 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
             return this;
         }
 
+        /**
+         * Queue denied blocking lock requests in FIFO order and notify waiting clients with CB_NOTIFY_LOCK when the
+         * lock might be available. As waiters are kept in memory of this server, with a distributed lock manager
+         * the order is kept only between clients of the same server.
+         *
+         * @param waiterTimeout time after which a waiter, which did not retry, is removed.
+         */
+        public Builder withBlockingLocks(Duration waiterTimeout) {
+            this.blockingLockTimeout = waiterTimeout;
+            return this;
+        }
+
         public Builder withExportTable(ExportTable exportTable) {
             this.exportTable = exportTable;
             return this;
@@ -349,6 +702,69 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
             return withExportTable(exportFile);
         }
 
+        /**
+         * Use provided {@link ByteBufferPool} to allocate READ reply buffers. The buffers are returned back to the
+         * pool as soon as reply is sent.
+         */
+        public Builder withBufferPool(ByteBufferPool bufferPool) {
+            this.bufferPool = bufferPool;
+            return this;
+        }
+
+        /**
+         * Use provided {@link EncodedAttributeCache} to re-use encoded file attributes of unmodified files. Should
+         * be used only with file systems, which update file's generation on every modification.
+         */
+        public Builder withAttributeCache(EncodedAttributeCache attributeCache) {
+            this.attributeCache = attributeCache;
+            return this;
+        }
+
+        /**
+         * Run COMPOUND requests with provided {@link Executor} instead of the RPC worker thread. The RPC worker thread
+         * is released as soon as request is decoded. The executor also resumes compounds, which were suspended by an
+         * asynchronous operation.
+         */
+        public Builder withCompoundExecutor(Executor compoundExecutor) {
+            this.compoundExecutor = compoundExecutor;
+            return this;
+        }
+
+        /**
+         * Run each COMPOUND request in a new virtual thread. Requires java 21 or newer.
+         *
+         * @throws UnsupportedOperationException if virtual threads are not supported by the running JVM.
+         */
+        public Builder withVirtualThreads() {
+            return withCompoundExecutor(newVirtualThreadPerTaskExecutor());
+        }
+
+        /**
+         * Use provided {@link ReplyCacheBudget} to limit the memory used by session reply caches.
+         */
+        public Builder withReplyCacheBudget(ReplyCacheBudget replyCacheBudget) {
+            this.replyCacheBudget = replyCacheBudget;
+            return this;
+        }
+
+        /**
+         * Use provided {@link SlotTableController} to adjust the number of slots clients are allowed to use
+         * depending on server load. Without a controller, which is the default, clients can use all slots of the
+         * session.
+         */
+        public Builder withSlotTableController(SlotTableController slotTableController) {
+            this.slotTableController = slotTableController;
+            return this;
+        }
+
+        /**
+         * Collect per operation latency, throughput and error statistics into provided {@link NfsMetrics}.
+         */
+        public Builder withMetrics(NfsMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
         public Builder withStateHandler(NFSv4StateHandler stateHandler) {
             this.stateHandler = stateHandler;
             return this;
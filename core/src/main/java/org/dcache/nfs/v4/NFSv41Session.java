@@ -41,8 +41,19 @@ public class NFSv41Session {
     private final int _maxCbOps;
 
     private final int _maxCbRequests;
+    private final int _maxResponseSizeCached;
     private final Set<SessionConnection> _boundConnections;
 
+    /**
+     * The highest slot id the client should use.
+     */
+    private volatile int _targetHighestSlot;
+
+    /**
+     * Time, in nanos, of the last slot target reduction.
+     */
+    private volatile long _lastSlotTargetReduction;
+
     /**
      * Create new session for the given client.
      *
@@ -55,13 +66,33 @@ public class NFSv41Session {
      */
     public NFSv41Session(NFS4Client client, sessionid4 sessionid, int maxRequests, int maxCbRequests, int maxOps,
             int maxCbOps) {
+        this(client, sessionid, maxRequests, maxCbRequests, maxOps, maxCbOps, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create new session for the given client.
+     *
+     * @param client The client that owns this session.
+     * @param sessionid The session id uniquely identifying session on the server.
+     * @param maxRequests The maximum number of concurrent requests.
+     * @param maxCbRequests The maximum number of concurrent callback requests.
+     * @param maxOps The maximum number of compound operations per requests.
+     * @param maxCbOps The maximum number of compound operations per callback requests.
+     * @param maxResponseSizeCached The maximum size of a cached reply in bytes.
+     */
+    public NFSv41Session(NFS4Client client, sessionid4 sessionid, int maxRequests, int maxCbRequests, int maxOps,
+            int maxCbOps, int maxResponseSizeCached) {
         _client = client;
         _slots = new SessionSlot[maxRequests];
         _session = sessionid;
         _maxOps = maxOps;
         _maxCbOps = maxCbOps;
         _maxCbRequests = maxCbRequests;
+        _maxResponseSizeCached = maxResponseSizeCached;
         _boundConnections = new HashSet<>();
+        _targetHighestSlot = maxRequests - 1;
+        // allow the first reduction at any time
+        _lastSlotTargetReduction = System.nanoTime() - Long.MAX_VALUE / 2;
     }
 
     public sessionid4 id() {
@@ -81,6 +112,28 @@ public class NFSv41Session {
         return _slots.length - 1;
     }
 
+    /**
+     * Get the highest slot id the client should use. The target is adjusted by {@link SlotTableController}.
+     *
+     * @return target slot id.
+     */
+    public int getTargetHighestSlot() {
+        return _targetHighestSlot;
+    }
+
+    long getLastSlotTargetReduction() {
+        return _lastSlotTargetReduction;
+    }
+
+    void setTargetHighestSlot(int target) {
+        _targetHighestSlot = target;
+    }
+
+    void setTargetHighestSlot(int target, long reductionTime) {
+        _targetHighestSlot = target;
+        _lastSlotTargetReduction = reductionTime;
+    }
+
     public int getCbHighestSlot() {
         return _maxCbRequests - 1;
     }
@@ -143,6 +196,26 @@ public class NFSv41Session {
         return _maxCbOps;
     }
 
+    /**
+     * Get maximal size of a reply, which server will cache for this session.
+     *
+     * @return size in bytes.
+     */
+    public int getMaxResponseSizeCached() {
+        return _maxResponseSizeCached;
+    }
+
+    /**
+     * Drop all cached replies of this session.
+     */
+    public void releaseReplies() {
+        for (SessionSlot slot : _slots) {
+            if (slot != null) {
+                slot.release();
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return _client.getRemoteAddress() + " : " + HexFormat.of().formatHex(_session.value);
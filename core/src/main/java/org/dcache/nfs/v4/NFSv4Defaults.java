@@ -69,4 +69,9 @@ public interface NFSv4Defaults {
      */
     public final static int NFS4_MAX_SESSION_SLOTS = 16;
 
+    /**
+     * Maximal size of a reply, which is cached by session slot.
+     */
+    public final static int NFS4_MAX_CACHED_RESPONSE_SIZE = 64 * 1024;
+
 }
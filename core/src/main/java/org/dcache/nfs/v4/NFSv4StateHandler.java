@@ -26,8 +26,10 @@ import java.net.InetSocketAddress;
 import java.security.Principal;
 import java.time.Clock;
 import java.time.Duration;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -35,6 +37,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.concurrent.GuardedBy;
 
@@ -42,8 +45,10 @@ import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.status.BadSessionException;
 import org.dcache.nfs.status.BadStateidException;
 import org.dcache.nfs.status.StaleClientidException;
-import org.dcache.nfs.util.Cache;
+import org.dcache.nfs.util.CacheEventListener;
+import org.dcache.nfs.util.ExpiringCache;
 import org.dcache.nfs.util.NopCacheEventListener;
+import org.dcache.nfs.util.Opaque;
 import org.dcache.nfs.v4.xdr.clientid4;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.dcache.nfs.v4.xdr.sessionid4;
@@ -76,7 +81,15 @@ public class NFSv4StateHandler {
     private final ClientCache _clientsByServerId;
 
     /**
-     * Read/write lock that guards the access to {@link #_clientsByServerId}.
+     * Index of known clients by client side generated long-hand owner identifier. Kept in sync with
+     * {@link #_clientsByServerId} on client creation, removal and expiry. An owner may have multiple records, e.g.
+     * a confirmed one and an unconfirmed one created by a rebooted client. The records are kept in creation order.
+     */
+    private final ConcurrentMap<Opaque, List<NFS4Client>> _clientsByOwner = new ConcurrentHashMap<>();
+
+    /**
+     * Read/write lock that guards the modifications of {@link #_clientsByServerId}. The lookups by client id don't
+     * require the lock, as {@link ClientCache} is thread safe.
      */
     private final ReentrantReadWriteLock _accessLock = new ReentrantReadWriteLock();
 
@@ -88,14 +101,14 @@ public class NFSv4StateHandler {
      */
     private final Duration _leaseTime;
 
-    private boolean _running;
+    private volatile boolean _running;
 
     /**
      * a system wide unique id of this state handler.
      */
     private final int _instanceId;
 
-    private final FileTracker _openFileTracker = new FileTracker();
+    private final FileTracker _openFileTracker;
 
     private final ClientRecoveryStore clientStore;
 
@@ -135,6 +148,7 @@ public class NFSv4StateHandler {
     NFSv4StateHandler(Duration leaseTime, int instanceId, ClientRecoveryStore clientStore,
             ClientCache clientsByServerId, Clock clock) {
         _leaseTime = leaseTime;
+        _openFileTracker = new FileTracker(leaseTime);
         _clientsByServerId = clientsByServerId;
         _clock = clock;
 
@@ -163,6 +177,7 @@ public class NFSv4StateHandler {
         try {
             checkState(_running, "NFS state handler not running");
             _clientsByServerId.remove(client.getId());
+            removeFromOwnerIndex(Opaque.forMutableByteArray(client.getOwnerId()), client);
             clientStore.removeClient(client.getOwnerId());
         } finally {
             _writeLock.unlock();
@@ -176,12 +191,26 @@ public class NFSv4StateHandler {
         try {
             checkState(_running, "NFS state handler not running");
             _clientsByServerId.put(newClient.getId(), newClient);
+            Opaque owner = Opaque.forBytes(newClient.getOwnerId());
+            _clientsByOwner.merge(owner, List.of(newClient),
+                    (clients, added) -> Stream.concat(clients.stream(), added.stream()).toList());
+            // expired clients are removed from the cache by the cache itself, thus clean the index on dispose
+            newClient.addDisposeListener(c -> removeFromOwnerIndex(owner, c));
             clientStore.addClient(newClient.getOwnerId());
         } finally {
             _writeLock.unlock();
         }
     }
 
+    private void removeFromOwnerIndex(Opaque owner, NFS4Client client) {
+        _clientsByOwner.computeIfPresent(owner, (k, clients) -> {
+            List<NFS4Client> remaining = clients.stream()
+                    .filter(c -> c != client)
+                    .toList();
+            return remaining.isEmpty() ? null : remaining;
+        });
+    }
+
     /**
      * Get confirmed, valid client by short-hand {@code clientid}.
      *
@@ -223,73 +252,51 @@ public class NFSv4StateHandler {
      */
     public NFS4Client getClient(clientid4 clientid) throws StaleClientidException {
 
-        _readLock.lock();
-        try {
-            checkState(_running, "NFS state handler not running");
+        checkState(_running, "NFS state handler not running");
 
-            NFS4Client client = _clientsByServerId.get(clientid);
-            if (client == null) {
-                throw new StaleClientidException("bad client id.");
-            }
-            return client;
-        } finally {
-            _readLock.unlock();
+        NFS4Client client = _clientsByServerId.get(clientid);
+        if (client == null) {
+            throw new StaleClientidException("bad client id.");
         }
+        return client;
     }
 
     public NFS4Client getClientIdByStateId(stateid4 stateId) throws ChimeraNFSException {
 
-        _readLock.lock();
-        try {
-            checkState(_running, "NFS state handler not running");
+        checkState(_running, "NFS state handler not running");
 
-            clientid4 clientId = new clientid4(Bytes.getLong(stateId.other, 0));
-            NFS4Client client = _clientsByServerId.get(clientId);
-            if (client == null) {
-                throw new BadStateidException("no client for stateid: " + stateId);
-            }
-            return client;
-        } finally {
-            _readLock.unlock();
+        clientid4 clientId = new clientid4(Bytes.getLong(stateId.other, 0));
+        NFS4Client client = _clientsByServerId.get(clientId);
+        if (client == null) {
+            throw new BadStateidException("no client for stateid: " + stateId);
         }
+        return client;
     }
 
     public NFS4Client getClient(sessionid4 id) throws ChimeraNFSException {
 
-        _readLock.lock();
-        try {
-            checkState(_running, "NFS state handler not running");
-            clientid4 clientId = new clientid4(Bytes.getLong(id.value, 0));
-            NFS4Client client = _clientsByServerId.get(clientId);
-            if (client == null) {
-                throw new BadSessionException("session not found: " + id);
-            }
-            return client;
-        } finally {
-            _readLock.unlock();
+        checkState(_running, "NFS state handler not running");
+        clientid4 clientId = new clientid4(Bytes.getLong(id.value, 0));
+        NFS4Client client = _clientsByServerId.get(clientId);
+        if (client == null) {
+            throw new BadSessionException("session not found: " + id);
         }
+        return client;
     }
 
     /**
      * Get existing, possibly not valid, client record that matches given client side generated long-hand owner
-     * identifier.
+     * identifier. An owner has multiple records only while a rebooted client re-establishes its state, i.e. the old
+     * record is kept next to the new, not yet confirmed one. In that case the most recently created record, the one
+     * the client currently negotiates, is returned. The old record becomes visible again, if the new one is removed.
      *
      * @param ownerid client side generated long-hand owner identifier.
      *
      * @return an existing client record or null, if not matching record found.
      */
     public NFS4Client clientByOwner(byte[] ownerid) {
-
-        _readLock.lock();
-        try {
-            return _clientsByServerId
-                    .stream()
-                    .filter(c -> Arrays.equals(c.getOwnerId(), ownerid))
-                    .findAny()
-                    .orElse(null);
-        } finally {
-            _readLock.unlock();
-        }
+        List<NFS4Client> clients = _clientsByOwner.get(Opaque.forMutableByteArray(ownerid));
+        return clients == null ? null : clients.get(clients.size() - 1);
     }
 
     public void updateClientLeaseTime(stateid4 stateid) throws ChimeraNFSException {
@@ -345,6 +352,17 @@ public class NFSv4StateHandler {
         return _clock;
     }
 
+    /**
+     * Create a cache event listener which disposes expired clients and removes them from the provided client store.
+     * Should be used with custom {@link ClientCache} implementations.
+     *
+     * @param clientStore store used by state handler to keep track of valid clients.
+     * @return cache event listener to dispose expired clients.
+     */
+    public static CacheEventListener<clientid4, NFS4Client> deadClientCollector(ClientRecoveryStore clientStore) {
+        return new DeadClientCollector(clientStore);
+    }
+
     private static final class DeadClientCollector extends NopCacheEventListener<clientid4, NFS4Client> {
         private final ClientRecoveryStore clientStore;
 
@@ -353,7 +371,7 @@ public class NFSv4StateHandler {
         }
 
         @Override
-        public void notifyExpired(Cache<clientid4, NFS4Client> cache, NFS4Client client) {
+        public void notifyExpired(ExpiringCache<clientid4, NFS4Client> cache, NFS4Client client) {
             _log.info("Removing expired client: {}", client);
             client.disposeIgnoreFailures();
             clientStore.removeClient(client.getOwnerId());
@@ -379,6 +397,18 @@ public class NFSv4StateHandler {
         clientStore.reclaimClient(owner);
     }
 
+    /**
+     * Get a future, which completes when the given client's record is durably stored in the client recovery store.
+     * The client must not be confirmed before the future completes, as a confirmed client can acquire state, which it
+     * will reclaim after server reboot.
+     *
+     * @param client client to sync
+     * @return future, which completes when client's record is stored.
+     */
+    public CompletableFuture<Void> syncClientRecord(NFS4Client client) {
+        return clientStore.sync(client.getOwnerId());
+    }
+
     /**
      * Indicate that given client wants to reclaim states held before server reboot.
      *
@@ -394,6 +424,7 @@ public class NFSv4StateHandler {
                 .forEach(c -> {
                     c.disposeIgnoreFailures();
                     _clientsByServerId.remove(c.getId());
+                    removeFromOwnerIndex(Opaque.forMutableByteArray(c.getOwnerId()), c);
                 });
     }
 
@@ -408,6 +439,7 @@ public class NFSv4StateHandler {
             _running = false;
             drainClients();
             _cleanerScheduler.shutdown();
+            _openFileTracker.shutdown();
             clientStore.close();
         } finally {
             _writeLock.unlock();
@@ -21,11 +21,16 @@ package org.dcache.nfs.v4;
 
 import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.status.NfsIoException;
 import org.dcache.nfs.status.NotSuppException;
 import org.dcache.nfs.status.OpenModeException;
+import org.dcache.nfs.status.ServerFaultException;
 import org.dcache.nfs.v4.xdr.COPY4res;
 import org.dcache.nfs.v4.xdr.COPY4resok;
 import org.dcache.nfs.v4.xdr.copy_requirements4;
@@ -60,81 +65,105 @@ public class OperationCOPY extends AbstractNFSv4Operation {
 
     @Override
     public void process(CompoundContext context, nfs_resop4 result) throws ChimeraNFSException, IOException {
+        try {
+            processAsync(context, result).toCompletableFuture().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NfsIoException("Interrupted while waiting for copy to complete");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            Throwables.propagateIfPossible(cause, IOException.class);
+            throw new ServerFaultException("Copy failed", cause);
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> processAsync(CompoundContext context, nfs_resop4 result) {
 
         final COPY4res res = result.opcopy;
 
         // inter server copy is not supported
         if (_args.opcopy.ca_source_server.length > 0) {
-            throw new NotSuppException("Inter-server copy is not supported");
+            return CompletableFuture.failedFuture(new NotSuppException("Inter-server copy is not supported"));
         }
 
-        Inode srcInode = context.savedInode();
-        Inode dstInode = context.currentInode();
-
-        long srcPos = _args.opcopy.ca_src_offset.value;
-        long dstPos = _args.opcopy.ca_dst_offset.value;
-        long len = _args.opcopy.ca_count.value;
-
-        // Only consecutive copy is supported. Synchronous copy is allowed if the byte count is smaller than max IO
-        // size.
-        if (!_args.opcopy.ca_consecutive || (_args.opcopy.ca_synchronous && len > NFSv4Defaults.NFS4_MAXIOBUFFERSIZE)) {
-            res.cr_requirements = new copy_requirements4();
-            res.cr_requirements.cr_consecutive = true;
-            res.cr_requirements.cr_synchronous = true;
-            res.cr_status = nfsstat.NFS4ERR_OFFLOAD_NO_REQS;
-            return;
-        }
-
-        NFS4Client client = context.getSession().getClient();
-
-        NFS4State srcState = client.state(_args.opcopy.ca_src_stateid);
-        NFS4State dstState = client.state(_args.opcopy.ca_dst_stateid);
+        try {
+            Inode srcInode = context.savedInode();
+            Inode dstInode = context.currentInode();
+
+            long srcPos = _args.opcopy.ca_src_offset.value;
+            long dstPos = _args.opcopy.ca_dst_offset.value;
+            long len = _args.opcopy.ca_count.value;
+
+            // Only consecutive copy is supported. Synchronous copy is allowed if the byte count is smaller than max IO
+            // size.
+            if (!_args.opcopy.ca_consecutive
+                    || (_args.opcopy.ca_synchronous && len > NFSv4Defaults.NFS4_MAXIOBUFFERSIZE)) {
+                res.cr_requirements = new copy_requirements4();
+                res.cr_requirements.cr_consecutive = true;
+                res.cr_requirements.cr_synchronous = true;
+                res.cr_status = nfsstat.NFS4ERR_OFFLOAD_NO_REQS;
+                return CompletableFuture.completedFuture(null);
+            }
 
-        int srcAccess = context.getStateHandler().getFileTracker()
-                .getShareAccess(client, srcInode, srcState.getOpenState().stateid());
+            NFS4Client client = context.getSession().getClient();
 
-        int dstAccess = context.getStateHandler().getFileTracker()
-                .getShareAccess(client, dstInode, dstState.getOpenState().stateid());
+            NFS4State srcState = client.state(_args.opcopy.ca_src_stateid);
+            NFS4State dstState = client.state(_args.opcopy.ca_dst_stateid);
 
-        if ((srcAccess & nfs4_prot.OPEN4_SHARE_ACCESS_READ) == 0) {
-            throw new OpenModeException("Invalid source inode open mode (required read)");
-        }
+            int srcAccess = context.getStateHandler().getFileTracker()
+                    .getShareAccess(client, srcInode, srcState.getOpenState().stateid());
 
-        if ((dstAccess & nfs4_prot.OPEN4_SHARE_ACCESS_WRITE) == 0) {
-            throw new OpenModeException("Invalid destination inode open mode (required write)");
-        }
+            int dstAccess = context.getStateHandler().getFileTracker()
+                    .getShareAccess(client, dstInode, dstState.getOpenState().stateid());
 
-        res.cr_resok4 = new COPY4resok();
-        res.cr_resok4.cr_response = new write_response4();
-        res.cr_resok4.cr_response.wr_writeverf = context.getRebootVerifier();
-        res.cr_status = nfsstat.NFS_OK;
+            if ((srcAccess & nfs4_prot.OPEN4_SHARE_ACCESS_READ) == 0) {
+                throw new OpenModeException("Invalid source inode open mode (required read)");
+            }
 
-        CompletableFuture<Long> copyFuture = context.getFs().copyFileRange(srcInode, srcPos, dstInode, dstPos, len);
-        // In case when the error is immediate treat it as a synchronous copy to re-use exception handling code.
-        if (_args.opcopy.ca_synchronous || copyFuture.isCompletedExceptionally()) {
-            long bytes = 0L;
-            try {
-                bytes = copyFuture.get();
-            } catch (Exception e) {
-                Throwable cause = Throwables.getRootCause(e);
-                Throwables.propagateIfPossible(cause, ChimeraNFSException.class);
+            if ((dstAccess & nfs4_prot.OPEN4_SHARE_ACCESS_WRITE) == 0) {
+                throw new OpenModeException("Invalid destination inode open mode (required write)");
+            }
 
-                LOGGER.error("Copy-offload failed: {}", e.getMessage());
-                res.cr_status = nfsstat.NFSERR_IO;
+            res.cr_resok4 = new COPY4resok();
+            res.cr_resok4.cr_response = new write_response4();
+            res.cr_resok4.cr_response.wr_writeverf = context.getRebootVerifier();
+            res.cr_resok4.cr_response.wr_committed = stable_how4.FILE_SYNC4;
+            res.cr_resok4.cr_requirements = new copy_requirements4();
+            res.cr_resok4.cr_requirements.cr_consecutive = true;
+            res.cr_resok4.cr_requirements.cr_synchronous = _args.opcopy.ca_synchronous;
+            res.cr_status = nfsstat.NFS_OK;
+
+            CompletableFuture<Long> copyFuture = context.getFs().copyFileRange(srcInode, srcPos, dstInode, dstPos,
+                    len);
+            // In case when the error is immediate treat it as a synchronous copy to re-use exception handling code.
+            if (_args.opcopy.ca_synchronous || copyFuture.isCompletedExceptionally()) {
+                // don't block the calling thread, the reply is sent when copy is complete
+                return copyFuture.handle((bytes, t) -> {
+                    if (t != null) {
+                        Throwable cause = Throwables.getRootCause(t);
+                        if (cause instanceof ChimeraNFSException) {
+                            throw new CompletionException(cause);
+                        }
+
+                        LOGGER.error("Copy-offload failed: {}", t.getMessage());
+                        res.cr_status = nfsstat.NFSERR_IO;
+                        bytes = 0L;
+                    }
+
+                    res.cr_resok4.cr_response.wr_count = new length4(bytes);
+                    res.cr_resok4.cr_response.wr_callback_id = new stateid4[] {};
+                    return null;
+                });
             }
 
-            res.cr_resok4.cr_response.wr_count = new length4(bytes);
-            res.cr_resok4.cr_response.wr_callback_id = new stateid4[] {};
-        } else {
             var copyState = notifyWhenComplete(client, dstInode, context.getRebootVerifier(), copyFuture);
             res.cr_resok4.cr_response.wr_callback_id = new stateid4[] {copyState};
             res.cr_resok4.cr_response.wr_count = new length4(0);
+            return CompletableFuture.completedFuture(null);
+        } catch (ChimeraNFSException e) {
+            return CompletableFuture.failedFuture(e);
         }
-
-        res.cr_resok4.cr_response.wr_committed = stable_how4.FILE_SYNC4;
-        res.cr_resok4.cr_requirements = new copy_requirements4();
-        res.cr_resok4.cr_requirements.cr_consecutive = true;
-        res.cr_resok4.cr_requirements.cr_synchronous = _args.opcopy.ca_synchronous;
     }
 
     private stateid4 notifyWhenComplete(NFS4Client client, Inode dstInode, verifier4 verifier,
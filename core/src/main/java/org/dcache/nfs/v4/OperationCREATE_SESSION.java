@@ -20,6 +20,10 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 import org.dcache.nfs.ChimeraNFSException;
@@ -27,6 +31,8 @@ import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.status.BadXdrException;
 import org.dcache.nfs.status.ClidInUseException;
 import org.dcache.nfs.status.InvalException;
+import org.dcache.nfs.status.NfsIoException;
+import org.dcache.nfs.status.ServerFaultException;
 import org.dcache.nfs.v4.xdr.CREATE_SESSION4res;
 import org.dcache.nfs.v4.xdr.CREATE_SESSION4resok;
 import org.dcache.nfs.v4.xdr.count4;
@@ -38,6 +44,8 @@ import org.dcache.nfs.v4.xdr.uint32_t;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Throwables;
+
 public class OperationCREATE_SESSION extends AbstractNFSv4Operation {
 
     private final static int SESSION_FLAGS_MASK =
@@ -52,10 +60,52 @@ public class OperationCREATE_SESSION extends AbstractNFSv4Operation {
     }
 
     @Override
-    public void process(CompoundContext context, nfs_resop4 result) throws ChimeraNFSException {
-        final CREATE_SESSION4res res = result.opcreate_session;
+    public void process(CompoundContext context, nfs_resop4 result) throws ChimeraNFSException, IOException {
+        try {
+            processAsync(context, result).toCompletableFuture().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NfsIoException("Interrupted while waiting for client record commit");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            Throwables.propagateIfPossible(cause, IOException.class);
+            throw new ServerFaultException("Failed to create session", cause);
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> processAsync(CompoundContext context, nfs_resop4 result) {
 
-        int sessionFlags = 0;
+        final NFS4Client client;
+        try {
+            client = validateClient(context);
+        } catch (ChimeraNFSException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (client.isConfirmed()) {
+            try {
+                createSession(context, client, result.opcreate_session);
+                return CompletableFuture.completedFuture(null);
+            } catch (ChimeraNFSException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        // client's record must survive server reboot before it gets any state
+        return context.getStateHandler().syncClientRecord(client).thenRun(() -> {
+            try {
+                createSession(context, client, result.opcreate_session);
+            } catch (ChimeraNFSException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Check the arguments and find the client record, phase 1 of CREATE_SESSION processing.
+     */
+    private NFS4Client validateClient(CompoundContext context) throws ChimeraNFSException {
 
         /*
          * check for correct arguments
@@ -97,6 +147,14 @@ public class OperationCREATE_SESSION extends AbstractNFSv4Operation {
             throw new ClidInUseException("client already in use: " + client.principal() + " " + context.getPrincipal());
         }
 
+        return client;
+    }
+
+    private void createSession(CompoundContext context, NFS4Client client, CREATE_SESSION4res res)
+            throws ChimeraNFSException {
+
+        int sessionFlags = 0;
+
         NFSv41Session session = client.createSession(_args.opcreate_session.csa_sequence.value,
                 Math.min(NFSv4Defaults.NFS4_MAX_SESSION_SLOTS,
                         _args.opcreate_session.csa_fore_chan_attrs.ca_maxrequests.value),
@@ -104,7 +162,12 @@ public class OperationCREATE_SESSION extends AbstractNFSv4Operation {
                         _args.opcreate_session.csa_back_chan_attrs.ca_maxrequests.value),
                 Math.min(NFSv4Defaults.NFS4_MAX_OPS, _args.opcreate_session.csa_fore_chan_attrs.ca_maxoperations.value),
                 Math.min(NFSv4Defaults.NFS4_MAX_OPS,
-                        _args.opcreate_session.csa_back_chan_attrs.ca_maxoperations.value));
+                        _args.opcreate_session.csa_back_chan_attrs.ca_maxoperations.value),
+                // count4 is unsigned
+                Integer.compareUnsigned(NFSv4Defaults.NFS4_MAX_CACHED_RESPONSE_SIZE,
+                        _args.opcreate_session.csa_fore_chan_attrs.ca_maxresponsesize_cached.value) < 0
+                                ? NFSv4Defaults.NFS4_MAX_CACHED_RESPONSE_SIZE
+                                : _args.opcreate_session.csa_fore_chan_attrs.ca_maxresponsesize_cached.value);
         _log.debug("adding new session [{}]", session);
 
         /*
@@ -150,6 +213,7 @@ public class OperationCREATE_SESSION extends AbstractNFSv4Operation {
         res.csr_resok4.csr_fore_chan_attrs = _args.opcreate_session.csa_fore_chan_attrs;
         res.csr_resok4.csr_fore_chan_attrs.ca_maxoperations = new count4(session.getMaxOps());
         res.csr_resok4.csr_fore_chan_attrs.ca_maxrequests = new count4(session.getHighestSlot() + 1);
+        res.csr_resok4.csr_fore_chan_attrs.ca_maxresponsesize_cached = new count4(session.getMaxResponseSizeCached());
 
         res.csr_resok4.csr_back_chan_attrs = _args.opcreate_session.csa_back_chan_attrs;
         res.csr_resok4.csr_back_chan_attrs.ca_maxoperations = new count4(session.getMaxCbOps());
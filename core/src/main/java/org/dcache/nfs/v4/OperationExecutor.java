@@ -20,6 +20,7 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import org.dcache.nfs.v4.xdr.nfs_argop4;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
@@ -44,4 +45,24 @@ public interface OperationExecutor {
     nfs_resop4 execute(CompoundContext context, nfs_argop4 args)
             throws IOException, OncRpcException;
 
+    /**
+     * Execute NFS operation for given context and operation arguments without blocking the calling thread, if the
+     * operation supports that. The returned {@link CompletableFuture} completes exceptionally with
+     * {@link IOException} if request execution failed.
+     * <p>
+     * The default implementation calls {@link #execute(CompoundContext, nfs_argop4)} in the calling thread.
+     *
+     * @param context the context of NFS compound request.
+     * @param args the NFS operation argument.
+     * @return the result of NFS operation.
+     * @since 0.28
+     */
+    default CompletableFuture<nfs_resop4> executeAsync(CompoundContext context, nfs_argop4 args) {
+        try {
+            return CompletableFuture.completedFuture(execute(context, args));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
 }
@@ -34,7 +34,6 @@ import org.dcache.nfs.status.AccessException;
 import org.dcache.nfs.status.InvalException;
 import org.dcache.nfs.v4.xdr.GETATTR4res;
 import org.dcache.nfs.v4.xdr.GETATTR4resok;
-import org.dcache.nfs.v4.xdr.attrlist4;
 import org.dcache.nfs.v4.xdr.bitmap4;
 import org.dcache.nfs.v4.xdr.fattr4;
 import org.dcache.nfs.v4.xdr.fattr4_acl;
@@ -100,7 +99,6 @@ import org.dcache.nfs.vfs.Stat;
 import org.dcache.nfs.vfs.Stat.StatAttribute;
 import org.dcache.nfs.vfs.VirtualFileSystem;
 import org.dcache.oncrpc4j.rpc.OncRpcException;
-import org.dcache.oncrpc4j.xdr.Xdr;
 import org.dcache.oncrpc4j.xdr.XdrAble;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -109,6 +107,11 @@ public class OperationGETATTR extends AbstractNFSv4Operation {
 
     private static final Logger _log = LoggerFactory.getLogger(OperationGETATTR.class);
 
+    /**
+     * Per-thread encoder to re-use the encoding buffer.
+     */
+    private static final ThreadLocal<Fattr4Encoder> ENCODER = ThreadLocal.withInitial(Fattr4Encoder::new);
+
     public OperationGETATTR(nfs_argop4 args) {
         super(args, nfs_opnum4.OP_GETATTR);
     }
@@ -130,35 +133,21 @@ public class OperationGETATTR extends AbstractNFSv4Operation {
     static fattr4 getAttributes(bitmap4 bitmap, VirtualFileSystem fs, Inode inode, Stat stat, CompoundContext context)
             throws IOException, OncRpcException {
 
-        /*
-         * bitmap we send back. can't be uninitialized.
-         */
-        bitmap4 processedAttributes = new bitmap4(new int[0]);
-
-        byte[] retBytes;
-        try (Xdr xdr = new Xdr(1024)) {
-            xdr.beginEncoding();
-
-            for (int i : bitmap) {
-                Optional<XdrAble> optionalAttr = (Optional<XdrAble>) fattr2xdr(i, fs, inode, stat, context);
-                if (optionalAttr.isPresent()) {
-                    XdrAble attr = optionalAttr.get();
-                    _log.debug("   getAttributes : {} ({}) OK.", i, attrMask2String(i));
-                    attr.xdrEncode(xdr);
-                    processedAttributes.set(i);
-                } else {
-                    _log.debug("   getAttributes : {} ({}) NOT SUPPORTED.", i, attrMask2String(i));
-                }
+        EncodedAttributeCache attributeCache = context.getAttributeCache();
+        boolean cacheable = attributeCache != null && EncodedAttributeCache.isCacheable(bitmap, stat);
+        if (cacheable) {
+            fattr4 attributes = attributeCache.get(inode, bitmap, stat);
+            if (attributes != null) {
+                return attributes;
             }
-
-            xdr.endEncoding();
-            retBytes = xdr.getBytes();
         }
 
-        fattr4 attributes = new fattr4();
-        attributes.attrmask = processedAttributes;
-        attributes.attr_vals = new attrlist4(retBytes);
+        fattr4 attributes = ENCODER.get().encode(bitmap, inode, stat, context.getFs().getIdMapper(),
+                i -> fattr2xdr(i, fs, inode, stat, context));
 
+        if (cacheable) {
+            attributeCache.put(inode, bitmap, stat, attributes);
+        }
         return attributes;
     }
 
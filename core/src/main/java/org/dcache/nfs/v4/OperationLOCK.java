@@ -19,6 +19,8 @@
  */
 package org.dcache.nfs.v4;
 
+import java.time.Duration;
+
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.status.InvalException;
@@ -33,6 +35,7 @@ import org.dcache.nfs.v4.xdr.length4;
 import org.dcache.nfs.v4.xdr.lock_owner4;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.dcache.nfs.v4.xdr.nfs_argop4;
+import org.dcache.nfs.v4.xdr.nfs_fh4;
 import org.dcache.nfs.v4.xdr.nfs_lock_type4;
 import org.dcache.nfs.v4.xdr.nfs_opnum4;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
@@ -46,6 +49,11 @@ public class OperationLOCK extends AbstractNFSv4Operation {
 
     private static final Logger _log = LoggerFactory.getLogger(OperationLOCK.class);
 
+    /**
+     * Time to wait for client's reply to CB_NOTIFY_LOCK.
+     */
+    private static final Duration CB_NOTIFY_LOCK_TIMEOUT = Duration.ofSeconds(NFSv4Defaults.NFS4_LEASE_TIME);
+
     public OperationLOCK(nfs_argop4 args) {
         super(args, nfs_opnum4.OP_LOCK);
     }
@@ -118,7 +126,7 @@ public class OperationLOCK extends AbstractNFSv4Operation {
 
             NlmLock lock = new NlmLock(lockOwner, _args.oplock.locktype, _args.oplock.offset.value,
                     _args.oplock.length.value);
-            context.getLm().lock(inode.getLockKey(), lock);
+            context.getLm().lock(inode.getLockKey(), lock, lockNotifier(context, client, inode, lockOwner));
 
             // ensure, that on close locks will be released
             lock_state.addDisposeListener(s -> {
@@ -145,4 +153,32 @@ public class OperationLOCK extends AbstractNFSv4Operation {
         }
     }
 
+    /**
+     * Get a callback, which notifies the client with CB_NOTIFY_LOCK that a denied blocking lock might be available,
+     * or null, if the client can't be notified.
+     */
+    private Runnable lockNotifier(CompoundContext context, NFS4Client client, Inode inode, StateOwner lockOwner) {
+
+        if (context.getMinorversion() == 0 || (_args.oplock.locktype != nfs_lock_type4.READW_LT
+                && _args.oplock.locktype != nfs_lock_type4.WRITEW_LT)) {
+            return null;
+        }
+
+        nfs_fh4 fh = new nfs_fh4(inode.toNfsHandle());
+        lock_owner4 owner = new lock_owner4(lockOwner.getRawStateOwner());
+        return () -> {
+            ClientCB cb = client.getCB();
+            if (cb == null) {
+                return;
+            }
+            cb.cbNotifyLockAsync(fh, owner, CB_NOTIFY_LOCK_TIMEOUT)
+                    .whenComplete((r, t) -> {
+                        if (t != null) {
+                            _log.warn("Failed to notify client {} about available lock: {}", client.getId(),
+                                    t.toString());
+                        }
+                    });
+        };
+    }
+
 }
@@ -261,7 +261,11 @@ public class OperationOPEN extends AbstractNFSv4Operation {
          * if it's v4.0, then client have to confirm
          */
         if (context.getMinorversion() > 0) {
-            res.resok4.rflags = new uint32_t(nfs4_prot.OPEN4_RESULT_LOCKTYPE_POSIX);
+            int rflags = nfs4_prot.OPEN4_RESULT_LOCKTYPE_POSIX;
+            if (context.isBlockingLocks()) {
+                rflags |= nfs4_prot.OPEN4_RESULT_MAY_NOTIFY_LOCK;
+            }
+            res.resok4.rflags = new uint32_t(rflags);
         } else {
             res.resok4.rflags = new uint32_t(nfs4_prot.OPEN4_RESULT_LOCKTYPE_POSIX
                     | nfs4_prot.OPEN4_RESULT_CONFIRM);
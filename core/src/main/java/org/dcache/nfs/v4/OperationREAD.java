@@ -21,6 +21,7 @@ package org.dcache.nfs.v4;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Optional;
 
 import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.status.AccessException;
@@ -32,6 +33,7 @@ import org.dcache.nfs.v4.xdr.nfs_argop4;
 import org.dcache.nfs.v4.xdr.nfs_opnum4;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
 import org.dcache.nfs.v4.xdr.stateid4;
+import org.dcache.nfs.vfs.FileRegion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -79,13 +81,25 @@ public class OperationREAD extends AbstractNFSv4Operation {
         long offset = _args.opread.offset.value;
         int count = _args.opread.count.value;
 
-        ByteBuffer buf = ByteBuffer.allocate(count);
+        ByteBuffer buf = context.allocateReplyBuffer(count);
 
         res.resok4 = new READ4resok();
-        int bytesRead = context.getFs().read(inode, buf, offset, res.resok4::setEOF);
+        int bytesRead;
+        Optional<FileRegion> region = context.getFs().readRegion(inode, offset, count);
+        if (region.isPresent()) {
+            try (FileRegion fileRegion = region.get()) {
+                bytesRead = fileRegion.readInto(buf);
+                if (fileRegion.isEof()) {
+                    res.resok4.setEOF();
+                }
+            }
+        } else {
+            bytesRead = context.getFs().read(inode, buf, offset, res.resok4::setEOF);
+        }
 
         if (bytesRead < 0) {
-            buf.clear();
+            // the buffer may come from the pool, don't expose its previous content
+            buf.limit(0);
             res.resok4.eof = true;
         } else {
             buf.flip();
@@ -20,6 +20,7 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Iterator;
 
 import org.dcache.nfs.ChimeraNFSException;
@@ -83,7 +84,6 @@ public class OperationREADDIR extends AbstractNFSv4Operation {
 
         final Inode dir = context.currentInode();
 
-        DirectoryStream directoryStream;
         verifier4 verifier = _args.opreaddir.cookieverf;
         long startValue = _args.opreaddir.cookie.value;
 
@@ -104,12 +104,26 @@ public class OperationREADDIR extends AbstractNFSv4Operation {
             startValue -= COOKIE_OFFSET;
         }
 
-        directoryStream = context.getFs().list(dir, verifier.value, startValue);
-        Iterator<DirectoryEntry> dirList = directoryStream.iterator();
         if (_args.opreaddir.maxcount.value < READDIR4RESOK_SIZE) {
             throw new TooSmallException("maxcount too small");
         }
 
+        /*
+         * The directory stream can be backed by a lazy cursor. Only as many entries as fit into the reply are read.
+         */
+        try (DirectoryStream directoryStream = context.getFs().list(dir, verifier.value, startValue)
+                .withAttributes(context.getFs(), _args.opreaddir.maxcount.value / ENTRY4_SIZE)) {
+            fillReply(context, res, directoryStream, startValue);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void fillReply(CompoundContext context, READDIR4res res, DirectoryStream directoryStream,
+            long startValue) throws IOException {
+
+        Iterator<DirectoryEntry> dirList = directoryStream.iterator();
+
         res.status = nfsstat.NFS_OK;
         res.resok4 = new READDIR4resok();
         res.resok4.reply = new dirlist4();
@@ -142,8 +156,10 @@ public class OperationREADDIR extends AbstractNFSv4Operation {
             currentEntry.cookie = new nfs_cookie4(le.getCookie() + COOKIE_OFFSET);
 
             try {
+                // stat is missing only if the object was not available when attributes were fetched in bulk
+                Stat stat = le.getStat() != null ? le.getStat() : context.getFs().getattr(ei);
                 currentEntry.attrs = OperationGETATTR.getAttributes(_args.opreaddir.attr_request, context.getFs(), ei,
-                        le.getStat(), context);
+                        stat, context);
             } catch (ChimeraNFSException e) {
                 /*
                  * If the client is not interested in error per file, fail the complete request.
@@ -49,7 +49,10 @@ public class OperationSEQUENCE extends AbstractNFSv4Operation {
         NFSv41Session session = client.getSession(_args.opsequence.sa_sessionid);
 
         SessionSlot slot = session.getSessionSlot(_args.opsequence.sa_slotid.value);
-        context.setCache(slot.acquire(_args.opsequence.sa_sequenceid.value));
+        // the memory for a reply to cache is reserved before the request is processed
+        ReplyCacheBudget budget = _args.opsequence.sa_cachethis ? context.getReplyCacheBudget() : null;
+        context.setCache(slot.acquire(_args.opsequence.sa_sequenceid.value, budget,
+                session.getMaxResponseSizeCached()));
 
         session.bindIfNeeded(new SessionConnection(
                 context.getLocalSocketAddress(),
@@ -65,7 +68,10 @@ public class OperationSEQUENCE extends AbstractNFSv4Operation {
 
         res.sr_resok4.sr_highest_slotid = new slotid4(session.getHighestSlot());
         res.sr_resok4.sr_slotid = new slotid4(_args.opsequence.sa_slotid.value);
-        res.sr_resok4.sr_target_highest_slotid = new slotid4(session.getHighestSlot());
+        SlotTableController slotController = context.getSlotTableController();
+        int targetSlot = slotController == null ? session.getHighestSlot()
+                : slotController.targetHighestSlot(session, _args.opsequence.sa_slotid.value);
+        res.sr_resok4.sr_target_highest_slotid = new slotid4(targetSlot);
         res.sr_resok4.sr_sessionid = new sessionid4(_args.opsequence.sa_sessionid.value);
 
         // res.sr_resok4.sr_sequenceid = new sequenceid4( new uint32_t( session.nextSequenceID()) );
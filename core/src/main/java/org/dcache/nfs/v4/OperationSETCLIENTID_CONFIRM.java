@@ -19,9 +19,16 @@
  */
 package org.dcache.nfs.v4;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.status.NfsIoException;
 import org.dcache.nfs.status.NotSuppException;
+import org.dcache.nfs.status.ServerFaultException;
 import org.dcache.nfs.v4.xdr.SETCLIENTID_CONFIRM4res;
 import org.dcache.nfs.v4.xdr.nfs_argop4;
 import org.dcache.nfs.v4.xdr.nfs_opnum4;
@@ -29,6 +36,8 @@ import org.dcache.nfs.v4.xdr.nfs_resop4;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Throwables;
+
 public class OperationSETCLIENTID_CONFIRM extends AbstractNFSv4Operation {
 
     private static final Logger _log = LoggerFactory.getLogger(OperationPUTFH.class);
@@ -38,20 +47,45 @@ public class OperationSETCLIENTID_CONFIRM extends AbstractNFSv4Operation {
     }
 
     @Override
-    public void process(CompoundContext context, nfs_resop4 result) throws ChimeraNFSException {
+    public void process(CompoundContext context, nfs_resop4 result) throws ChimeraNFSException, IOException {
+        try {
+            processAsync(context, result).toCompletableFuture().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NfsIoException("Interrupted while waiting for client record commit");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            Throwables.propagateIfPossible(cause, IOException.class);
+            throw new ServerFaultException("Failed to confirm client", cause);
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> processAsync(CompoundContext context, nfs_resop4 result) {
 
         final SETCLIENTID_CONFIRM4res res = result.opsetclientid_confirm;
 
         if (context.getMinorversion() > 0) {
-            throw new NotSuppException("operation SETCLIENTID_CONFIRM4 is obsolete in 4.x, x > 0");
+            return CompletableFuture.failedFuture(
+                    new NotSuppException("operation SETCLIENTID_CONFIRM4 is obsolete in 4.x, x > 0"));
         }
 
-        NFS4Client client = context.getStateHandler().getClient(_args.opsetclientid_confirm.clientid);
+        NFS4Client client;
+        try {
+            client = context.getStateHandler().getClient(_args.opsetclientid_confirm.clientid);
+        } catch (ChimeraNFSException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
         res.status = nfsstat.NFSERR_INVAL;
-        if (client.serverGeneratedVerifierEquals(_args.opsetclientid_confirm.setclientid_confirm)) {
+        if (!client.serverGeneratedVerifierEquals(_args.opsetclientid_confirm.setclientid_confirm)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // client's record must survive server reboot before it gets any state
+        return context.getStateHandler().syncClientRecord(client).thenRun(() -> {
             res.status = nfsstat.NFS_OK;
             client.setConfirmed();
-        }
+        });
     }
 }
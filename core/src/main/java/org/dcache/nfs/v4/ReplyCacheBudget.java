@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A global memory budget shared by reply caches of all sessions. Before a request, which client has asked to cache,
+ * is processed, the maximal size of its reply is reserved. The unused part of the reservation is given back once the
+ * reply is encoded. Requests, which can't reserve memory, are failed with NFS4ERR_DELAY. The memory of a cached reply is given back when the slot is re-used by the next request or
+ * the session is destroyed.
+ *
+ * @since 0.28
+ */
+public class ReplyCacheBudget implements ReplyCacheBudgetMXBean {
+
+    private static final Logger _log = LoggerFactory.getLogger(ReplyCacheBudget.class);
+
+    /**
+     * Default budget, 256MB.
+     */
+    public static final long DEFAULT_MAX_BYTES = 256 * 1024 * 1024;
+
+    private final long maxBytes;
+    private final AtomicLong residentBytes = new AtomicLong();
+    private final AtomicLong cachedReplies = new AtomicLong();
+    private final LongAdder rejectedReplies = new LongAdder();
+    private final LongAdder oversizedReplies = new LongAdder();
+
+    public ReplyCacheBudget() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Create a new reply cache budget.
+     *
+     * @param maxBytes maximal number of bytes used by all cached replies.
+     */
+    public ReplyCacheBudget(long maxBytes) {
+        this.maxBytes = maxBytes;
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName mxBeanName = new ObjectName(String.format("%s:type=ReplyCache,name=%s",
+                    getClass().getPackage().getName(), getClass().getSimpleName()));
+            if (!server.isRegistered(mxBeanName)) {
+                server.registerMBean(this, mxBeanName);
+            }
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+                | MBeanRegistrationException | NotCompliantMBeanException ex) {
+            _log.warn("Failed to register JMX bean: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Reserve memory for a reply.
+     *
+     * @param size size of the encoded reply.
+     * @return true, if memory is reserved and reply can be cached.
+     */
+    boolean reserve(int size) {
+        long current;
+        do {
+            current = residentBytes.get();
+            if (current + size > maxBytes) {
+                rejectedReplies.increment();
+                return false;
+            }
+        } while (!residentBytes.compareAndSet(current, current + size));
+        cachedReplies.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Give back memory of a reply reserved by {@link #reserve(int)}.
+     *
+     * @param size size of the encoded reply.
+     */
+    void release(int size) {
+        residentBytes.addAndGet(-size);
+        cachedReplies.decrementAndGet();
+    }
+
+    /**
+     * Give back the unused part of a reservation, the reply stays cached.
+     *
+     * @param size number of bytes to give back.
+     */
+    void trim(int size) {
+        residentBytes.addAndGet(-size);
+    }
+
+    /**
+     * Record a reply, which was not cached as it exceeds session's limit.
+     */
+    void oversized() {
+        oversizedReplies.increment();
+    }
+
+    @Override
+    public long getResidentBytes() {
+        return residentBytes.get();
+    }
+
+    @Override
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public long getCachedReplies() {
+        return cachedReplies.get();
+    }
+
+    @Override
+    public long getRejectedReplies() {
+        return rejectedReplies.sum();
+    }
+
+    @Override
+    public long getOversizedReplies() {
+        return oversizedReplies.sum();
+    }
+}
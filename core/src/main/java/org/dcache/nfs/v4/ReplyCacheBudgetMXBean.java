@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+/**
+ * Memory usage of session reply caches.
+ *
+ * @since 0.28
+ */
+public interface ReplyCacheBudgetMXBean {
+
+    /**
+     * @return number of bytes used by cached replies.
+     */
+    long getResidentBytes();
+
+    /**
+     * @return maximal number of bytes which can be used by cached replies.
+     */
+    long getMaxBytes();
+
+    /**
+     * @return number of cached replies.
+     */
+    long getCachedReplies();
+
+    /**
+     * @return number of requests delayed as the memory budget is exhausted.
+     */
+    long getRejectedReplies();
+
+    /**
+     * @return number of replies failed with NFS4ERR_REP_TOO_BIG_TO_CACHE.
+     */
+    long getOversizedReplies();
+}
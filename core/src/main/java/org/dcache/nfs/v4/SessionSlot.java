@@ -19,23 +19,61 @@
  */
 package org.dcache.nfs.v4;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.status.DelayException;
 import org.dcache.nfs.status.SeqMisorderedException;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.oncrpc4j.xdr.Xdr;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- *
+ * A slot of a session's reply cache. Cached replies are kept in XDR encoded form and are accounted in the
+ * {@link ReplyCacheBudget}. The memory for a reply, which client has asked to cache, is reserved before the request
+ * is processed, thus an accepted request is always cached.
  */
 public class SessionSlot {
 
     private static final Logger _log = LoggerFactory.getLogger(SessionSlot.class);
 
     private int _sequence;
-    private List<nfs_resop4> _reply;
+
+    /**
+     * XDR encoded operation results of the cached reply, or null, if not cached.
+     */
+    private byte[] _reply;
+
+    /**
+     * Number of operation results in the cached reply.
+     */
+    private int _replyOps;
+
+    /**
+     * Budget, which accounts the cached or the reserved reply.
+     */
+    private ReplyCacheBudget _budget;
+
+    /**
+     * Number of bytes reserved in the budget.
+     */
+    private int _reserved;
+
+    /**
+     * Encoded operation results of the current request, or null, if the reply is not cached.
+     */
+    private List<byte[]> _pending;
+
+    /**
+     * Total size of the encoded operation results of the current request.
+     */
+    private int _pendingSize;
 
     public SessionSlot() {
         _sequence = 0;
@@ -56,13 +94,40 @@ public class SessionSlot {
      * @return the list of cached replies, possibly empty or {@code null} cached reply does not exist.
      * @throws SeqMisorderedException if {@code sequnce} is out of order.
      */
-    List<nfs_resop4> acquire(int sequence) throws SeqMisorderedException {
+    synchronized List<nfs_resop4> acquire(int sequence) throws SeqMisorderedException {
+        try {
+            return acquire(sequence, null, 0);
+        } catch (DelayException e) {
+            // never thrown without budget
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Acquire the session cache slot for a given sequence number, like {@link #acquire(int)}. If a new request
+     * should be cached, {@code maxSize} bytes are reserved in the {@code budget}. The results of the request are
+     * collected with {@link #append(nfs_resop4)} and stored with {@link #commit()}.
+     *
+     * @param sequence the sequence number of the request for the reply cache entry
+     * @param budget memory budget to account the cached reply, or null, if the reply is not cached.
+     * @param maxSize maximal size of encoded reply.
+     * @return the list of cached replies, possibly empty or {@code null} cached reply does not exist.
+     * @throws SeqMisorderedException if {@code sequnce} is out of order.
+     * @throws DelayException if the budget is exhausted. The sequence id of the slot is not changed, thus the client
+     *         can retry the request later.
+     */
+    synchronized List<nfs_resop4> acquire(int sequence, ReplyCacheBudget budget, int maxSize)
+            throws SeqMisorderedException, DelayException {
 
         if (sequence == _sequence) {
 
             _log.info("retransmit detected");
             if (_reply != null) {
-                return _reply;
+                try {
+                    return decode(_reply, _replyOps);
+                } catch (IOException e) {
+                    _log.warn("Failed to decode cached reply: {}", e.getMessage());
+                }
             }
 
             return Collections.emptyList();
@@ -74,12 +139,118 @@ public class SessionSlot {
                     "/" + Integer.toHexString(sequence));
         }
 
+        release();
+        if (budget != null) {
+            if (!budget.reserve(maxSize)) {
+                throw new DelayException("reply cache budget exhausted");
+            }
+            _budget = budget;
+            _reserved = maxSize;
+            _pending = new ArrayList<>();
+            _pendingSize = 0;
+        }
+
         _sequence = sequence;
-        _reply = null;
         return null;
     }
 
-    void update(List<nfs_resop4> reply) {
+    /**
+     * Add an operation result to the reply of the current request. The result is encoded immediately, thus the
+     * reply objects can be re-used afterwards.
+     *
+     * @param op the operation result to cache.
+     * @return false, if the reply exceeds the reserved size and the result is not added, true otherwise.
+     */
+    synchronized boolean append(nfs_resop4 op) {
+        if (_pending == null) {
+            return true;
+        }
+
+        byte[] encoded;
+        try {
+            encoded = encode(op);
+        } catch (IOException e) {
+            _log.warn("Failed to encode reply: {}", e.getMessage());
+            return false;
+        }
+
+        if (_pendingSize + encoded.length > _reserved) {
+            _log.debug("Reply of {} bytes exceeds cached response size {}", _pendingSize + encoded.length,
+                    _reserved);
+            _budget.oversized();
+            return false;
+        }
+
+        _pending.add(encoded);
+        _pendingSize += encoded.length;
+        return true;
+    }
+
+    /**
+     * Store the reply of the current request and give back the unused part of the reservation.
+     */
+    synchronized void commit() {
+        if (_pending == null) {
+            return;
+        }
+
+        byte[] reply = new byte[_pendingSize];
+        int offset = 0;
+        for (byte[] op : _pending) {
+            System.arraycopy(op, 0, reply, offset, op.length);
+            offset += op.length;
+        }
+
+        _budget.trim(_reserved - reply.length);
+        _reserved = reply.length;
         _reply = reply;
+        _replyOps = _pending.size();
+        _pending = null;
+    }
+
+    /**
+     * Drop the cached or reserved reply, if any.
+     */
+    synchronized void release() {
+        if (_budget != null) {
+            _budget.release(_reserved);
+            _budget = null;
+            _reserved = 0;
+        }
+        _reply = null;
+        _replyOps = 0;
+        _pending = null;
+    }
+
+    private static byte[] encode(nfs_resop4 op) throws IOException {
+        try (Xdr xdr = new Xdr(256)) {
+            xdr.beginEncoding();
+            if (op.resop == nfs_opnum4.OP_READ && op.opread.status == nfsstat.NFS_OK) {
+                // encoding consumes the buffer, which still has to be sent to the client
+                ByteBuffer data = op.opread.resok4.data;
+                op.opread.resok4.data = data.duplicate();
+                try {
+                    op.xdrEncode(xdr);
+                } finally {
+                    op.opread.resok4.data = data;
+                }
+            } else {
+                op.xdrEncode(xdr);
+            }
+            xdr.endEncoding();
+            return xdr.getBytes();
+        }
+    }
+
+    private static List<nfs_resop4> decode(byte[] reply, int count) throws IOException {
+        try (Xdr xdr = new Xdr(reply)) {
+            xdr.beginDecoding();
+            List<nfs_resop4> ops = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ops.add(new nfs_resop4(xdr));
+            }
+            xdr.endDecoding();
+            return ops;
+        }
     }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server side flow control of NFSv4.1 sessions. The controller tracks the number of outstanding COMPOUND requests and
+ * the average request latency of the server. Based on that, it adjusts the session's slot target, which is returned
+ * to the client as {@code sr_target_highest_slotid}:
+ * <ul>
+ * <li>If the server is overloaded, the target is halved, but not more often than once per adjustment interval.
+ * <li>If the client uses its highest allowed slot and the server has spare capacity, the target is increased by one,
+ * up to the highest slot of the session.
+ * </ul>
+ * Requests, which wait for a long running asynchronous operation, like COPY, are not included in the average latency,
+ * as their latency doesn't reflect the server load.
+ *
+ * @since 0.28
+ */
+public class SlotTableController {
+
+    /**
+     * Weight of the latest request in the average latency, as power of two.
+     */
+    private static final int LATENCY_WEIGHT_SHIFT = 3;
+
+    private final int maxOutstanding;
+    private final long latencyThreshold;
+    private final long adjustInterval;
+    private final int minSlots;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong averageLatency = new AtomicLong();
+
+    /**
+     * Create a new controller, which considers the server as overloaded with more than 16 outstanding requests per
+     * CPU or an average request latency over one second.
+     */
+    public SlotTableController() {
+        this(Runtime.getRuntime().availableProcessors() * 16, Duration.ofSeconds(1), Duration.ofSeconds(1), 2);
+    }
+
+    /**
+     * Create a new controller.
+     *
+     * @param maxOutstanding number of outstanding requests, above which the server is overloaded.
+     * @param latencyThreshold average request latency, above which the server is overloaded.
+     * @param adjustInterval minimal time between two reductions of a session's slot target.
+     * @param minSlots minimal number of slots a client is allowed to use.
+     */
+    public SlotTableController(int maxOutstanding, Duration latencyThreshold, Duration adjustInterval,
+            int minSlots) {
+        this.maxOutstanding = maxOutstanding;
+        this.latencyThreshold = latencyThreshold.toNanos();
+        this.adjustInterval = adjustInterval.toNanos();
+        this.minSlots = minSlots;
+    }
+
+    /**
+     * Record the start of a request.
+     *
+     * @return start time of the request to be passed to {@link #requestCompleted(long)}.
+     */
+    public long requestStarted() {
+        outstanding.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the completion of a request.
+     *
+     * @param startTime start time of the request returned by {@link #requestStarted()}.
+     */
+    public void requestCompleted(long startTime) {
+        requestCompleted(startTime, true);
+    }
+
+    /**
+     * Record the completion of a request.
+     *
+     * @param startTime start time of the request returned by {@link #requestStarted()}.
+     * @param sampleLatency false, if request's latency must not be included in the average latency.
+     */
+    public void requestCompleted(long startTime, boolean sampleLatency) {
+        outstanding.decrementAndGet();
+        if (sampleLatency) {
+            long latency = System.nanoTime() - startTime;
+            averageLatency.getAndUpdate(avg -> avg + ((latency - avg) >> LATENCY_WEIGHT_SHIFT));
+        }
+    }
+
+    /**
+     * @return true, if the server is overloaded.
+     */
+    public boolean isOverloaded() {
+        return outstanding.get() > maxOutstanding || averageLatency.get() > latencyThreshold;
+    }
+
+    public int getOutstandingRequests() {
+        return outstanding.get();
+    }
+
+    public Duration getAverageLatency() {
+        return Duration.ofNanos(averageLatency.get());
+    }
+
+    /**
+     * Get the slot target of a session for the request on the given slot, adjusting it if needed.
+     *
+     * @param session the session of the request.
+     * @param slotId the slot id used by the request.
+     * @return the highest slot id the client should use.
+     */
+    public int targetHighestSlot(NFSv41Session session, int slotId) {
+
+        int target = session.getTargetHighestSlot();
+        long now = System.nanoTime();
+
+        if (isOverloaded()) {
+            if (now - session.getLastSlotTargetReduction() < adjustInterval) {
+                return target;
+            }
+            int newTarget = Math.max(minSlots, (target + 1) / 2) - 1;
+            newTarget = Math.min(newTarget, target);
+            session.setTargetHighestSlot(newTarget, now);
+            return newTarget;
+        }
+
+        if (slotId >= target && target < session.getHighestSlot() && outstanding.get() < maxOutstanding / 2) {
+            int newTarget = target + 1;
+            session.setTargetHighestSlot(newTarget);
+            return newTarget;
+        }
+
+        return target;
+    }
+}
@@ -53,6 +53,22 @@ public abstract class AbstractLockManager implements LockManager {
      */
     protected abstract Collection<NlmLock> getActiveLocks(Opaque objId);
 
+    /**
+     * Get collection of currently used active locks on the object, which overlap with the range of the given lock.
+     * Subclasses which keep locks in a range index, like {@link LockIntervalTree}, should override this method to
+     * avoid checking every lock on the object.
+     *
+     * @param objId object id.
+     * @param lock the lock which defines the range.
+     * @return collection of active locks overlapping with the given lock.
+     * @since 0.28
+     */
+    protected Collection<NlmLock> getOverlappingLocks(Opaque objId, NlmLock lock) {
+        return getActiveLocks(objId).stream()
+                .filter(l -> l.isOverlappingRange(lock))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Add {@code lock} to an object.
      *
@@ -91,15 +107,15 @@ public abstract class AbstractLockManager implements LockManager {
         Lock dlmLock = getObjectLock(objId);
         dlmLock.lock();
         try {
-            Collection<NlmLock> currentLocks = getActiveLocks(objId);
+            Collection<NlmLock> currentLocks = getOverlappingLocks(objId, lock);
             Optional<NlmLock> conflictingLock = currentLocks.stream().filter((NlmLock l) -> l.isConflicting(lock))
                     .findAny();
             if (conflictingLock.isPresent()) {
                 throw new LockDeniedException("object locked", conflictingLock.get());
             }
             // no conflicting locks. try to merge existing locks
-            List<NlmLock> toMerge = currentLocks.stream().filter((NlmLock l) -> l.isOverlappingRange(lock)).filter((
-                    NlmLock l) -> l.isSameOwner(lock)).filter((NlmLock l) -> l.getLockType() == lock.getLockType())
+            List<NlmLock> toMerge = currentLocks.stream().filter((NlmLock l) -> l.isSameOwner(lock)).filter((
+                    NlmLock l) -> l.getLockType() == lock.getLockType())
                     .collect(Collectors.toList());
             if (toMerge.isEmpty()) {
                 add(objId, lock);
@@ -128,15 +144,14 @@ public abstract class AbstractLockManager implements LockManager {
         Lock dlmLock = getObjectLock(objId);
         dlmLock.lock();
         try {
-            Collection<NlmLock> currentLocks = getActiveLocks(objId);
             // check for exact match first
             if (remove(objId, lock)) {
                 return;
             }
+            Collection<NlmLock> currentLocks = getOverlappingLocks(objId, lock);
             List<NlmLock> toRemove = new ArrayList<>();
             List<NlmLock> toAdd = new ArrayList<>();
-            currentLocks.stream().filter((NlmLock l) -> l.isSameOwner(lock)).filter((NlmLock l) -> l.isOverlappingRange(
-                    lock)).forEach((NlmLock l) -> {
+            currentLocks.stream().filter((NlmLock l) -> l.isSameOwner(lock)).forEach((NlmLock l) -> {
                         toRemove.add(l);
                         long l1 = lock.getOffset() - l.getOffset();
                         if (l1 > 0) {
@@ -167,9 +182,9 @@ public abstract class AbstractLockManager implements LockManager {
         Lock dlmLock = getObjectLock(objId);
         dlmLock.lock();
         try {
-            Collection<NlmLock> currentLocks = getActiveLocks(objId);
-            Optional<NlmLock> conflictingLock = currentLocks.stream().filter((NlmLock l) -> l.isOverlappingRange(lock)
-                    && !l.isSameOwner(lock)).findAny();
+            Collection<NlmLock> currentLocks = getOverlappingLocks(objId, lock);
+            Optional<NlmLock> conflictingLock = currentLocks.stream().filter((NlmLock l) -> !l.isSameOwner(lock))
+                    .findAny();
             if (conflictingLock.isPresent()) {
                 throw new LockDeniedException("object locked", conflictingLock.get());
             }
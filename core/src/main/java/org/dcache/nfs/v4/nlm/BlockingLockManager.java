@@ -0,0 +1,425 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4.nlm;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+import org.dcache.nfs.util.Opaque;
+import org.dcache.nfs.v4.NFSv4Defaults;
+import org.dcache.nfs.v4.xdr.nfs_lock_type4;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A {@link LockManager} decorator, which keeps a FIFO queue of waiters for blocking lock requests that were denied.
+ * Waiters without a notification callback, e.g. clients which poll, are queued as well to keep their order. When a
+ * lock is released, the first waiters which overlap the released range are notified that the lock might be
+ * available, either the first write waiter or all read waiters up to the next write waiter.
+ * <p>
+ * To keep the order of waiters, a lock request which conflicts with an earlier waiter is denied, even if the lock is
+ * available. A waiter is removed when its lock is granted or if it was not retried within the waiter timeout, for
+ * instance, as the client has given up. The timeout is restarted with each retry and notification.
+ * <p>
+ * Notifications are sent asynchronously. As the lock is not reserved for the waiter, a notified waiter must retry
+ * the lock request. Queues of files without lock activity are expired by a periodic sweep.
+ * <p>
+ * Waiters are kept in memory of the local node, thus, with a distributed lock manager, the order of waiters is only
+ * kept between clients of the same node.
+ *
+ * @since 0.28
+ */
+public class BlockingLockManager implements LockManager, BlockingLockManagerMXBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlockingLockManager.class);
+
+    /**
+     * Minimal interval between sweeps of expired waiters.
+     */
+    private static final long MIN_SWEEP_PERIOD = TimeUnit.SECONDS.toNanos(1);
+
+    private static class Waiter {
+
+        private final NlmLock lock;
+        private final long enqueuedAt;
+
+        private Runnable onAvailable;
+        private long lastSeen;
+        private boolean notified;
+
+        Waiter(NlmLock lock, Runnable onAvailable, long now) {
+            this.lock = lock;
+            this.onAvailable = onAvailable;
+            this.enqueuedAt = now;
+            this.lastSeen = now;
+        }
+    }
+
+    private final LockManager inner;
+    private final long waiterTimeout;
+    private final Executor notifyExecutor;
+    private final ScheduledExecutorService sweeper;
+
+    /*
+     * Use {@link Striped} here to split synchronized block on file waiters into multiple partitions to increase
+     * concurrency, while guaranteeing atomicity on a single file.
+     */
+    private final Striped<Lock> objLock = Striped.lock(Runtime.getRuntime().availableProcessors() * 4);
+
+    /**
+     * Waiters of a file, oldest first. Queues are only modified while holding the file's object lock.
+     */
+    private final ConcurrentHashMap<Opaque, Deque<Waiter>> queues = new ConcurrentHashMap<>();
+
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder queuedRequests = new LongAdder();
+    private final LongAdder grantedAfterWait = new LongAdder();
+    private final LongAdder fairnessDenials = new LongAdder();
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder expiredWaiters = new LongAdder();
+    private final LongAdder totalWaitTime = new LongAdder();
+    private final LongAccumulator maxWaitTime = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Create a new {@code BlockingLockManager}, which keeps waiters for a lease time.
+     *
+     * @param inner lock manager which keeps the locks.
+     */
+    public BlockingLockManager(LockManager inner) {
+        this(inner, Duration.ofSeconds(NFSv4Defaults.NFS4_LEASE_TIME));
+    }
+
+    /**
+     * Create a new {@code BlockingLockManager}, which notifies waiters by the thread that sweeps expired waiters.
+     * Thus, notification callbacks are expected not to block.
+     *
+     * @param inner lock manager which keeps the locks.
+     * @param waiterTimeout time after which a waiter, which did not retry, is removed.
+     */
+    public BlockingLockManager(LockManager inner, Duration waiterTimeout) {
+        this(inner, waiterTimeout, null);
+    }
+
+    /**
+     * Create a new {@code BlockingLockManager}.
+     *
+     * @param inner lock manager which keeps the locks.
+     * @param waiterTimeout time after which a waiter, which did not retry, is removed.
+     * @param notifyExecutor executor used to notify waiters.
+     */
+    public BlockingLockManager(LockManager inner, Duration waiterTimeout, Executor notifyExecutor) {
+        this.inner = inner;
+        this.waiterTimeout = waiterTimeout.toNanos();
+        sweeper = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                        .setNameFormat("lock-waiters-%d")
+                        .setDaemon(true)
+                        .build());
+        this.notifyExecutor = notifyExecutor == null ? sweeper : notifyExecutor;
+
+        long period = Math.max(this.waiterTimeout, MIN_SWEEP_PERIOD);
+        sweeper.scheduleWithFixedDelay(this::expireWaiters, period, period, TimeUnit.NANOSECONDS);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName mxBeanName = new ObjectName(String.format("%s:type=LockManager,name=%s",
+                    getClass().getPackage().getName(), getClass().getSimpleName()));
+            if (!server.isRegistered(mxBeanName)) {
+                server.registerMBean(this, mxBeanName);
+            }
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+                | MBeanRegistrationException | NotCompliantMBeanException ex) {
+            LOGGER.warn("Failed to register JMX bean: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void lock(Opaque objId, NlmLock lock) throws LockException {
+        lock(objId, lock, null);
+    }
+
+    @Override
+    public void lock(Opaque objId, NlmLock lock, Runnable onAvailable) throws LockException {
+
+        boolean mayWait = isBlocking(lock);
+        if (!mayWait && !queues.containsKey(objId)) {
+            // nobody is waiting for this file
+            inner.lock(objId, lock);
+            return;
+        }
+
+        Lock l = objLock.get(objId);
+        l.lock();
+        try {
+            long now = System.nanoTime();
+            Deque<Waiter> queue = queues.get(objId);
+            Waiter self = null;
+            Waiter blocker = null;
+            if (queue != null) {
+                expire(objId, queue, now);
+                for (Waiter w : queue) {
+                    if (w.lock.equals(lock)) {
+                        self = w;
+                        break;
+                    }
+                    if (blocker == null && w.lock.isConflicting(lock)) {
+                        blocker = w;
+                    }
+                }
+            }
+
+            if (blocker != null) {
+                fairnessDenials.increment();
+                if (mayWait) {
+                    enqueue(objId, self, lock, onAvailable, now);
+                }
+                throw new LockDeniedException("conflicts with an earlier lock waiter", blocker.lock);
+            }
+
+            try {
+                inner.lock(objId, lock);
+            } catch (LockDeniedException e) {
+                if (mayWait) {
+                    enqueue(objId, self, lock, onAvailable, now);
+                }
+                throw e;
+            }
+
+            if (self != null) {
+                remove(objId, queue, self);
+                grantedAfterWait.increment();
+                long waitTime = now - self.enqueuedAt;
+                totalWaitTime.add(waitTime);
+                maxWaitTime.accumulate(waitTime);
+            }
+        } finally {
+            l.unlock();
+        }
+    }
+
+    @Override
+    public void unlock(Opaque objId, NlmLock lock) throws LockException {
+        inner.unlock(objId, lock);
+        wakeUp(objId, lock);
+    }
+
+    @Override
+    public void test(Opaque objId, NlmLock lock) throws LockException {
+        inner.test(objId, lock);
+    }
+
+    @Override
+    public void unlockIfExists(Opaque objId, NlmLock lock) {
+        inner.unlockIfExists(objId, lock);
+        wakeUp(objId, lock);
+    }
+
+    /**
+     * Notify the waiters, which might be able to get the lock as the given lock is released.
+     */
+    private void wakeUp(Opaque objId, NlmLock released) {
+
+        if (!queues.containsKey(objId)) {
+            return;
+        }
+
+        List<Runnable> toNotify = new ArrayList<>();
+        Lock l = objLock.get(objId);
+        l.lock();
+        try {
+            Deque<Waiter> queue = queues.get(objId);
+            if (queue == null) {
+                return;
+            }
+
+            long now = System.nanoTime();
+            expire(objId, queue, now);
+
+            boolean first = true;
+            for (Waiter w : queue) {
+                if (!w.lock.isOverlappingRange(released)) {
+                    continue;
+                }
+
+                boolean isWrite = w.lock.getLockType() == nfs_lock_type4.WRITEW_LT;
+                if (isWrite && !first) {
+                    break;
+                }
+
+                if (!w.notified) {
+                    w.notified = true;
+                    w.lastSeen = now;
+                    if (w.onAvailable != null) {
+                        toNotify.add(w.onAvailable);
+                    }
+                }
+
+                if (isWrite) {
+                    break;
+                }
+                first = false;
+            }
+        } finally {
+            l.unlock();
+        }
+
+        for (Runnable r : toNotify) {
+            notifications.increment();
+            try {
+                notifyExecutor.execute(r);
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn("Failed to notify lock waiter: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Remove expired waiters of all files, including files without lock activity.
+     */
+    void expireWaiters() {
+        long now = System.nanoTime();
+        for (Opaque objId : queues.keySet()) {
+            Lock l = objLock.get(objId);
+            l.lock();
+            try {
+                Deque<Waiter> queue = queues.get(objId);
+                if (queue != null) {
+                    expire(objId, queue, now);
+                }
+            } finally {
+                l.unlock();
+            }
+        }
+    }
+
+    /**
+     * Stop the sweeper of expired waiters.
+     */
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private void enqueue(Opaque objId, Waiter self, NlmLock lock, Runnable onAvailable, long now) {
+        if (self != null) {
+            self.onAvailable = onAvailable;
+            self.lastSeen = now;
+            self.notified = false;
+            return;
+        }
+
+        queues.computeIfAbsent(objId.toImmutableOpaque(), k -> new ArrayDeque<>())
+                .addLast(new Waiter(lock, onAvailable, now));
+        waiters.incrementAndGet();
+        queuedRequests.increment();
+    }
+
+    private void remove(Opaque objId, Deque<Waiter> queue, Waiter waiter) {
+        queue.remove(waiter);
+        waiters.decrementAndGet();
+        if (queue.isEmpty()) {
+            queues.remove(objId);
+        }
+    }
+
+    private void expire(Opaque objId, Deque<Waiter> queue, long now) {
+        Iterator<Waiter> i = queue.iterator();
+        while (i.hasNext()) {
+            Waiter w = i.next();
+            if (now - w.lastSeen > waiterTimeout) {
+                i.remove();
+                waiters.decrementAndGet();
+                expiredWaiters.increment();
+            }
+        }
+        if (queue.isEmpty()) {
+            queues.remove(objId);
+        }
+    }
+
+    private static boolean isBlocking(NlmLock lock) {
+        return lock.getLockType() == nfs_lock_type4.READW_LT || lock.getLockType() == nfs_lock_type4.WRITEW_LT;
+    }
+
+    @Override
+    public int getWaiters() {
+        return waiters.get();
+    }
+
+    @Override
+    public long getQueuedRequests() {
+        return queuedRequests.sum();
+    }
+
+    @Override
+    public long getGrantedAfterWait() {
+        return grantedAfterWait.sum();
+    }
+
+    @Override
+    public long getFairnessDenials() {
+        return fairnessDenials.sum();
+    }
+
+    @Override
+    public long getNotifications() {
+        return notifications.sum();
+    }
+
+    @Override
+    public long getExpiredWaiters() {
+        return expiredWaiters.sum();
+    }
+
+    @Override
+    public long getAverageWaitTime() {
+        long granted = grantedAfterWait.sum();
+        return granted == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitTime.sum() / granted);
+    }
+
+    @Override
+    public long getMaxWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitTime.get());
+    }
+}
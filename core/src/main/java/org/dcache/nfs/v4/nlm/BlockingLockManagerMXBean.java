@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4.nlm;
+
+/**
+ * Lock wait statistics of {@link BlockingLockManager}.
+ *
+ * @since 0.28
+ */
+public interface BlockingLockManagerMXBean {
+
+    /**
+     * @return number of currently queued lock waiters.
+     */
+    int getWaiters();
+
+    /**
+     * @return number of blocking lock requests which were queued.
+     */
+    long getQueuedRequests();
+
+    /**
+     * @return number of locks granted to a queued waiter.
+     */
+    long getGrantedAfterWait();
+
+    /**
+     * @return number of lock requests denied to keep the order of earlier waiters.
+     */
+    long getFairnessDenials();
+
+    /**
+     * @return number of notifications sent to waiters.
+     */
+    long getNotifications();
+
+    /**
+     * @return number of waiters which did not retry in time.
+     */
+    long getExpiredWaiters();
+
+    /**
+     * @return average time in milliseconds between queuing a waiter and granting its lock.
+     */
+    long getAverageWaitTime();
+
+    /**
+     * @return longest time in milliseconds between queuing a waiter and granting its lock.
+     */
+    long getMaxWaitTime();
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4.nlm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A range index of byte-range locks of a single object. The locks are kept in a balanced (AVL) tree ordered by lock
+ * offset, where each node is augmented with the highest end offset of its subtree. This allows to find all locks which
+ * overlap with a given range in O(log n + k) instead of checking every lock.
+ * <p>
+ * The index uses signed offsets. Locks with an offset which doesn't fit into signed long are treated as covering the
+ * whole file, thus they are always checked with {@link NlmLock#isOverlappingRange(NlmLock)}, which makes the final
+ * decision.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @since 0.28
+ */
+public class LockIntervalTree {
+
+    private static class Node {
+
+        private final long start;
+
+        /**
+         * Locks which start at this node's offset.
+         */
+        private final List<NlmLock> locks = new ArrayList<>(1);
+
+        /**
+         * The highest end offset of this node's locks.
+         */
+        private long end;
+
+        /**
+         * The highest end offset in the subtree.
+         */
+        private long maxEnd;
+        private int height;
+        private Node left;
+        private Node right;
+
+        Node(long start) {
+            this.start = start;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    /**
+     * Add a lock to the index.
+     *
+     * @param lock lock to add.
+     */
+    public void add(NlmLock lock) {
+        root = insert(root, lock);
+        size++;
+    }
+
+    /**
+     * Remove a lock from the index.
+     *
+     * @param lock lock to remove.
+     * @return true if lock was removed.
+     */
+    public boolean remove(NlmLock lock) {
+        int oldSize = size;
+        root = remove(root, startOf(lock), lock);
+        return size != oldSize;
+    }
+
+    /**
+     * Get all locks which overlap with the range of the given lock.
+     *
+     * @param lock the lock which defines the range.
+     * @return list of overlapping locks.
+     */
+    public List<NlmLock> getOverlapping(NlmLock lock) {
+        List<NlmLock> overlapping = new ArrayList<>();
+        collectOverlapping(root, startOf(lock), endOf(lock), lock, overlapping);
+        return overlapping;
+    }
+
+    /**
+     * Get all locks in the index, ordered by offset.
+     *
+     * @return list of all locks.
+     */
+    public List<NlmLock> getAll() {
+        List<NlmLock> all = new ArrayList<>(size);
+        collectAll(root, all);
+        return all;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static long startOf(NlmLock lock) {
+        return lock.getOffset() < 0 ? Long.MIN_VALUE : lock.getOffset();
+    }
+
+    private static long endOf(NlmLock lock) {
+        long offset = lock.getOffset();
+        long length = lock.getLength();
+        // negative length includes NFS4_UINT64_MAX, i.e. up to the end of file
+        if (offset < 0 || length < 0) {
+            return Long.MAX_VALUE;
+        }
+        if (length == 0) {
+            return offset;
+        }
+        long end = offset + length - 1;
+        return end < offset ? Long.MAX_VALUE : end;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node insert(Node node, NlmLock lock) {
+        long start = startOf(lock);
+        if (node == null) {
+            Node n = new Node(start);
+            n.locks.add(lock);
+            n.end = endOf(lock);
+            update(n);
+            return n;
+        }
+
+        if (start < node.start) {
+            node.left = insert(node.left, lock);
+        } else if (start > node.start) {
+            node.right = insert(node.right, lock);
+        } else {
+            node.locks.add(lock);
+            node.end = Math.max(node.end, endOf(lock));
+        }
+        return balance(node);
+    }
+
+    private Node remove(Node node, long start, NlmLock lock) {
+        if (node == null) {
+            return null;
+        }
+
+        if (start < node.start) {
+            node.left = remove(node.left, start, lock);
+        } else if (start > node.start) {
+            node.right = remove(node.right, start, lock);
+        } else {
+            if (!node.locks.remove(lock)) {
+                return node;
+            }
+            size--;
+
+            if (!node.locks.isEmpty()) {
+                node.end = node.locks.stream().mapToLong(LockIntervalTree::endOf).max().getAsLong();
+                update(node);
+                return node;
+            }
+
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private static Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static void collectOverlapping(Node node, long start, long end, NlmLock lock, List<NlmLock> out) {
+        if (node == null || node.maxEnd < start) {
+            return;
+        }
+
+        collectOverlapping(node.left, start, end, lock, out);
+        if (node.start <= end) {
+            if (node.end >= start) {
+                for (NlmLock l : node.locks) {
+                    if (l.isOverlappingRange(lock)) {
+                        out.add(l);
+                    }
+                }
+            }
+            collectOverlapping(node.right, start, end, lock, out);
+        }
+    }
+
+    private static void collectAll(Node node, List<NlmLock> out) {
+        if (node == null) {
+            return;
+        }
+        collectAll(node.left, out);
+        out.addAll(node.locks);
+        collectAll(node.right, out);
+    }
+}
@@ -35,6 +35,22 @@ public interface LockManager {
      */
     void lock(Opaque objId, NlmLock lock) throws LockException;
 
+    /**
+     * Lock byte range of an {@code objId}. If a blocking lock request is denied, the lock manager may keep the request
+     * as a waiter and call {@code onAvailable} when the lock might be available. The default implementation ignores
+     * the callback.
+     *
+     * @param objId object to lock.
+     * @param lock lock definition.
+     * @param onAvailable callback to notify the waiter, or null.
+     * @throws LockDeniedException if a conflicting lock is detected.
+     * @throws LockException if locking fails.
+     * @since 0.28
+     */
+    default void lock(Opaque objId, NlmLock lock, Runnable onAvailable) throws LockException {
+        lock(objId, lock);
+    }
+
     /**
      * Unlock byte range of an {@code objId}.
      *
@@ -19,10 +19,8 @@
  */
 package org.dcache.nfs.v4.nlm;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 
@@ -58,7 +56,7 @@ public class SimpleLm extends AbstractLockManager {
     /**
      * Exclusive lock on objects locks.
      */
-    private final ConcurrentHashMap<Opaque, List<NlmLock>> locks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Opaque, LockIntervalTree> locks = new ConcurrentHashMap<>();
 
     @Override
     protected Lock getObjectLock(Opaque objId) {
@@ -67,18 +65,25 @@ public class SimpleLm extends AbstractLockManager {
 
     @Override
     protected Collection<NlmLock> getActiveLocks(Opaque objId) {
-        return locks.getOrDefault(objId, Collections.emptyList());
+        LockIntervalTree l = locks.get(objId);
+        return l == null ? Collections.emptyList() : l.getAll();
+    }
+
+    @Override
+    protected Collection<NlmLock> getOverlappingLocks(Opaque objId, NlmLock lock) {
+        LockIntervalTree l = locks.get(objId);
+        return l == null ? Collections.emptyList() : l.getOverlapping(lock);
     }
 
     @Override
     protected void add(Opaque objId, NlmLock lock) {
-        Collection<NlmLock> l = locks.computeIfAbsent(objId.toImmutableOpaque(), k -> new ArrayList<>());
+        LockIntervalTree l = locks.computeIfAbsent(objId.toImmutableOpaque(), k -> new LockIntervalTree());
         l.add(lock);
     }
 
     @Override
     protected boolean remove(Opaque objId, NlmLock lock) {
-        Collection<NlmLock> l = locks.get(objId);
+        LockIntervalTree l = locks.get(objId);
         boolean isRemoved = false;
         if (l != null) {
             isRemoved = l.remove(lock);
@@ -91,15 +96,18 @@ public class SimpleLm extends AbstractLockManager {
 
     @Override
     protected void addAll(Opaque objId, Collection<NlmLock> locks) {
-        Collection<NlmLock> l = this.locks.computeIfAbsent(objId.toImmutableOpaque(), k -> new ArrayList<>());
-        l.addAll(locks);
+        if (locks.isEmpty()) {
+            return;
+        }
+        LockIntervalTree l = this.locks.computeIfAbsent(objId.toImmutableOpaque(), k -> new LockIntervalTree());
+        locks.forEach(l::add);
     }
 
     @Override
     protected void removeAll(Opaque objId, Collection<NlmLock> locks) {
-        Collection<NlmLock> l = this.locks.get(objId);
+        LockIntervalTree l = this.locks.get(objId);
         if (l != null) {
-            l.removeAll(locks);
+            locks.forEach(l::remove);
             if (l.isEmpty()) {
                 this.locks.remove(objId);
             }
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A set of cache invalidations caused by a single name space or attribute change, which is distributed to other
+ * {@link VfsCache} instances by a {@link CacheInvalidationChannel}. All entries refer to files by their file id, see
+ * {@link Inode#getFileIdKey()}.
+ *
+ * @since 0.28
+ */
+public class CacheInvalidation implements Serializable {
+
+    private static final long serialVersionUID = 4389316253915862547L;
+
+    /**
+     * The cache affected by an invalidation.
+     */
+    public enum Kind {
+        /**
+         * File attributes of the file.
+         */
+        STAT,
+        /**
+         * Lookup of a name in the directory, or all names if no name is given.
+         */
+        LOOKUP,
+        /**
+         * Parent of the file.
+         */
+        PARENT,
+        /**
+         * Listing of the directory.
+         */
+        READDIR
+    }
+
+    /**
+     * A single invalidation.
+     *
+     * @param kind the affected cache.
+     * @param fileId file id of the file or directory.
+     * @param name the name within the directory, or null.
+     */
+    public record Entry(Kind kind, byte[] fileId, String name) implements Serializable {
+
+        public Entry {
+            requireNonNull(kind);
+            requireNonNull(fileId);
+        }
+    }
+
+    private final UUID origin;
+    private final List<Entry> entries;
+
+    /**
+     * Create a new invalidation message.
+     *
+     * @param origin the id of the cache which published the invalidation.
+     * @param entries cache entries to invalidate.
+     */
+    public CacheInvalidation(UUID origin, List<Entry> entries) {
+        this.origin = requireNonNull(origin);
+        this.entries = List.copyOf(entries);
+    }
+
+    public UUID getOrigin() {
+        return origin;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public static Entry stat(Inode inode) {
+        return new Entry(Kind.STAT, inode.getFileIdKey().toBytes(), null);
+    }
+
+    public static Entry lookup(Inode parent, String name) {
+        return new Entry(Kind.LOOKUP, parent.getFileIdKey().toBytes(), name);
+    }
+
+    public static Entry parent(Inode inode) {
+        return new Entry(Kind.PARENT, inode.getFileIdKey().toBytes(), null);
+    }
+
+    public static Entry readdir(Inode dir) {
+        return new Entry(Kind.READDIR, dir.getFileIdKey().toBytes(), null);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidation{origin=" + origin + ", entries=" + entries.size() + "}";
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import java.util.function.Consumer;
+
+/**
+ * A channel to distribute cache invalidations between {@link VfsCache} instances, which share the same name space,
+ * e.g. running in different NFS doors. Each cache publishes invalidations caused by its own modifications and applies
+ * invalidations published by others.
+ *
+ * @since 0.28
+ */
+public interface CacheInvalidationChannel {
+
+    /**
+     * Send invalidation to all subscribers, including the publisher itself.
+     *
+     * @param invalidation the invalidation to distribute.
+     */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * Register a listener, which will be notified about published invalidations.
+     *
+     * @param listener consumer of invalidations.
+     */
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import java.util.Iterator;
+
+/**
+ * A resumable position in a directory listing. Unlike a fully materialized listing, a cursor produces entries on
+ * demand, which allows a backend to serve a page of a large directory without reading the whole directory.
+ * <p>
+ * The returned iterators must produce entries in ascending cookie order. If an iterator holds resources, like an
+ * open directory handle, it should implement {@link java.io.Closeable}. Such iterators are closed by the
+ * {@link DirectoryStream} they were obtained from. I/O errors during iteration should be reported as
+ * {@link java.io.UncheckedIOException}.
+ *
+ * @since 0.28
+ */
+@FunctionalInterface
+public interface DirectoryCursor {
+
+    /**
+     * Returns an iterator over directory entries with cookies greater than {@code fromCookie}.
+     *
+     * @param fromCookie lowest cookie, exclusive.
+     * @return an iterator over directory entries.
+     */
+    Iterator<DirectoryEntry> seek(long fromCookie);
+}
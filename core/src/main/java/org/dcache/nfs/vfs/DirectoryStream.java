@@ -19,27 +19,48 @@
  */
 package org.dcache.nfs.vfs;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NavigableSet;
 import java.util.TreeSet;
 import java.util.function.Function;
 
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 
-import com.google.common.collect.ForwardingNavigableSet;
+import com.google.common.collect.AbstractIterator;
 
 /**
- *
+ * A directory listing. The entries are produced by a {@link DirectoryCursor}, thus, depending on the backend, the
+ * listing can be fully materialized or lazily read page by page. Streams which are backed by a cursor that holds
+ * resources must be closed after use.
  */
-public class DirectoryStream implements Iterable<DirectoryEntry> {
+public class DirectoryStream implements Iterable<DirectoryEntry>, Closeable {
 
     // v4 and v3 have the same verifier size
     public final static byte[] ZERO_VERIFIER = new byte[nfs4_prot.NFS4_VERIFIER_SIZE];
 
+    /**
+     * Maximal number of entries for which attributes are requested at once.
+     */
+    public static final int MAX_ATTRIBUTE_BATCH = 1024;
+
     private final byte[] verifier;
-    private final NavigableSet<DirectoryEntry> entries;
+    private final DirectoryCursor cursor;
+    private final long fromCookie;
+
+    /**
+     * Iterators which have been handed out by this stream and have to be closed.
+     */
+    private final List<Closeable> openIterators = new ArrayList<>(1);
 
     public DirectoryStream(Collection<DirectoryEntry> entries) {
         this(ZERO_VERIFIER, new TreeSet<>(entries));
@@ -50,8 +71,23 @@ public class DirectoryStream implements Iterable<DirectoryEntry> {
     }
 
     public DirectoryStream(byte[] verifier, NavigableSet<DirectoryEntry> entries) {
+        this(verifier, new NavigableSetCursor(entries));
+    }
+
+    /**
+     * Create a new DirectoryStream, which lazily reads directory entries from the given {@code cursor}.
+     *
+     * @param verifier directory verifier.
+     * @param cursor the source of directory entries.
+     */
+    public DirectoryStream(byte[] verifier, DirectoryCursor cursor) {
+        this(verifier, cursor, 0L);
+    }
+
+    private DirectoryStream(byte[] verifier, DirectoryCursor cursor, long fromCookie) {
         this.verifier = verifier;
-        this.entries = Collections.unmodifiableNavigableSet(entries);
+        this.cursor = cursor;
+        this.fromCookie = fromCookie;
     }
 
     public byte[] getVerifier() {
@@ -60,7 +96,13 @@ public class DirectoryStream implements Iterable<DirectoryEntry> {
 
     @Override
     public Iterator<DirectoryEntry> iterator() {
-        return entries.iterator();
+        Iterator<DirectoryEntry> i = cursor.seek(fromCookie);
+        if (i instanceof Closeable) {
+            synchronized (openIterators) {
+                openIterators.add((Closeable) i);
+            }
+        }
+        return i;
     }
 
     /**
@@ -70,8 +112,7 @@ public class DirectoryStream implements Iterable<DirectoryEntry> {
      * @return view of this DirectoryStream, where all entries have cookies greater than specified {@code fromCookie}.
      */
     public DirectoryStream tail(long fromCookie) {
-        final DirectoryEntry cookieEntry = new DirectoryEntry("", null, null, fromCookie);
-        return new DirectoryStream(verifier, entries.tailSet(cookieEntry, false));
+        return new DirectoryStream(verifier, cursor, Math.max(this.fromCookie, fromCookie));
     }
 
     /**
@@ -81,42 +122,94 @@ public class DirectoryStream implements Iterable<DirectoryEntry> {
      * @return the new stream with transformed elements.
      */
     public DirectoryStream transform(Function<? super DirectoryEntry, DirectoryEntry> function) {
-        return new DirectoryStream(this.verifier, new TransformingNavigableSet(function, entries));
+        return new DirectoryStream(verifier, c -> new TransformingIterator(function, cursor.seek(c)), fromCookie);
     }
 
-    private static class TransformingNavigableSet extends ForwardingNavigableSet<DirectoryEntry> {
+    /**
+     * Returns a {@link DirectoryStream} in which entries without attributes are completed with attributes fetched by
+     * {@link VirtualFileSystem#getattrs(java.util.Collection)}. Entries are read ahead in batches of
+     * {@code batchSize}, but at most {@value #MAX_ATTRIBUTE_BATCH}, so that a single request is sent to the backend for
+     * each batch. Entries of objects which have been removed in the meantime are returned without attributes.
+     *
+     * @param fs file system to query for attributes.
+     * @param batchSize the number of entries to fetch attributes for at once.
+     * @return the new stream with completed elements.
+     */
+    public DirectoryStream withAttributes(VirtualFileSystem fs, int batchSize) {
+        int n = Math.max(1, Math.min(batchSize, MAX_ATTRIBUTE_BATCH));
+        return new DirectoryStream(verifier, c -> new AttributeFetchingIterator(fs, cursor.seek(c), n), fromCookie);
+    }
 
-        private final Function<? super DirectoryEntry, DirectoryEntry> transformation;
-        private final NavigableSet<DirectoryEntry> inner;
+    /**
+     * Get a fully materialized copy of this stream, which can be iterated repeatedly without reading the backend
+     * again. If this stream is lazily read from a cursor, all entries are read and this stream is closed, otherwise
+     * this stream is returned.
+     *
+     * @return a fully materialized stream with the same entries.
+     * @throws IOException if reading of entries fails.
+     */
+    public DirectoryStream materialize() throws IOException {
+        if (cursor instanceof NavigableSetCursor && fromCookie == 0L) {
+            return this;
+        }
 
-        public TransformingNavigableSet(Function<? super DirectoryEntry, DirectoryEntry> transformation,
-                NavigableSet<DirectoryEntry> inner) {
-            this.transformation = transformation;
-            this.inner = inner;
+        NavigableSet<DirectoryEntry> entries = new TreeSet<>();
+        try {
+            for (DirectoryEntry entry : this) {
+                entries.add(entry);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            close();
         }
+        return new DirectoryStream(verifier, entries);
+    }
 
-        @Override
-        protected NavigableSet<DirectoryEntry> delegate() {
-            return inner;
+    /**
+     * Release resources held by iterators obtained from this stream. Views created by {@link #tail(long)} and
+     * {@link #transform(Function)} have to be closed independently.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        synchronized (openIterators) {
+            for (Closeable c : openIterators) {
+                try {
+                    c.close();
+                } catch (IOException e) {
+                    if (error == null) {
+                        error = e;
+                    } else {
+                        error.addSuppressed(e);
+                    }
+                }
+            }
+            openIterators.clear();
         }
+        if (error != null) {
+            throw error;
+        }
+    }
 
-        @Override
-        public Iterator<DirectoryEntry> iterator() {
-            return new TransformingIterator(transformation, delegate().iterator());
+    // cursor over fully materialized listing.
+    private static class NavigableSetCursor implements DirectoryCursor {
+
+        private final NavigableSet<DirectoryEntry> entries;
+
+        NavigableSetCursor(NavigableSet<DirectoryEntry> entries) {
+            this.entries = entries;
         }
 
-        /*
-         * the result of ForwardingNavigableSet#tailSet does not inherit overloaded iterator, thus we have to override
-         * it again.
-         */
         @Override
-        public NavigableSet<DirectoryEntry> tailSet(DirectoryEntry fromElement, boolean inclusive) {
-            return new TransformingNavigableSet(transformation, super.tailSet(fromElement, inclusive));
+        public Iterator<DirectoryEntry> seek(long fromCookie) {
+            final DirectoryEntry cookieEntry = new DirectoryEntry("", null, null, fromCookie);
+            return Collections.unmodifiableNavigableSet(entries.tailSet(cookieEntry, false)).iterator();
         }
     }
 
     // iterator decorator.
-    private static class TransformingIterator implements Iterator<DirectoryEntry> {
+    private static class TransformingIterator implements Iterator<DirectoryEntry>, Closeable {
 
         private final Function<? super DirectoryEntry, DirectoryEntry> transformation;
         private final Iterator<DirectoryEntry> inner;
@@ -136,5 +229,78 @@ public class DirectoryStream implements Iterable<DirectoryEntry> {
         public DirectoryEntry next() {
             return transformation.apply(inner.next());
         }
+
+        @Override
+        public void close() throws IOException {
+            if (inner instanceof Closeable) {
+                ((Closeable) inner).close();
+            }
+        }
+    }
+
+    // iterator which fetches missing attributes for a batch of entries at once.
+    private static class AttributeFetchingIterator extends AbstractIterator<DirectoryEntry> implements Closeable {
+
+        private final VirtualFileSystem fs;
+        private final Iterator<DirectoryEntry> inner;
+        private final int batchSize;
+        private final Deque<DirectoryEntry> batch;
+
+        AttributeFetchingIterator(VirtualFileSystem fs, Iterator<DirectoryEntry> inner, int batchSize) {
+            this.fs = fs;
+            this.inner = inner;
+            this.batchSize = batchSize;
+            this.batch = new ArrayDeque<>(batchSize);
+        }
+
+        @Override
+        protected DirectoryEntry computeNext() {
+            if (batch.isEmpty()) {
+                fetchBatch();
+            }
+            DirectoryEntry entry = batch.poll();
+            return entry == null ? endOfData() : entry;
+        }
+
+        private void fetchBatch() {
+            List<Inode> missing = new ArrayList<>();
+            while (batch.size() < batchSize && inner.hasNext()) {
+                DirectoryEntry entry = inner.next();
+                if (entry.getStat() == null) {
+                    missing.add(entry.getInode());
+                }
+                batch.add(entry);
+            }
+
+            if (missing.isEmpty()) {
+                return;
+            }
+
+            Map<Inode, Stat> stats;
+            try {
+                stats = fs.getattrs(missing);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            int n = batch.size();
+            for (int i = 0; i < n; i++) {
+                DirectoryEntry entry = batch.poll();
+                if (entry.getStat() == null) {
+                    Stat stat = stats.get(entry.getInode());
+                    if (stat != null) {
+                        entry = new DirectoryEntry(entry.getName(), entry.getInode(), stat, entry.getCookie());
+                    }
+                }
+                batch.add(entry);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (inner instanceof Closeable) {
+                ((Closeable) inner).close();
+            }
+        }
     }
 }
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A bounded cache of open {@link FileChannel}s for {@link VirtualFileSystem} implementations backed by local files.
+ * Channels are reference counted: a channel is never closed while it is in use. Idle channels are closed after
+ * {@code idleTimeout} or, least recently used first, when the number of open channels exceeds the limit. As channels
+ * in use are not closed, the limit can be exceeded while all channels are in use. Channels of removed files are closed
+ * as soon as they are not used any more, to release the disk space.
+ *
+ * @since 0.28
+ */
+public class FileChannelCache implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileChannelCache.class);
+
+    private record Key(Inode inode, boolean writable) {
+    }
+
+    private final ConcurrentHashMap<Key, Entry> _channels = new ConcurrentHashMap<>();
+    private final int _maxOpen;
+    private final long _idleTimeout;
+    private final ScheduledExecutorService _cleaner;
+
+    /**
+     * Create a new cache.
+     *
+     * @param maxOpen number of open channels, in use or idle, above which idle channels are closed.
+     * @param idleTimeout time after which an unused channel is closed.
+     */
+    public FileChannelCache(int maxOpen, Duration idleTimeout) {
+        _maxOpen = maxOpen;
+        _idleTimeout = idleTimeout.toNanos();
+        _cleaner = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("file-channel-cache")
+                .setDaemon(true)
+                .build());
+        long period = Math.max(1, idleTimeout.toMillis() / 2);
+        _cleaner.scheduleWithFixedDelay(this::closeIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get an open channel of the given file. The returned lease must be closed when channel is not used any more.
+     *
+     * @param inode file's inode.
+     * @param path file's path, used to open the file if there is no open channel.
+     * @param writable whatever the channel must be writable.
+     * @return lease of open channel.
+     * @throws IOException if file can't be opened.
+     */
+    public Lease acquire(Inode inode, Path path, boolean writable) throws IOException {
+        Key key = new Key(inode, writable);
+        while (true) {
+            Entry entry = _channels.get(key);
+            if (entry == null) {
+                FileChannel channel = writable
+                        ? FileChannel.open(path, StandardOpenOption.WRITE)
+                        : FileChannel.open(path, StandardOpenOption.READ);
+                Entry newEntry = new Entry(key, channel);
+                entry = _channels.putIfAbsent(key, newEntry);
+                if (entry == null) {
+                    entry = newEntry;
+                    if (_channels.size() > _maxOpen) {
+                        _cleaner.execute(this::closeExcessive);
+                    }
+                } else {
+                    channel.close();
+                }
+            }
+
+            if (entry.retain()) {
+                return new Lease(entry);
+            }
+            // the entry was closed concurrently, try again
+        }
+    }
+
+    /**
+     * Discard open channels of the given file. Channels in use are closed once they are released.
+     *
+     * @param inode file's inode.
+     */
+    public void invalidate(Inode inode) {
+        invalidate(new Key(inode, false));
+        invalidate(new Key(inode, true));
+    }
+
+    private void invalidate(Key key) {
+        Entry entry = _channels.remove(key);
+        if (entry != null) {
+            entry.invalidate();
+        }
+    }
+
+    private void closeIdle() {
+        long now = System.nanoTime();
+        _channels.values().forEach(e -> e.closeIfIdle(now, _idleTimeout));
+    }
+
+    private void closeExcessive() {
+        int excess = _channels.size() - _maxOpen;
+        if (excess <= 0) {
+            return;
+        }
+
+        List<Entry> entries = new ArrayList<>(_channels.values());
+        entries.sort(Comparator.comparingLong(Entry::lastUsed));
+        for (Entry e : entries) {
+            if (excess <= 0) {
+                break;
+            }
+            if (e.closeIfIdle(System.nanoTime(), 0)) {
+                excess--;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        _cleaner.shutdown();
+        _channels.keySet().forEach(this::invalidate);
+    }
+
+    private class Entry {
+
+        private final Key _key;
+        private final FileChannel _channel;
+        private int _refCount;
+        private long _lastUsed = System.nanoTime();
+        private boolean _invalid;
+        private boolean _closed;
+
+        Entry(Key key, FileChannel channel) {
+            _key = key;
+            _channel = channel;
+        }
+
+        synchronized long lastUsed() {
+            return _lastUsed;
+        }
+
+        synchronized boolean retain() {
+            if (_closed || _invalid) {
+                return false;
+            }
+            _refCount++;
+            return true;
+        }
+
+        synchronized void release() {
+            _refCount--;
+            _lastUsed = System.nanoTime();
+            if (_refCount == 0 && _invalid) {
+                closeChannel();
+            }
+        }
+
+        synchronized void invalidate() {
+            _invalid = true;
+            if (_refCount == 0) {
+                closeChannel();
+            }
+        }
+
+        /**
+         * Close the channel if it's not in use for at least {@code minIdle} nanoseconds.
+         *
+         * @return true if channel is closed.
+         */
+        synchronized boolean closeIfIdle(long now, long minIdle) {
+            if (_refCount != 0 || _closed || now - _lastUsed < minIdle) {
+                return false;
+            }
+            _channels.remove(_key, this);
+            closeChannel();
+            return true;
+        }
+
+        private void closeChannel() {
+            if (_closed) {
+                return;
+            }
+            _closed = true;
+            try {
+                _channel.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close file channel of {}: {}", _key.inode(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A reference to an open channel.
+     */
+    public static final class Lease implements Closeable {
+
+        private final Entry _entry;
+        private final AtomicBoolean _released = new AtomicBoolean();
+
+        private Lease(Entry entry) {
+            _entry = entry;
+        }
+
+        /**
+         * Get the leased channel. The channel must not be closed by the caller.
+         *
+         * @return open file channel.
+         */
+        public FileChannel channel() {
+            return _entry._channel;
+        }
+
+        @Override
+        public void close() {
+            if (_released.compareAndSet(false, true)) {
+                _entry.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A region of a {@link FileChannel} which holds the data requested by a read operation. The region allows the server
+ * to move file data with {@link FileChannel#transferTo} or directly into a (direct) reply buffer without an
+ * intermediate copy on java heap.
+ * <p>
+ * The region must be closed when the data is consumed. The provided {@code onClose} callback lets the file system
+ * decide whether the underlying channel should be closed or kept open for subsequent requests.
+ *
+ * @since 0.28
+ */
+@Beta
+public class FileRegion implements Closeable {
+
+    private final FileChannel _channel;
+    private final long _position;
+    private final int _count;
+    private final boolean _eof;
+    private final Closeable _onClose;
+
+    /**
+     * Create a new file region.
+     *
+     * @param channel the channel to read from.
+     * @param position the file position where region starts.
+     * @param count number of bytes in the region.
+     * @param eof true if region ends at the end of file.
+     * @param onClose an action to call when region is closed.
+     */
+    public FileRegion(FileChannel channel, long position, int count, boolean eof, Closeable onClose) {
+        checkArgument(position >= 0, "Negative position");
+        checkArgument(count >= 0, "Negative count");
+        _channel = requireNonNull(channel);
+        _position = position;
+        _count = count;
+        _eof = eof;
+        _onClose = requireNonNull(onClose);
+    }
+
+    /**
+     * Get the file position where the region starts.
+     *
+     * @return file position.
+     */
+    public long getPosition() {
+        return _position;
+    }
+
+    /**
+     * Get the number of bytes in this region.
+     *
+     * @return number of bytes.
+     */
+    public int getCount() {
+        return _count;
+    }
+
+    /**
+     * Returns true if this region ends at the end of the file.
+     *
+     * @return true if end of file is reached.
+     */
+    public boolean isEof() {
+        return _eof;
+    }
+
+    /**
+     * Transfer the content of this region into the given {@link WritableByteChannel}.
+     *
+     * @param target the channel to write to.
+     * @return number of bytes transferred.
+     * @throws IOException
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < _count) {
+            long n = _channel.transferTo(_position + transferred, _count - transferred, target);
+            if (n <= 0) {
+                break;
+            }
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    /**
+     * Read the content of this region into the given {@link ByteBuffer}. At most {@code min(count, dst.remaining())}
+     * bytes are read.
+     *
+     * @param dst the buffer to fill.
+     * @return number of bytes read.
+     * @throws IOException
+     */
+    public int readInto(ByteBuffer dst) throws IOException {
+        int toRead = Math.min(_count, dst.remaining());
+        int limit = dst.limit();
+        dst.limit(dst.position() + toRead);
+        try {
+            int total = 0;
+            while (dst.hasRemaining()) {
+                int n = _channel.read(dst, _position + total);
+                if (n < 0) {
+                    break;
+                }
+                total += n;
+            }
+            return total;
+        } finally {
+            dst.limit(limit);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        _onClose.close();
+    }
+}
@@ -21,7 +21,10 @@ package org.dcache.nfs.vfs;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import javax.security.auth.Subject;
@@ -111,6 +114,11 @@ public abstract class ForwardingFileSystem implements VirtualFileSystem {
         return delegate().read(inode, data, offset, eofReached);
     }
 
+    @Override
+    public Optional<FileRegion> readRegion(Inode inode, long offset, int count) throws IOException {
+        return delegate().readRegion(inode, offset, count);
+    }
+
     @Override
     public String readlink(Inode inode) throws IOException {
         return delegate().readlink(inode);
@@ -153,6 +161,11 @@ public abstract class ForwardingFileSystem implements VirtualFileSystem {
         return delegate().getattr(inode, attributes);
     }
 
+    @Override
+    public Map<Inode, Stat> getattrs(Collection<Inode> inodes) throws IOException {
+        return delegate().getattrs(inodes);
+    }
+
     @Override
     public void setattr(Inode inode, Stat stat) throws IOException {
         delegate().setattr(inode, stat);
@@ -54,11 +54,16 @@ import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.security.auth.Subject;
 
@@ -105,6 +110,7 @@ public class PseudoFs extends ForwardingFileSystem {
     private final VirtualFileSystem _inner;
     private final ExportTable _exportTable;
     private final RpcAuth _auth;
+    private final PseudoFsTreeCache _treeCache;
 
     private final static int ACCESS4_MASK =
             ACCESS4_DELETE | ACCESS4_EXECUTE | ACCESS4_EXTEND
@@ -112,11 +118,25 @@ public class PseudoFs extends ForwardingFileSystem {
                     | ACCESS4_XAREAD | ACCESS4_XAWRITE | ACCESS4_XALIST;
 
     public PseudoFs(VirtualFileSystem inner, RpcCall call, ExportTable exportTable) {
+        this(inner, call, exportTable, null);
+    }
+
+    /**
+     * Create a new PseudoFs which uses shared pseudo file system trees.
+     *
+     * @param inner underlying file system.
+     * @param call the rpc call of the request.
+     * @param exportTable the export table of the server.
+     * @param treeCache cache of pseudo file system trees shared by all requests, or {@code null} to build the tree on
+     *        every use.
+     */
+    public PseudoFs(VirtualFileSystem inner, RpcCall call, ExportTable exportTable, PseudoFsTreeCache treeCache) {
         _inner = inner;
         _subject = call.getCredential().getSubject();
         _auth = call.getCredential();
         _inetAddress = call.getTransport().getRemoteSocketAddress();
         _exportTable = exportTable;
+        _treeCache = treeCache;
     }
 
     @Override
@@ -335,6 +355,12 @@ public class PseudoFs extends ForwardingFileSystem {
         return _inner.read(innerInode(inode), data, offset, eofReached);
     }
 
+    @Override
+    public Optional<FileRegion> readRegion(Inode inode, long offset, int count) throws IOException {
+        checkAccess(inode, ACE4_READ_DATA);
+        return _inner.readRegion(innerInode(inode), offset, count);
+    }
+
     @Override
     public String readlink(Inode inode) throws IOException {
         checkAccess(inode, ACE4_READ_DATA);
@@ -395,6 +421,24 @@ public class PseudoFs extends ForwardingFileSystem {
         return _inner.getattr(innerInode(inode), attributes);
     }
 
+    @Override
+    public Map<Inode, Stat> getattrs(Collection<Inode> inodes) throws IOException {
+        Map<Inode, Inode> innerToOuter = new HashMap<>(inodes.size());
+        for (Inode inode : inodes) {
+            try {
+                checkAccess(inode, null, ACE4_READ_ATTRIBUTES, false);
+            } catch (ChimeraNFSException e) {
+                // not accessible objects are left out, the caller will get the error on getattr
+                continue;
+            }
+            innerToOuter.put(innerInode(inode), inode);
+        }
+
+        Map<Inode, Stat> stats = new HashMap<>(innerToOuter.size());
+        _inner.getattrs(innerToOuter.keySet()).forEach((inode, stat) -> stats.put(innerToOuter.get(inode), stat));
+        return stats;
+    }
+
     @Override
     public void setattr(Inode inode, Stat stat) throws IOException {
         int mask = ACE4_WRITE_ATTRIBUTES;
@@ -582,22 +626,18 @@ public class PseudoFs extends ForwardingFileSystem {
     }
 
     private Inode lookupInPseudoDirectory(Inode parent, String name) throws IOException {
-        Set<PseudoFsNode> nodes = prepareExportTree();
-
-        for (PseudoFsNode node : nodes) {
-            if (node.id().equals(parent)) {
-                PseudoFsNode n = node.getChild(name);
-                if (n != null) {
-                    return n.isMountPoint() ? pseudoIdToReal(n.id(), getIndexId(n)) : n.id();
-                }
+        PseudoFsNode node = prepareExportTree().get(parent);
+        if (node != null) {
+            PseudoFsNode n = node.getChild(name);
+            if (n != null) {
+                return n.isMountPoint() ? pseudoIdToReal(n.id(), getIndexId(n)) : n.id();
             }
         }
         throw new NoEntException();
     }
 
     private boolean isPseudoDirectory(Inode dir) throws IOException {
-        return prepareExportTree().stream()
-                .anyMatch(n -> n.id().equals(dir));
+        return prepareExportTree().containsKey(dir);
     }
 
     public static Inode pseudoIdToReal(Inode inode, int index) {
@@ -641,30 +681,31 @@ public class PseudoFs extends ForwardingFileSystem {
     }
 
     private Collection<DirectoryEntry> listPseudoDirectory(Inode parent) throws ChimeraNFSException, IOException {
-        Set<PseudoFsNode> nodes = prepareExportTree();
-        for (PseudoFsNode node : nodes) {
-            if (node.id().equals(parent)) {
-                if (node.isMountPoint()) {
-                    return newArrayList(_inner.list(innerInode(parent), null, 0L).transform(new ConvertToRealInode(
-                            node)));
-                } else {
-                    long cookie = 3; // artificial cookie. Values 0, 1 and 2 are reserved.
-                    List<DirectoryEntry> pseudoLs = new ArrayList<>();
-                    for (String s : node.getChildren()) {
-                        PseudoFsNode subNode = node.getChild(s);
-                        Inode inode = subNode.id();
-                        Stat stat = _inner.getattr(innerInode(inode));
-                        DirectoryEntry e = new DirectoryEntry(s,
-                                subNode.isMountPoint()
-                                        ? pseudoIdToReal(inode, getIndexId(subNode)) : inode, stat, cookie);
-                        pseudoLs.add(e);
-                        cookie++;
-                    }
-                    return pseudoLs;
-                }
+        PseudoFsNode node = prepareExportTree().get(parent);
+        if (node == null) {
+            throw new NoEntException();
+        }
+
+        if (node.isMountPoint()) {
+            try (DirectoryStream ds = _inner.list(innerInode(parent), null, 0L)
+                    .transform(new ConvertToRealInode(node))) {
+                return newArrayList(ds);
             }
         }
-        throw new NoEntException();
+
+        long cookie = 3; // artificial cookie. Values 0, 1 and 2 are reserved.
+        List<DirectoryEntry> pseudoLs = new ArrayList<>();
+        for (String s : node.getChildren()) {
+            PseudoFsNode subNode = node.getChild(s);
+            Inode inode = subNode.id();
+            Stat stat = _inner.getattr(innerInode(inode));
+            DirectoryEntry e = new DirectoryEntry(s,
+                    subNode.isMountPoint()
+                            ? pseudoIdToReal(inode, getIndexId(subNode)) : inode, stat, cookie);
+            pseudoLs.add(e);
+            cookie++;
+        }
+        return pseudoLs;
     }
 
     private Inode pushExportIndex(Inode inode, int index) {
@@ -728,13 +769,26 @@ public class PseudoFs extends ForwardingFileSystem {
         parent.addExport(e);
     }
 
-    private Set<PseudoFsNode> prepareExportTree() throws ChimeraNFSException, IOException {
+    /**
+     * Get the pseudo file system tree of the client. The returned map contains all nodes of the tree, indexed by
+     * their inodes.
+     */
+    private Map<Inode, PseudoFsNode> prepareExportTree() throws ChimeraNFSException, IOException {
+
+        List<FsExport> exports = _exportTable.exports(_inetAddress.getAddress()).collect(Collectors.toList());
+        if (_treeCache == null) {
+            return buildExportTree(exports);
+        }
+        return _treeCache.get(_exportTable.version(), exports, this::buildExportTree);
+    }
+
+    private Map<Inode, PseudoFsNode> buildExportTree(List<FsExport> exports) throws ChimeraNFSException, IOException {
 
         Set<PseudoFsNode> nodes = new HashSet<>();
         Inode rootInode = realToPseudo(_inner.getRootInode());
         PseudoFsNode root = new PseudoFsNode(rootInode);
 
-        _exportTable.exports(_inetAddress.getAddress()).forEach(e -> pathToPseudoFs(root, nodes, e));
+        exports.forEach(e -> pathToPseudoFs(root, nodes, e));
 
         if (nodes.isEmpty()) {
             _log.warn("No exports found for: {}", _inetAddress);
@@ -742,7 +796,10 @@ public class PseudoFs extends ForwardingFileSystem {
         }
 
         nodes.add(root);
-        return nodes;
+
+        Map<Inode, PseudoFsNode> tree = new HashMap<>();
+        nodes.forEach(n -> tree.putIfAbsent(n.id(), n));
+        return Collections.unmodifiableMap(tree);
     }
 
     private static void checkSecurityFlavor(RpcAuth auth, FsExport.Sec minFlavor) throws ChimeraNFSException {
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.dcache.nfs.ExportTable;
+import org.dcache.nfs.FsExport;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A cache of pseudo file system trees shared by all {@link PseudoFs} instances of a server. Clients which are allowed
+ * to access the same set of exports (a client class) see the same pseudo file system, thus trees are keyed by the
+ * exports of the client and the {@link ExportTable#version()} of the export table. Any change of the export table
+ * makes cached trees obsolete.
+ * <p>
+ * The tree contains inodes of the exported directories, which are looked up once, when the tree is built. As an
+ * export that can't be resolved is not part of the tree, cached trees expire after {@code lifetime} to pick up
+ * directories created after the tree was built.
+ *
+ * @since 0.28
+ */
+public class PseudoFsTreeCache {
+
+    /**
+     * Build a pseudo file system tree for a given exports.
+     */
+    @FunctionalInterface
+    interface TreeBuilder {
+
+        Map<Inode, PseudoFsNode> build(List<FsExport> exports) throws IOException;
+    }
+
+    private record Key(long version, List<FsExport> exports) {
+    }
+
+    private final Cache<Key, Map<Inode, PseudoFsNode>> _trees;
+
+    /**
+     * Version of the export table used by the cached trees.
+     */
+    private volatile long _version;
+
+    /**
+     * Create a new cache with up to 1024 client classes and one minute lifetime.
+     */
+    public PseudoFsTreeCache() {
+        this(1024, Duration.ofMinutes(1));
+    }
+
+    /**
+     * Create a new cache.
+     *
+     * @param maxClientClasses maximal number of cached trees.
+     * @param lifetime time after which a tree is rebuilt, even if the export table is not modified.
+     */
+    public PseudoFsTreeCache(int maxClientClasses, Duration lifetime) {
+        _trees = CacheBuilder.newBuilder()
+                .maximumSize(maxClientClasses)
+                .expireAfterWrite(lifetime.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Get the pseudo file system tree for the given exports. The tree is built with {@code builder} if there is no
+     * cached tree of the given version. The tree maps the inode of each node to the node and must not be modified.
+     *
+     * @param version version of the export table.
+     * @param exports exports allowed for the client.
+     * @param builder builder of a new tree.
+     * @return pseudo file system tree.
+     * @throws IOException if tree can't be built.
+     */
+    Map<Inode, PseudoFsNode> get(long version, List<FsExport> exports, TreeBuilder builder) throws IOException {
+
+        if (version != _version) {
+            // trees of the previous version can't be used any more
+            _version = version;
+            _trees.invalidateAll();
+        }
+
+        Key key = new Key(version, exports);
+        Map<Inode, PseudoFsNode> tree = _trees.getIfPresent(key);
+        if (tree == null) {
+            tree = builder.build(exports);
+            _trees.put(key, tree);
+        }
+        return tree;
+    }
+
+    /**
+     * Discard all cached trees.
+     */
+    public void invalidateAll() {
+        _trees.invalidateAll();
+    }
+}
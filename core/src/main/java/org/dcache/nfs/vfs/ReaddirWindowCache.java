@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.AbstractIterator;
+
+/**
+ * Directory listing cache, which keeps fixed-size windows of directory entries instead of complete listings. Each
+ * window holds up to {@code windowSize} entries following a cookie and is loaded with a single range query to the
+ * backend. Windows are cached and evicted independently, thus a request for the next page of a large directory
+ * doesn't require to re-list the directory from the beginning and the memory used by a single directory is bounded by
+ * the cache size.
+ */
+class ReaddirWindowCache {
+
+    private final VirtualFileSystem fs;
+    private final int windowSize;
+
+    private final Cache<WindowKey, Window> windows;
+
+    /**
+     * Cached windows of each directory snapshot ordered by their first cookie. A window is added to the index before
+     * it's put into the cache and removed by the cache's removal listener, thus the index never refers to a window,
+     * which was evicted from the cache.
+     */
+    private final ConcurrentMap<DirectoryKey, NavigableMap<Long, Window>> index = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new cache.
+     *
+     * @param fs file system to list directories.
+     * @param windowSize maximal number of entries in a window.
+     * @param maxWindows maximal number of cached windows.
+     * @param lifeTime validity time of a window.
+     * @param timeUnit unit in which validity time is expressed.
+     */
+    ReaddirWindowCache(VirtualFileSystem fs, int windowSize, long maxWindows, long lifeTime, TimeUnit timeUnit) {
+        this.fs = fs;
+        this.windowSize = windowSize;
+        windows = CacheBuilder.newBuilder()
+                .maximumSize(maxWindows)
+                .expireAfterWrite(lifeTime, timeUnit)
+                .recordStats()
+                .removalListener(this::onRemoval)
+                .build();
+    }
+
+    Cache<WindowKey, Window> getCache() {
+        return windows;
+    }
+
+    /**
+     * Get the number of windows known by the index.
+     */
+    int getIndexedWindows() {
+        return index.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Get listing of a directory, starting after the given cookie.
+     *
+     * @param dir directory to list.
+     * @param verifier directory verifier provided by the client.
+     * @param cookie a logical offset in the listing.
+     * @return directory listing.
+     * @throws IOException
+     */
+    DirectoryStream list(Inode dir, byte[] verifier, long cookie) throws IOException {
+
+        Window window;
+        if (cookie == 0L && Arrays.equals(verifier, DirectoryStream.ZERO_VERIFIER)) {
+            // Initial listing. Use the same key as if we had executed directory listing.
+            window = find(new DirectoryKey(dir, fs.directoryVerifier(dir)), cookie);
+        } else {
+            window = find(new DirectoryKey(dir, verifier), cookie);
+        }
+
+        if (window == null) {
+            window = load(dir, verifier, cookie);
+        }
+
+        DirectoryKey directory = window.key().directory();
+        Window first = window;
+        return new DirectoryStream(directory.verifier(), c -> new WindowIterator(directory, first, c)).tail(cookie);
+    }
+
+    /**
+     * Discard all cached windows of the given directory.
+     *
+     * @param dir directory to invalidate.
+     */
+    void invalidate(Inode dir) {
+        index.forEach((directory, dirWindows) -> {
+            if (directory.inode().equals(dir)) {
+                dirWindows.values().forEach(w -> windows.invalidate(w.key()));
+            }
+        });
+    }
+
+    private Window find(DirectoryKey directory, long cookie) {
+        NavigableMap<Long, Window> dirWindows = index.get(directory);
+        if (dirWindows == null) {
+            return null;
+        }
+
+        Map.Entry<Long, Window> e = dirWindows.floorEntry(cookie);
+        if (e == null || !e.getValue().covers(cookie)) {
+            return null;
+        }
+        // let the cache account the access
+        return windows.getIfPresent(e.getValue().key());
+    }
+
+    private Window load(Inode dir, byte[] verifier, long cookie) throws IOException {
+
+        DirectoryStream stream = fs.list(dir, verifier, cookie);
+        try (stream; DirectoryStream tail = stream.tail(cookie)) {
+            List<DirectoryEntry> entries = new ArrayList<>(windowSize);
+            Iterator<DirectoryEntry> i = tail.iterator();
+            while (entries.size() < windowSize && i.hasNext()) {
+                entries.add(i.next());
+            }
+
+            WindowKey key = new WindowKey(new DirectoryKey(dir, stream.getVerifier()), cookie);
+            Window window = new Window(key, entries, !i.hasNext());
+            // index first, the window can be evicted as soon as it's put into the cache
+            index.compute(key.directory(), (k, dirWindows) -> {
+                if (dirWindows == null) {
+                    dirWindows = new ConcurrentSkipListMap<>();
+                }
+                dirWindows.put(cookie, window);
+                return dirWindows;
+            });
+            windows.put(key, window);
+            return window;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void onRemoval(RemovalNotification<WindowKey, Window> notification) {
+        WindowKey key = notification.getKey();
+        Window window = notification.getValue();
+        index.computeIfPresent(key.directory(), (k, dirWindows) -> {
+            dirWindows.remove(key.cookie(), window);
+            return dirWindows.isEmpty() ? null : dirWindows;
+        });
+    }
+
+    /**
+     * Iterator over directory entries, which walks cached windows and loads missing ones.
+     */
+    private class WindowIterator extends AbstractIterator<DirectoryEntry> {
+
+        private final DirectoryKey directory;
+        private Window window;
+        private int position;
+
+        WindowIterator(DirectoryKey directory, Window first, long fromCookie) {
+            this.directory = directory;
+            window = first.covers(fromCookie) ? first : findOrLoad(fromCookie);
+            position = window.firstAfter(fromCookie);
+        }
+
+        @Override
+        protected DirectoryEntry computeNext() {
+            while (position >= window.entries().size()) {
+                if (window.eof()) {
+                    return endOfData();
+                }
+                long last = window.lastCookie();
+                window = findOrLoad(last);
+                position = window.firstAfter(last);
+            }
+            return window.entries().get(position++);
+        }
+
+        private Window findOrLoad(long cookie) {
+            Window w = find(directory, cookie);
+            if (w != null) {
+                return w;
+            }
+            try {
+                return load(directory.inode(), directory.verifier(), cookie);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * A snapshot of a directory identified by directory verifier.
+     */
+    record DirectoryKey(Inode inode, byte[] verifier) {
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof DirectoryKey)) {
+                return false;
+            }
+            DirectoryKey other = (DirectoryKey) obj;
+            return inode.equals(other.inode) && Arrays.equals(verifier, other.verifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return inode.hashCode() ^ Arrays.hashCode(verifier);
+        }
+    }
+
+    /**
+     * A window of a directory snapshot identified by the cookie after which the window starts.
+     */
+    record WindowKey(DirectoryKey directory, long cookie) {
+    }
+
+    /**
+     * Directory entries with cookies greater than the window's cookie.
+     *
+     * @param key window's key.
+     * @param entries directory entries in ascending cookie order.
+     * @param eof true, if the window contains the last entry of the directory.
+     */
+    record Window(WindowKey key, List<DirectoryEntry> entries, boolean eof) {
+
+        long lastCookie() {
+            return entries.isEmpty() ? key.cookie() : entries.get(entries.size() - 1).getCookie();
+        }
+
+        /**
+         * Check whether the entries following the given cookie are served by this window.
+         */
+        boolean covers(long cookie) {
+            return cookie >= key.cookie() && (eof || cookie < lastCookie());
+        }
+
+        /**
+         * Get the position of the first entry with a cookie greater than the given one.
+         */
+        int firstAfter(long cookie) {
+            int low = 0;
+            int high = entries.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (entries.get(mid).getCookie() <= cookie) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj == this;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
@@ -22,13 +22,21 @@ package org.dcache.nfs.vfs;
 import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import javax.security.auth.Subject;
 
+import org.dcache.nfs.status.NoEntException;
 import org.dcache.nfs.util.GuavaCacheMXBeanImpl;
 import org.dcache.nfs.util.Opaque;
 
@@ -42,20 +50,72 @@ import com.google.common.cache.LoadingCache;
 
 /**
  * Caching decorator.
+ *
+ * <p>
+ * If several instances share the same name space, e.g. in a multi-door deployment, a {@link CacheInvalidationChannel}
+ * can be used to apply invalidations caused by modifications through one instance to all others. As invalidations are
+ * keyed by file id, the decorated file system is expected to see inodes as passed by {@link PseudoFs}.
  */
 public class VfsCache extends ForwardingFileSystem {
 
+    /**
+     * Number of stripes to track name space changes of directories.
+     */
+    private static final int NAMESPACE_CHANGE_STRIPES = 1024;
+
     private final LoadingCache<CacheKey, Inode> _lookupCache;
+
+    /**
+     * Failed lookups, to avoid repeated backend calls for non-existing names.
+     */
+    private final Cache<CacheKey, Boolean> _negativeLookupCache;
+
+    /**
+     * Number of name space changes per directory, which invalidate failed lookups. Used to detect changes while a
+     * lookup is in progress. Directories are mapped to a fixed number of stripes, thus a change in one directory
+     * discards concurrent failed lookups of only few other directories.
+     */
+    private final AtomicLongArray _namespaceChanges = new AtomicLongArray(NAMESPACE_CHANGE_STRIPES);
     private final Cache<Opaque, Stat> _statCache;
     private final LoadingCache<Inode, Inode> _parentCache;
     private final Supplier<FsStat> _fsStatSupplier;
 
     private final Cache<InodeCacheEntry, DirectoryStream> _readdirCache;
 
+    /**
+     * Windowed directory listing cache, or null, if complete listings are cached.
+     */
+    private final ReaddirWindowCache _readdirWindowCache;
+
     private final VirtualFileSystem _inner;
 
+    /**
+     * Channel to exchange invalidations with other caches, or null.
+     */
+    private final CacheInvalidationChannel _invalidationChannel;
+
+    /**
+     * The id of this cache, to skip own invalidations.
+     */
+    private final UUID _cacheId = UUID.randomUUID();
+
     public VfsCache(VirtualFileSystem inner, VfsCacheConfig cacheConfig) {
+        this(inner, cacheConfig, null);
+    }
+
+    /**
+     * Create a new cache, which publishes invalidations caused by its modifications to the given channel and applies
+     * invalidations received from it.
+     *
+     * @param inner the file system to decorate.
+     * @param cacheConfig cache configuration.
+     * @param invalidationChannel channel to exchange invalidations with other caches, or null.
+     * @since 0.28
+     */
+    public VfsCache(VirtualFileSystem inner, VfsCacheConfig cacheConfig,
+            CacheInvalidationChannel invalidationChannel) {
         _inner = inner;
+        _invalidationChannel = invalidationChannel;
         _lookupCache = CacheBuilder.newBuilder()
                 .maximumSize(cacheConfig.getMaxEntries())
                 .expireAfterWrite(cacheConfig.getLifeTime(), cacheConfig.getTimeUnit())
@@ -63,6 +123,12 @@ public class VfsCache extends ForwardingFileSystem {
                 .recordStats()
                 .build(new LoockupLoader());
 
+        _negativeLookupCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheConfig.getNegativeMaxEntries())
+                .expireAfterWrite(cacheConfig.getNegativeLifeTime(), cacheConfig.getNegativeLifeTimeUnit())
+                .recordStats()
+                .build();
+
         _statCache = CacheBuilder.newBuilder()
                 .maximumSize(cacheConfig.getMaxEntries())
                 .expireAfterWrite(cacheConfig.getLifeTime(), cacheConfig.getTimeUnit())
@@ -84,13 +150,29 @@ public class VfsCache extends ForwardingFileSystem {
                 .recordStats()
                 .build();
 
+        if (cacheConfig.getReaddirWindowSize() > 0) {
+            _readdirWindowCache = new ReaddirWindowCache(inner, cacheConfig.getReaddirWindowSize(),
+                    cacheConfig.getReaddirMaxEntries(), cacheConfig.getReaddirLifeTime(),
+                    cacheConfig.getReaddirLifeTimeUnit());
+            new GuavaCacheMXBeanImpl("vfs-readdir-window", _readdirWindowCache.getCache());
+        } else {
+            _readdirWindowCache = null;
+        }
+
         _fsStatSupplier = cacheConfig.getFsStatLifeTime() > 0 ? Suppliers.memoizeWithExpiration(new FsStatSupplier(),
                 cacheConfig.getFsStatLifeTime(), cacheConfig.getFsSataTimeUnit()) : new FsStatSupplier();
 
         new GuavaCacheMXBeanImpl("vfs-stat", _statCache);
         new GuavaCacheMXBeanImpl("vfs-parent", _parentCache);
         new GuavaCacheMXBeanImpl("vfs-lookup", _lookupCache);
+        new GuavaCacheMXBeanImpl("vfs-negative-lookup", _negativeLookupCache);
+
         new GuavaCacheMXBeanImpl("vfs-readdir", _readdirCache);
+
+        // must be the last statement, as invalidations from other instances may arrive immediately
+        if (_invalidationChannel != null) {
+            _invalidationChannel.subscribe(this::applyInvalidation);
+        }
     }
 
     @Override
@@ -102,12 +184,16 @@ public class VfsCache extends ForwardingFileSystem {
     public void commit(Inode inode, long offset, int count) throws IOException {
         invalidateStatCache(inode);
         _inner.commit(inode, offset, count);
+        publishInvalidation(CacheInvalidation.stat(inode));
     }
 
     @Override
     public Inode symlink(Inode parent, String path, String link, Subject subject, int mode) throws IOException {
         Inode inode = _inner.symlink(parent, path, link, subject, mode);
+        invalidateNegativeLookupCache(parent, path);
         invalidateStatCache(parent);
+        publishInvalidation(CacheInvalidation.lookup(parent, path), CacheInvalidation.stat(parent),
+                CacheInvalidation.readdir(parent));
         return inode;
     }
 
@@ -118,6 +204,8 @@ public class VfsCache extends ForwardingFileSystem {
         invalidateLookupCache(parent, path);
         invalidateStatCache(parent);
         invalidateStatCache(inode);
+        publishInvalidation(CacheInvalidation.lookup(parent, path), CacheInvalidation.stat(parent),
+                CacheInvalidation.stat(inode), CacheInvalidation.parent(inode), CacheInvalidation.readdir(parent));
     }
 
     @Override
@@ -128,12 +216,26 @@ public class VfsCache extends ForwardingFileSystem {
     @Override
     public boolean move(Inode src, String oldName, Inode dest, String newName) throws IOException {
 
+        Inode inode = _lookupCache.getIfPresent(new CacheKey(src, oldName));
         boolean isChanged = _inner.move(src, oldName, dest, newName);
         if (isChanged) {
             invalidateLookupCache(src, oldName);
             invalidateLookupCache(dest, newName);
+            invalidateNegativeLookupCache(dest, newName);
             invalidateStatCache(src);
             invalidateStatCache(dest);
+            if (inode != null) {
+                _parentCache.invalidate(inode);
+            }
+
+            List<CacheInvalidation.Entry> invalidations = new ArrayList<>(List.of(
+                    CacheInvalidation.lookup(src, oldName), CacheInvalidation.lookup(dest, newName),
+                    CacheInvalidation.stat(src), CacheInvalidation.stat(dest),
+                    CacheInvalidation.readdir(src), CacheInvalidation.readdir(dest)));
+            if (inode != null) {
+                invalidations.add(CacheInvalidation.parent(inode));
+            }
+            publishInvalidation(invalidations.toArray(CacheInvalidation.Entry[]::new));
         }
         return isChanged;
     }
@@ -141,17 +243,23 @@ public class VfsCache extends ForwardingFileSystem {
     @Override
     public Inode mkdir(Inode parent, String path, Subject subject, int mode) throws IOException {
         Inode inode = _inner.mkdir(parent, path, subject, mode);
+        invalidateNegativeLookupCache(parent, path);
         updateLookupCache(parent, path, inode);
         invalidateStatCache(parent);
+        publishInvalidation(CacheInvalidation.lookup(parent, path), CacheInvalidation.stat(parent),
+                CacheInvalidation.readdir(parent));
         return inode;
     }
 
     @Override
     public Inode link(Inode parent, Inode link, String path, Subject subject) throws IOException {
         Inode inode = _inner.link(parent, link, path, subject);
+        invalidateNegativeLookupCache(parent, path);
         updateLookupCache(parent, path, inode);
         invalidateStatCache(parent);
         invalidateStatCache(inode);
+        publishInvalidation(CacheInvalidation.lookup(parent, path), CacheInvalidation.stat(parent),
+                CacheInvalidation.stat(inode), CacheInvalidation.readdir(parent));
         return inode;
     }
 
@@ -168,9 +276,12 @@ public class VfsCache extends ForwardingFileSystem {
     @Override
     public Inode create(Inode parent, Stat.Type type, String path, Subject subject, int mode) throws IOException {
         Inode inode = _inner.create(parent, type, path, subject, mode);
+        invalidateNegativeLookupCache(parent, path);
         updateLookupCache(parent, path, inode);
         invalidateStatCache(parent);
         updateParentCache(inode, parent);
+        publishInvalidation(CacheInvalidation.lookup(parent, path), CacheInvalidation.stat(parent),
+                CacheInvalidation.readdir(parent));
         return inode;
     }
 
@@ -179,10 +290,33 @@ public class VfsCache extends ForwardingFileSystem {
         return statFromCacheOrLoad(inode);
     }
 
+    @Override
+    public Map<Inode, Stat> getattrs(Collection<Inode> inodes) throws IOException {
+        Map<Inode, Stat> stats = new HashMap<>(inodes.size());
+        List<Inode> missing = new ArrayList<>();
+        for (Inode inode : inodes) {
+            Stat stat = _statCache.getIfPresent(inode.getFileIdKey());
+            if (stat == null) {
+                missing.add(inode);
+            } else {
+                stats.put(inode, stat);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            // populate the cache with a single request to the backend
+            Map<Inode, Stat> loaded = _inner.getattrs(missing);
+            loaded.forEach((inode, stat) -> _statCache.put(inode.getFileIdKey(), stat));
+            stats.putAll(loaded);
+        }
+        return stats;
+    }
+
     @Override
     public void setattr(Inode inode, Stat stat) throws IOException {
         _inner.setattr(inode, stat);
         invalidateStatCache(inode);
+        publishInvalidation(CacheInvalidation.stat(inode));
     }
 
     @Override
@@ -209,6 +343,42 @@ public class VfsCache extends ForwardingFileSystem {
         _lookupCache.invalidate(new CacheKey(parent, path));
     }
 
+    /**
+     * Discards all cached lookup results, including failed lookups, of the given directory.
+     *
+     * @param parent directory to invalidate
+     */
+    public void invalidateLookupCache(Inode parent) {
+        _namespaceChanges.incrementAndGet(namespaceStripe(parent));
+        _lookupCache.asMap().keySet().removeIf(k -> k.getParent().equals(parent));
+        _negativeLookupCache.asMap().keySet().removeIf(k -> k.getParent().equals(parent));
+    }
+
+    /**
+     * Discards cached failed lookup of the given name. As on a case-insensitive file system the new name may match
+     * different spellings, all failed lookups of the directory are discarded.
+     */
+    private void invalidateNegativeLookupCache(Inode parent, String path) {
+        _namespaceChanges.incrementAndGet(namespaceStripe(parent));
+        if (_inner.getCaseInsensitive()) {
+            _negativeLookupCache.asMap().keySet().removeIf(k -> k.getParent().equals(parent));
+        } else {
+            _negativeLookupCache.invalidate(new CacheKey(parent, path));
+        }
+    }
+
+    private void updateNegativeLookupCache(CacheKey key, long namespaceChanges) {
+        _negativeLookupCache.put(key, Boolean.TRUE);
+        // the name might be created while the lookup was in progress
+        if (_namespaceChanges.get(namespaceStripe(key.getParent())) != namespaceChanges) {
+            _negativeLookupCache.invalidate(key);
+        }
+    }
+
+    private static int namespaceStripe(Inode parent) {
+        return (parent.getFileIdKey().hashCode() & 0x7fffffff) % NAMESPACE_CHANGE_STRIPES;
+    }
+
     private void updateLookupCache(Inode parent, String path, Inode inode) {
         _lookupCache.put(new CacheKey(parent, path), inode);
     }
@@ -226,6 +396,47 @@ public class VfsCache extends ForwardingFileSystem {
         _parentCache.put(inode, parent);
     }
 
+    private void invalidateReaddirCache(Inode dir) {
+        _readdirCache.asMap().keySet().removeIf(k -> k._inode.equals(dir));
+        if (_readdirWindowCache != null) {
+            _readdirWindowCache.invalidate(dir);
+        }
+    }
+
+    private void publishInvalidation(CacheInvalidation.Entry... entries) {
+        if (_invalidationChannel != null) {
+            _invalidationChannel.publish(new CacheInvalidation(_cacheId, List.of(entries)));
+        }
+    }
+
+    /**
+     * Apply invalidations published by other caches.
+     *
+     * @param invalidation invalidation received from the channel.
+     */
+    private void applyInvalidation(CacheInvalidation invalidation) {
+        if (invalidation.getOrigin().equals(_cacheId)) {
+            return;
+        }
+
+        for (CacheInvalidation.Entry entry : invalidation.getEntries()) {
+            Inode inode = Inode.forFileIdKey(Opaque.forBytes(entry.fileId()));
+            switch (entry.kind()) {
+                case STAT -> invalidateStatCache(inode);
+                case LOOKUP -> {
+                    if (entry.name() == null) {
+                        invalidateLookupCache(inode);
+                    } else {
+                        invalidateLookupCache(inode, entry.name());
+                        invalidateNegativeLookupCache(inode, entry.name());
+                    }
+                }
+                case PARENT -> _parentCache.invalidate(inode);
+                case READDIR -> invalidateReaddirCache(inode);
+            }
+        }
+    }
+
     private class LoockupLoader extends CacheLoader<CacheKey, Inode> {
 
         @Override
@@ -235,10 +446,19 @@ public class VfsCache extends ForwardingFileSystem {
     }
 
     private Inode lookupFromCacheOrLoad(final Inode parent, final String path) throws IOException {
+        CacheKey key = new CacheKey(parent, path);
+        if (_negativeLookupCache.getIfPresent(key) != null) {
+            throw new NoEntException("Path " + path + " does not exist");
+        }
+
+        long namespaceChanges = _namespaceChanges.get(namespaceStripe(parent));
         try {
-            return _lookupCache.get(new CacheKey(parent, path));
+            return _lookupCache.get(key);
         } catch (ExecutionException e) {
             Throwable t = e.getCause();
+            if (t instanceof NoEntException) {
+                updateNegativeLookupCache(key, namespaceChanges);
+            }
             Throwables.throwIfInstanceOf(t, IOException.class);
             throw new IOException(e.getMessage(), t);
         }
@@ -363,6 +583,10 @@ public class VfsCache extends ForwardingFileSystem {
     @Override
     public DirectoryStream list(Inode inode, byte[] verifier, long cookie) throws IOException {
 
+        if (_readdirWindowCache != null) {
+            return _readdirWindowCache.list(inode, verifier, cookie);
+        }
+
         InodeCacheEntry cacheKey;
         if (cookie == 0L && Arrays.equals(verifier, DirectoryStream.ZERO_VERIFIER)) {
             /*
@@ -375,8 +599,9 @@ public class VfsCache extends ForwardingFileSystem {
 
         DirectoryStream directoryStream = _readdirCache.getIfPresent(cacheKey);
         if (directoryStream == null) {
-            // ask always for list from the beginning
-            directoryStream = delegate().list(inode, DirectoryStream.ZERO_VERIFIER, 0L);
+            // ask always for list from the beginning. A lazy stream re-reads the backend on each iteration, thus
+            // the entries have to be read before the stream is cached
+            directoryStream = delegate().list(inode, DirectoryStream.ZERO_VERIFIER, 0L).materialize();
             cacheKey = new InodeCacheEntry(inode, directoryStream.getVerifier());
             _readdirCache.put(cacheKey, directoryStream);
         }
@@ -388,11 +613,13 @@ public class VfsCache extends ForwardingFileSystem {
     public void removeXattr(Inode inode, String attr) throws IOException {
         _inner.removeXattr(inode, attr);
         invalidateStatCache(inode);
+        publishInvalidation(CacheInvalidation.stat(inode));
     }
 
     @Override
     public void setXattr(Inode inode, String attr, byte[] value, SetXattrMode mode) throws IOException {
         _inner.setXattr(inode, attr, value, mode);
         invalidateStatCache(inode);
+        publishInvalidation(CacheInvalidation.stat(inode));
     }
 }
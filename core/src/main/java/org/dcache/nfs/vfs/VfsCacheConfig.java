@@ -35,6 +35,11 @@ public class VfsCacheConfig {
     private long readdirLifeTime;
     private TimeUnit readdirLifeTimeUnit = TimeUnit.SECONDS;
     private int readdirMaxEntries;
+    private int readdirWindowSize;
+
+    private long negativeLifeTime;
+    private TimeUnit negativeLifeTimeUnit = TimeUnit.SECONDS;
+    private int negativeMaxEntries;
 
     /**
      * Get maximal number of entries in the cache.
@@ -109,6 +114,43 @@ public class VfsCacheConfig {
         return readdirMaxEntries;
     }
 
+    /**
+     * Get number of directory entries in a window of the directory listing cache. Zero means that complete listings
+     * are cached.
+     *
+     * @return number of entries in a window.
+     */
+    public int getReaddirWindowSize() {
+        return readdirWindowSize;
+    }
+
+    /**
+     * Get validity time of cached failed lookups.
+     *
+     * @return validity time.
+     */
+    public long getNegativeLifeTime() {
+        return negativeLifeTime;
+    }
+
+    /**
+     * Get unit in which validity time of cached failed lookups is expressed.
+     *
+     * @return time unit.
+     */
+    public TimeUnit getNegativeLifeTimeUnit() {
+        return negativeLifeTimeUnit;
+    }
+
+    /**
+     * Get maximal number of cached failed lookups. Zero disables the caching of failed lookups.
+     *
+     * @return maximal number of cached failed lookups.
+     */
+    public int getNegativeMaxEntries() {
+        return negativeMaxEntries;
+    }
+
     /**
      * Set maximal number of entries in the cache.
      *
@@ -180,4 +222,42 @@ public class VfsCacheConfig {
     public void setReaddirMaxEntries(int maxEntries) {
         readdirMaxEntries = maxEntries;
     }
+
+    /**
+     * Set number of directory entries in a window of the directory listing cache. If set, listings are cached in
+     * windows, which are loaded and evicted independently, and {@link #getReaddirMaxEntries()} defines the maximal
+     * number of cached windows.
+     *
+     * @param windowSize
+     */
+    public void setReaddirWindowSize(int windowSize) {
+        readdirWindowSize = windowSize;
+    }
+
+    /**
+     * Set validity time of cached failed lookups.
+     *
+     * @param lifeTime
+     */
+    public void setNegativeLifeTime(long lifeTime) {
+        this.negativeLifeTime = lifeTime;
+    }
+
+    /**
+     * Set unit in which validity time of cached failed lookups is expressed.
+     *
+     * @param lifeTimeUnit
+     */
+    public void setNegativeLifeTimeUnit(TimeUnit lifeTimeUnit) {
+        this.negativeLifeTimeUnit = lifeTimeUnit;
+    }
+
+    /**
+     * Set maximal number of failed lookups to cache.
+     *
+     * @param maxEntries
+     */
+    public void setNegativeMaxEntries(int maxEntries) {
+        negativeMaxEntries = maxEntries;
+    }
 }
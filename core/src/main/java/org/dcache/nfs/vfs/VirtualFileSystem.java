@@ -21,14 +21,20 @@ package org.dcache.nfs.vfs;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import javax.security.auth.Subject;
 
 import org.dcache.nfs.status.InvalException;
 import org.dcache.nfs.status.IsDirException;
+import org.dcache.nfs.status.NoEntException;
 import org.dcache.nfs.status.NotSuppException;
+import org.dcache.nfs.status.StaleException;
 import org.dcache.nfs.v4.NfsIdMapping;
 import org.dcache.nfs.v4.xdr.nfsace4;
 import org.dcache.nfs.v4.xdr.stable_how4;
@@ -124,6 +130,9 @@ public interface VirtualFileSystem {
      * cookies as directory content can be changes and earlier generated cookie cannot be used any more. For initial
      * listing a zero cookie and verifier is used. The returned listing will contain only entries with cookies greater
      * than specified value.
+     * <p>
+     * Large directories should be listed with a {@link DirectoryCursor}, which reads entries on demand, instead of
+     * building the complete listing. The caller closes the returned stream.
      *
      * @param inode inode of the directory to list.
      * @param verifier opaque verifier to identify {@code snapshot} to list.
@@ -251,6 +260,27 @@ public interface VirtualFileSystem {
         return numRead;
     }
 
+    /**
+     * Get a region of a {@link java.nio.channels.FileChannel} which holds file's data starting at {@code offset}. File
+     * systems, which are backed by a local (or locally mounted) storage, can implement this method to let the server
+     * transfer data into the reply without intermediate copies on java heap. The returned region may be shorter than
+     * {@code count} bytes and must be closed by the caller when the data is consumed.
+     * <p>
+     * The default implementation returns an empty {@link Optional}, which tells the server to fall back to
+     * {@link #read(Inode, ByteBuffer, long, Runnable)}.
+     *
+     * @param inode inode of the file to read from.
+     * @param offset file's position to read from.
+     * @param count maximal number of bytes to read.
+     * @return an optional file region.
+     * @throws IOException
+     * @since 0.28
+     */
+    @Beta
+    default Optional<FileRegion> readRegion(Inode inode, long offset, int count) throws IOException {
+        return Optional.empty();
+    }
+
     /**
      * Get value of a symbolic link object.
      *
@@ -348,6 +378,29 @@ public interface VirtualFileSystem {
         return getattr(inode);
     }
 
+    /**
+     * Get attributes of multiple file system objects at once. Backends, which can fetch attributes of many objects in
+     * a single request, like database backed namespaces, should override this method. The default implementation
+     * calls {@link #getattr(Inode)} for each object.
+     * <p>
+     * Objects which have been removed in the meantime are not included in the result.
+     *
+     * @param inodes inodes of the file system objects.
+     * @return map of inode to its attributes.
+     * @throws IOException
+     */
+    default Map<Inode, Stat> getattrs(Collection<Inode> inodes) throws IOException {
+        Map<Inode, Stat> stats = new HashMap<>(inodes.size());
+        for (Inode inode : inodes) {
+            try {
+                stats.put(inode, getattr(inode));
+            } catch (NoEntException | StaleException e) {
+                // object is gone, skip it
+            }
+        }
+        return stats;
+    }
+
     /**
      * Set/update file system object's attributes.
      *
@@ -0,0 +1,705 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.dcache.nfs.status.DelayException;
+import org.dcache.nfs.status.StaleException;
+import org.dcache.nfs.util.ByteBufferPool;
+import org.dcache.nfs.util.Opaque;
+import org.dcache.nfs.vfs.Stat.StatAttribute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.Beta;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Write-back decorator, which buffers {@link StabilityLevel#UNSTABLE} writes in off-heap memory and merges adjacent
+ * and overlapping ranges of a file into larger writes to the backing file system.
+ * <p>
+ * The buffered data is written to the backing file system on {@link #commit(Inode, long, int)}, when the amount of
+ * buffered data exceeds the configured limit, or when data stays buffered longer than the flush delay. Flushing on
+ * memory pressure happens in the background; while the limit is exceeded new writes fail with
+ * {@link DelayException} and are retried by the clients. As buffered
+ * writes are reported as {@code UNSTABLE}, the clients keep their copy of data until a successful COMMIT. The data
+ * lost on server restart is detected by the clients through the changed write verifier. If a background flush fails,
+ * the buffered data is kept and the write is retried later. Until the data is written, every COMMIT of the file fails
+ * with the error of the last attempt.
+ * <p>
+ * Any operation, which observes or modifies file's content, like read, setattr or copy, flushes the buffered data
+ * first and fails if the data can't be written. The file size, modification time and change attribute returned by
+ * {@code getattr} include the buffered writes, thus clients observe them on close-to-open.
+ *
+ * @since 0.28
+ */
+@Beta
+public class WriteBackCache extends ForwardingFileSystem {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBackCache.class);
+
+    private final VirtualFileSystem _inner;
+
+    /**
+     * Maximal size of a single buffered range.
+     */
+    private final int _maxSegmentSize;
+
+    /**
+     * Maximal amount of memory used for buffered data.
+     */
+    private final long _maxDirtyBytes;
+
+    /**
+     * Time after which buffered data is written to the backing file system.
+     */
+    private final long _flushDelayNanos;
+
+    /**
+     * Files with buffered data.
+     */
+    private final Map<Opaque, DirtyFile> _dirtyFiles = new ConcurrentHashMap<>();
+
+    /**
+     * Highest change attribute reported for files, which have buffered writes or which backend change attribute is
+     * still behind the reported one.
+     */
+    private final Map<Opaque, ChangeMark> _changeMarks = new ConcurrentHashMap<>();
+
+    /**
+     * Amount of memory currently used for buffered data.
+     */
+    private final AtomicLong _dirtyBytes = new AtomicLong();
+
+    private final ByteBufferPool _bufferPool;
+
+    private final ScheduledExecutorService _flusher;
+
+    /**
+     * Set while a flush on memory pressure is queued to the flusher.
+     */
+    private final AtomicBoolean _pressureFlushQueued = new AtomicBoolean();
+
+    /**
+     * Create new write-back decorator.
+     *
+     * @param inner the backing file system.
+     * @param maxSegmentSize maximal size of a single buffered range.
+     * @param maxDirtyBytes maximal amount of memory used for buffered data.
+     * @param flushDelay time after which buffered data is written to the backing file system.
+     */
+    public WriteBackCache(VirtualFileSystem inner, int maxSegmentSize, long maxDirtyBytes, Duration flushDelay) {
+        checkArgument(maxSegmentSize > 0, "Segment size must be positive");
+        checkArgument(maxDirtyBytes >= maxSegmentSize, "Buffer limit can't be smaller than segment size");
+        checkArgument(!flushDelay.isNegative() && !flushDelay.isZero(), "Flush delay must be positive");
+
+        _inner = requireNonNull(inner);
+        _maxSegmentSize = maxSegmentSize;
+        _maxDirtyBytes = maxDirtyBytes;
+        _flushDelayNanos = flushDelay.toNanos();
+        // keep at most as many idle segments as fit into the buffer limit
+        _bufferPool = new ByteBufferPool(maxSegmentSize, (maxDirtyBytes / maxSegmentSize) * maxSegmentSize);
+
+        _flusher = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                        .setNameFormat("write-back-flusher")
+                        .setDaemon(true)
+                        .build());
+        long period = Math.max(TimeUnit.MILLISECONDS.toNanos(10), _flushDelayNanos / 2);
+        _flusher.scheduleWithFixedDelay(this::flushExpired, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    protected VirtualFileSystem delegate() {
+        return _inner;
+    }
+
+    @Override
+    public WriteResult write(Inode inode, byte[] data, long offset, int count, StabilityLevel stabilityLevel)
+            throws IOException {
+        return write(inode, ByteBuffer.wrap(data, 0, count), offset, stabilityLevel);
+    }
+
+    @Override
+    public WriteResult write(Inode inode, ByteBuffer data, long offset, StabilityLevel stabilityLevel)
+            throws IOException {
+
+        int count = data.remaining();
+        if (stabilityLevel != StabilityLevel.UNSTABLE || count > _maxSegmentSize) {
+            // buffered data must hit the backing file system before the new one
+            writeBack(inode);
+            return _inner.write(inode, data, offset, stabilityLevel);
+        }
+
+        if (_dirtyBytes.get() > _maxDirtyBytes) {
+            queueFlushOnPressure();
+            throw new DelayException("Write-back buffer is full");
+        }
+
+        Opaque key = inode.getFileIdKey();
+        while (true) {
+            DirtyFile dirtyFile = _dirtyFiles.computeIfAbsent(key.toImmutableOpaque(), k -> new DirtyFile(inode));
+            synchronized (dirtyFile) {
+                if (dirtyFile.retired) {
+                    // concurrently flushed and removed
+                    continue;
+                }
+
+                if (dirtyFile.error != null) {
+                    // don't buffer more data while the backend fails to take the already buffered one
+                    dirtyFile.writeOut();
+                }
+
+                if (!dirtyFile.add(offset, data)) {
+                    // the merged range would be too large; write out buffered data and start a new range
+                    dirtyFile.writeOut();
+                    dirtyFile.add(offset, data);
+                }
+                dirtyFile.mtime = System.currentTimeMillis();
+                dirtyFile.writes++;
+                dirtyFile.unreportedWrites++;
+            }
+            break;
+        }
+        data.position(data.limit());
+
+        if (_dirtyBytes.get() > _maxDirtyBytes) {
+            queueFlushOnPressure();
+        }
+
+        return new WriteResult(StabilityLevel.UNSTABLE, count);
+    }
+
+    @Override
+    public void commit(Inode inode, long offset, int count) throws IOException {
+        writeBack(inode);
+        _inner.commit(inode, offset, count);
+    }
+
+    @Override
+    public int read(Inode inode, byte[] data, long offset, int count) throws IOException {
+        writeBack(inode);
+        return _inner.read(inode, data, offset, count);
+    }
+
+    @Override
+    public int read(Inode inode, ByteBuffer data, long offset) throws IOException {
+        writeBack(inode);
+        return _inner.read(inode, data, offset);
+    }
+
+    @Override
+    public int read(Inode inode, ByteBuffer data, long offset, Runnable eofReached) throws IOException {
+        writeBack(inode);
+        return _inner.read(inode, data, offset, eofReached);
+    }
+
+    @Override
+    public Optional<FileRegion> readRegion(Inode inode, long offset, int count) throws IOException {
+        writeBack(inode);
+        return _inner.readRegion(inode, offset, count);
+    }
+
+    @Override
+    public void setattr(Inode inode, Stat stat) throws IOException {
+        writeBack(inode);
+        _inner.setattr(inode, stat);
+    }
+
+    @Override
+    public Stat getattr(Inode inode) throws IOException {
+        return withBufferedAttributes(inode, _inner.getattr(inode));
+    }
+
+    @Override
+    public Stat getattr(Inode inode, EnumSet<StatAttribute> attributes) throws IOException {
+        return withBufferedAttributes(inode, _inner.getattr(inode, attributes));
+    }
+
+    @Override
+    public Map<Inode, Stat> getattrs(Collection<Inode> inodes) throws IOException {
+        Map<Inode, Stat> stats = _inner.getattrs(inodes);
+        if (_dirtyFiles.isEmpty()) {
+            return stats;
+        }
+        Map<Inode, Stat> withBuffered = new HashMap<>(stats);
+        withBuffered.replaceAll(this::withBufferedAttributes);
+        return withBuffered;
+    }
+
+    @Override
+    public void remove(Inode parent, String path) throws IOException {
+        if (!_dirtyFiles.isEmpty()) {
+            // the file may have other links, thus data is written out rather than discarded
+            writeBack(_inner.lookup(parent, path));
+        }
+        _inner.remove(parent, path);
+    }
+
+    @Override
+    public CompletableFuture<Long> copyFileRange(Inode src, long srcPos, Inode dst, long dstPos, long len) {
+        try {
+            writeBack(src);
+            writeBack(dst);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return _inner.copyFileRange(src, srcPos, dst, dstPos, len);
+    }
+
+    /**
+     * Get amount of memory currently used for buffered data.
+     *
+     * @return number of bytes used by buffered data.
+     */
+    public long getDirtyBytes() {
+        return _dirtyBytes.get();
+    }
+
+    /**
+     * Write all buffered data to the backing file system and stop the background flushing.
+     */
+    public void shutdown() {
+        _flusher.shutdown();
+        flushAll(f -> true);
+        _dirtyFiles.values().forEach(f -> {
+            synchronized (f) {
+                if (!f.segments.isEmpty()) {
+                    LOGGER.error("Discarding {} buffered ranges of {} on shutdown", f.segments.size(), f.inode);
+                    f.discard();
+                }
+            }
+        });
+    }
+
+    /**
+     * Write buffered data of the given file to the backing file system.
+     *
+     * @param inode the inode of the file to flush.
+     * @throws IOException if buffered data can't be written.
+     */
+    public void flush(Inode inode) throws IOException {
+        writeBack(inode);
+    }
+
+    /**
+     * Write buffered data of the given file to the backing file system. On failure the data stays buffered.
+     *
+     * @param inode the inode of the file to write back.
+     * @throws IOException if buffered data can't be written.
+     */
+    private void writeBack(Inode inode) throws IOException {
+        DirtyFile dirtyFile = _dirtyFiles.get(inode.getFileIdKey());
+        if (dirtyFile != null) {
+            writeBack(dirtyFile);
+        }
+    }
+
+    private void writeBack(DirtyFile dirtyFile) throws IOException {
+        synchronized (dirtyFile) {
+            try {
+                dirtyFile.writeOut();
+            } finally {
+                dirtyFile.retireIfClean();
+            }
+        }
+    }
+
+    /**
+     * Update file's size, modification time and change attribute with the writes that are not flushed yet. The
+     * provided {@code stat} is not modified.
+     */
+    private Stat withBufferedAttributes(Inode inode, Stat stat) {
+        Opaque key = inode.getFileIdKey();
+        DirtyFile dirtyFile = _dirtyFiles.get(key);
+        if (dirtyFile == null && !_changeMarks.containsKey(key)) {
+            return stat;
+        }
+
+        stat = stat.clone();
+        if (dirtyFile != null) {
+            long bufferedSize;
+            long mtime;
+            long writes;
+            synchronized (dirtyFile) {
+                bufferedSize = dirtyFile.end();
+                mtime = dirtyFile.mtime;
+                writes = dirtyFile.writes;
+            }
+
+            if (writes > 0) {
+                if (stat.isDefined(StatAttribute.SIZE) && bufferedSize > stat.getSize()) {
+                    stat.setSize(bufferedSize);
+                }
+                if (stat.isDefined(StatAttribute.MTIME) && mtime > stat.getMTime()) {
+                    stat.setMTime(mtime);
+                }
+                if (stat.isDefined(StatAttribute.CTIME) && mtime > stat.getCTime()) {
+                    stat.setCTime(mtime);
+                }
+            }
+        }
+
+        if (stat.isDefined(StatAttribute.GENERATION)) {
+            stat.setGeneration(reportChange(key, dirtyFile, stat.getGeneration()));
+        }
+        return stat;
+    }
+
+    /**
+     * Get the change attribute to report for a file. The value includes the buffered writes and never goes backwards,
+     * even if the backend's change attribute grows by less than the number of writes, which were merged by the flush.
+     *
+     * @param key file's id.
+     * @param dirtyFile buffered data of the file, if any.
+     * @param backendChange the change attribute reported by the backend.
+     * @return the change attribute to report.
+     */
+    private long reportChange(Opaque key, DirtyFile dirtyFile, long backendChange) {
+        long[] pending = new long[1];
+        boolean[] clean = {true};
+        if (dirtyFile != null) {
+            synchronized (dirtyFile) {
+                pending[0] = dirtyFile.unreportedWrites;
+                dirtyFile.unreportedWrites = 0;
+                clean[0] = dirtyFile.retired;
+            }
+        }
+
+        long[] reported = new long[1];
+        // the file's monitor is not taken inside compute, as writeOut updates the marks with the monitor held
+        _changeMarks.compute(key.toImmutableOpaque(), (k, mark) -> {
+            if (mark == null) {
+                if (pending[0] == 0) {
+                    reported[0] = backendChange;
+                    return null;
+                }
+                mark = new ChangeMark(backendChange);
+            }
+
+            reported[0] = mark.report(backendChange, pending[0]);
+            // once the backend has caught up, its own values are monotonic
+            return clean[0] && backendChange >= reported[0] ? null : mark;
+        });
+        return reported[0];
+    }
+
+    /**
+     * Queue a flush on memory pressure to the background flusher, unless one is queued already.
+     */
+    private void queueFlushOnPressure() {
+        if (_pressureFlushQueued.compareAndSet(false, true)) {
+            try {
+                _flusher.execute(this::flushOnPressure);
+            } catch (RejectedExecutionException e) {
+                // shutting down, all data is flushed by shutdown
+                _pressureFlushQueued.set(false);
+            }
+        }
+    }
+
+    /**
+     * Write out buffered data until memory usage is below the limit.
+     */
+    private void flushOnPressure() {
+        _pressureFlushQueued.set(false);
+        flushAll(f -> _dirtyBytes.get() > _maxDirtyBytes);
+    }
+
+    private void flushExpired() {
+        long now = System.nanoTime();
+        flushAll(f -> now - f.dirtySince >= _flushDelayNanos);
+    }
+
+    private void flushAll(Predicate<DirtyFile> shouldFlush) {
+        for (DirtyFile dirtyFile : _dirtyFiles.values()) {
+            synchronized (dirtyFile) {
+                if (!dirtyFile.retired && !dirtyFile.segments.isEmpty() && shouldFlush.test(dirtyFile)) {
+                    tryWriteBack(dirtyFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write back buffered data in the background. Failures are logged by {@link DirtyFile#writeOut()} and the data is
+     * retried on the next flush.
+     */
+    private void tryWriteBack(DirtyFile dirtyFile) {
+        try {
+            writeBack(dirtyFile);
+        } catch (IOException e) {
+            // kept buffered and retried
+        }
+    }
+
+    /**
+     * High-water mark of the change attribute reported for a file. Must be used within {@code _changeMarks.compute}.
+     */
+    private static final class ChangeMark {
+
+        /**
+         * The highest change attribute reported.
+         */
+        private long reported;
+
+        /**
+         * The backend's change attribute at the time of the last report.
+         */
+        private long backend;
+
+        ChangeMark(long backend) {
+            this.reported = backend;
+            this.backend = backend;
+        }
+
+        /**
+         * Get the next change attribute to report.
+         *
+         * @param backendChange the backend's current change attribute.
+         * @param pendingWrites number of writes since the last report.
+         * @return the value to report, not smaller than any previously reported value.
+         */
+        long report(long backendChange, long pendingWrites) {
+            // a backend change, e.g. by a flush, must be visible even if the backend is behind the reported value
+            long backendChanged = backendChange != backend ? 1 : 0;
+            backend = backendChange;
+            reported = Math.max(backendChange, reported + pendingWrites + backendChanged);
+            return reported;
+        }
+    }
+
+    /**
+     * A range of buffered data.
+     */
+    private static final class Segment {
+
+        private final long offset;
+        private final ByteBuffer buffer;
+        private int length;
+
+        Segment(long offset, ByteBuffer buffer, int length) {
+            this.offset = offset;
+            this.buffer = buffer;
+            this.length = length;
+        }
+
+        long end() {
+            return offset + length;
+        }
+
+        void put(long position, ByteBuffer data) {
+            ByteBuffer dst = buffer.duplicate();
+            dst.clear().position((int) (position - offset));
+            dst.put(data.duplicate());
+            length = Math.max(length, dst.position());
+        }
+    }
+
+    /**
+     * Buffered data of a single file. All methods must be called with the object's monitor held.
+     */
+    private final class DirtyFile {
+
+        private final Inode inode;
+
+        /**
+         * Non-overlapping buffered ranges ordered by file offset.
+         */
+        private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+
+        /**
+         * Time when the file became dirty, as returned by {@link System#nanoTime()}.
+         */
+        private long dirtySince;
+
+        /**
+         * Time of the last buffered write, in milliseconds since the epoch.
+         */
+        private long mtime;
+
+        /**
+         * Number of buffered writes, which are not written to the backing file system yet.
+         */
+        private long writes;
+
+        /**
+         * Number of buffered writes, which are not included in a reported change attribute yet.
+         */
+        private long unreportedWrites;
+
+        /**
+         * Failure of the last write out attempt, {@code null} if the last attempt succeeded. While set, the buffered
+         * data has not been written.
+         */
+        private IOException error;
+
+        /**
+         * Set when the record is removed from the map of dirty files.
+         */
+        private boolean retired;
+
+        DirtyFile(Inode inode) {
+            this.inode = inode;
+        }
+
+        /**
+         * Buffer provided data.
+         *
+         * @return false if data can't be merged with the buffered ranges without exceeding the segment size.
+         */
+        boolean add(long offset, ByteBuffer data) {
+
+            long end = offset + data.remaining();
+            if (segments.isEmpty()) {
+                dirtySince = System.nanoTime();
+            }
+
+            // fast path: overwrite or append to a range with enough spare capacity
+            Map.Entry<Long, Segment> floor = segments.floorEntry(offset);
+            if (floor != null && floor.getValue().end() >= offset) {
+                Segment segment = floor.getValue();
+                Map.Entry<Long, Segment> next = segments.higherEntry(segment.offset);
+                if (end - segment.offset <= segment.buffer.capacity() && (next == null || next.getKey() > end)) {
+                    segment.put(offset, data);
+                    return true;
+                }
+            }
+
+            // merge with all overlapping and adjacent ranges
+            List<Segment> toMerge = new ArrayList<>();
+            long start = offset;
+            long mergedEnd = end;
+            if (floor != null && floor.getKey() < offset && floor.getValue().end() >= offset) {
+                toMerge.add(floor.getValue());
+                start = floor.getKey();
+                mergedEnd = Math.max(mergedEnd, floor.getValue().end());
+            }
+            for (Segment segment : segments.subMap(offset, true, end, true).values()) {
+                toMerge.add(segment);
+                mergedEnd = Math.max(mergedEnd, segment.end());
+            }
+
+            if (mergedEnd - start > _maxSegmentSize) {
+                return false;
+            }
+
+            ByteBuffer buffer = _bufferPool.acquire((int) (mergedEnd - start));
+            _dirtyBytes.addAndGet(buffer.capacity());
+            Segment merged = new Segment(start, buffer, 0);
+            for (Segment segment : toMerge) {
+                merged.put(segment.offset, segment.buffer.duplicate().clear().limit(segment.length));
+                segments.remove(segment.offset);
+                release(segment);
+            }
+            // new data overwrites the old one
+            merged.put(offset, data);
+            segments.put(start, merged);
+            return true;
+        }
+
+        /**
+         * Get the end of the last buffered range.
+         */
+        long end() {
+            return segments.isEmpty() ? 0 : segments.lastEntry().getValue().end();
+        }
+
+        /**
+         * Write buffered data to the backing file system. On failure the data that is not written yet stays buffered
+         * to be retried, unless the file does not exist anymore.
+         *
+         * @throws IOException if buffered data can't be written.
+         */
+        void writeOut() throws IOException {
+
+            try {
+                while (!segments.isEmpty()) {
+                    Segment segment = segments.firstEntry().getValue();
+                    ByteBuffer data = segment.buffer.duplicate().clear().limit(segment.length);
+                    while (data.hasRemaining()) {
+                        int n = _inner.write(inode, data.slice(), segment.offset + data.position(),
+                                StabilityLevel.UNSTABLE).getBytesWritten();
+                        if (n <= 0) {
+                            throw new IOException("Short write at offset " + (segment.offset + data.position()));
+                        }
+                        data.position(data.position() + n);
+                    }
+                    segments.remove(segment.offset);
+                    release(segment);
+                }
+                error = null;
+                writes = 0;
+            } catch (StaleException e) {
+                LOGGER.warn("Discarding buffered data of removed file {}", inode);
+                discard();
+                _changeMarks.remove(inode.getFileIdKey());
+                throw e;
+            } catch (IOException e) {
+                LOGGER.warn("Failed to write back data of {}: {}", inode, e.toString());
+                error = e;
+                throw e;
+            }
+        }
+
+        void discard() {
+            segments.values().forEach(this::release);
+            segments.clear();
+            error = null;
+            writes = 0;
+        }
+
+        void retireIfClean() {
+            if (segments.isEmpty() && !retired) {
+                retired = true;
+                _dirtyFiles.remove(inode.getFileIdKey(), this);
+            }
+        }
+
+        private void release(Segment segment) {
+            _dirtyBytes.addAndGet(-segment.buffer.capacity());
+            _bufferPool.release(segment.buffer);
+        }
+    }
+}
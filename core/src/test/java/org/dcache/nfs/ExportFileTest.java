@@ -1,12 +1,16 @@
 package org.dcache.nfs;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.*;
 import static org.mockito.Mockito.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.InetAddress;
 import java.nio.file.Files;
 import java.util.Random;
 
@@ -123,6 +127,40 @@ public class ExportFileTest {
         assertExportExists("/added_export", ef);
     }
 
+    @Test
+    public void testVersionChangedOnRescan() throws IOException {
+
+        ExportFile ef = new ExportFile(export, exportDir);
+        long version = ef.version();
+
+        ef.rescan();
+        assertNotEquals(version, ef.version());
+    }
+
+    @Test
+    public void testMostSpecificSubnetFirst() throws IOException {
+
+        Files.writeString(export.toPath(), "/data 10.0.0.0/8(ro,sec=sys) 10.1.0.0/16(rw,sec=sys)");
+        ExportFile ef = new ExportFile(export);
+
+        assertEquals(FsExport.IO.RW, ef.getExport("/data", InetAddress.getByName("10.1.2.3")).ioMode());
+        assertEquals(FsExport.IO.RO, ef.getExport("/data", InetAddress.getByName("10.2.0.1")).ioMode());
+        assertNull(ef.getExport("/data", InetAddress.getByName("11.1.2.3")));
+    }
+
+    @Test
+    public void testDecisionUpdatedOnRescan() throws IOException {
+
+        Files.writeString(export.toPath(), "/data 10.0.0.0/8(ro,sec=sys)");
+        ExportFile ef = new ExportFile(export);
+        InetAddress client = InetAddress.getByName("10.1.2.3");
+        assertEquals(FsExport.IO.RO, ef.getExport("/data", client).ioMode());
+
+        Files.writeString(export.toPath(), "/data 10.0.0.0/8(rw,sec=sys)");
+        ef.rescan();
+        assertEquals(FsExport.IO.RW, ef.getExport("/data", client).ioMode());
+    }
+
     private void assertExportExists(String path, ExportFile exportFile) {
         assertTrue("export " + path + " doesn't exists", exportFile.exports()
                 .anyMatch(e -> e.getPath().equals(path)));
@@ -0,0 +1,46 @@
+package org.dcache.nfs;
+
+import static com.google.common.net.InetAddresses.forString;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SubnetTrieTest {
+
+    private SubnetTrie trie;
+
+    @Before
+    public void setUp() {
+        trie = new SubnetTrie();
+    }
+
+    @Test
+    public void testNoMatch() {
+        trie.add(forString("192.168.1.0").getAddress(), 24, 0);
+        assertEquals(SubnetTrie.NO_MATCH, trie.firstMatch(forString("192.168.2.1").getAddress()));
+    }
+
+    @Test
+    public void testSmallestPositionWins() {
+        trie.add(forString("192.168.0.0").getAddress(), 16, 1);
+        trie.add(forString("192.168.1.0").getAddress(), 24, 0);
+        trie.add(forString("192.168.1.7").getAddress(), 32, 2);
+
+        assertEquals(0, trie.firstMatch(forString("192.168.1.7").getAddress()));
+        assertEquals(1, trie.firstMatch(forString("192.168.2.7").getAddress()));
+    }
+
+    @Test
+    public void testHostBitsIgnored() {
+        trie.add(forString("10.1.2.3").getAddress(), 8, 0);
+        assertEquals(0, trie.firstMatch(forString("10.200.1.1").getAddress()));
+    }
+
+    @Test
+    public void testIpv4AndIpv6Separated() {
+        trie.add(forString("fe80::").getAddress(), 1, 0);
+        assertEquals(SubnetTrie.NO_MATCH, trie.firstMatch(forString("192.168.1.1").getAddress()));
+        assertEquals(0, trie.firstMatch(forString("fe80::9cef:10f5:f2ae:1aa1").getAddress()));
+    }
+}
@@ -0,0 +1,65 @@
+package org.dcache.nfs.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram;
+
+    @Before
+    public void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getValueAtPercentile(99.0));
+    }
+
+    @Test
+    public void testSmallValuesExact() {
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(10, histogram.getCount());
+        assertEquals(5, histogram.getMean());
+        assertEquals(10, histogram.getMax());
+        assertEquals(5, histogram.getValueAtPercentile(50.0));
+        assertEquals(10, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testPercentileWithinPrecision() {
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        long p99 = histogram.getValueAtPercentile(99.0);
+        assertTrue("p99 too small: " + p99, p99 >= 990_000);
+        assertTrue("p99 too large: " + p99, p99 <= 990_000 * 17 / 16);
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long value : new long[] {15, 16, 17, 31, 32, 33, 1023, 1024, 123_456_789}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.highestEquivalentValue(index - 1) < value);
+        }
+    }
+
+    @Test
+    public void testNegativeRecordedAsZero() {
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        assertEquals(1, histogram.getCount());
+    }
+}
@@ -0,0 +1,63 @@
+package org.dcache.nfs.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.junit.Test;
+
+public class NfsMetricsTest {
+
+    private final InetSocketAddress client = new InetSocketAddress(InetAddress.getLoopbackAddress(), 1023);
+
+    @Test
+    public void testRecordOperation() {
+        NfsMetrics metrics = new NfsMetrics();
+        OperationMetrics read = metrics.nfsv4(nfs_opnum4.OP_READ);
+
+        metrics.record(read, client, 1000, nfsstat.NFS_OK);
+        metrics.addBytes(read, client, 4096);
+        metrics.record(read, client, 2000, nfsstat.NFSERR_BAD_STATEID);
+
+        assertEquals("READ", read.getName());
+        assertEquals(2, read.getCount());
+        assertEquals(1, read.getErrors());
+        assertEquals(4096, read.getBytes());
+        assertEquals(1L, (long) read.getErrorsByStatus().get(nfsstat.toString(nfsstat.NFSERR_BAD_STATEID)));
+    }
+
+    @Test
+    public void testUnknownOperation() {
+        NfsMetrics metrics = new NfsMetrics();
+        assertSame(metrics.nfsv4(nfs_opnum4.OP_ILLEGAL), metrics.nfsv4(1));
+        assertEquals("UNKNOWN", metrics.nfsv3(42).getName());
+    }
+
+    @Test
+    public void testClientsNotTrackedByDefault() {
+        NfsMetrics metrics = new NfsMetrics();
+        metrics.record(metrics.nfsv3(1), client, 1000, nfsstat.NFS_OK);
+        assertNull(metrics.client(client));
+        assertEquals(1, metrics.nfsv3(1).getCount());
+    }
+
+    @Test
+    public void testClientLimit() throws Exception {
+        NfsMetrics metrics = new NfsMetrics(1);
+        InetSocketAddress other = new InetSocketAddress(InetAddress.getByName("192.0.2.1"), 1023);
+
+        metrics.record(metrics.nfsv3(1), client, 1000, nfsstat.NFS_OK);
+        metrics.record(metrics.nfsv3(1), other, 1000, nfsstat.NFS_OK);
+
+        assertNotNull(metrics.client(client));
+        assertNull(metrics.client(other));
+        assertEquals(1, metrics.client(client).getRequests());
+        assertEquals(1000, metrics.client(client).getMeanLatency());
+    }
+}
@@ -0,0 +1,134 @@
+package org.dcache.nfs.qos;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.oncrpc4j.rpc.RpcDispatchable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FairRpcSchedulerTest {
+
+    private static final RequestClass BUSY = new RequestClass(1, InetAddress.getLoopbackAddress());
+    private static final RequestClass INTERACTIVE = new RequestClass(2, InetAddress.getLoopbackAddress());
+
+    private final Map<RpcCall, RequestClass> classes = new ConcurrentHashMap<>();
+    private final List<RpcCall> processed = new CopyOnWriteArrayList<>();
+
+    private CountDownLatch blocked;
+    private CountDownLatch done;
+    private FairRpcScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        blocked = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testInteractiveClassNotStarved() throws Exception {
+        scheduler = new FairRpcScheduler(1, classes::get, c -> 1, Integer.MAX_VALUE);
+        RpcDispatchable program = scheduler.schedule(this::process);
+        done = new CountDownLatch(5);
+
+        RpcCall first = call(BUSY);
+        program.dispatchOncRpcCall(first);
+        for (int i = 0; i < 3; i++) {
+            program.dispatchOncRpcCall(call(BUSY));
+        }
+        RpcCall interactive = call(INTERACTIVE);
+        program.dispatchOncRpcCall(interactive);
+
+        blocked.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(first, processed.get(0));
+        assertEquals(interactive, processed.get(1));
+    }
+
+    @Test
+    public void testDropOverLimit() throws Exception {
+        scheduler = new FairRpcScheduler(1, classes::get, c -> 1, 1);
+        RpcDispatchable program = scheduler.schedule(this::process);
+        done = new CountDownLatch(2);
+
+        // first one is taken by the worker, second one is queued
+        program.dispatchOncRpcCall(call(BUSY));
+        awaitQueueEmpty();
+        program.dispatchOncRpcCall(call(BUSY));
+        RpcCall overLimit = call(BUSY);
+        program.dispatchOncRpcCall(overLimit);
+
+        verify(overLimit).failRpcSystem();
+        assertEquals(1L, (long) scheduler.getDroppedRequests().get(BUSY.toString()));
+        assertEquals(1, (int) scheduler.getQueueDepths().get(BUSY.toString()));
+
+        blocked.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, processed.size());
+    }
+
+    @Test
+    public void testRejectOverLimitWithCustomReply() throws Exception {
+        scheduler = new FairRpcScheduler(1, classes::get, c -> 1, 0);
+        List<RpcCall> rejected = new CopyOnWriteArrayList<>();
+        RpcDispatchable program = scheduler.schedule(this::process, rejected::add);
+
+        RpcCall call = call(BUSY);
+        program.dispatchOncRpcCall(call);
+
+        assertEquals(List.of(call), rejected);
+        verify(call, never()).failRpcSystem();
+    }
+
+    @Test
+    public void testRejectAfterShutdown() throws Exception {
+        scheduler = new FairRpcScheduler(1, classes::get, c -> 1, Integer.MAX_VALUE);
+        RpcDispatchable program = scheduler.schedule(this::process);
+        scheduler.shutdown();
+
+        RpcCall call = call(BUSY);
+        program.dispatchOncRpcCall(call);
+
+        verify(call).failRpcSystem();
+        assertEquals(0, scheduler.getQueuedRequests());
+    }
+
+    private void awaitQueueEmpty() throws InterruptedException {
+        while (scheduler.getQueuedRequests() > 0) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+    }
+
+    private RpcCall call(RequestClass requestClass) {
+        RpcCall call = mock(RpcCall.class);
+        classes.put(call, requestClass);
+        return call;
+    }
+
+    private void process(RpcCall call) {
+        try {
+            blocked.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        processed.add(call);
+        done.countDown();
+    }
+}
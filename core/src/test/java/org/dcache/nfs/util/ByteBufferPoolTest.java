@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ByteBufferPoolTest {
+
+    private ByteBufferPool _pool;
+
+    @Before
+    public void setUp() {
+        _pool = new ByteBufferPool(1024 * 1024, 4 * 1024 * 1024);
+    }
+
+    @Test
+    public void testAcquireLimit() {
+        ByteBuffer buffer = _pool.acquire(5000);
+        assertTrue(buffer.isDirect());
+        assertEquals(0, buffer.position());
+        assertEquals(5000, buffer.limit());
+        assertEquals(8192, buffer.capacity());
+    }
+
+    @Test
+    public void testSmallSizeUsesSmallestClass() {
+        ByteBuffer buffer = _pool.acquire(1);
+        assertEquals(4096, buffer.capacity());
+    }
+
+    @Test
+    public void testReuse() {
+        ByteBuffer buffer = _pool.acquire(4096);
+        buffer.put((byte) 1);
+        _pool.release(buffer);
+
+        ByteBuffer reused = _pool.acquire(100);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(100, reused.limit());
+        assertEquals(1, _pool.getHits());
+        assertEquals(0, _pool.getIdleBytes());
+    }
+
+    @Test
+    public void testOversizedNotPooled() {
+        ByteBuffer buffer = _pool.acquire(2 * 1024 * 1024);
+        assertFalse(buffer.isDirect());
+        _pool.release(buffer);
+        assertEquals(0, _pool.getIdleBytes());
+    }
+
+    @Test
+    public void testIdleLimit() {
+        ByteBuffer[] buffers = new ByteBuffer[5];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = _pool.acquire(1024 * 1024);
+        }
+        for (ByteBuffer buffer : buffers) {
+            _pool.release(buffer);
+        }
+        assertEquals(4 * 1024 * 1024, _pool.getIdleBytes());
+    }
+
+    @Test
+    public void testForeignBufferIgnored() {
+        _pool.release(ByteBuffer.allocateDirect(5000));
+        _pool.release(ByteBuffer.allocate(4096));
+        assertEquals(0, _pool.getIdleBytes());
+    }
+}
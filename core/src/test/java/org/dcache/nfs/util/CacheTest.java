@@ -23,6 +23,8 @@ import static org.junit.Assert.*;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
@@ -67,6 +69,27 @@ public class CacheTest {
         assertNull("Object not expired", value);
     }
 
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testNotifyLegacyListener() throws Exception {
+
+        List<String> expired = new ArrayList<>();
+        _cache = new Cache<>("test cache", 10, Duration.ofSeconds(5),
+                Duration.ofSeconds(5),
+                new NopCacheEventListener<String, String>() {
+                    @Override
+                    public void notifyExpired(Cache<String, String> cache, String v) {
+                        expired.add(v);
+                    }
+                }, _clock);
+
+        _cache.put("key1", "value1");
+        _clock.advance(6, TimeUnit.SECONDS);
+        _cache.get("key1");
+
+        assertEquals(List.of("value1"), expired);
+    }
+
     @Test
     public void testGetAfterRemove() throws Exception {
 
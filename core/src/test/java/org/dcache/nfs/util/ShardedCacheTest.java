@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.MissingResourceException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShardedCacheTest {
+
+    private ShardedCache<String, String> _cache;
+    private ManualClock _clock;
+    private List<String> _expired;
+
+    @Before
+    public void setUp() {
+        _clock = new ManualClock();
+        _expired = new ArrayList<>();
+        _cache = new ShardedCache<>("test sharded cache", 10, Duration.ofSeconds(5),
+                Duration.ofSeconds(5),
+                new NopCacheEventListener<>() {
+                    @Override
+                    public void notifyExpired(ExpiringCache<String, String> cache, String v) {
+                        assertSame(_cache, cache);
+                        _expired.add(v);
+                    }
+                }, _clock, 4);
+    }
+
+    @Test
+    public void testPutGet() {
+
+        _cache.put("key1", "value1");
+
+        String value = _cache.get("key1");
+        assertEquals("received object not equal", "value1", value);
+    }
+
+    @Test
+    public void testGetAfterTimeout() throws Exception {
+
+        _cache.put("key1", "value1");
+        _clock.advance(6, TimeUnit.SECONDS);
+
+        String value = _cache.get("key1");
+        assertNull("Object not expired", value);
+        assertEquals("unexpected number of elements", 0, _cache.size());
+    }
+
+    @Test
+    public void testGetAfterRemove() throws Exception {
+
+        _cache.put("key1", "value1");
+        _cache.remove("key1");
+
+        assertNull("Object not removed", _cache.get("key1"));
+        assertEquals("unexpected number of elements", 0, _cache.size());
+    }
+
+    @Test
+    public void testRemoveExpired() throws Exception {
+        _cache.put("key1", "value1");
+        _clock.advance(6, TimeUnit.SECONDS);
+        assertNull(_cache.remove("key1"));
+    }
+
+    @Test
+    public void testBigLifeTime() {
+        _cache.put("key1", "value1", Duration.ofSeconds(Instant.MAX.getEpochSecond()), Duration.ofSeconds(180));
+        assertNotNull("Object expired", _cache.get("key1"));
+    }
+
+    @Test
+    public void testCleanUp() {
+        _cache.put("key1", "value1", Duration.ofSeconds(1), Duration.ofSeconds(1));
+        _cache.put("key2", "value2", Duration.ofMillis(600), Duration.ofMillis(600));
+        _clock.advance(700, TimeUnit.MILLISECONDS);
+        _cache.cleanUp();
+        assertEquals("unexpected number of elements", 1, _cache.size());
+        assertEquals("expired entry not reported", List.of("value2"), _expired);
+        assertNotNull("Expected Entry expired", _cache.get("key1"));
+    }
+
+    @Test
+    public void testCleanUpKeepsAccessedEntries() {
+        _cache.put("key1", "value1", Duration.ofHours(1), Duration.ofSeconds(5));
+        _clock.advance(4, TimeUnit.SECONDS);
+        _cache.get("key1");
+        _clock.advance(4, TimeUnit.SECONDS);
+        _cache.cleanUp();
+        assertTrue("Accessed entry expired", _expired.isEmpty());
+
+        _clock.advance(2, TimeUnit.SECONDS);
+        _cache.cleanUp();
+        assertEquals("expired entry not reported", List.of("value1"), _expired);
+        assertEquals("unexpected number of elements", 0, _cache.size());
+    }
+
+    @Test
+    public void testCleanUpAfterManyWheelTurns() {
+        _cache.put("key1", "value1", Duration.ofHours(1), Duration.ofHours(1));
+        _cache.put("key2", "value2");
+        _clock.advance(10, TimeUnit.SECONDS);
+        _cache.cleanUp();
+        assertEquals("expired entry not reported", List.of("value2"), _expired);
+        assertNotNull("Expected Entry expired", _cache.get("key1"));
+    }
+
+    @Test
+    public void testExpireOnPut() {
+        _cache.put("key1", "value1");
+        _clock.advance(6, TimeUnit.SECONDS);
+        for (int i = 0; i < 10; i++) {
+            _cache.put("key" + i, "value" + i);
+        }
+        assertEquals("expired entry not reported", List.of("value1"), _expired);
+    }
+
+    @Test
+    public void testReplaceEntry() {
+        _cache.put("key1", "value1");
+        _cache.put("key1", "value2");
+        assertEquals("unexpected number of elements", 1, _cache.size());
+        assertEquals("value2", _cache.get("key1"));
+
+        _clock.advance(6, TimeUnit.SECONDS);
+        _cache.cleanUp();
+        assertEquals("expired entry not reported", List.of("value2"), _expired);
+    }
+
+    @Test(expected = MissingResourceException.class)
+    public void testCacheLimit() {
+        for (int i = 0; i < 11; i++) {
+            _cache.put("key" + i, "value" + i);
+        }
+    }
+
+    @Test
+    public void testClear() {
+        _cache.put("key1", "value1");
+        _cache.put("key2", "value2");
+        _cache.clear();
+        assertTrue("Not all entries are removed", _cache.entries().isEmpty());
+        assertEquals("unexpected number of elements", 0, _cache.size());
+    }
+
+    @Test
+    public void testShardCountPowerOfTwo() {
+        assertEquals(8, new ShardedCache<>("test", 10, Duration.ofSeconds(5), Duration.ofSeconds(5),
+                new NopCacheEventListener<>(), _clock, 5).getShardCount());
+    }
+}
@@ -8,12 +8,16 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.mockito.Mockito.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.dcache.nfs.ExportFile;
 import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.status.StaleException;
 import org.dcache.nfs.v3.xdr.READDIR3args;
 import org.dcache.nfs.v3.xdr.READDIR3res;
 import org.dcache.nfs.v3.xdr.cookieverf3;
@@ -186,4 +190,54 @@ public class NfsServerV3READDIR_3Test {
         assertEquals("Not all entries returned", dirContents.size() - 1, n);
         assertFalse("The last entry is missed", result.resok.reply.eof);
     }
+
+    @Test
+    public void testListingFailsWithNfsError() throws Exception {
+
+        when(vfs.list(eq(dirInode), any(), anyLong())).thenReturn(listingFailingWith(new StaleException()));
+
+        RpcCall call = new RpcCallBuilder().from("1.2.3.4", "someHost.acme.com", 42).nfs3().noAuth().build();
+        READDIR3res result = nfsServer.NFSPROC3_READDIR_3(call, NfsV3Ops.readDir(dirInodePseudoFS));
+
+        Assert.assertEquals(nfsstat.NFSERR_STALE, result.status);
+        AssertXdr.assertXdrEncodable(result);
+    }
+
+    @Test
+    public void testListingFailsWithIoError() throws Exception {
+
+        when(vfs.list(eq(dirInode), any(), anyLong())).thenReturn(listingFailingWith(new IOException("disk gone")));
+
+        RpcCall call = new RpcCallBuilder().from("1.2.3.4", "someHost.acme.com", 42).nfs3().noAuth().build();
+        READDIR3res result = nfsServer.NFSPROC3_READDIR_3(call, NfsV3Ops.readDir(dirInodePseudoFS));
+
+        Assert.assertEquals(nfsstat.NFSERR_SERVERFAULT, result.status);
+        AssertXdr.assertXdrEncodable(result);
+    }
+
+    /**
+     * Lazy directory listing, which returns "." and ".." and then fails with the given error.
+     */
+    private DirectoryStream listingFailingWith(IOException error) {
+        List<DirectoryEntry> head = List.of(
+                new DirectoryEntry(".", dirInode, dirStat, 1),
+                new DirectoryEntry("..", dirInode, dirStat, 2));
+
+        return new DirectoryStream(DirectoryStream.ZERO_VERIFIER, fromCookie -> new Iterator<DirectoryEntry>() {
+            private final Iterator<DirectoryEntry> entries = head.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public DirectoryEntry next() {
+                if (entries.hasNext()) {
+                    return entries.next();
+                }
+                throw new UncheckedIOException(error);
+            }
+        });
+    }
 }
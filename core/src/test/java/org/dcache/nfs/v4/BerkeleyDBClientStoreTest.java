@@ -7,6 +7,9 @@ import static org.junit.Assert.*;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import org.dcache.nfs.status.NoGraceException;
 import org.dcache.nfs.status.ReclaimBadException;
@@ -21,6 +24,7 @@ public class BerkeleyDBClientStoreTest {
 
     private BerkeleyDBClientStore clientRecoveryStore;
     private Path storeDirectory;
+    private Duration commitInterval = Duration.ZERO;
 
     @Before
     public void setUp() throws IOException {
@@ -93,12 +97,45 @@ public class BerkeleyDBClientStoreTest {
         clientRecoveryStore.wantReclaim("client1".getBytes(UTF_8));
     }
 
+    @Test
+    public void shouldCommitPendingClientsOnClose() throws Exception {
+        givenWriteBehindServer(Duration.ofHours(1));
+        clientRecoveryStore.addClient("client1".getBytes(UTF_8));
+        reboot();
+
+        assertTrue(clientRecoveryStore.waitingForReclaim());
+    }
+
+    @Test(expected = ReclaimBadException.class)
+    public void shouldFailReclaimAfterPendingRemove() throws Exception {
+        givenWriteBehindServer(Duration.ofHours(1));
+        clientRecoveryStore.addClient("client1".getBytes(UTF_8));
+        reboot();
+        clientRecoveryStore.removeClient("client1".getBytes(UTF_8));
+        clientRecoveryStore.addClient("client1".getBytes(UTF_8));
+        clientRecoveryStore.wantReclaim("client1".getBytes(UTF_8));
+    }
+
+    @Test
+    public void shouldSyncWithGroupCommit() throws Exception {
+        givenWriteBehindServer(Duration.ofMillis(10));
+        clientRecoveryStore.addClient("client1".getBytes(UTF_8));
+        clientRecoveryStore.addClient("client2".getBytes(UTF_8));
+        clientRecoveryStore.sync("client1".getBytes(UTF_8)).get(1, TimeUnit.SECONDS);
+        clientRecoveryStore.sync("client2".getBytes(UTF_8)).get(1, TimeUnit.SECONDS);
+    }
+
+    private void givenWriteBehindServer(Duration commitInterval) {
+        this.commitInterval = commitInterval;
+        givenServer();
+    }
+
     private void givenServer() {
-        clientRecoveryStore = new BerkeleyDBClientStore(storeDirectory.toFile());
+        clientRecoveryStore = new BerkeleyDBClientStore(storeDirectory.toFile(), new Properties(), commitInterval);
     }
 
     private void reboot() throws Exception {
         clientRecoveryStore.close();
-        clientRecoveryStore = new BerkeleyDBClientStore(storeDirectory.toFile());
+        givenServer();
     }
 }
@@ -0,0 +1,92 @@
+package org.dcache.nfs.v4;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.dcache.nfs.status.CbPathDownException;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.v4.xdr.sessionid4;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClientSessionTest {
+
+    private ClientSession session;
+
+    @Before
+    public void setUp() {
+        session = new ClientSession(new sessionid4(new byte[nfs4_prot.NFS4_SESSIONID_SIZE]), 2);
+    }
+
+    @Test
+    public void testAcquireFreeSlots() {
+        assertTrue(session.acquireSlotAsync().isDone());
+        assertTrue(session.acquireSlotAsync().isDone());
+        assertFalse(session.acquireSlotAsync().isDone());
+    }
+
+    @Test
+    public void testReleasedSlotHandedToWaiter() throws IOException {
+        ClientSession.SessionSlot slot = session.acquireSlot();
+        session.acquireSlot();
+
+        CompletableFuture<ClientSession.SessionSlot> waiter = session.acquireSlotAsync();
+        session.releaseSlot(slot);
+
+        assertSame(slot, waiter.join());
+    }
+
+    @Test
+    public void testSkipCancelledWaiter() throws IOException {
+        ClientSession.SessionSlot slot = session.acquireSlot();
+        session.acquireSlot();
+
+        CompletableFuture<ClientSession.SessionSlot> cancelled = session.acquireSlotAsync();
+        CompletableFuture<ClientSession.SessionSlot> waiter = session.acquireSlotAsync();
+        cancelled.cancel(false);
+        session.releaseSlot(slot);
+
+        assertSame(slot, waiter.join());
+    }
+
+    @Test
+    public void testRetiredSlotNotReused() throws IOException {
+        ClientSession.SessionSlot retired = session.acquireSlot();
+        ClientSession.SessionSlot slot = session.acquireSlot();
+
+        CompletableFuture<ClientSession.SessionSlot> waiter = session.acquireSlotAsync();
+        session.retireSlot(retired);
+        assertFalse(waiter.isDone());
+
+        session.releaseSlot(slot);
+        assertSame(slot, waiter.join());
+        assertFalse("retired slot reused", session.acquireSlotAsync().isDone());
+    }
+
+    @Test
+    public void testFailWaitersWhenAllSlotsRetired() throws IOException {
+        ClientSession.SessionSlot slot1 = session.acquireSlot();
+        ClientSession.SessionSlot slot2 = session.acquireSlot();
+
+        CompletableFuture<ClientSession.SessionSlot> waiter = session.acquireSlotAsync();
+        session.retireSlot(slot1);
+        session.retireSlot(slot2);
+
+        assertFailedWithCbPathDown(waiter);
+        assertFailedWithCbPathDown(session.acquireSlotAsync());
+    }
+
+    private static void assertFailedWithCbPathDown(CompletableFuture<ClientSession.SessionSlot> slot) {
+        assertTrue(slot.isCompletedExceptionally());
+        try {
+            slot.join();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof CbPathDownException);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.dcache.nfs.v4;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.dcache.nfs.v4.xdr.attrlist4;
+import org.dcache.nfs.v4.xdr.bitmap4;
+import org.dcache.nfs.v4.xdr.fattr4;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EncodedAttributeCacheTest {
+
+    private final bitmap4 bitmap = bitmap4.of(nfs4_prot.FATTR4_TYPE, nfs4_prot.FATTR4_SIZE);
+    private final Inode inode = Inode.forFile(new byte[] {1, 2, 3, 4});
+
+    private EncodedAttributeCache cache;
+    private Stat stat;
+    private fattr4 attributes;
+
+    @Before
+    public void setUp() {
+        cache = new EncodedAttributeCache(16, Duration.ofMinutes(1));
+
+        stat = new Stat();
+        stat.setMode(Stat.S_IFREG | 0644);
+        stat.setSize(1);
+        stat.setGeneration(1);
+
+        attributes = new fattr4();
+        attributes.attrmask = bitmap4.of(nfs4_prot.FATTR4_TYPE, nfs4_prot.FATTR4_SIZE);
+        attributes.attr_vals = new attrlist4(new byte[] {0, 0, 0, 1});
+    }
+
+    @Test
+    public void shouldReturnCachedOnSameChange() {
+        cache.put(inode, bitmap, stat, attributes);
+
+        fattr4 cached = cache.get(inode, bitmap, stat);
+        assertArrayEquals(attributes.attrmask.value, cached.attrmask.value);
+        assertArrayEquals(attributes.attr_vals.value, cached.attr_vals.value);
+    }
+
+    @Test
+    public void shouldMissOnChange() {
+        cache.put(inode, bitmap, stat, attributes);
+
+        stat.setGeneration(2);
+        assertNull(cache.get(inode, bitmap, stat));
+    }
+
+    @Test
+    public void shouldMissOnOtherBitmap() {
+        cache.put(inode, bitmap, stat, attributes);
+        assertNull(cache.get(inode, bitmap4.of(nfs4_prot.FATTR4_TYPE), stat));
+    }
+
+    @Test
+    public void shouldNotCacheAccessTime() {
+        assertTrue(EncodedAttributeCache.isCacheable(bitmap, stat));
+        assertFalse(EncodedAttributeCache.isCacheable(bitmap4.of(nfs4_prot.FATTR4_TIME_ACCESS), stat));
+        assertFalse(EncodedAttributeCache.isCacheable(bitmap4.of(nfs4_prot.FATTR4_ACL), stat));
+    }
+}
@@ -0,0 +1,129 @@
+package org.dcache.nfs.v4;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.dcache.nfs.v4.xdr.bitmap4;
+import org.dcache.nfs.v4.xdr.fattr4;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.oncrpc4j.rpc.RpcAuthTypeNone;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.oncrpc4j.xdr.Xdr;
+import org.dcache.oncrpc4j.xdr.XdrAble;
+import org.junit.Before;
+import org.junit.Test;
+
+public class Fattr4EncoderTest {
+
+    // typical bitmap requested by linux client on GETATTR
+    private static final bitmap4 LINUX_GETATTR = bitmap4.of(
+            nfs4_prot.FATTR4_TYPE,
+            nfs4_prot.FATTR4_CHANGE,
+            nfs4_prot.FATTR4_SIZE,
+            nfs4_prot.FATTR4_FSID,
+            nfs4_prot.FATTR4_FILEID,
+            nfs4_prot.FATTR4_MODE,
+            nfs4_prot.FATTR4_NUMLINKS,
+            nfs4_prot.FATTR4_OWNER,
+            nfs4_prot.FATTR4_OWNER_GROUP,
+            nfs4_prot.FATTR4_RAWDEV,
+            nfs4_prot.FATTR4_SPACE_USED,
+            nfs4_prot.FATTR4_TIME_ACCESS,
+            nfs4_prot.FATTR4_TIME_METADATA,
+            nfs4_prot.FATTR4_TIME_MODIFY,
+            nfs4_prot.FATTR4_MOUNTED_ON_FILEID);
+
+    private CompoundContext context;
+    private Inode inode;
+    private Stat stat;
+
+    @Before
+    public void setUp() {
+        VirtualFileSystem fs = mock(VirtualFileSystem.class);
+        given(fs.getIdMapper()).willReturn(new SimpleIdMap());
+
+        RpcCall call = mock(RpcCall.class);
+        given(call.getCredential()).willReturn(new RpcAuthTypeNone());
+
+        context = new CompoundContextBuilder()
+                .withFs(fs)
+                .withCall(call)
+                .build();
+
+        inode = Inode.forFile(new byte[] {1, 2, 3, 4, 5});
+
+        stat = new Stat();
+        stat.setMode(Stat.S_IFREG | 0644);
+        stat.setIno(17);
+        stat.setNlink(1);
+        stat.setUid(1);
+        stat.setGid(2);
+        stat.setSize(1234567);
+        stat.setGeneration(3);
+        stat.setATime(1_700_000_000_123L);
+        stat.setMTime(1_700_000_001_456L);
+        stat.setCTime(1_700_000_002_789L);
+    }
+
+    @Test
+    public void shouldEncodeAsXdrObjects() throws IOException {
+        assertEncodedAsXdrObjects(LINUX_GETATTR);
+    }
+
+    @Test
+    public void shouldEncodeFallbackAttributes() throws IOException {
+        assertEncodedAsXdrObjects(bitmap4.of(
+                nfs4_prot.FATTR4_SUPPORTED_ATTRS,
+                nfs4_prot.FATTR4_TYPE,
+                nfs4_prot.FATTR4_FILEHANDLE,
+                nfs4_prot.FATTR4_ACLSUPPORT,
+                nfs4_prot.FATTR4_TIME_CREATE,
+                nfs4_prot.FATTR4_TIME_DELTA));
+    }
+
+    @Test
+    public void shouldSkipUndefinedFileid() throws IOException {
+        stat.undefine(Stat.StatAttribute.INO);
+        assertEncodedAsXdrObjects(LINUX_GETATTR);
+    }
+
+    @Test
+    public void shouldDetectStatOnlyBitmaps() {
+        assertTrue(Fattr4Encoder.isStatOnly(LINUX_GETATTR));
+        assertFalse(Fattr4Encoder.isStatOnly(bitmap4.of(nfs4_prot.FATTR4_TYPE, nfs4_prot.FATTR4_ACL)));
+    }
+
+    private void assertEncodedAsXdrObjects(bitmap4 bitmap) throws IOException {
+
+        bitmap4 processed = new bitmap4(new int[0]);
+        byte[] expected;
+        try (Xdr xdr = new Xdr(1024)) {
+            xdr.beginEncoding();
+            for (int i : bitmap) {
+                Optional<? extends XdrAble> attr = OperationGETATTR.fattr2xdr(i, context.getFs(), inode, stat,
+                        context);
+                if (attr.isPresent()) {
+                    attr.get().xdrEncode(xdr);
+                    processed.set(i);
+                }
+            }
+            xdr.endEncoding();
+            expected = xdr.getBytes();
+        }
+
+        fattr4 encoded = new Fattr4Encoder().encode(bitmap, inode, stat, context.getFs().getIdMapper(),
+                i -> OperationGETATTR.fattr2xdr(i, context.getFs(), inode, stat, context));
+
+        assertArrayEquals(processed.value, encoded.attrmask.value);
+        assertArrayEquals(expected, encoded.attr_vals.value);
+    }
+}
@@ -35,10 +35,16 @@ import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.io.IOException;
 import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.status.BadStateidException;
@@ -52,6 +58,8 @@ import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.util.concurrent.MoreExecutors;
+
 public class FileTrackerTest {
 
     private FileTracker tracker;
@@ -282,7 +290,120 @@ public class FileTrackerTest {
             // expected
         }
 
-        verify(client1.getCB()).cbDelegationRecall(any(), any(), anyBoolean());
+        verify(client1.getCB(), timeout(1000)).cbDelegationRecallAsync(any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    public void shouldNotReCallDelegationWithRecallInProgress() throws Exception {
+
+        tracker = new FileTracker(Duration.ofMinutes(1), MoreExecutors.directExecutor());
+
+        NFS4Client client1 = createClient(sh);
+        NFS4Client client2 = createClient(sh);
+
+        StateOwner stateOwner1 = client1.getOrCreateOwner("client1".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+        StateOwner stateOwner2 = client2.getOrCreateOwner("client2".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+
+        nfs_fh4 fh = generateFileHandle();
+        Inode inode = Inode.forFile(fh.value);
+
+        tracker.addOpen(client1, stateOwner1, inode, OPEN4_SHARE_ACCESS_READ | OPEN4_SHARE_ACCESS_WANT_READ_DELEG, 0);
+        for (int i = 0; i < 2; i++) {
+            try {
+                tracker.addOpen(client2, stateOwner2, inode, OPEN4_SHARE_ACCESS_WRITE, 0);
+                fail("Delay exception expected");
+            } catch (DelayException e) {
+                // expected
+            }
+        }
+
+        verify(client1.getCB(), times(1)).cbDelegationRecallAsync(any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    public void shouldAllowOpenAfterDelegationReturn() throws Exception {
+
+        tracker = new FileTracker(Duration.ofMinutes(1), MoreExecutors.directExecutor());
+
+        NFS4Client client1 = createClient(sh);
+        NFS4Client client2 = createClient(sh);
+
+        StateOwner stateOwner1 = client1.getOrCreateOwner("client1".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+        StateOwner stateOwner2 = client2.getOrCreateOwner("client2".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+
+        nfs_fh4 fh = generateFileHandle();
+        Inode inode = Inode.forFile(fh.value);
+
+        var openRecord1 = tracker.addOpen(client1, stateOwner1, inode, OPEN4_SHARE_ACCESS_READ
+                | OPEN4_SHARE_ACCESS_WANT_READ_DELEG, 0);
+        try {
+            tracker.addOpen(client2, stateOwner2, inode, OPEN4_SHARE_ACCESS_WRITE, 0);
+            fail("Delay exception expected");
+        } catch (DelayException e) {
+            // expected
+        }
+
+        tracker.delegationReturn(client1, openRecord1.delegationStateId(), inode);
+        tracker.addOpen(client2, stateOwner2, inode, OPEN4_SHARE_ACCESS_WRITE, 0);
+    }
+
+    @Test
+    public void shouldRevokeDelegationOnRecallTimeout() throws Exception {
+
+        tracker = new FileTracker(Duration.ofMillis(10), MoreExecutors.directExecutor());
+
+        NFS4Client client1 = createClient(sh);
+        NFS4Client client2 = createClient(sh);
+
+        StateOwner stateOwner1 = client1.getOrCreateOwner("client1".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+        StateOwner stateOwner2 = client2.getOrCreateOwner("client2".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+
+        nfs_fh4 fh = generateFileHandle();
+        Inode inode = Inode.forFile(fh.value);
+
+        tracker.addOpen(client1, stateOwner1, inode, OPEN4_SHARE_ACCESS_READ | OPEN4_SHARE_ACCESS_WANT_READ_DELEG, 0);
+        try {
+            tracker.addOpen(client2, stateOwner2, inode, OPEN4_SHARE_ACCESS_WRITE, 0);
+            fail("Delay exception expected");
+        } catch (DelayException e) {
+            // expected
+        }
+
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!tracker.getDelegations().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("Delegation not revoked", tracker.getDelegations().isEmpty());
+        tracker.addOpen(client2, stateOwner2, inode, OPEN4_SHARE_ACCESS_WRITE, 0);
+    }
+
+    @Test
+    public void shouldRevokeDelegationOnRecallFailure() throws Exception {
+
+        tracker = new FileTracker(Duration.ofMinutes(1), MoreExecutors.directExecutor());
+
+        NFS4Client client1 = createClient(sh);
+        NFS4Client client2 = createClient(sh);
+
+        StateOwner stateOwner1 = client1.getOrCreateOwner("client1".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+        StateOwner stateOwner2 = client2.getOrCreateOwner("client2".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+
+        when(client1.getCB().cbDelegationRecallAsync(any(), any(), anyBoolean(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("unreachable")));
+
+        nfs_fh4 fh = generateFileHandle();
+        Inode inode = Inode.forFile(fh.value);
+
+        tracker.addOpen(client1, stateOwner1, inode, OPEN4_SHARE_ACCESS_READ | OPEN4_SHARE_ACCESS_WANT_READ_DELEG, 0);
+        try {
+            tracker.addOpen(client2, stateOwner2, inode, OPEN4_SHARE_ACCESS_WRITE, 0);
+            fail("Delay exception expected");
+        } catch (DelayException e) {
+            // expected
+        }
+
+        assertTrue("Delegation not revoked", tracker.getDelegations().isEmpty());
+        tracker.addOpen(client2, stateOwner2, inode, OPEN4_SHARE_ACCESS_WRITE, 0);
     }
 
     @Test
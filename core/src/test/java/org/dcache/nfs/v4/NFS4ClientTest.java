@@ -23,6 +23,7 @@ import static org.dcache.nfs.v4.NfsTestUtils.createClient;
 import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
@@ -34,6 +35,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.status.BadSessionException;
 import org.dcache.nfs.status.SeqMisorderedException;
 import org.dcache.nfs.util.ManualClock;
 import org.dcache.nfs.util.NopCacheEventListener;
@@ -171,6 +173,22 @@ public class NFS4ClientTest {
         nfsClient.createSession(2, 0, 0, 0, 1);
     }
 
+    @Test(expected = BadSessionException.class)
+    public void testRemovedSessionNotFound() throws ChimeraNFSException {
+        NFSv41Session session = nfsClient.createSession(1, 0, 0, 0, 1);
+        nfsClient.removeSession(session.id());
+        nfsClient.getSession(session.id());
+    }
+
+    @Test
+    public void testV40OwnerReused() throws Exception {
+        NFS4Client client = createClient(stateHandler, 0);
+        byte[] ownerId = "v40 owner".getBytes(StandardCharsets.UTF_8);
+
+        StateOwner stateOwner = client.getOrCreateOwner(ownerId, new seqid4(1));
+        assertSame(stateOwner, client.getOrCreateOwner(ownerId, new seqid4(2)));
+    }
+
     @Test
     public void testClientDisposeCleansState() throws ChimeraNFSException {
         AtomicBoolean isDisposed = new AtomicBoolean(false);
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.dcache.nfs.ExportTable;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.status.NoEntException;
+import org.dcache.nfs.v4.xdr.COMPOUND4args;
+import org.dcache.nfs.v4.xdr.COMPOUND4res;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.v4.xdr.nfs_argop4;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.v4.xdr.sessionid4;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.oncrpc4j.xdr.XdrAble;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+public class NFSServerV41Test {
+
+    private CompletableFuture<Void> pending;
+    private NFSServerV41 server;
+    private List<String> processedBy;
+    private ReplyCacheBudget replyCacheBudget;
+
+    @Before
+    public void setUp() {
+        pending = new CompletableFuture<>();
+        processedBy = new CopyOnWriteArrayList<>();
+        replyCacheBudget = new ReplyCacheBudget(1024 * 1024);
+        server = newServer(new NFSServerV41.Builder());
+    }
+
+    private NFSServerV41 newServer(NFSServerV41.Builder builder) {
+        return builder
+                .withVfs(mock(VirtualFileSystem.class))
+                .withExportTable(mock(ExportTable.class))
+                .withOperationExecutor(new AbstractOperationExecutor() {
+                    @Override
+                    protected AbstractNFSv4Operation getOperation(nfs_argop4 op) {
+                        return new AbstractNFSv4Operation(op, op.argop) {
+                            @Override
+                            public void process(CompoundContext context, nfs_resop4 result) {
+                                result.setStatus(nfsstat.NFS_OK);
+                            }
+
+                            @Override
+                            public CompletionStage<Void> processAsync(CompoundContext context, nfs_resop4 result) {
+                                processedBy.add(Thread.currentThread().getName());
+                                if (_args.argop == nfs_opnum4.OP_SEQUENCE) {
+                                    return sequence(context, result);
+                                }
+                                return pending.thenRun(() -> result.setStatus(nfsstat.NFS_OK));
+                            }
+                        };
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Minimal SEQUENCE, which reserves the reply cache of a fresh slot.
+     */
+    private CompletionStage<Void> sequence(CompoundContext context, nfs_resop4 result) {
+        try {
+            SessionSlot slot = new SessionSlot();
+            slot.acquire(1, replyCacheBudget, 1024);
+            context.setSessionSlot(slot);
+            context.setCacheThis(true);
+            result.setStatus(nfsstat.NFS_OK);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Test
+    public void testAsyncCompound() throws Exception {
+
+        COMPOUND4args args = new CompoundBuilder()
+                .withMinorversion(0)
+                .withPutrootfh()
+                .withGetfh()
+                .build();
+
+        CompletableFuture<COMPOUND4res> result = CompletableFuture.supplyAsync(
+                () -> server.NFSPROC4_COMPOUND_4(generateRpcCall(), args));
+
+        pending.complete(null);
+
+        COMPOUND4res res = result.get();
+        assertEquals(nfsstat.NFS_OK, res.status);
+        assertEquals(2, res.resarray.size());
+    }
+
+    @Test
+    public void testAsyncCompoundFailure() throws Exception {
+
+        COMPOUND4args args = new CompoundBuilder()
+                .withMinorversion(0)
+                .withPutrootfh()
+                .withGetfh()
+                .build();
+
+        CompletableFuture<COMPOUND4res> result = CompletableFuture.supplyAsync(
+                () -> server.NFSPROC4_COMPOUND_4(generateRpcCall(), args));
+
+        pending.completeExceptionally(new NoEntException());
+
+        COMPOUND4res res = result.get();
+        assertEquals(nfsstat.NFSERR_NOENT, res.status);
+        assertEquals(1, res.resarray.size());
+    }
+
+    @Test
+    public void testReplyWhenComplete() throws Exception {
+
+        COMPOUND4args args = new CompoundBuilder()
+                .withMinorversion(0)
+                .withPutrootfh()
+                .withGetfh()
+                .build();
+
+        RpcCall call = generateRpcCall();
+        given(call.getProcedure()).willReturn(1);
+        doAnswer(i -> {
+            COMPOUND4args a = i.getArgument(0);
+            a.tag = args.tag;
+            a.minorversion = args.minorversion;
+            a.argarray = args.argarray;
+            return null;
+        }).when(call).retrieveCall(any());
+
+        server.dispatchOncRpcCall(call);
+        verify(call, never()).reply(any(XdrAble.class));
+
+        pending.complete(null);
+        verify(call).reply(any(XdrAble.class));
+    }
+
+    @Test
+    public void testResumeOnCompoundExecutor() throws Exception {
+
+        ExecutorService executor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("compound-executor").build());
+        try {
+            server = newServer(new NFSServerV41.Builder().withCompoundExecutor(executor));
+
+            COMPOUND4args args = new CompoundBuilder()
+                    .withMinorversion(0)
+                    .withPutrootfh()
+                    .withGetfh()
+                    .build();
+
+            CompletableFuture<COMPOUND4res> result = CompletableFuture.supplyAsync(
+                    () -> server.NFSPROC4_COMPOUND_4(generateRpcCall(), args));
+
+            // the first operation must be suspended
+            while (processedBy.isEmpty()) {
+                Thread.sleep(1);
+            }
+            pending.complete(null);
+
+            assertEquals(nfsstat.NFS_OK, result.get().status);
+            assertEquals(2, processedBy.size());
+            assertEquals("compound-executor", processedBy.get(1));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testReleaseReplyCacheOnFailure() throws Exception {
+
+        COMPOUND4args args = new CompoundBuilder()
+                .withMinorversion(1)
+                .withSequence(true, new sessionid4(new byte[nfs4_prot.NFS4_SESSIONID_SIZE]), 1, 0, 0)
+                .withPutrootfh()
+                .build();
+
+        CompletableFuture<COMPOUND4res> result = CompletableFuture.supplyAsync(
+                () -> server.NFSPROC4_COMPOUND_4(generateRpcCall(), args));
+
+        // the second operation must be suspended
+        while (processedBy.size() < 2) {
+            Thread.sleep(1);
+        }
+        assertEquals(1024, replyCacheBudget.getResidentBytes());
+
+        pending.completeExceptionally(new IllegalStateException("operation bug"));
+
+        assertEquals(nfsstat.NFSERR_SERVERFAULT, result.get().status);
+        assertEquals(0, replyCacheBudget.getResidentBytes());
+    }
+}
@@ -35,6 +35,7 @@ import org.dcache.nfs.v4.xdr.clientid4;
 import org.dcache.nfs.v4.xdr.seqid4;
 import org.dcache.nfs.v4.xdr.sessionid4;
 import org.dcache.nfs.v4.xdr.stateid4;
+import org.dcache.nfs.v4.xdr.verifier4;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -174,6 +175,58 @@ public class NFSv4StateHandlerTest {
         assertEquals(0, _stateHandler.getClients().size());
     }
 
+    @Test
+    public void testGetClientByOwner() throws Exception {
+        assertSame(_client, _stateHandler.clientByOwner(_client.getOwnerId().clone()));
+    }
+
+    @Test
+    public void testGetClientByOwnerAfterRemove() throws Exception {
+        _stateHandler.removeClient(_client);
+        assertNull(_stateHandler.clientByOwner(_client.getOwnerId()));
+    }
+
+    @Test
+    public void testGetClientByOwnerReturnsMostRecentRecord() throws Exception {
+        NFS4Client first = _stateHandler.createClient(_client.getRemoteAddress(), _client.getLocalAddress(),
+                _client.getMinorVersion(), _client.getOwnerId(), new verifier4(new byte[8]), null, false);
+        NFS4Client second = _stateHandler.createClient(_client.getRemoteAddress(), _client.getLocalAddress(),
+                _client.getMinorVersion(), _client.getOwnerId(), new verifier4(new byte[8]), null, false);
+
+        assertSame(second, _stateHandler.clientByOwner(_client.getOwnerId()));
+
+        _stateHandler.removeClient(second);
+        assertSame(first, _stateHandler.clientByOwner(_client.getOwnerId()));
+    }
+
+    @Test
+    public void testGetClientByOwnerAfterReboot() throws Exception {
+        _client.setConfirmed();
+        NFS4Client rebooted = _stateHandler.createClient(_client.getRemoteAddress(), _client.getLocalAddress(),
+                _client.getMinorVersion(), _client.getOwnerId(), new verifier4(new byte[8]), null, false);
+        assertSame(rebooted, _stateHandler.clientByOwner(_client.getOwnerId()));
+
+        _stateHandler.removeClient(rebooted);
+        assertSame(_client, _stateHandler.clientByOwner(_client.getOwnerId()));
+    }
+
+    @Test
+    public void testGetClientByOwnerAfterRemoveOfConfirmed() throws Exception {
+        _client.setConfirmed();
+        NFS4Client rebooted = _stateHandler.createClient(_client.getRemoteAddress(), _client.getLocalAddress(),
+                _client.getMinorVersion(), _client.getOwnerId(), new verifier4(new byte[8]), null, false);
+
+        _stateHandler.removeClient(_client);
+        assertSame(rebooted, _stateHandler.clientByOwner(_client.getOwnerId()));
+    }
+
+    @Test
+    public void testGetClientByOwnerAfterDispose() throws Exception {
+        // expired clients are disposed by the client cache
+        _client.disposeIgnoreFailures();
+        assertNull(_stateHandler.clientByOwner(_client.getOwnerId()));
+    }
+
     @Test
     public void testGetConfirmedClientById() throws Exception {
         _client.setConfirmed();
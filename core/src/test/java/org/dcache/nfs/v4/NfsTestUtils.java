@@ -19,6 +19,8 @@
  */
 package org.dcache.nfs.v4;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 
@@ -28,6 +30,7 @@ import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.nfsstat;
@@ -72,6 +75,8 @@ class NfsTestUtils {
         Bytes.putLong(bootTime, 0, System.currentTimeMillis());
 
         ClientCB mockCallBack = mock(ClientCB.class);
+        given(mockCallBack.cbDelegationRecallAsync(any(), any(), anyBoolean(), any()))
+                .willAnswer(i -> new CompletableFuture<>());
         var client = stateHandler.createClient(address, address, minor, owner, new verifier4(bootTime), null, false);
         client.setCB(mockCallBack);
 
@@ -5,6 +5,7 @@ import static org.dcache.nfs.v4.NfsTestUtils.execute;
 import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
 import static org.dcache.nfs.v4.xdr.nfs4_prot.OPEN4_SHARE_ACCESS_READ;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -20,6 +21,7 @@ import org.dcache.nfs.status.GraceException;
 import org.dcache.nfs.v4.xdr.COMPOUND4args;
 import org.dcache.nfs.v4.xdr.COMPOUND4res;
 import org.dcache.nfs.v4.xdr.layouttype4;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.dcache.nfs.v4.xdr.nfs_fh4;
 import org.dcache.nfs.v4.xdr.seqid4;
 import org.dcache.nfs.v4.xdr.stateid4;
@@ -115,4 +117,52 @@ public class OperationOPENTest {
         COMPOUND4res res = execute(context, openArgs);
         assertTrue("bad file handle", res.resarray.get(3).opgetfh.resok4.object.value.length > 0);
     }
+
+    @Test
+    public void testNoLockNotificationWithoutBlockingLocks() throws Exception {
+
+        client.reclaimComplete();
+
+        COMPOUND4args openArgs = new CompoundBuilder()
+                .withSequence(false, session.id(), 0, 0, 1)
+                .withPutfh(new nfs_fh4(fsRoot.toNfsHandle()))
+                .withOpenCreate("file", 1, client.getId(), OPEN4_SHARE_ACCESS_READ)
+                .build();
+
+        CompoundContext context = new CompoundContextBuilder()
+                .withStateHandler(sh)
+                .withFs(vfs)
+                .withMinorversion(1)
+                .withCall(generateRpcCall())
+                .build();
+
+        COMPOUND4res res = execute(context, openArgs);
+        int rflags = res.resarray.get(2).opopen.resok4.rflags.value;
+        assertFalse("lock notification promised", (rflags & nfs4_prot.OPEN4_RESULT_MAY_NOTIFY_LOCK) != 0);
+        assertTrue("lock type not set", (rflags & nfs4_prot.OPEN4_RESULT_LOCKTYPE_POSIX) != 0);
+    }
+
+    @Test
+    public void testLockNotificationWithBlockingLocks() throws Exception {
+
+        client.reclaimComplete();
+
+        COMPOUND4args openArgs = new CompoundBuilder()
+                .withSequence(false, session.id(), 0, 0, 1)
+                .withPutfh(new nfs_fh4(fsRoot.toNfsHandle()))
+                .withOpenCreate("file", 1, client.getId(), OPEN4_SHARE_ACCESS_READ)
+                .build();
+
+        CompoundContext context = new CompoundContextBuilder()
+                .withStateHandler(sh)
+                .withFs(vfs)
+                .withMinorversion(1)
+                .withBlockingLocks()
+                .withCall(generateRpcCall())
+                .build();
+
+        COMPOUND4res res = execute(context, openArgs);
+        int rflags = res.resarray.get(2).opopen.resok4.rflags.value;
+        assertTrue("lock notification not promised", (rflags & nfs4_prot.OPEN4_RESULT_MAY_NOTIFY_LOCK) != 0);
+    }
 }
@@ -2,13 +2,17 @@ package org.dcache.nfs.v4;
 
 import static org.dcache.nfs.v4.NfsTestUtils.*;
 import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.v4.xdr.COMPOUND4args;
+import org.dcache.nfs.v4.xdr.COMPOUND4res;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.dcache.nfs.v4.xdr.nfs_fh4;
 import org.dcache.nfs.v4.xdr.stateid4;
@@ -115,4 +119,40 @@ public class OperationREADTest {
         execute(context, readArgs);
         verify(stateHandler, never()).updateClientLeaseTime(stateid);
     }
+
+    @Test
+    public void testNoDataOnEof() throws UnknownHostException, ChimeraNFSException, IOException {
+
+        stateid4 stateid = generateStateId();
+        NFSv4StateHandler stateHandler = mock(NFSv4StateHandler.class);
+        NFS4Client client = mock(NFS4Client.class);
+        NFSv41Session session = mock(NFSv41Session.class);
+        FileTracker fileTracker = mock(FileTracker.class);
+
+        when(stateHandler.getFileTracker()).thenReturn(fileTracker);
+        when(fileTracker.getShareAccess(any(), any(), any())).thenReturn(nfs4_prot.OPEN4_SHARE_ACCESS_READ);
+        when(session.getClient()).thenReturn(client);
+
+        when(vfs.getattr(any())).thenReturn(fileStat);
+        when(vfs.read(any(), any(ByteBuffer.class), anyLong(), any(Runnable.class)))
+                .thenReturn(-1);
+
+        COMPOUND4args readArgs = new CompoundBuilder()
+                .withPutfh(fh)
+                .withRead(1024, 4096, stateid)
+                .build();
+
+        CompoundContext context = new CompoundContextBuilder()
+                .withStateHandler(stateHandler)
+                .withSession(session)
+                .withFs(vfs)
+                .withMinorversion(1)
+                .withCall(generateRpcCall())
+                .build();
+
+        COMPOUND4res res = execute(context, readArgs);
+        ByteBuffer data = res.resarray.get(1).opread.resok4.data;
+        assertEquals(0, data.remaining());
+        assertTrue(res.resarray.get(1).opread.resok4.eof);
+    }
 }
@@ -0,0 +1,119 @@
+package org.dcache.nfs.v4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.status.DelayException;
+import org.dcache.nfs.v4.xdr.PUTROOTFH4res;
+import org.dcache.nfs.v4.xdr.READ4res;
+import org.dcache.nfs.v4.xdr.READ4resok;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SessionSlotTest {
+
+    private SessionSlot slot;
+    private ReplyCacheBudget budget;
+
+    @Before
+    public void setUp() {
+        slot = new SessionSlot();
+        budget = new ReplyCacheBudget(1024);
+    }
+
+    @Test
+    public void testReplayCachedReply() throws Exception {
+        assertNull(slot.acquire(1, budget, 512));
+        assertTrue(slot.append(putRootFh()));
+        assertTrue(slot.append(read(16)));
+        slot.commit();
+
+        List<nfs_resop4> cached = slot.acquire(1);
+        assertEquals(2, cached.size());
+        assertEquals(nfs_opnum4.OP_PUTROOTFH, cached.get(0).resop);
+        assertEquals(16, cached.get(1).opread.resok4.data.remaining());
+        assertTrue(budget.getResidentBytes() > 0);
+    }
+
+    @Test
+    public void testReplyBufferNotConsumed() throws Exception {
+        nfs_resop4 read = read(16);
+        slot.acquire(1, budget, 512);
+        slot.append(read);
+        assertEquals(16, read.opread.resok4.data.remaining());
+    }
+
+    @Test
+    public void testUnusedReservationReleased() throws Exception {
+        slot.acquire(1, budget, 512);
+        assertEquals(512, budget.getResidentBytes());
+
+        slot.append(putRootFh());
+        slot.commit();
+        assertTrue(budget.getResidentBytes() < 512);
+    }
+
+    @Test
+    public void testReleaseOnNextRequest() throws Exception {
+        slot.acquire(1, budget, 512);
+        slot.append(putRootFh());
+        slot.commit();
+
+        slot.acquire(2);
+        assertEquals(0, budget.getResidentBytes());
+        assertEquals(0, budget.getCachedReplies());
+    }
+
+    @Test
+    public void testOversizedReplyRejected() throws Exception {
+        slot.acquire(1, budget, 64);
+
+        assertFalse(slot.append(read(128)));
+        assertEquals(1, budget.getOversizedReplies());
+    }
+
+    @Test
+    public void testDelayIfBudgetExhausted() throws Exception {
+        slot.acquire(1, budget, 1024);
+
+        SessionSlot other = new SessionSlot();
+        try {
+            other.acquire(1, budget, 64);
+            fail("DelayException expected");
+        } catch (DelayException e) {
+            // expected
+        }
+        assertEquals(1, budget.getRejectedReplies());
+
+        // sequence id is not changed, thus the request can be retried
+        slot.acquire(2);
+        assertNull(other.acquire(1, budget, 64));
+    }
+
+    private static nfs_resop4 putRootFh() {
+        nfs_resop4 op = new nfs_resop4();
+        op.resop = nfs_opnum4.OP_PUTROOTFH;
+        op.opputrootfh = new PUTROOTFH4res();
+        op.opputrootfh.status = nfsstat.NFS_OK;
+        return op;
+    }
+
+    private static nfs_resop4 read(int size) {
+        nfs_resop4 op = new nfs_resop4();
+        op.resop = nfs_opnum4.OP_READ;
+        op.opread = new READ4res();
+        op.opread.status = nfsstat.NFS_OK;
+        op.opread.resok4 = new READ4resok();
+        op.opread.resok4.data = ByteBuffer.allocate(size);
+        return op;
+    }
+}
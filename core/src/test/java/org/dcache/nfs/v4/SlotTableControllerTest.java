@@ -0,0 +1,85 @@
+package org.dcache.nfs.v4;
+
+import static org.dcache.nfs.v4.NfsTestUtils.createClient;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.UnknownHostException;
+import java.time.Duration;
+
+import org.dcache.nfs.ChimeraNFSException;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SlotTableControllerTest {
+
+    private NFSv41Session session;
+    private SlotTableController controller;
+
+    @Before
+    public void setUp() throws UnknownHostException, ChimeraNFSException {
+        session = createClient().createSession(1, 16, 1, 8, 8);
+        controller = new SlotTableController(2, Duration.ofMinutes(1), Duration.ZERO, 2);
+    }
+
+    @Test
+    public void testKeepTargetWithoutLoad() {
+        assertEquals(session.getHighestSlot(), controller.targetHighestSlot(session, 0));
+    }
+
+    @Test
+    public void testReduceTargetOnOverload() {
+        overload();
+
+        assertTrue(controller.isOverloaded());
+        assertEquals(7, controller.targetHighestSlot(session, 0));
+        assertEquals(3, controller.targetHighestSlot(session, 0));
+        assertEquals(1, controller.targetHighestSlot(session, 0));
+        // never less than minimal number of slots
+        assertEquals(1, controller.targetHighestSlot(session, 0));
+    }
+
+    @Test
+    public void testRaiseTargetOfBusyClient() {
+        long[] requests = overload();
+        controller.targetHighestSlot(session, 0);
+        for (long started : requests) {
+            controller.requestCompleted(started);
+        }
+
+        assertFalse(controller.isOverloaded());
+        // client doesn't use all slots
+        assertEquals(7, controller.targetHighestSlot(session, 3));
+        assertEquals(8, controller.targetHighestSlot(session, 7));
+    }
+
+    @Test
+    public void testRateLimitReduction() {
+        controller = new SlotTableController(2, Duration.ofMinutes(1), Duration.ofMinutes(1), 2);
+        overload();
+
+        assertEquals(7, controller.targetHighestSlot(session, 0));
+        assertEquals(7, controller.targetHighestSlot(session, 0));
+    }
+
+    @Test
+    public void testIgnoreLatencyOfSuspendedRequests() throws InterruptedException {
+        controller = new SlotTableController(2, Duration.ofNanos(1), Duration.ZERO, 2);
+        long started = controller.requestStarted();
+        Thread.sleep(1);
+        controller.requestCompleted(started, false);
+
+        assertEquals(0, controller.getOutstandingRequests());
+        assertEquals(Duration.ZERO, controller.getAverageLatency());
+        assertFalse(controller.isOverloaded());
+    }
+
+    private long[] overload() {
+        return new long[] {
+                controller.requestStarted(),
+                controller.requestStarted(),
+                controller.requestStarted()
+        };
+    }
+}
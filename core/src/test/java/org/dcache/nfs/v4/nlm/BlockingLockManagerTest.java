@@ -0,0 +1,151 @@
+package org.dcache.nfs.v4.nlm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dcache.nfs.util.Opaque;
+import org.dcache.nfs.v4.nlm.SimpleLmTest.LockBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BlockingLockManagerTest {
+
+    private BlockingLockManager nlm;
+    private Opaque file1;
+
+    @Before
+    public void setUp() throws Exception {
+        nlm = new BlockingLockManager(new SimpleLm(), Duration.ofMinutes(1), Runnable::run);
+        file1 = Opaque.forBytes("file1".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() {
+        nlm.shutdown();
+    }
+
+    @Test
+    public void testNotifyWaiterOnUnlock() throws LockException {
+        NlmLock lock1 = new LockBuilder().withOwner("owner1").from(0).length(10).forWrite().build();
+        NlmLock lock2 = new LockBuilder().withOwner("owner2").from(0).length(10).forWriteWait().build();
+        AtomicInteger notified = new AtomicInteger();
+
+        nlm.lock(file1, lock1);
+        assertDenied(lock2, notified::incrementAndGet);
+        assertEquals(1, nlm.getWaiters());
+
+        nlm.unlock(file1, lock1);
+        assertEquals(1, notified.get());
+
+        nlm.lock(file1, lock2, notified::incrementAndGet);
+        assertEquals(0, nlm.getWaiters());
+        assertEquals(1, nlm.getGrantedAfterWait());
+    }
+
+    @Test
+    public void testNoNotifyOnNonOverlappingUnlock() throws LockException {
+        NlmLock lock1 = new LockBuilder().withOwner("owner1").from(0).length(10).forWrite().build();
+        NlmLock lock2 = new LockBuilder().withOwner("owner1").from(20).length(10).forWrite().build();
+        NlmLock lock3 = new LockBuilder().withOwner("owner2").from(0).length(10).forWriteWait().build();
+        AtomicInteger notified = new AtomicInteger();
+
+        nlm.lock(file1, lock1);
+        nlm.lock(file1, lock2);
+        assertDenied(lock3, notified::incrementAndGet);
+
+        nlm.unlock(file1, lock2);
+        assertEquals(0, notified.get());
+    }
+
+    @Test
+    public void testKeepWaitersOrder() throws LockException {
+        NlmLock lock1 = new LockBuilder().withOwner("owner1").from(0).length(10).forWrite().build();
+        NlmLock lock2 = new LockBuilder().withOwner("owner2").from(0).length(10).forWriteWait().build();
+        NlmLock lock3 = new LockBuilder().withOwner("owner3").from(0).length(10).forWrite().build();
+
+        nlm.lock(file1, lock1);
+        assertDenied(lock2, () -> {});
+        nlm.unlock(file1, lock1);
+
+        // the lock is free, but owner2 waits longer
+        LockDeniedException e = assertDenied(lock3, null);
+        assertEquals(lock2, e.getConflictingLock());
+        assertEquals(1, nlm.getFairnessDenials());
+
+        nlm.lock(file1, lock2, () -> {});
+    }
+
+    @Test
+    public void testNotifyReadWaitersTogether() throws LockException {
+        NlmLock lock1 = new LockBuilder().withOwner("owner1").from(0).length(10).forWrite().build();
+        NlmLock lock2 = new LockBuilder().withOwner("owner2").from(0).length(10).forReadWait().build();
+        NlmLock lock3 = new LockBuilder().withOwner("owner3").from(0).length(10).forReadWait().build();
+        NlmLock lock4 = new LockBuilder().withOwner("owner4").from(0).length(10).forWriteWait().build();
+        AtomicInteger readers = new AtomicInteger();
+        AtomicInteger writers = new AtomicInteger();
+
+        nlm.lock(file1, lock1);
+        assertDenied(lock2, readers::incrementAndGet);
+        assertDenied(lock3, readers::incrementAndGet);
+        assertDenied(lock4, writers::incrementAndGet);
+
+        nlm.unlock(file1, lock1);
+        assertEquals(2, readers.get());
+        assertEquals(0, writers.get());
+
+        nlm.lock(file1, lock2, readers::incrementAndGet);
+        nlm.lock(file1, lock3, readers::incrementAndGet);
+        assertEquals(1, nlm.getWaiters());
+    }
+
+    @Test
+    public void testExpireWaiter() throws Exception {
+        nlm = new BlockingLockManager(new SimpleLm(), Duration.ZERO, Runnable::run);
+
+        NlmLock lock1 = new LockBuilder().withOwner("owner1").from(0).length(10).forWrite().build();
+        NlmLock lock2 = new LockBuilder().withOwner("owner2").from(0).length(10).forWriteWait().build();
+        NlmLock lock3 = new LockBuilder().withOwner("owner3").from(0).length(10).forWrite().build();
+
+        nlm.lock(file1, lock1);
+        assertDenied(lock2, () -> {});
+        nlm.unlock(file1, lock1);
+
+        Thread.sleep(1);
+        nlm.lock(file1, lock3);
+        assertEquals(0, nlm.getWaiters());
+        assertEquals(1, nlm.getExpiredWaiters());
+    }
+
+    @Test
+    public void testSweepIdleWaiters() throws Exception {
+        nlm = new BlockingLockManager(new SimpleLm(), Duration.ZERO, Runnable::run);
+
+        NlmLock lock1 = new LockBuilder().withOwner("owner1").from(0).length(10).forWrite().build();
+        NlmLock lock2 = new LockBuilder().withOwner("owner2").from(0).length(10).forWriteWait().build();
+
+        nlm.lock(file1, lock1);
+        assertDenied(lock2, () -> {});
+        assertEquals(1, nlm.getWaiters());
+
+        // no further activity on the file
+        Thread.sleep(1);
+        nlm.expireWaiters();
+        assertEquals(0, nlm.getWaiters());
+        assertEquals(1, nlm.getExpiredWaiters());
+    }
+
+    private LockDeniedException assertDenied(NlmLock lock, Runnable onAvailable) throws LockException {
+        try {
+            nlm.lock(file1, lock, onAvailable);
+            fail("Lock must be denied");
+            return null;
+        } catch (LockDeniedException e) {
+            return e;
+        }
+    }
+}
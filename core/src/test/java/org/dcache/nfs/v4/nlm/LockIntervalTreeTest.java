@@ -0,0 +1,91 @@
+package org.dcache.nfs.v4.nlm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.dcache.nfs.v4.nlm.SimpleLmTest.LockBuilder;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LockIntervalTreeTest {
+
+    private LockIntervalTree tree;
+
+    @Before
+    public void setUp() {
+        tree = new LockIntervalTree();
+    }
+
+    @Test
+    public void testFindOverlapping() {
+        NlmLock lock1 = lockOf("owner1", 0, 10);
+        NlmLock lock2 = lockOf("owner1", 20, 10);
+        NlmLock lock3 = lockOf("owner2", 25, nfs4_prot.NFS4_UINT64_MAX);
+        tree.add(lock1);
+        tree.add(lock2);
+        tree.add(lock3);
+
+        assertEquals(List.of(lock1), tree.getOverlapping(lockOf("owner3", 5, 1)));
+        assertEquals(List.of(lock2, lock3), tree.getOverlapping(lockOf("owner3", 26, 1)));
+        assertEquals(List.of(lock3), tree.getOverlapping(lockOf("owner3", 1000, 1)));
+        assertTrue(tree.getOverlapping(lockOf("owner3", 10, 10)).isEmpty());
+    }
+
+    @Test
+    public void testRemove() {
+        NlmLock lock1 = lockOf("owner1", 0, 10);
+        NlmLock lock2 = lockOf("owner2", 0, 10);
+        tree.add(lock1);
+        tree.add(lock2);
+
+        assertTrue(tree.remove(lock1));
+        assertFalse(tree.remove(lock1));
+        assertEquals(List.of(lock2), tree.getAll());
+        assertTrue(tree.remove(lock2));
+        assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    public void testMatchBruteForce() {
+        Random random = new Random(42);
+        List<NlmLock> all = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            NlmLock lock = lockOf("owner" + random.nextInt(8), random.nextInt(10_000),
+                    random.nextInt(50) == 0 ? nfs4_prot.NFS4_UINT64_MAX : 1 + random.nextInt(100));
+            all.add(lock);
+            tree.add(lock);
+
+            if (random.nextInt(3) == 0) {
+                NlmLock toRemove = all.remove(random.nextInt(all.size()));
+                assertTrue(tree.remove(toRemove));
+            }
+        }
+        assertEquals(all.size(), tree.size());
+
+        for (int i = 0; i < 500; i++) {
+            NlmLock query = lockOf("owner", random.nextInt(10_000), 1 + random.nextInt(200));
+            List<NlmLock> expected = all.stream()
+                    .filter(l -> l.isOverlappingRange(query))
+                    .collect(Collectors.toList());
+            assertEquals(new HashSet<>(expected), new HashSet<>(tree.getOverlapping(query)));
+        }
+    }
+
+    private static NlmLock lockOf(String owner, long offset, long length) {
+        return new LockBuilder()
+                .withOwner(owner)
+                .from(offset)
+                .length(length)
+                .forRead()
+                .build();
+    }
+}
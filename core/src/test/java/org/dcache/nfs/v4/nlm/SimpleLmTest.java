@@ -471,6 +471,16 @@ public class SimpleLmTest {
             return this;
         }
 
+        LockBuilder forReadWait() {
+            this.lockType = nfs_lock_type4.READW_LT;
+            return this;
+        }
+
+        LockBuilder forWriteWait() {
+            this.lockType = nfs_lock_type4.WRITEW_LT;
+            return this;
+        }
+
         NlmLock build() {
             return new NlmLock(owner, lockType, offset, length);
         }
@@ -2,13 +2,20 @@ package org.dcache.nfs.vfs;
 
 import static org.junit.Assert.*;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.NavigableSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.dcache.nfs.v4.xdr.verifier4;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.Iterators;
 import com.google.common.primitives.Ints;
 
 /**
@@ -98,4 +105,82 @@ public class DirectoryStreamTest {
             assertTrue(e.getName().startsWith("aFILE"));
         }
     }
+
+    @Test
+    public void testCursorSeekToTail() throws IOException {
+        List<Long> seeks = new ArrayList<>();
+        DirectoryStream lazy = new DirectoryStream(stream.getVerifier(), c -> {
+            seeks.add(c);
+            return stream.tail(c).iterator();
+        });
+
+        try (DirectoryStream tail = lazy.tail(3).tail(5)) {
+            assertEquals(6, tail.iterator().next().getCookie());
+        }
+        assertEquals(List.of(5L), seeks);
+    }
+
+    @Test
+    public void testCloseIterators() throws IOException {
+        AtomicInteger closed = new AtomicInteger();
+        DirectoryStream lazy = new DirectoryStream(stream.getVerifier(), c -> new CloseableIterator(
+                stream.tail(c).iterator(), closed));
+
+        DirectoryStream transformed = lazy.tail(3)
+                .transform(d -> new DirectoryEntry(d.getName().toUpperCase(), d.getInode(), d.getStat(),
+                        d.getCookie()));
+        DirectoryEntry next = transformed.iterator().next();
+        assertEquals("FILE-4", next.getName());
+
+        transformed.close();
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    public void testMaterializeReadsCursorOnce() throws IOException {
+        AtomicInteger seeks = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        DirectoryStream lazy = new DirectoryStream(stream.getVerifier(), c -> {
+            seeks.incrementAndGet();
+            return new CloseableIterator(stream.tail(c).iterator(), closed);
+        });
+
+        DirectoryStream materialized = lazy.materialize();
+        assertEquals(1, closed.get());
+
+        materialized.tail(5).iterator().next();
+        assertEquals(10, Iterators.size(materialized.iterator()));
+        assertEquals(1, seeks.get());
+    }
+
+    @Test
+    public void testMaterializeKeepsMaterializedStream() throws IOException {
+        assertSame(stream, stream.materialize());
+    }
+
+    private static class CloseableIterator implements Iterator<DirectoryEntry>, Closeable {
+
+        private final Iterator<DirectoryEntry> inner;
+        private final AtomicInteger closed;
+
+        CloseableIterator(Iterator<DirectoryEntry> inner, AtomicInteger closed) {
+            this.inner = inner;
+            this.closed = closed;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return inner.hasNext();
+        }
+
+        @Override
+        public DirectoryEntry next() {
+            return inner.next();
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
 }
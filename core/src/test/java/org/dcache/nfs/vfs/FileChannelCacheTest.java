@@ -0,0 +1,118 @@
+package org.dcache.nfs.vfs;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileChannelCacheTest {
+
+    private FileChannelCache cache;
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("file-channel-cache");
+        cache = new FileChannelCache(2, Duration.ofHours(1));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cache.close();
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void shouldReuseOpenChannel() throws IOException {
+        Path file = givenFile("file");
+        Inode inode = inode(1);
+
+        FileChannel channel;
+        try (FileChannelCache.Lease lease = cache.acquire(inode, file, false)) {
+            channel = lease.channel();
+        }
+
+        try (FileChannelCache.Lease lease = cache.acquire(inode, file, false)) {
+            assertSame(channel, lease.channel());
+            assertTrue(channel.isOpen());
+        }
+    }
+
+    @Test
+    public void shouldKeepInvalidatedChannelOpenWhileInUse() throws IOException {
+        Path file = givenFile("file");
+        Inode inode = inode(1);
+
+        FileChannelCache.Lease lease = cache.acquire(inode, file, true);
+        cache.invalidate(inode);
+        assertTrue(lease.channel().isOpen());
+
+        lease.close();
+        assertFalse(lease.channel().isOpen());
+
+        try (FileChannelCache.Lease other = cache.acquire(inode, file, true)) {
+            assertNotSame(lease.channel(), other.channel());
+        }
+    }
+
+    @Test
+    public void shouldCloseLeastRecentlyUsedIdleChannelOverLimit() throws Exception {
+        FileChannel first;
+        try (FileChannelCache.Lease lease = cache.acquire(inode(1), givenFile("file1"), false)) {
+            first = lease.channel();
+        }
+        FileChannelCache.Lease second = cache.acquire(inode(2), givenFile("file2"), false);
+        FileChannelCache.Lease third = cache.acquire(inode(3), givenFile("file3"), false);
+
+        // excessive channels are closed in the background
+        long deadline = System.currentTimeMillis() + 1000;
+        while (first.isOpen() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertFalse(first.isOpen());
+        assertTrue(second.channel().isOpen());
+        assertTrue(third.channel().isOpen());
+        second.close();
+        third.close();
+    }
+
+    @Test
+    public void shouldNotCloseChannelsInUseOverLimit() throws Exception {
+        FileChannelCache.Lease first = cache.acquire(inode(1), givenFile("file1"), false);
+        FileChannelCache.Lease second = cache.acquire(inode(2), givenFile("file2"), false);
+        FileChannelCache.Lease third = cache.acquire(inode(3), givenFile("file3"), false);
+
+        Thread.sleep(100);
+
+        assertTrue(first.channel().isOpen());
+        assertTrue(second.channel().isOpen());
+        assertTrue(third.channel().isOpen());
+        first.close();
+        second.close();
+        third.close();
+    }
+
+    private Path givenFile(String name) throws IOException {
+        return Files.createFile(dir.resolve(name));
+    }
+
+    private static Inode inode(int id) {
+        return Inode.forFile(new byte[] {(byte) id});
+    }
+}
@@ -419,6 +419,64 @@ public class PseudoFsTest {
         pseudoFs.mkdir(pseudoRoot, "bar", ROOT, 0755);
     }
 
+    @Test
+    public void testShareTreeBetweenRequests() throws IOException {
+
+        given(mockedTransport.getRemoteSocketAddress()).willReturn(localAddress);
+        given(mockedAuth.getSubject()).willReturn(ROOT);
+        given(mockedRpc.getTransport()).willReturn(mockedTransport);
+        given(mockedRpc.getCredential()).willReturn(mockedAuth);
+
+        vfs.mkdir(fsRoot, "foo", ROOT, 0755);
+        FsExport export = new FsExport.FsExportBuilder()
+                .rw()
+                .trusted()
+                .withoutAcl()
+                .withSec(FsExport.Sec.NONE)
+                .build("/foo");
+
+        given(mockedExportFile.exports(localAddress.getAddress())).willAnswer(x -> Stream.of(export));
+        VirtualFileSystem spy = spy(vfs);
+        PseudoFsTreeCache treeCache = new PseudoFsTreeCache();
+
+        pseudoFs = new PseudoFs(spy, mockedRpc, mockedExportFile, treeCache);
+        pseudoFs.lookup(pseudoFs.getRootInode(), "foo");
+        pseudoFs = new PseudoFs(spy, mockedRpc, mockedExportFile, treeCache);
+        pseudoFs.lookup(pseudoFs.getRootInode(), "foo");
+
+        verify(spy, times(1)).lookup(fsRoot, "foo");
+    }
+
+    @Test
+    public void testRebuildTreeOnExportChange() throws IOException {
+
+        given(mockedTransport.getRemoteSocketAddress()).willReturn(localAddress);
+        given(mockedAuth.getSubject()).willReturn(ROOT);
+        given(mockedRpc.getTransport()).willReturn(mockedTransport);
+        given(mockedRpc.getCredential()).willReturn(mockedAuth);
+
+        vfs.mkdir(fsRoot, "foo", ROOT, 0755);
+        FsExport export = new FsExport.FsExportBuilder()
+                .rw()
+                .trusted()
+                .withoutAcl()
+                .withSec(FsExport.Sec.NONE)
+                .build("/foo");
+
+        given(mockedExportFile.exports(localAddress.getAddress())).willAnswer(x -> Stream.of(export));
+        VirtualFileSystem spy = spy(vfs);
+        PseudoFsTreeCache treeCache = new PseudoFsTreeCache();
+
+        given(mockedExportFile.version()).willReturn(1L);
+        pseudoFs = new PseudoFs(spy, mockedRpc, mockedExportFile, treeCache);
+        pseudoFs.lookup(pseudoFs.getRootInode(), "foo");
+        given(mockedExportFile.version()).willReturn(2L);
+        pseudoFs = new PseudoFs(spy, mockedRpc, mockedExportFile, treeCache);
+        pseudoFs.lookup(pseudoFs.getRootInode(), "foo");
+
+        verify(spy, times(2)).lookup(fsRoot, "foo");
+    }
+
     @Test(expected = AccessException.class)
     public void testRejectRoExportModification() throws IOException {
 
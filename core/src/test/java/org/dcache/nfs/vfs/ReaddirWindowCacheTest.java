@@ -0,0 +1,54 @@
+package org.dcache.nfs.vfs;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.Subject;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReaddirWindowCacheTest {
+
+    private VirtualFileSystem vfs;
+    private Inode dir;
+
+    @Before
+    public void setUp() throws IOException {
+        vfs = new DummyVFS();
+        dir = vfs.mkdir(vfs.getRootInode(), "dir", new Subject(), 0750);
+        for (int i = 0; i < 5; i++) {
+            vfs.create(dir, Stat.Type.REGULAR, "file" + i, new Subject(), 0640);
+        }
+    }
+
+    @Test
+    public void shouldDropEvictedWindowsFromIndex() throws IOException {
+
+        ReaddirWindowCache cache = new ReaddirWindowCache(vfs, 2, 1, 1, TimeUnit.MINUTES);
+
+        int count = 0;
+        for (DirectoryEntry entry : cache.list(dir, DirectoryStream.ZERO_VERIFIER, 0L)) {
+            count++;
+        }
+
+        assertEquals(5, count);
+        assertEquals(1, cache.getCache().size());
+        assertEquals(1, cache.getIndexedWindows());
+    }
+
+    @Test
+    public void shouldDropInvalidatedWindowsFromIndex() throws IOException {
+
+        ReaddirWindowCache cache = new ReaddirWindowCache(vfs, 2, 10, 1, TimeUnit.MINUTES);
+        cache.list(dir, DirectoryStream.ZERO_VERIFIER, 0L).forEach(e -> {
+        });
+
+        cache.invalidate(dir);
+
+        assertEquals(0, cache.getCache().size());
+        assertEquals(0, cache.getIndexedWindows());
+    }
+}
@@ -1,12 +1,20 @@
 package org.dcache.nfs.vfs;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.security.auth.Subject;
 
+import org.dcache.nfs.status.NoEntException;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.junit.Before;
 import org.junit.Test;
@@ -25,13 +33,19 @@ public class VfsCacheTest {
         vfs = spy(new DummyVFS());
         root = vfs.getRootInode();
 
+        vfsCache = new VfsCache(vfs, cacheConfig());
+    }
+
+    private static VfsCacheConfig cacheConfig() {
         VfsCacheConfig cacheConfig = new VfsCacheConfig();
         cacheConfig.setMaxEntries(5);
         cacheConfig.setReaddirMaxEntries(5);
         cacheConfig.setLifeTime(1);
         cacheConfig.setReaddirLifeTime(1);
         cacheConfig.setFsStatLifeTime(1);
-        vfsCache = new VfsCache(vfs, cacheConfig);
+        cacheConfig.setNegativeMaxEntries(5);
+        cacheConfig.setNegativeLifeTime(1);
+        return cacheConfig;
     }
 
     @Test
@@ -66,6 +80,34 @@ public class VfsCacheTest {
         verify(vfs, times(1)).getattr(root);
     }
 
+    @Test
+    public void shouldPopulateStatCacheInBulk() throws IOException {
+
+        Inode foo = createFile(root, "foo");
+        Inode bar = createFile(root, "bar");
+
+        Map<Inode, Stat> stats = vfsCache.getattrs(List.of(foo, bar));
+        assertEquals(2, stats.size());
+
+        vfsCache.getattr(foo);
+        vfsCache.getattr(bar);
+        verify(vfs, times(1)).getattrs(anyCollection());
+        // only the calls made by the bulk request
+        verify(vfs, times(1)).getattr(foo);
+        verify(vfs, times(1)).getattr(bar);
+    }
+
+    @Test
+    public void shouldFetchOnlyMissingStatInBulk() throws IOException {
+
+        Inode foo = createFile(root, "foo");
+        Inode bar = createFile(root, "bar");
+
+        vfsCache.getattr(foo);
+        vfsCache.getattrs(List.of(foo, bar));
+        verify(vfs).getattrs(List.of(bar));
+    }
+
     @Test
     public void shouldWriteThrough() throws IOException {
 
@@ -244,6 +286,208 @@ public class VfsCacheTest {
         verify(vfs, times(2)).list(root, DirectoryStream.ZERO_VERIFIER, 0L);
     }
 
+    @Test
+    public void shouldCacheFailedLookup() throws IOException {
+
+        lookupMissing(root, "foo");
+        lookupMissing(root, "foo");
+        verify(vfs, times(1)).lookup(root, "foo");
+    }
+
+    @Test
+    public void shouldInvalidateFailedLookupOnCreate() throws IOException {
+
+        lookupMissing(root, "foo");
+        vfsCache.create(root, Stat.Type.REGULAR, "foo", subject, 0640);
+        vfsCache.lookup(root, "foo");
+    }
+
+    @Test
+    public void shouldInvalidateFailedLookupOnMkDir() throws IOException {
+
+        lookupMissing(root, "foo");
+        vfsCache.mkdir(root, "foo", subject, 0750);
+        vfsCache.lookup(root, "foo");
+    }
+
+    @Test
+    public void shouldInvalidateFailedLookupOnSymlink() throws IOException {
+
+        createFile(root, "foo");
+        lookupMissing(root, "bar");
+        vfsCache.symlink(root, "bar", "foo", subject, 0640);
+        vfsCache.lookup(root, "bar");
+    }
+
+    @Test
+    public void shouldInvalidateFailedLookupOnLink() throws IOException {
+
+        Inode file = createFile(root, "foo");
+        lookupMissing(root, "bar");
+        vfsCache.link(root, file, "bar", subject);
+        vfsCache.lookup(root, "bar");
+    }
+
+    @Test
+    public void shouldInvalidateFailedLookupOnMove() throws IOException {
+
+        Inode dir = createDir(root, "dir");
+        createFile(root, "foo");
+        lookupMissing(dir, "bar");
+        vfsCache.move(root, "foo", dir, "bar");
+        vfsCache.lookup(dir, "bar");
+    }
+
+    @Test
+    public void shouldCacheFailedLookupOnChangeInOtherDirectory() throws IOException {
+
+        Inode dir = createDir(root, "dir");
+        AtomicInteger created = new AtomicInteger();
+        doAnswer(i -> {
+            // name space change while the lookup is in progress
+            vfsCache.create(dir, Stat.Type.REGULAR, "bar" + created.incrementAndGet(), subject, 0640);
+            return i.callRealMethod();
+        }).when(vfs).lookup(root, "foo");
+
+        lookupMissing(root, "foo");
+        lookupMissing(root, "foo");
+        verify(vfs, times(1)).lookup(root, "foo");
+    }
+
+    @Test
+    public void shouldNotCacheFailedLookupOnChangeInSameDirectory() throws IOException {
+
+        AtomicInteger created = new AtomicInteger();
+        doAnswer(i -> {
+            // name space change while the lookup is in progress
+            vfsCache.create(root, Stat.Type.REGULAR, "bar" + created.incrementAndGet(), subject, 0640);
+            return i.callRealMethod();
+        }).when(vfs).lookup(root, "foo");
+
+        lookupMissing(root, "foo");
+        lookupMissing(root, "foo");
+        verify(vfs, times(2)).lookup(root, "foo");
+    }
+
+    @Test
+    public void shouldInvalidateDirectoryLookups() throws IOException {
+
+        lookupMissing(root, "foo");
+        createFile(root, "foo");
+        vfsCache.invalidateLookupCache(root);
+        vfsCache.lookup(root, "foo");
+    }
+
+    @Test
+    public void shouldApplyRemoteStatInvalidation() throws IOException {
+
+        CacheInvalidationChannel channel = new LocalCacheInvalidationChannel();
+        VfsCache cache1 = new VfsCache(vfs, cacheConfig(), channel);
+        VfsCache cache2 = new VfsCache(vfs, cacheConfig(), channel);
+
+        cache2.getattr(root);
+        cache1.setattr(root, new Stat());
+        cache2.getattr(root);
+
+        verify(vfs, times(2)).getattr(root);
+    }
+
+    @Test
+    public void shouldApplyRemoteLookupInvalidation() throws IOException {
+
+        CacheInvalidationChannel channel = new LocalCacheInvalidationChannel();
+        VfsCache cache1 = new VfsCache(vfs, cacheConfig(), channel);
+        vfsCache = new VfsCache(vfs, cacheConfig(), channel);
+
+        lookupMissing(root, "foo");
+        cache1.create(root, Stat.Type.REGULAR, "foo", subject, 0640);
+        vfsCache.lookup(root, "foo");
+    }
+
+    @Test
+    public void shouldSkipOwnInvalidation() throws IOException {
+
+        CacheInvalidationChannel channel = new LocalCacheInvalidationChannel();
+        vfsCache = new VfsCache(vfs, cacheConfig(), channel);
+
+        vfsCache.create(root, Stat.Type.REGULAR, "foo", subject, 0640);
+        vfsCache.lookup(root, "foo");
+
+        verify(vfs, never()).lookup(root, "foo");
+    }
+
+    @Test
+    public void shouldListAllEntriesThroughWindows() throws IOException {
+
+        Inode dir = givenDirectory(5);
+        vfsCache = new VfsCache(vfs, windowedCacheConfig());
+
+        assertEquals(5, entries(vfsCache.list(dir, DirectoryStream.ZERO_VERIFIER, 0L)).size());
+        assertEquals(5, entries(vfsCache.list(dir, DirectoryStream.ZERO_VERIFIER, 0L)).size());
+
+        // windows of 2, 2 and 1 entries loaded once
+        verify(vfs, times(3)).list(eq(dir), any(), anyLong());
+    }
+
+    @Test
+    public void shouldLoadOnlyRequestedWindowsOnColdCache() throws IOException {
+
+        Inode dir = givenDirectory(5);
+        vfsCache = new VfsCache(vfs, windowedCacheConfig());
+
+        List<DirectoryEntry> entries = entries(vfsCache.list(dir, DirectoryStream.ZERO_VERIFIER, 4L));
+
+        assertEquals(3, entries.size());
+        assertEquals(5L, entries.get(0).getCookie());
+        verify(vfs).list(dir, DirectoryStream.ZERO_VERIFIER, 4L);
+        verify(vfs, never()).list(dir, DirectoryStream.ZERO_VERIFIER, 0L);
+    }
+
+    @Test
+    public void shouldServeCookieWithinCachedWindow() throws IOException {
+
+        Inode dir = givenDirectory(5);
+        vfsCache = new VfsCache(vfs, windowedCacheConfig());
+
+        entries(vfsCache.list(dir, DirectoryStream.ZERO_VERIFIER, 0L));
+        List<DirectoryEntry> entries = entries(vfsCache.list(dir, DirectoryStream.ZERO_VERIFIER, 5L));
+
+        assertEquals(2, entries.size());
+        assertEquals(6L, entries.get(0).getCookie());
+        verify(vfs, never()).list(dir, DirectoryStream.ZERO_VERIFIER, 5L);
+    }
+
+    private Inode givenDirectory(int size) throws IOException {
+        Inode dir = createDir(root, "dir");
+        for (int i = 0; i < size; i++) {
+            createFile(dir, "file" + i);
+        }
+        return dir;
+    }
+
+    private static VfsCacheConfig windowedCacheConfig() {
+        VfsCacheConfig cacheConfig = cacheConfig();
+        cacheConfig.setReaddirWindowSize(2);
+        cacheConfig.setReaddirLifeTime(1);
+        cacheConfig.setReaddirLifeTimeUnit(TimeUnit.MINUTES);
+        return cacheConfig;
+    }
+
+    private static List<DirectoryEntry> entries(DirectoryStream stream) {
+        List<DirectoryEntry> entries = new ArrayList<>();
+        stream.forEach(entries::add);
+        return entries;
+    }
+
+    private void lookupMissing(Inode parent, String name) throws IOException {
+        try {
+            vfsCache.lookup(parent, name);
+            fail("lookup of missing entry succeeded");
+        } catch (NoEntException e) {
+            // expected
+        }
+    }
+
     private Inode createFile(Inode parent, String name) throws IOException {
         return vfs.create(parent, Stat.Type.REGULAR, name, subject, 0640);
     }
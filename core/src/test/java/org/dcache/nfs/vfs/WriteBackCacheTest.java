@@ -0,0 +1,269 @@
+package org.dcache.nfs.vfs;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import org.dcache.nfs.status.DelayException;
+import org.dcache.nfs.vfs.VirtualFileSystem.StabilityLevel;
+import org.dcache.nfs.vfs.VirtualFileSystem.WriteResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WriteBackCacheTest {
+
+    private VirtualFileSystem vfs;
+    private WriteBackCache writeBackCache;
+    private Inode inode;
+    private ByteBuffer written;
+
+    @Before
+    public void setUp() throws IOException {
+        vfs = mock(VirtualFileSystem.class);
+        inode = Inode.forFile(new byte[] {1, 2, 3, 4});
+        written = ByteBuffer.allocate(1024 * 1024);
+
+        when(vfs.write(any(), any(ByteBuffer.class), anyLong(), any())).thenAnswer(i -> {
+            ByteBuffer data = i.getArgument(1);
+            long offset = i.getArgument(2);
+            int n = data.remaining();
+            written.put((int) offset, data, data.position(), n);
+            return new WriteResult(StabilityLevel.UNSTABLE, n);
+        });
+
+        writeBackCache = new WriteBackCache(vfs, 64 * 1024, 256 * 1024, Duration.ofHours(1));
+    }
+
+    @After
+    public void tearDown() {
+        writeBackCache.shutdown();
+    }
+
+    @Test
+    public void shouldBufferUnstableWrites() throws IOException {
+        var result = writeBackCache.write(inode, data("hello"), 0, StabilityLevel.UNSTABLE);
+
+        assertEquals(StabilityLevel.UNSTABLE, result.getStabilityLevel());
+        assertEquals(5, result.getBytesWritten());
+        verify(vfs, never()).write(any(), any(ByteBuffer.class), anyLong(), any());
+    }
+
+    @Test
+    public void shouldWriteThroughStableWrites() throws IOException {
+        writeBackCache.write(inode, data("hello"), 0, StabilityLevel.FILE_SYNC);
+        verify(vfs).write(eq(inode), any(ByteBuffer.class), eq(0L), eq(StabilityLevel.FILE_SYNC));
+    }
+
+    @Test
+    public void shouldCoalesceAdjacentWritesOnCommit() throws IOException {
+        writeBackCache.write(inode, data("hello "), 0, StabilityLevel.UNSTABLE);
+        writeBackCache.write(inode, data("world"), 6, StabilityLevel.UNSTABLE);
+        writeBackCache.commit(inode, 0, 0);
+
+        verify(vfs, times(1)).write(eq(inode), any(ByteBuffer.class), eq(0L), eq(StabilityLevel.UNSTABLE));
+        verify(vfs).commit(inode, 0, 0);
+        assertContent("hello world", 0);
+        assertEquals(0, writeBackCache.getDirtyBytes());
+    }
+
+    @Test
+    public void shouldMergeOverlappingWrites() throws IOException {
+        writeBackCache.write(inode, data("world"), 6, StabilityLevel.UNSTABLE);
+        writeBackCache.write(inode, data("hello wo"), 0, StabilityLevel.UNSTABLE);
+        writeBackCache.write(inode, data("W"), 6, StabilityLevel.UNSTABLE);
+        writeBackCache.commit(inode, 0, 0);
+
+        verify(vfs, times(1)).write(eq(inode), any(ByteBuffer.class), anyLong(), eq(StabilityLevel.UNSTABLE));
+        assertContent("hello World", 0);
+    }
+
+    @Test
+    public void shouldKeepDisjointRanges() throws IOException {
+        writeBackCache.write(inode, data("foo"), 0, StabilityLevel.UNSTABLE);
+        writeBackCache.write(inode, data("bar"), 10, StabilityLevel.UNSTABLE);
+        writeBackCache.commit(inode, 0, 0);
+
+        verify(vfs).write(eq(inode), any(ByteBuffer.class), eq(0L), eq(StabilityLevel.UNSTABLE));
+        verify(vfs).write(eq(inode), any(ByteBuffer.class), eq(10L), eq(StabilityLevel.UNSTABLE));
+        assertContent("foo", 0);
+        assertContent("bar", 10);
+    }
+
+    @Test
+    public void shouldFlushBeforeRead() throws IOException {
+        writeBackCache.write(inode, data("hello"), 0, StabilityLevel.UNSTABLE);
+        writeBackCache.read(inode, ByteBuffer.allocate(5), 0);
+
+        verify(vfs).write(eq(inode), any(ByteBuffer.class), eq(0L), eq(StabilityLevel.UNSTABLE));
+    }
+
+    @Test
+    public void shouldReportBufferedSize() throws IOException {
+        Stat stat = new Stat();
+        stat.setSize(2);
+        when(vfs.getattr(inode)).thenReturn(stat);
+
+        writeBackCache.write(inode, data("hello"), 0, StabilityLevel.UNSTABLE);
+        assertEquals(5, writeBackCache.getattr(inode).getSize());
+        assertEquals("backend stat modified", 2, stat.getSize());
+    }
+
+    @Test
+    public void shouldFlushOnMemoryPressure() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            // disjoint 64KB ranges
+            writeBackCache.write(inode, ByteBuffer.allocate(64 * 1024), i * 128 * 1024, StabilityLevel.UNSTABLE);
+        }
+        verify(vfs, timeout(1000).times(5)).write(eq(inode), any(ByteBuffer.class), anyLong(),
+                eq(StabilityLevel.UNSTABLE));
+
+        long deadline = System.currentTimeMillis() + 1000;
+        while (writeBackCache.getDirtyBytes() != 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, writeBackCache.getDirtyBytes());
+    }
+
+    @Test
+    public void shouldDelayWritesWhileOverLimit() throws IOException {
+        when(vfs.write(any(), any(ByteBuffer.class), anyLong(), any())).thenThrow(new IOException("disk full"));
+
+        for (int i = 0; i < 5; i++) {
+            writeBackCache.write(inode, ByteBuffer.allocate(64 * 1024), i * 128 * 1024, StabilityLevel.UNSTABLE);
+        }
+
+        try {
+            writeBackCache.write(inode, data("hello"), 0, StabilityLevel.UNSTABLE);
+            fail("Write accepted while over the buffer limit");
+        } catch (DelayException e) {
+            // expected
+        }
+        assertTrue(writeBackCache.getDirtyBytes() > 256 * 1024);
+    }
+
+    @Test
+    public void shouldReportBufferedModification() throws IOException {
+        Stat stat = new Stat();
+        stat.setSize(5);
+        stat.setMTime(1);
+        stat.setCTime(1);
+        stat.setGeneration(7);
+        when(vfs.getattr(inode)).thenReturn(stat);
+
+        writeBackCache.write(inode, data("hello"), 0, StabilityLevel.UNSTABLE);
+        Stat buffered = writeBackCache.getattr(inode);
+
+        assertTrue(buffered.getMTime() > 1);
+        assertTrue(buffered.getCTime() > 1);
+        assertTrue(buffered.getGeneration() > 7);
+        assertEquals("backend stat modified", 1, stat.getMTime());
+    }
+
+    @Test
+    public void shouldNotDecreaseChangeAfterFlush() throws IOException {
+        Stat stat = new Stat();
+        stat.setSize(0);
+        stat.setMTime(1);
+        stat.setCTime(1);
+        stat.setGeneration(7);
+        when(vfs.getattr(inode)).thenReturn(stat);
+
+        writeBackCache.write(inode, data("a"), 0, StabilityLevel.UNSTABLE);
+        writeBackCache.write(inode, data("b"), 1, StabilityLevel.UNSTABLE);
+        writeBackCache.write(inode, data("c"), 2, StabilityLevel.UNSTABLE);
+        long beforeFlush = writeBackCache.getattr(inode).getGeneration();
+
+        writeBackCache.commit(inode, 0, 0);
+        // the backend has seen a single write out of the three buffered ones
+        stat.setGeneration(8);
+        long afterFlush = writeBackCache.getattr(inode).getGeneration();
+        assertTrue(afterFlush > beforeFlush);
+        assertEquals(afterFlush, writeBackCache.getattr(inode).getGeneration());
+
+        writeBackCache.write(inode, data("d"), 3, StabilityLevel.UNSTABLE);
+        long afterWrite = writeBackCache.getattr(inode).getGeneration();
+        assertTrue(afterWrite > afterFlush);
+
+        writeBackCache.commit(inode, 0, 0);
+        stat.setGeneration(afterWrite + 10);
+        assertEquals(afterWrite + 10, writeBackCache.getattr(inode).getGeneration());
+    }
+
+    @Test
+    public void shouldFlushOnTimeout() throws IOException {
+        writeBackCache.shutdown();
+        writeBackCache = new WriteBackCache(vfs, 64 * 1024, 256 * 1024, Duration.ofMillis(20));
+
+        writeBackCache.write(inode, data("hello"), 0, StabilityLevel.UNSTABLE);
+        verify(vfs, timeout(1000)).write(eq(inode), any(ByteBuffer.class), eq(0L), eq(StabilityLevel.UNSTABLE));
+    }
+
+    @Test
+    public void shouldFailCommitWhileWriteBackFails() throws IOException {
+        when(vfs.write(any(), any(ByteBuffer.class), anyLong(), any())).thenThrow(new IOException("disk full"));
+
+        writeBackCache.write(inode, data("hello"), 0, StabilityLevel.UNSTABLE);
+        for (int i = 0; i < 2; i++) {
+            try {
+                writeBackCache.commit(inode, 0, 0);
+                fail("Failed write-back not reported");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+        verify(vfs, never()).commit(any(), anyLong(), eq(0));
+    }
+
+    @Test
+    public void shouldRetryFailedWriteBack() throws IOException {
+        when(vfs.write(any(), any(ByteBuffer.class), anyLong(), any()))
+                .thenThrow(new IOException("disk full"))
+                .thenAnswer(i -> {
+                    ByteBuffer data = i.getArgument(1);
+                    long offset = i.getArgument(2);
+                    int n = data.remaining();
+                    written.put((int) offset, data, data.position(), n);
+                    return new WriteResult(StabilityLevel.UNSTABLE, n);
+                });
+
+        writeBackCache.write(inode, data("hello"), 0, StabilityLevel.UNSTABLE);
+        try {
+            writeBackCache.read(inode, ByteBuffer.allocate(5), 0);
+            fail("Read of not written data must fail");
+        } catch (IOException e) {
+            // expected
+        }
+        verify(vfs, never()).read(any(), any(ByteBuffer.class), anyLong());
+
+        writeBackCache.commit(inode, 0, 0);
+        verify(vfs).commit(inode, 0, 0);
+        assertContent("hello", 0);
+        assertEquals(0, writeBackCache.getDirtyBytes());
+    }
+
+    private static ByteBuffer data(String s) {
+        return ByteBuffer.wrap(s.getBytes(UTF_8));
+    }
+
+    private void assertContent(String expected, int offset) {
+        byte[] b = new byte[expected.length()];
+        written.get(offset, b);
+        assertArrayEquals(expected.getBytes(UTF_8), b);
+    }
+}
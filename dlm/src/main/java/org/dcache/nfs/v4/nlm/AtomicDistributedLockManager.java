@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4.nlm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.dcache.nfs.util.Opaque;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.map.IMap;
+
+/**
+ * An implementation of {@link LockManager} which keeps all locks of a file as a single value of Hazelcast's
+ * distributed {@link IMap}. Each lock operation, including conflict detection, merge and split, is executed by an
+ * {@link EntryProcessor} on the member that owns the file's entry. Thus, every operation is a single atomic remote
+ * call, compared to {@link DistributedLockManager}, which needs a remote call to lock the entry and one per each lock
+ * added or removed.
+ * <p>
+ * The file ids are used as map keys in their binary form. As entry processors are executed by cluster members, this
+ * class must be available on the members' classpath.
+ * <p>
+ * Example:
+ *
+ * <pre>
+ *   HazelcastInstance hz = ...;
+ *   LockManager lm1 = new AtomicDistributedLockManager(hz, "distributed-byte-range-lock");
+ *   LockManager lm2 = new AtomicDistributedLockManager(hz, "distributed-byte-range-lock");
+ * </pre>
+ *
+ * @since 0.28
+ */
+public class AtomicDistributedLockManager implements LockManager {
+
+    private final IMap<byte[], ArrayList<NlmLock>> locks;
+
+    /**
+     * Create a new {@code AtomicDistributedLockManager} with a given {@code name}. The other instances with the same
+     * name will share the same back-end store and, as a result, will see the same set of locks.
+     *
+     * @param hz reference to Haselcast instance.
+     * @param name name of the lock manager.
+     */
+    public AtomicDistributedLockManager(HazelcastInstance hz, String name) {
+        locks = hz.getMap(name);
+    }
+
+    @Override
+    public void lock(Opaque objId, NlmLock lock) throws LockException {
+        execute(objId, Operation.LOCK, lock);
+    }
+
+    @Override
+    public void unlock(Opaque objId, NlmLock lock) throws LockException {
+        execute(objId, Operation.UNLOCK, lock);
+    }
+
+    @Override
+    public void test(Opaque objId, NlmLock lock) throws LockException {
+        execute(objId, Operation.TEST, lock);
+    }
+
+    @Override
+    public void unlockIfExists(Opaque objId, NlmLock lock) {
+        locks.executeOnKey(objIdToKey(objId), new LockProcessor(Operation.UNLOCK_IF_EXISTS, lock));
+    }
+
+    private void execute(Opaque objId, Operation operation, NlmLock lock) throws LockException {
+        LockException e = locks.executeOnKey(objIdToKey(objId), new LockProcessor(operation, lock));
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    private static byte[] objIdToKey(Opaque objId) {
+        return objId.toBytes();
+    }
+
+    private enum Operation {
+        LOCK, UNLOCK, TEST, UNLOCK_IF_EXISTS
+    }
+
+    /**
+     * Executes a lock operation on the file's locks. The processor returns the {@link LockException} thrown by the
+     * operation, if any, as exceptions thrown by entry processors are wrapped by Hazelcast.
+     */
+    private static class LockProcessor implements EntryProcessor<byte[], ArrayList<NlmLock>, LockException> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Operation operation;
+        private final NlmLock lock;
+
+        LockProcessor(Operation operation, NlmLock lock) {
+            this.operation = operation;
+            this.lock = lock;
+        }
+
+        @Override
+        public LockException process(Map.Entry<byte[], ArrayList<NlmLock>> entry) {
+
+            ArrayList<NlmLock> current = entry.getValue();
+            LockListManager lm = new LockListManager(current == null ? new ArrayList<>() : current);
+            Opaque objId = Opaque.forBytes(entry.getKey());
+
+            try {
+                switch (operation) {
+                    case LOCK:
+                        lm.lock(objId, lock);
+                        break;
+                    case UNLOCK:
+                        lm.unlock(objId, lock);
+                        break;
+                    case TEST:
+                        lm.test(objId, lock);
+                        break;
+                    case UNLOCK_IF_EXISTS:
+                        lm.unlockIfExists(objId, lock);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unsupported operation: " + operation);
+                }
+            } catch (LockException e) {
+                return e;
+            }
+
+            if (lm.isModified()) {
+                // an empty value removes the entry
+                entry.setValue(lm.locks.isEmpty() ? null : lm.locks);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A lock manager of a single file, which operates on file's lock list.
+     */
+    private static class LockListManager extends AbstractLockManager {
+
+        private final Lock noLock = new ReentrantLock();
+        private final ArrayList<NlmLock> locks;
+        private boolean modified;
+
+        LockListManager(ArrayList<NlmLock> locks) {
+            this.locks = locks;
+        }
+
+        boolean isModified() {
+            return modified;
+        }
+
+        @Override
+        protected Lock getObjectLock(Opaque objId) {
+            // the entry processor has exclusive access to the entry
+            return noLock;
+        }
+
+        @Override
+        protected Collection<NlmLock> getActiveLocks(Opaque objId) {
+            return locks;
+        }
+
+        @Override
+        protected void add(Opaque objId, NlmLock lock) {
+            modified = true;
+            locks.add(lock);
+        }
+
+        @Override
+        protected boolean remove(Opaque objId, NlmLock lock) {
+            boolean isRemoved = locks.remove(lock);
+            modified |= isRemoved;
+            return isRemoved;
+        }
+
+        @Override
+        protected void addAll(Opaque objId, Collection<NlmLock> locks) {
+            modified |= this.locks.addAll(locks);
+        }
+
+        @Override
+        protected void removeAll(Opaque objId, Collection<NlmLock> locks) {
+            modified |= this.locks.removeAll(locks);
+        }
+    }
+}
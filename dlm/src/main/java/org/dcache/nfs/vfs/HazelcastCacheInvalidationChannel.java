@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import java.util.function.Consumer;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+
+/**
+ * An implementation of {@link CacheInvalidationChannel} which uses Hazelcast's distributed {@link ITopic}.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>
+ *   HazelcastInstance hz = ...;
+ *   VfsCache cache = new VfsCache(vfs, config, new HazelcastCacheInvalidationChannel(hz, "vfs-cache-invalidation"));
+ * </pre>
+ *
+ * All caches, which use a channel with the same name, see each other's invalidations as long as they connected to the
+ * same Hazelcast cluster.
+ *
+ * @since 0.28
+ */
+public class HazelcastCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    private final ITopic<CacheInvalidation> topic;
+
+    /**
+     * Create a new {@code HazelcastCacheInvalidationChannel} with a given {@code name}.
+     *
+     * @param hz reference to Haselcast instance.
+     * @param name name of the channel.
+     */
+    public HazelcastCacheInvalidationChannel(HazelcastInstance hz, String name) {
+        topic = hz.getTopic(name);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        topic.publish(invalidation);
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        topic.addMessageListener(m -> listener.accept(m.getMessageObject()));
+    }
+}
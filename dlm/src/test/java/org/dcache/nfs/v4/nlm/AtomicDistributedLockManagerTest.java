@@ -0,0 +1,138 @@
+package org.dcache.nfs.v4.nlm;
+
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.dcache.nfs.util.Opaque;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+public class AtomicDistributedLockManagerTest {
+
+    private HazelcastInstance hzSerrver;
+    private HazelcastInstance hzClient;
+    private LockManager lm1;
+    private LockManager lm2;
+    private Opaque file1;
+
+    @Before
+    public void setUp() throws Exception {
+
+        file1 = Opaque.forBytes("file1".getBytes(StandardCharsets.UTF_8));
+
+        hzSerrver = Hazelcast.newHazelcastInstance();
+
+        ClientConfig config = new ClientConfig();
+        config.getNetworkConfig().setAddresses(Arrays.asList(
+                "127.0.0.1:" + hzSerrver.getCluster().getLocalMember().getAddress().getPort()));
+
+        config.setClusterName(hzSerrver.getConfig().getClusterName());
+        hzClient = HazelcastClient.newHazelcastClient(config);
+        lm1 = new AtomicDistributedLockManager(hzClient, "atomic-byte-range-lock");
+        lm2 = new AtomicDistributedLockManager(hzClient, "atomic-byte-range-lock");
+    }
+
+    @Test(expected = LockDeniedException.class)
+    public void testConflictingLockDifferentOwner() throws LockException {
+        NlmLock lock1 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(0)
+                .length(1)
+                .forRead()
+                .build();
+        lm1.lock(file1, lock1);
+
+        NlmLock lock2 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner2")
+                .from(0)
+                .length(1)
+                .forWrite()
+                .build();
+        lm2.lock(file1, lock2);
+    }
+
+    @Test
+    public void testLockAfterUnlock() throws LockException {
+        NlmLock lock1 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(0)
+                .length(10)
+                .forWrite()
+                .build();
+        lm1.lock(file1, lock1);
+        lm1.unlock(file1, lock1);
+
+        NlmLock lock2 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner2")
+                .from(0)
+                .length(10)
+                .forWrite()
+                .build();
+        lm2.lock(file1, lock2);
+    }
+
+    @Test
+    public void testSplitOnPartialUnlock() throws LockException {
+        NlmLock lock1 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(0)
+                .length(10)
+                .forWrite()
+                .build();
+        lm1.lock(file1, lock1);
+
+        NlmLock unlock = new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(0)
+                .length(5)
+                .forWrite()
+                .build();
+        lm1.unlock(file1, unlock);
+
+        NlmLock lock2 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner2")
+                .from(0)
+                .length(5)
+                .forWrite()
+                .build();
+        lm2.lock(file1, lock2);
+
+        try {
+            NlmLock lock3 = new SimpleLmTest.LockBuilder()
+                    .withOwner("owner2")
+                    .from(5)
+                    .length(5)
+                    .forWrite()
+                    .build();
+            lm2.test(file1, lock3);
+            fail("Remaining lock range is lost");
+        } catch (LockDeniedException e) {
+            // pass
+        }
+    }
+
+    @Test(expected = LockRangeUnavailabeException.class)
+    public void testUnlockNotExisting() throws LockException {
+        NlmLock lock1 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(0)
+                .length(10)
+                .forWrite()
+                .build();
+        lm1.unlock(file1, lock1);
+    }
+
+    @After
+    public void tearDown() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+}
@@ -0,0 +1,107 @@
+package org.dcache.nfs.vfs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.Subject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+public class HazelcastCacheInvalidationChannelTest {
+
+    private static final String CHANNEL = "vfs-cache-invalidation";
+
+    private HazelcastInstance hzMember1;
+    private HazelcastInstance hzMember2;
+
+    @Before
+    public void setUp() throws Exception {
+        Config config = new Config();
+        config.setClusterName("vfs-cache-invalidation-test-" + UUID.randomUUID());
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getAutoDetectionConfig().setEnabled(false);
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+
+        hzMember1 = Hazelcast.newHazelcastInstance(config);
+        hzMember2 = Hazelcast.newHazelcastInstance(config);
+        assertEquals("members did not join", 2, hzMember1.getCluster().getMembers().size());
+    }
+
+    @Test
+    public void shouldDeliverToOtherMember() throws Exception {
+        CacheInvalidationChannel channel1 = new HazelcastCacheInvalidationChannel(hzMember1, CHANNEL);
+        CacheInvalidationChannel channel2 = new HazelcastCacheInvalidationChannel(hzMember2, CHANNEL);
+
+        BlockingQueue<CacheInvalidation> received = new LinkedBlockingQueue<>();
+        channel1.subscribe(received::add);
+
+        Inode inode = Inode.forFile(new byte[] {0, 0, 0, 1});
+        CacheInvalidation invalidation = new CacheInvalidation(UUID.randomUUID(),
+                List.of(CacheInvalidation.stat(inode)));
+        channel2.publish(invalidation);
+
+        CacheInvalidation delivered = received.poll(10, TimeUnit.SECONDS);
+        assertNotNull("invalidation not delivered", delivered);
+        assertEquals(invalidation.getOrigin(), delivered.getOrigin());
+        assertEquals(CacheInvalidation.Kind.STAT, delivered.getEntries().get(0).kind());
+    }
+
+    @Test
+    public void shouldInvalidateCacheOnOtherMember() throws Exception {
+        // both caches front the same file system
+        VirtualFileSystem vfs = new DummyVFS();
+        Inode file = vfs.create(vfs.getRootInode(), Stat.Type.REGULAR, "file", new Subject(), 0644);
+
+        VfsCache cache1 = new VfsCache(vfs, cacheConfig(), new HazelcastCacheInvalidationChannel(hzMember1, CHANNEL));
+        VfsCache cache2 = new VfsCache(vfs, cacheConfig(), new HazelcastCacheInvalidationChannel(hzMember2, CHANNEL));
+
+        assertEquals(0644, cache1.getattr(file).getMode() & 0777);
+
+        Stat stat = new Stat();
+        stat.setMode(0600);
+        cache2.setattr(file, stat);
+
+        assertEquals(0600, awaitMode(cache1, file, 0600));
+    }
+
+    @After
+    public void tearDown() {
+        Hazelcast.shutdownAll();
+    }
+
+    private static VfsCacheConfig cacheConfig() {
+        VfsCacheConfig cacheConfig = new VfsCacheConfig();
+        // entries must not expire while the test runs
+        cacheConfig.setLifeTime(1);
+        cacheConfig.setTimeUnit(TimeUnit.HOURS);
+        return cacheConfig;
+    }
+
+    /**
+     * Wait until the cached file mode matches the expected one, as invalidations are delivered asynchronously.
+     */
+    private static int awaitMode(VfsCache cache, Inode inode, int expected) throws IOException,
+            InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        int mode;
+        while ((mode = cache.getattr(inode).getMode() & 0777) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return mode;
+    }
+}